@@ -0,0 +1,26 @@
+package com.amalitech.hospitalmanagementsystem.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entry point of {@code benchmarks.jar}: the JMH command line, except that results are also written
+ * as JSON to {@code jmh-result.json} in the working directory unless {@code -rf}/{@code -rff} is
+ * given. The file is what regression tracking compares between runs (e.g. with jmh.morethan.io or
+ * by archiving it per commit in CI).
+ */
+public final class BenchmarkMain {
+
+    static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    private BenchmarkMain() {}
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        if (!jmhArgs.contains("-rf") && !jmhArgs.contains("-rff") && !jmhArgs.contains("-h")) {
+            jmhArgs.addAll(0, List.of("-rf", "json", "-rff", DEFAULT_RESULT_FILE));
+        }
+        org.openjdk.jmh.Main.main(jmhArgs.toArray(String[]::new));
+    }
+}
@@ -0,0 +1,95 @@
+package com.amalitech.hospitalmanagementsystem.benchmarks;
+
+import com.amalitech.hospitalmanagementsystem.model.Patient;
+import com.amalitech.hospitalmanagementsystem.util.Columns;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.control.TableColumn.CellDataFeatures;
+import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.util.Callback;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one scroll step in the patient table: every cell of a {@link #VISIBLE_ROWS}-row viewport
+ * asks its column for a value, as TableView does when new rows scroll into view.
+ * Compares the reflective {@code PropertyValueFactory} with the typed {@link Columns} factories.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CellValueFactoryBenchmark {
+
+    private static final int VISIBLE_ROWS = 40;
+
+    @Param({"50000"})
+    public int rows;
+
+    private Patient[] patients;
+    private List<Callback<CellDataFeatures<Patient, Object>, ObservableValue<Object>>> reflective;
+    private List<Callback<CellDataFeatures<Patient, Object>, ObservableValue<Object>>> typed;
+    private int top;
+
+    @Setup
+    public void setUp() {
+        patients = new Patient[rows];
+        for (int i = 0; i < rows; i++) {
+            Patient p = new Patient();
+            p.setId((long) i + 1);
+            p.setFirstName("First" + i);
+            p.setLastName("Last" + i);
+            p.setGender(i % 2 == 0 ? "F" : "M");
+            p.setDateOfBirth(LocalDate.of(1950, 1, 1).plusDays(i % 20_000));
+            p.setPhone("+23320" + (1_000_000 + i));
+            p.setEmail("patient" + i + "@example.com");
+            p.setAddress(i + " Independence Ave, Accra");
+            patients[i] = p;
+        }
+        // the patient table's eight columns
+        reflective = List.of(
+                new PropertyValueFactory<>("id"),
+                new PropertyValueFactory<>("firstName"),
+                new PropertyValueFactory<>("lastName"),
+                new PropertyValueFactory<>("gender"),
+                new PropertyValueFactory<>("dateOfBirth"),
+                new PropertyValueFactory<>("phone"),
+                new PropertyValueFactory<>("email"),
+                new PropertyValueFactory<>("address"));
+        typed = List.of(
+                Columns.valueOf(Patient::getId),
+                Columns.valueOf(Patient::getFirstName),
+                Columns.valueOf(Patient::getLastName),
+                Columns.valueOf(Patient::getGender),
+                Columns.valueOf(Patient::getDateOfBirth),
+                Columns.valueOf(Patient::getPhone),
+                Columns.valueOf(Patient::getEmail),
+                Columns.valueOf(Patient::getAddress));
+    }
+
+    @Benchmark
+    public void propertyValueFactory(Blackhole bh) {
+        scroll(reflective, bh);
+    }
+
+    @Benchmark
+    public void typedColumns(Blackhole bh) {
+        scroll(typed, bh);
+    }
+
+    private void scroll(List<Callback<CellDataFeatures<Patient, Object>, ObservableValue<Object>>> columns,
+                        Blackhole bh) {
+        top = (top + VISIBLE_ROWS) % (rows - VISIBLE_ROWS);
+        for (int r = top; r < top + VISIBLE_ROWS; r++) {
+            CellDataFeatures<Patient, Object> cell = new CellDataFeatures<>(null, null, patients[r]);
+            for (Callback<CellDataFeatures<Patient, Object>, ObservableValue<Object>> column : columns) {
+                bh.consume(column.call(cell).getValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.amalitech.hospitalmanagementsystem.benchmarks;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory {@link ResultSet} over fixed rows, so the DAO row mappers can be measured without a
+ * database. Supports what the mappers use: {@code next}, the by-label getters and {@code wasNull}.
+ * Column lookup goes through a hash map, as PgJDBC's {@code findColumn} does; {@link #rewind()}
+ * starts over so one instance serves every benchmark invocation.
+ */
+public final class FakeResultSet {
+
+    private final Map<String, Integer> columns = new HashMap<>();
+    private final Object[][] rows;
+    private final ResultSet proxy;
+    private int cursor = -1;
+    private boolean lastWasNull;
+
+    public FakeResultSet(String[] columnLabels, Object[][] rows) {
+        for (int i = 0; i < columnLabels.length; i++) columns.put(columnLabels[i], i);
+        this.rows = rows;
+        this.proxy = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, (p, method, args) -> switch (method.getName()) {
+                    case "next" -> ++cursor < rows.length;
+                    case "wasNull" -> lastWasNull;
+                    case "close" -> null;
+                    case "isClosed" -> false;
+                    case "getString" -> value(args[0]) == null ? null : value(args[0]).toString();
+                    case "getLong" -> value(args[0]) instanceof Number n ? n.longValue() : 0L;
+                    case "getInt" -> value(args[0]) instanceof Number n ? n.intValue() : 0;
+                    case "getBigDecimal" -> (BigDecimal) value(args[0]);
+                    case "getDate" -> (Date) value(args[0]);
+                    case "getTimestamp" -> (Timestamp) value(args[0]);
+                    case "getObject" -> value(args[0]);
+                    case "hashCode" -> System.identityHashCode(p);
+                    case "equals" -> p == args[0];
+                    case "toString" -> "FakeResultSet[" + rows.length + " rows]";
+                    default -> throw new SQLException("Not supported by FakeResultSet: " + method.getName());
+                });
+    }
+
+    public ResultSet resultSet() {
+        return proxy;
+    }
+
+    public int size() {
+        return rows.length;
+    }
+
+    public void rewind() {
+        cursor = -1;
+    }
+
+    private Object value(Object column) throws SQLException {
+        Integer index = column instanceof Integer i ? Integer.valueOf(i - 1) : columns.get((String) column);
+        if (index == null) throw new SQLException("Unknown column: " + column);
+        Object v = rows[cursor][index];
+        lastWasNull = v == null;
+        return v;
+    }
+}
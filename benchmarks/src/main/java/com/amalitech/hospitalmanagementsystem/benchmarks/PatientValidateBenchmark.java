@@ -0,0 +1,54 @@
+package com.amalitech.hospitalmanagementsystem.benchmarks;
+
+import com.amalitech.hospitalmanagementsystem.model.Patient;
+import com.amalitech.hospitalmanagementsystem.service.impl.PatientServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PatientServiceImpl#validate(Patient)} per patient, as run for every row of a registration
+ * or a CSV import: once for valid input and once for input rejected on the last (email) check.
+ * Validation needs no DAO, so the service is built without one.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PatientValidateBenchmark {
+
+    private static final int PATIENTS = 1_024;
+
+    private final PatientServiceImpl service = new PatientServiceImpl(null);
+    private List<Patient> valid;
+    private List<Patient> badEmail;
+
+    @Setup
+    public void setUp() {
+        valid = SampleData.patients(PATIENTS);
+        badEmail = SampleData.patients(PATIENTS);
+        for (Patient p : badEmail) p.setEmail(p.getEmail().replace('@', ' '));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PATIENTS)
+    public void valid() {
+        for (Patient p : valid) service.validate(p);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PATIENTS)
+    public void invalidEmail(Blackhole bh) {
+        for (Patient p : badEmail) {
+            try {
+                service.validate(p);
+            } catch (IllegalArgumentException e) {
+                bh.consume(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.amalitech.hospitalmanagementsystem.benchmarks;
+
+import com.amalitech.hospitalmanagementsystem.model.Appointment;
+import com.amalitech.hospitalmanagementsystem.model.InventoryItem;
+import com.amalitech.hospitalmanagementsystem.model.Patient;
+import com.amalitech.hospitalmanagementsystem.model.PatientFeedback;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic, realistic-looking rows for the benchmarks; the same seed gives the same data on
+ * every run, so results stay comparable between runs.
+ */
+public final class SampleData {
+
+    private static final String[] FIRST = {"Ama", "Kofi", "Esi", "Kwame", "Akosua", "Yaw", "Abena", "Kojo"};
+    private static final String[] LAST = {"Mensah", "Owusu", "Boateng", "Asante", "Osei", "Agyeman", "Addo"};
+    private static final String[] SEXES = {"M", "F", "F", "M", "Other"};
+    private static final String[] STATUSES = {"SCHEDULED", "COMPLETED", "CANCELLED"};
+    private static final String[] CATEGORIES = {"Analgesics", "Antibiotics", "Consumables", "Vaccines", "Diagnostics"};
+    static final LocalDateTime EPOCH = LocalDateTime.of(2024, 1, 1, 8, 0);
+
+    private SampleData() {}
+
+    public static List<Patient> patients(int n) {
+        SplittableRandom r = new SplittableRandom(1);
+        List<Patient> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Patient p = new Patient();
+            p.setId((long) i + 1);
+            p.setFirstName(FIRST[r.nextInt(FIRST.length)]);
+            p.setLastName(LAST[r.nextInt(LAST.length)]);
+            p.setGender(SEXES[r.nextInt(SEXES.length)]);
+            p.setDateOfBirth(LocalDate.of(1940, 1, 1).plusDays(r.nextInt(30_000)));
+            p.setPhone("+233 20 " + (1_000_000 + r.nextInt(9_000_000)));
+            p.setEmail("patient" + i + "@example.com");
+            p.setAddress(r.nextInt(500) + " Independence Ave, Accra");
+            out.add(p);
+        }
+        return out;
+    }
+
+    public static List<Appointment> appointments(int n) {
+        SplittableRandom r = new SplittableRandom(2);
+        List<Appointment> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Appointment a = new Appointment();
+            a.setAppointmentId((long) i + 1);
+            a.setPatientId(1L + r.nextInt(50_000));
+            a.setDoctorId(1L + r.nextInt(200));
+            a.setAppointmentDate(EPOCH.plusDays(r.nextInt(730)).plusMinutes(30L * r.nextInt(16)));
+            a.setStatus(STATUSES[r.nextInt(STATUSES.length)]);
+            a.setReason("Follow-up visit");
+            a.setCreatedAt(EPOCH);
+            out.add(a);
+        }
+        return out;
+    }
+
+    public static List<PatientFeedback> feedback(int n) {
+        SplittableRandom r = new SplittableRandom(3);
+        List<PatientFeedback> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            PatientFeedback f = new PatientFeedback();
+            f.setFeedbackId((long) i + 1);
+            f.setPatientId(1L + r.nextInt(50_000));
+            f.setDoctorId(r.nextInt(10) == 0 ? null : 1L + r.nextInt(200));
+            f.setRating(1 + r.nextInt(5));
+            f.setComments("Friendly staff, short wait");
+            f.setCreatedAt(EPOCH.plusDays(r.nextInt(730)));
+            out.add(f);
+        }
+        return out;
+    }
+
+    public static List<InventoryItem> inventory(int n) {
+        SplittableRandom r = new SplittableRandom(4);
+        List<InventoryItem> out = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            InventoryItem it = new InventoryItem();
+            it.setItemId((long) i + 1);
+            it.setName("Item " + i);
+            it.setCategory(CATEGORIES[r.nextInt(CATEGORIES.length)]);
+            it.setQuantity(r.nextInt(200));
+            it.setUnit("box");
+            it.setReorderLevel(20 + r.nextInt(30));
+            it.setUpdatedAt(EPOCH);
+            out.add(it);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,118 @@
+package com.amalitech.hospitalmanagementsystem.dao.impl;
+
+import com.amalitech.hospitalmanagementsystem.benchmarks.FakeResultSet;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Cost of turning one {@code ResultSet} row into a model in each DAO, measured over an in-memory
+ * result set (see {@link FakeResultSet}) so no database is needed. Lives in the DAO package to
+ * reach the package-private row mappers; the score is per row.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RowMappingBenchmark {
+
+    private static final int ROWS = 1_000;
+    private static final Timestamp TS = Timestamp.valueOf(LocalDateTime.of(2024, 5, 14, 9, 30));
+
+    @FunctionalInterface
+    private interface Mapper {
+        Object map(ResultSet rs) throws SQLException;
+    }
+
+    @Param({"patients", "doctors", "departments", "appointments", "prescriptions", "prescription_items",
+            "patient_feedback", "medical_inventory"})
+    public String table;
+
+    private FakeResultSet rows;
+    private Mapper mapper;
+
+    @Setup
+    public void setUp() {
+        switch (table) {
+            case "patients" -> {
+                PatientDaoImpl dao = new PatientDaoImpl();
+                mapper = dao::mapRow;
+                rows = rows(new String[]{"patient_id", "first_name", "last_name", "sex", "date_of_birth",
+                        "phone", "email", "address"}, i -> new Object[]{(long) i, "Ama", "Mensah" + i, "F",
+                        Date.valueOf(LocalDate.of(1980, 1, 1).plusDays(i)), "+233 20 555 0101",
+                        "patient" + i + "@example.com", "12 Independence Ave, Accra"});
+            }
+            case "doctors" -> {
+                DoctorDaoImpl dao = new DoctorDaoImpl();
+                mapper = dao::mapRow;
+                rows = rows(new String[]{"doctor_id", "first_name", "last_name", "specialization", "department_id",
+                        "phone", "email"}, i -> new Object[]{(long) i, "Kofi", "Owusu" + i, "Cardiology",
+                        i % 10 == 0 ? null : (long) (i % 12), "+233 24 555 0102", "doctor" + i + "@example.com"});
+            }
+            case "departments" -> {
+                DepartmentDaoImpl dao = new DepartmentDaoImpl();
+                mapper = dao::mapRow;
+                rows = rows(new String[]{"department_id", "name", "description"},
+                        i -> new Object[]{(long) i, "Department " + i, "Outpatient and inpatient care"});
+            }
+            case "appointments" -> {
+                AppointmentDaoImpl dao = new AppointmentDaoImpl();
+                mapper = dao::map;
+                rows = rows(new String[]{"appointment_id", "patient_id", "doctor_id", "appointment_date", "status",
+                        "reason", "created_at"}, i -> new Object[]{(long) i, (long) i * 7, (long) i % 200, TS,
+                        "SCHEDULED", "Follow-up visit", TS});
+            }
+            case "prescriptions" -> {
+                PrescriptionDaoImpl dao = new PrescriptionDaoImpl();
+                mapper = dao::map;
+                rows = rows(new String[]{"prescription_id", "patient_id", "doctor_id", "issued_at", "notes"},
+                        i -> new Object[]{(long) i, (long) i * 7, (long) i % 200, TS, "Take with food"});
+            }
+            case "prescription_items" -> {
+                PrescriptionItemDaoImpl dao = new PrescriptionItemDaoImpl();
+                mapper = dao::map;
+                rows = rows(new String[]{"item_id", "prescription_id", "medication_name", "dosage", "frequency",
+                        "duration_days", "instructions"}, i -> new Object[]{(long) i, (long) i / 3, "Amoxicillin",
+                        "500 mg", "3x daily", 7, "Complete the course"});
+            }
+            case "patient_feedback" -> {
+                PatientFeedbackDaoImpl dao = new PatientFeedbackDaoImpl();
+                mapper = dao::map;
+                rows = rows(new String[]{"feedback_id", "patient_id", "doctor_id", "rating", "comments",
+                        "created_at"}, i -> new Object[]{(long) i, (long) i * 7, i % 10 == 0 ? null : (long) i % 200,
+                        1 + i % 5, "Friendly staff, short wait", TS});
+            }
+            case "medical_inventory" -> {
+                InventoryDaoImpl dao = new InventoryDaoImpl();
+                mapper = dao::map;
+                rows = rows(new String[]{"item_id", "name", "category", "quantity", "unit", "reorder_level",
+                        "updated_at"}, i -> new Object[]{(long) i, "Item " + i, "Analgesics", i % 200, "box", 25, TS});
+            }
+            default -> throw new IllegalArgumentException("Unknown table: " + table);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void mapRows(Blackhole bh) throws SQLException {
+        rows.rewind();
+        ResultSet rs = rows.resultSet();
+        while (rs.next()) bh.consume(mapper.map(rs));
+    }
+
+    private static FakeResultSet rows(String[] columns, IntFunction<Object[]> row) {
+        Object[][] data = new Object[ROWS][];
+        for (int i = 0; i < ROWS; i++) data[i] = row.apply(i + 1);
+        return new FakeResultSet(columns, data);
+    }
+}
@@ -0,0 +1,117 @@
+package com.amalitech.hospitalmanagementsystem.nosql;
+
+import com.mongodb.MongoClientSettings;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding patient notes from the BSON bytes the driver receives, per note:
+ * <ul>
+ *   <li>{@code documentPath}: the previous mapping, bytes to {@link Document} to {@link PatientNote},
+ *       with {@code createdAt} stored as an ISO string and parsed back;</li>
+ *   <li>{@code codec}: {@link PatientNoteCodec} straight from bytes, with {@code createdAt} as a
+ *       BSON date.</li>
+ * </ul>
+ * Needs no MongoDB server; lives in the repository's package to reach the package-private codec.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PatientNoteDecodeBenchmark {
+
+    private static final int NOTES = 1_000;
+    private static final DecoderContext DECODE = DecoderContext.builder().build();
+
+    private final Codec<Document> documentCodec = MongoClientSettings.getDefaultCodecRegistry().get(Document.class);
+    private final PatientNoteCodec noteCodec = new PatientNoteCodec();
+    private List<ByteBuffer> legacyBson;
+    private List<ByteBuffer> codecBson;
+
+    @Setup
+    public void setUp() {
+        legacyBson = new ArrayList<>(NOTES);
+        codecBson = new ArrayList<>(NOTES);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 8, 0, 0, 250_000_000);
+        for (int i = 0; i < NOTES; i++) {
+            PatientNote n = new PatientNote();
+            n.setId(new ObjectId());
+            n.setPatientId((long) i % 500 + 1);
+            n.setDoctorId((long) i % 40 + 1);
+            n.setNoteType(i % 3 == 0 ? "Diagnosis" : "Observation");
+            n.setContent("Patient reports mild headache and fatigue for three days; BP 128/84, temp 37.2C. "
+                    + "Advised rest, fluids and review in one week. Note " + i);
+            n.setTags(List.of("follow-up", "outpatient"));
+            n.setCreatedAt(start.plusSeconds(1_017L * i));
+            legacyBson.add(bytes(documentCodec, legacyDoc(n)));
+            codecBson.add(bytes(noteCodec, n));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NOTES)
+    public void documentPath(Blackhole bh) {
+        for (ByteBuffer b : legacyBson) {
+            Document d = documentCodec.decode(new BsonBinaryReader(b.duplicate()), DECODE);
+            bh.consume(legacyFromDoc(d));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NOTES)
+    public void codec(Blackhole bh) {
+        for (ByteBuffer b : codecBson) {
+            bh.consume(noteCodec.decode(new BsonBinaryReader(b.duplicate()), DECODE));
+        }
+    }
+
+    private static <T> ByteBuffer bytes(Codec<T> codec, T value) {
+        BasicOutputBuffer out = new BasicOutputBuffer();
+        try (BsonBinaryWriter w = new BsonBinaryWriter(out)) {
+            codec.encode(w, value, EncoderContext.builder().build());
+        }
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+
+    // The Document mapping PatientNoteRepository used before PatientNoteCodec
+    private static Document legacyDoc(PatientNote n) {
+        return new Document()
+                .append("_id", n.getId())
+                .append("patientId", n.getPatientId())
+                .append("doctorId", n.getDoctorId())
+                .append("noteType", n.getNoteType())
+                .append("content", n.getContent())
+                .append("tags", n.getTags())
+                .append("createdAt", n.getCreatedAt().toString());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static PatientNote legacyFromDoc(Document d) {
+        PatientNote n = new PatientNote();
+        n.setId(d.getObjectId("_id"));
+        n.setPatientId(d.getLong("patientId"));
+        n.setDoctorId(d.getLong("doctorId"));
+        n.setNoteType(d.getString("noteType"));
+        n.setContent(d.getString("content"));
+        n.setTags((List<String>) d.get("tags"));
+        String ts = d.getString("createdAt");
+        n.setCreatedAt(ts == null ? null : LocalDateTime.parse(ts));
+        return n;
+    }
+}
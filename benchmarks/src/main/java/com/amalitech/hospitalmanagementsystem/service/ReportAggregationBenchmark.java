@@ -0,0 +1,46 @@
+package com.amalitech.hospitalmanagementsystem.service;
+
+import com.amalitech.hospitalmanagementsystem.benchmarks.SampleData;
+import com.amalitech.hospitalmanagementsystem.model.Appointment;
+import com.amalitech.hospitalmanagementsystem.model.InventoryItem;
+import com.amalitech.hospitalmanagementsystem.model.Patient;
+import com.amalitech.hospitalmanagementsystem.model.PatientFeedback;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building the Reports histograms (patients by sex, appointments per day, feedback by rating,
+ * low stock per category) from {@code rows} rows per table, i.e. the in-memory part of an
+ * {@link AnalyticsEngine} bootstrap without the JDBC streaming.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ReportAggregationBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private List<Patient> patients;
+    private List<Appointment> appointments;
+    private List<PatientFeedback> feedback;
+    private List<InventoryItem> inventory;
+
+    @Setup
+    public void setUp() {
+        patients = SampleData.patients(rows);
+        appointments = SampleData.appointments(rows);
+        feedback = SampleData.feedback(rows);
+        inventory = SampleData.inventory(rows);
+    }
+
+    @Benchmark
+    public AnalyticsEngine.Snapshot aggregate() {
+        return AnalyticsEngine.aggregate(patients, appointments, feedback, inventory);
+    }
+}
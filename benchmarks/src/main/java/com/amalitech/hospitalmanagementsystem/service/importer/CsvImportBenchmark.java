@@ -0,0 +1,63 @@
+package com.amalitech.hospitalmanagementsystem.service.importer;
+
+import com.amalitech.hospitalmanagementsystem.benchmarks.SampleData;
+import com.amalitech.hospitalmanagementsystem.model.Patient;
+import com.amalitech.hospitalmanagementsystem.service.impl.PatientServiceImpl;
+import com.amalitech.hospitalmanagementsystem.util.CsvReader;
+import com.amalitech.hospitalmanagementsystem.util.CsvWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The CPU side of {@link CsvImporter} per patient row: CSV parsing, {@code parse}, {@code validate}
+ * and building the COPY payload, as done for every row before a chunk is sent. The file is
+ * generated in memory and the COPY itself is left out, so no database is needed.
+ * Sits in the importer's package to reach {@link CsvRecord}'s package-private constructor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CsvImportBenchmark {
+
+    private static final int ROWS = CsvImporter.CHUNK_SIZE;
+
+    private final ImportSpec<Patient> spec = ImportSpecs.patients(new PatientServiceImpl(null));
+    private final StringBuilder copyBuffer = new StringBuilder();
+    private String csv;
+
+    @Setup
+    public void setUp() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        CsvWriter.writeRow(sb, List.of("first_name", "last_name", "sex", "date_of_birth", "phone", "email", "address"));
+        for (Patient p : SampleData.patients(ROWS)) {
+            CsvWriter.writeRow(sb, List.of(p.getFirstName(), p.getLastName(), p.getGender(),
+                    p.getDateOfBirth().toString(), p.getPhone(), p.getEmail(), p.getAddress()));
+        }
+        csv = sb.toString();
+    }
+
+    /** One chunk, read to a COPY payload; returns the payload length so nothing is optimised away. */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int chunk() throws IOException {
+        copyBuffer.setLength(0);
+        try (CsvReader reader = new CsvReader(new StringReader(csv))) {
+            CsvRecord record = new CsvRecord(reader.next());
+            List<String> fields;
+            while ((fields = reader.next()) != null) {
+                record.set(fields);
+                Patient p = spec.parse(record);
+                spec.validate(p);
+                CsvWriter.writeRow(copyBuffer, spec.copyValues(p));
+            }
+        }
+        return copyBuffer.length();
+    }
+}
@@ -27,11 +27,20 @@ public class HelloApplication extends Application {
         stage.setTitle("Hospital Management System");
         stage.setScene(scene);
         stage.show();
+
+        // materialized report summaries are refreshed in the background
+        com.amalitech.hospitalmanagementsystem.service.ReportRefresher.start();
+        // writes from other workstations are pushed in through LISTEN/NOTIFY
+        com.amalitech.hospitalmanagementsystem.service.ChangeFeed.start();
+        // patient note indexes and the createdAt migration are handled once, off the FX thread
+        com.amalitech.hospitalmanagementsystem.nosql.PatientNoteSetup.startOnce();
     }
 
 
     @Override
     public void stop() {
+        com.amalitech.hospitalmanagementsystem.service.ChangeFeed.stop();
+        com.amalitech.hospitalmanagementsystem.service.ReportRefresher.stop();
         System.out.println("Closing MongoDB connection...");
         com.amalitech.hospitalmanagementsystem.nosql.MongoConnectionUtil.shutdown();
     }
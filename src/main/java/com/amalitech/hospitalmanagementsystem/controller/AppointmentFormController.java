@@ -1,57 +1,121 @@
 
 package com.amalitech.hospitalmanagementsystem.controller;
 
-import com.amalitech.hospitalmanagementsystem.dao.DoctorDao;
-import com.amalitech.hospitalmanagementsystem.dao.PatientDao;
-import com.amalitech.hospitalmanagementsystem.dao.impl.DoctorDaoImpl;
-import com.amalitech.hospitalmanagementsystem.dao.impl.PatientDaoImpl;
 import com.amalitech.hospitalmanagementsystem.model.Appointment;
-import com.amalitech.hospitalmanagementsystem.model.Doctor;
-import com.amalitech.hospitalmanagementsystem.model.Patient;
+import com.amalitech.hospitalmanagementsystem.service.AppointmentService;
+import com.amalitech.hospitalmanagementsystem.service.NameDirectory;
+import com.amalitech.hospitalmanagementsystem.service.Typeahead;
+import com.amalitech.hospitalmanagementsystem.service.async.AsyncService;
+import com.amalitech.hospitalmanagementsystem.service.impl.AppointmentServiceImpl;
+import com.amalitech.hospitalmanagementsystem.util.FxAsync;
+import com.amalitech.hospitalmanagementsystem.util.LatestRequest;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.control.ComboBox;
 import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
 import javafx.scene.control.TextField;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 
 public class AppointmentFormController {
 
-    @FXML private ComboBox<Patient> patientBox;
-    @FXML private ComboBox<Doctor>  doctorBox;
+    @FXML private ComboBox<Typeahead.Match> patientBox;
+    @FXML private ComboBox<Typeahead.Match> doctorBox;
     @FXML private DatePicker        datePicker;
     @FXML private TextField         timeField;   // HH:mm
     @FXML private ComboBox<String>  statusBox;
     @FXML private TextField         reasonField;
+    @FXML private Label             availabilityLabel;
+
+    private static final int SUGGESTIONS = 20;
+    private static final DateTimeFormatter SLOT_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final AsyncService<AppointmentService> appointments = AsyncService.of(new AppointmentServiceImpl());
+    private final LatestRequest<String> availability = new LatestRequest<>();
 
     private Appointment existing;
 
     @FXML
     public void initialize() {
-        // Load patients & doctors
-        PatientDao pDao = new PatientDaoImpl();
-        DoctorDao  dDao = new DoctorDaoImpl();
-        patientBox.setItems(FXCollections.observableArrayList(pDao.findAll()));
-        doctorBox.setItems(FXCollections.observableArrayList(dDao.findAll()));
-
-        // Show names in combo boxes
-        patientBox.setConverter(new javafx.util.StringConverter<>() {
-            @Override public String toString(Patient p) {
-                return p == null ? "" : p.getFirstName() + " " + p.getLastName() + " (ID:" + p.getId() + ")";
+        // Editable pickers filtered by the in-memory typeahead index; loaded once off the FX thread,
+        // after which each keystroke is answered from memory
+        bindTypeahead(patientBox, Typeahead.patients(), "Could not load patients");
+        bindTypeahead(doctorBox, Typeahead.doctors(), "Could not load doctors");
+
+        statusBox.setItems(FXCollections.observableArrayList("SCHEDULED", "COMPLETED", "CANCELLED"));
+        statusBox.getSelectionModel().select("SCHEDULED");
+
+        // Live double-booking check against the in-memory schedule index
+        doctorBox.valueProperty().addListener((obs, o, n) -> checkAvailability());
+        datePicker.valueProperty().addListener((obs, o, n) -> checkAvailability());
+        timeField.textProperty().addListener((obs, o, n) -> checkAvailability());
+        statusBox.valueProperty().addListener((obs, o, n) -> checkAvailability());
+    }
+
+    private void bindTypeahead(ComboBox<Typeahead.Match> box, Typeahead index, String failPrompt) {
+        box.setEditable(true);
+        box.setPromptText("Type name, phone or ID");
+        box.setConverter(new javafx.util.StringConverter<>() {
+            @Override public String toString(Typeahead.Match m) { return m == null ? "" : m.label(); }
+            @Override public Typeahead.Match fromString(String s) {
+                if (s == null || s.isBlank()) return null;
+                for (Typeahead.Match m : box.getItems()) {
+                    if (m.label().equals(s)) return m;
+                }
+                // typing an ID picks that row directly
+                if (s.trim().matches("\\d{1,18}")) {
+                    long id = Long.parseLong(s.trim());
+                    String label = index.labelOf(id);
+                    if (label != null) return new Typeahead.Match(id, label);
+                }
+                return null;
             }
-            @Override public Patient fromString(String s) { return null; }
         });
-        doctorBox.setConverter(new javafx.util.StringConverter<>() {
-            @Override public String toString(Doctor d) {
-                return d == null ? "" : d.getFirstName() + " " + d.getLastName() + " - " + d.getSpecialization();
+        box.getEditor().textProperty().addListener((obs, o, text) -> {
+            Typeahead.Match current = box.getValue();
+            if (current != null && current.label().equals(text)) return;   // echo of a selection
+            if (text == null || text.isBlank()) {
+                box.getItems().clear();
+                box.hide();
+                return;
             }
-            @Override public Doctor fromString(String s) { return null; }
+            box.getItems().setAll(index.query(text, SUGGESTIONS));
+            if (!box.getItems().isEmpty() && box.isFocused()) box.show();
         });
 
-        statusBox.setItems(FXCollections.observableArrayList("SCHEDULED", "COMPLETED", "CANCELLED"));
-        statusBox.getSelectionModel().select("SCHEDULED");
+        if (index.isLoaded()) return;
+        FxAsync.whenDone(AsyncService.of(index).run(Typeahead::ensureLoaded),
+                v -> selectParties(),
+                ex -> box.setPromptText(failPrompt));
+    }
+
+    private void checkAvailability() {
+        Typeahead.Match d = doctorBox.getValue();
+        LocalDate date = datePicker.getValue();
+        LocalDateTime start;
+        try {
+            start = d == null || date == null ? null : Appointment.combine(date, normalizeTime(timeField.getText()));
+        } catch (RuntimeException incompleteTime) {
+            start = null;
+        }
+        if (start == null || "CANCELLED".equals(statusBox.getValue())) {
+            availability.cancel();
+            availabilityLabel.setText("");
+            return;
+        }
+
+        Long doctorId = d.id();
+        LocalDateTime at = start;
+        Long self = existing == null ? null : existing.getAppointmentId();
+        availability.submit(appointments.call(s -> s.findConflict(doctorId, at, self).isEmpty()
+                        ? "Slot available"
+                        : "Doctor is booked at this time. Next free slot: "
+                          + s.nextFreeSlot(doctorId, at, self).format(SLOT_FMT)),
+                availabilityLabel::setText,
+                ex -> availabilityLabel.setText(""));
     }
 
 
@@ -86,17 +150,7 @@ public class AppointmentFormController {
     public void setExisting(Appointment appt) {
         this.existing = appt;
         if (appt != null) {
-            // Pre-select patient & doctor by ID
-            if (appt.getPatientId() != null) {
-                for (Patient p : patientBox.getItems()) {
-                    if (appt.getPatientId().equals(p.getId())) { patientBox.getSelectionModel().select(p); break; }
-                }
-            }
-            if (appt.getDoctorId() != null) {
-                for (Doctor d : doctorBox.getItems()) {
-                    if (appt.getDoctorId().equals(d.getId())) { doctorBox.getSelectionModel().select(d); break; }
-                }
-            }
+            selectParties();
             if (appt.getAppointmentDate() != null) {
                 datePicker.setValue(appt.getAppointmentDate().toLocalDate());
                 timeField.setText(String.format("%02d:%02d",
@@ -109,9 +163,29 @@ public class AppointmentFormController {
     }
 
 
+    // Pre-select patient & doctor by ID; until the index has loaded, fall back to the cached name
+    private void selectParties() {
+        if (existing == null) return;
+        if (existing.getPatientId() != null)
+            patientBox.setValue(matchOf(Typeahead.patients(), NameDirectory.patients(), existing.getPatientId()));
+        if (existing.getDoctorId() != null)
+            doctorBox.setValue(matchOf(Typeahead.doctors(), NameDirectory.doctors(), existing.getDoctorId()));
+    }
+
+    private static Typeahead.Match matchOf(Typeahead index, NameDirectory names, long id) {
+        String label = index.labelOf(id);
+        if (label == null) {
+            String name = names.cached(id);
+            label = (name != null ? name + " " : "") + "(ID:" + id + ")";
+        }
+        return new Typeahead.Match(id, label);
+    }
+
     public Appointment collectResult() {
-        Patient p = patientBox.getValue();
-        Doctor  d = doctorBox.getValue();
+        patientBox.commitValue();
+        doctorBox.commitValue();
+        Typeahead.Match p = patientBox.getValue();
+        Typeahead.Match d = doctorBox.getValue();
         if (p == null) throw new IllegalArgumentException("Patient is required");
         if (d == null) throw new IllegalArgumentException("Doctor is required");
 
@@ -127,8 +201,8 @@ public class AppointmentFormController {
         if (status == null || status.isBlank()) status = "SCHEDULED";
 
         Appointment out = new Appointment();
-        out.setPatientId(p.getId());
-        out.setDoctorId(d.getId());
+        out.setPatientId(p.id());
+        out.setDoctorId(d.id());
         out.setAppointmentDate(dt);
         out.setStatus(status);
         out.setReason(reasonField.getText());
@@ -1,21 +1,20 @@
 
 package com.amalitech.hospitalmanagementsystem.controller;
 
-import com.amalitech.hospitalmanagementsystem.dao.DoctorDao;
-import com.amalitech.hospitalmanagementsystem.dao.PatientDao;
-import com.amalitech.hospitalmanagementsystem.dao.impl.DoctorDaoImpl;
-import com.amalitech.hospitalmanagementsystem.dao.impl.PatientDaoImpl;
 import com.amalitech.hospitalmanagementsystem.model.Appointment;
-import com.amalitech.hospitalmanagementsystem.model.Doctor;
-import com.amalitech.hospitalmanagementsystem.model.Patient;
+import com.amalitech.hospitalmanagementsystem.service.exporter.CsvExporter;
 import com.amalitech.hospitalmanagementsystem.service.AppointmentService;
+import com.amalitech.hospitalmanagementsystem.service.NameDirectory;
+import com.amalitech.hospitalmanagementsystem.service.ChangeNotifier;
+import com.amalitech.hospitalmanagementsystem.service.async.AsyncService;
 import com.amalitech.hospitalmanagementsystem.service.impl.AppointmentServiceImpl;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import com.amalitech.hospitalmanagementsystem.util.Columns;
+import com.amalitech.hospitalmanagementsystem.util.FxAsync;
+import com.amalitech.hospitalmanagementsystem.util.KeyedObservableList;
+import com.amalitech.hospitalmanagementsystem.util.LatestRequest;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 
 import java.io.IOException;
 import java.time.LocalDateTime;
@@ -33,25 +32,32 @@ public class AppointmentTableController {
     @FXML private TableColumn<Appointment, String>         colReason;
 
     @FXML private TextField searchField;
+    @FXML private Label searchInfo;
 
     private final AppointmentService service = new AppointmentServiceImpl();
-    private final ObservableList<Appointment> data = FXCollections.observableArrayList();
+    private final AsyncService<AppointmentService> async = AsyncService.of(service);
+    // refreshes are merged by id, so selection and scroll position survive them
+    private final KeyedObservableList<Appointment> data = new KeyedObservableList<>(Appointment::getAppointmentId, AppointmentTableController::sameRow);
+    private LiveRows<Appointment> live;
+    private boolean searching;   // a search result is shown; created rows are not added
+    private final LatestRequest<Loaded> loads = new LatestRequest<>();
 
-    // caches for patient/doctor display names
-    private final Map<Long, String> patientNames = new HashMap<>();
-    private final Map<Long, String> doctorNames = new HashMap<>();
+    private static final int SEARCH_LIMIT = 500;
+
+    // display names for the rows currently shown, resolved through the shared NameDirectory
+    private Map<Long, String> patientNames = Map.of();
+    private Map<Long, String> doctorNames = Map.of();
+
+    private record Loaded(List<Appointment> rows, Map<Long, String> patientNames, Map<Long, String> doctorNames) {}
 
     @FXML
     public void initialize() {
-        colId.setCellValueFactory(new PropertyValueFactory<>("appointmentId"));
-        colPatient.setCellValueFactory(new PropertyValueFactory<>("patientId"));
-        colDoctor.setCellValueFactory(new PropertyValueFactory<>("doctorId"));
-        colDateTime.setCellValueFactory(new PropertyValueFactory<>("appointmentDate"));
-        colStatus.setCellValueFactory(new PropertyValueFactory<>("status"));
-        colReason.setCellValueFactory(new PropertyValueFactory<>("reason"));
-
-        // Load names for fast mapping
-        preloadNames();
+        Columns.bind(colId, Appointment::getAppointmentId);
+        Columns.bind(colPatient, Appointment::getPatientId);
+        Columns.bind(colDoctor, Appointment::getDoctorId);
+        Columns.bind(colDateTime, Appointment::getAppointmentDate);
+        Columns.bind(colStatus, Appointment::getStatus);
+        Columns.bind(colReason, Appointment::getReason);
 
         // Render names for patient/doctor columns
         colPatient.setCellFactory(col -> new TableCell<>() {
@@ -75,57 +81,76 @@ public class AppointmentTableController {
         });
 
         apptTable.setItems(data);
-        loadAll();
+        // rows follow writes made here and on other workstations
+        live = new LiveRows<>(apptTable, data, ChangeNotifier.Entity.APPOINTMENT, Appointment.class, Appointment::getAppointmentId);
+        live.setOnBulk(this::onRefresh);
+        live.setAcceptCreated(row -> !searching);
+        live.setNewestFirst(true);
+        live.setOnRowChanged(this::resolveNames);
+        onRefresh();
     }
 
-    private void preloadNames() {
-        PatientDao pDao = new PatientDaoImpl();
-        for (Patient p : pDao.findAll()) {
-            patientNames.put(p.getId(), p.getFirstName() + " " + p.getLastName());
-        }
-        DoctorDao dDao = new DoctorDaoImpl();
-        for (Doctor d : dDao.findAll()) {
-            doctorNames.put(d.getId(), d.getFirstName() + " " + d.getLastName());
-        }
+    // Runs on the DB executor: resolves only the names these rows reference (cache misses in one batch each)
+    private static Loaded withNames(List<Appointment> rows) {
+        long[] pIds = rows.stream().map(Appointment::getPatientId).filter(Objects::nonNull).mapToLong(Long::longValue).toArray();
+        long[] dIds = rows.stream().map(Appointment::getDoctorId).filter(Objects::nonNull).mapToLong(Long::longValue).toArray();
+        return new Loaded(rows, NameDirectory.patients().resolve(pIds), NameDirectory.doctors().resolve(dIds));
+    }
+
+    private void show(Loaded loaded) {
+        boolean renamed = !loaded.patientNames().equals(patientNames) || !loaded.doctorNames().equals(doctorNames);
+        patientNames = loaded.patientNames();
+        doctorNames = loaded.doctorNames();
+        data.merge(loaded.rows());
+        // a full page means there may be more matches than are shown
+        searchInfo.setText(searching && loaded.rows().size() == SEARCH_LIMIT
+                ? "Showing the first " + SEARCH_LIMIT + " matches; refine the search to see the rest" : "");
+        if (renamed) apptTable.refresh();   // unchanged rows are not repainted by the merge
+    }
+
+    // a row added or changed in place may reference a patient or doctor not resolved yet
+    private void resolveNames(Appointment row) {
+        boolean known = (row.getPatientId() == null || patientNames.containsKey(row.getPatientId()))
+                && (row.getDoctorId() == null || doctorNames.containsKey(row.getDoctorId()));
+        if (known) return;
+        FxAsync.whenDone(async.call(s -> withNames(List.of(row))), loaded -> {
+            Map<Long, String> p = new HashMap<>(patientNames);
+            p.putAll(loaded.patientNames());
+            Map<Long, String> d = new HashMap<>(doctorNames);
+            d.putAll(loaded.doctorNames());
+            patientNames = p;
+            doctorNames = d;
+            apptTable.refresh();
+        }, ex -> { });   // the cells fall back to "ID:n"
     }
 
     private void loadAll() {
-        data.setAll(service.getAll());
+        searching = false;
+        loads.submit(async.call(s -> withNames(s.getAll())), this::show, this::showLoadError);
     }
 
-    @FXML private void onRefresh() { preloadNames(); loadAll(); }
+    @FXML private void onRefresh() { loadAll(); }
+
+    @FXML private void onExport() {
+        CsvExportDialog.show(apptTable.getScene().getWindow(), CsvExporter.Source.APPOINTMENTS);
+    }
 
     @FXML
     private void onSearch() {
         String term = searchField.getText();
         if (term == null || term.isBlank()) { loadAll(); return; }
-        String t = term.toLowerCase();
-
-        List<Appointment> filtered = new ArrayList<>();
-        for (Appointment a : service.getAll()) {
-            String pName = patientNames.getOrDefault(a.getPatientId(), "");
-            String dName = doctorNames.getOrDefault(a.getDoctorId(), "");
-            if (pName.toLowerCase().contains(t) ||
-                    dName.toLowerCase().contains(t) ||
-                    (a.getStatus() != null && a.getStatus().toLowerCase().contains(t)) ||
-                    (a.getReason() != null && a.getReason().toLowerCase().contains(t))) {
-                filtered.add(a);
-            }
-        }
-        data.setAll(filtered);
+
+        // filtered and limited in SQL; only the first SEARCH_LIMIT matches are shown, as searchInfo says
+        searching = true;
+        loads.submit(async.call(s -> withNames(s.search(term, SEARCH_LIMIT, 0))), this::show, this::showLoadError);
     }
 
     @FXML
     private void onAdd() {
         Optional<Appointment> result = showFormDialog(null);
-        result.ifPresent(a -> {
-            try {
-                service.create(a);
-                loadAll();
-            } catch (RuntimeException ex) {
-                showAlert(Alert.AlertType.ERROR, "Create failed", ex.getMessage());
-            }
-        });
+        result.ifPresent(a -> FxAsync.whenDone(async.call(s -> s.create(a)),
+                id -> { },   // the new row arrives through LiveRows
+                ex -> showAlert(Alert.AlertType.ERROR, "Create failed", ex.getMessage())));
     }
 
     @FXML
@@ -138,9 +163,9 @@ public class AppointmentTableController {
         Optional<Appointment> result = showFormDialog(selected);
         result.ifPresent(a -> {
             a.setAppointmentId(selected.getAppointmentId());
-            boolean ok = service.update(a);
-            if (!ok) showAlert(Alert.AlertType.ERROR, "Update failed", "Could not update the appointment");
-            loadAll();
+            FxAsync.whenDone(async.call(s -> s.update(a)), ok -> {
+                if (!ok) showAlert(Alert.AlertType.ERROR, "Update failed", "Could not update the appointment");
+            }, ex -> showAlert(Alert.AlertType.ERROR, "Update failed", ex.getMessage()));
         });
     }
 
@@ -155,9 +180,9 @@ public class AppointmentTableController {
         confirm.setHeaderText(null);
         confirm.showAndWait().ifPresent(btn -> {
             if (btn == ButtonType.YES) {
-                boolean ok = service.remove(selected.getAppointmentId());
-                if (!ok) showAlert(Alert.AlertType.ERROR, "Delete failed", "Could not delete the appointment");
-                loadAll();
+                FxAsync.whenDone(async.call(s -> s.remove(selected.getAppointmentId())), ok -> {
+                    if (!ok) showAlert(Alert.AlertType.ERROR, "Delete failed", "Could not delete the appointment");
+                }, ex -> showAlert(Alert.AlertType.ERROR, "Delete failed", ex.getMessage()));
             }
         });
     }
@@ -186,6 +211,10 @@ public class AppointmentTableController {
         }
     }
 
+    private void showLoadError(Throwable ex) {
+        showAlert(Alert.AlertType.ERROR, "Load failed", ex.getMessage());
+    }
+
     private void showAlert(Alert.AlertType type, String title, String msg) {
         Alert a = new Alert(type);
         a.setTitle(title);
@@ -193,4 +222,14 @@ public class AppointmentTableController {
         a.setContentText(msg);
         a.show();
     }
+
+    // only rows whose shown values changed are replaced (and repainted) by a merge
+    private static boolean sameRow(Appointment a, Appointment b) {
+        return Objects.equals(a.getPatientId(), b.getPatientId())
+                && Objects.equals(a.getDoctorId(), b.getDoctorId())
+                && Objects.equals(a.getAppointmentDate(), b.getAppointmentDate())
+                && Objects.equals(a.getStatus(), b.getStatus())
+                && Objects.equals(a.getReason(), b.getReason());
+    }
+
 }
@@ -0,0 +1,87 @@
+package com.amalitech.hospitalmanagementsystem.controller;
+
+import com.amalitech.hospitalmanagementsystem.service.exporter.CsvExporter;
+import com.amalitech.hospitalmanagementsystem.util.DbExecutor;
+import com.amalitech.hospitalmanagementsystem.util.FxAsync;
+import javafx.application.Platform;
+import javafx.event.ActionEvent;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import javafx.stage.Window;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/** Shared "Export CSV…" flow for the table screens: pick a file, stream the table out, allow cancel. */
+final class CsvExportDialog {
+
+    private CsvExportDialog() {}
+
+    static void show(Window owner, CsvExporter.Source source) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Export " + source.label());
+        chooser.setInitialFileName(source.label() + ".csv");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        File file = chooser.showSaveDialog(owner);
+        if (file == null) return;
+
+        Label status = new Label("Exporting " + source.label() + "…");
+        status.setWrapText(true);
+        ProgressBar bar = new ProgressBar(ProgressBar.INDETERMINATE_PROGRESS);
+        bar.setMaxWidth(Double.MAX_VALUE);
+
+        Dialog<ButtonType> dlg = new Dialog<>();
+        dlg.initOwner(owner);
+        dlg.setTitle("Export " + source.label());
+        dlg.getDialogPane().setContent(new VBox(10, status, bar));
+        dlg.getDialogPane().setPrefWidth(420);
+        dlg.getDialogPane().getButtonTypes().add(ButtonType.CANCEL);
+
+        AtomicBoolean cancelled = new AtomicBoolean();
+        AtomicBoolean finished = new AtomicBoolean();
+        Button cancel = (Button) dlg.getDialogPane().lookupButton(ButtonType.CANCEL);
+        // while running, Cancel stops the export instead of closing the dialog
+        cancel.addEventFilter(ActionEvent.ACTION, e -> {
+            if (finished.get()) return;
+            cancelled.set(true);
+            status.setText("Cancelling…");
+            e.consume();
+        });
+        dlg.show();
+
+        CompletableFuture<Long> run = CompletableFuture.supplyAsync(() -> {
+            try {
+                return CsvExporter.export(source, file.toPath(), (written, total) -> Platform.runLater(() -> {
+                    if (finished.get() || cancelled.get()) return;
+                    status.setText("Written " + written + " of " + total + " rows");
+                    bar.setProgress(total == 0 ? 1 : Math.min(1.0, (double) written / total));
+                }), cancelled::get);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, DbExecutor.get());
+
+        // not FxAsync.whenDone: that drops cancellations, and here the user needs to see them
+        run.whenComplete((rows, ex) -> Platform.runLater(() -> {
+            finished.set(true);
+            Throwable cause = ex == null ? null : FxAsync.unwrap(ex);
+            if (cause instanceof UncheckedIOException io) cause = io.getCause();
+            String msg;
+            if (cause == null) msg = "Exported " + rows + " rows to " + file;
+            else if (cause instanceof CancellationException) msg = "Export cancelled; no file was written.";
+            else msg = "Export failed: " + cause.getMessage();
+            bar.setProgress(1);
+            status.setText(msg);
+            cancel.setText("Close");
+        }));
+    }
+}
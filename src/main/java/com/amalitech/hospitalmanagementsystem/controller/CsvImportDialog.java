@@ -0,0 +1,84 @@
+package com.amalitech.hospitalmanagementsystem.controller;
+
+import com.amalitech.hospitalmanagementsystem.service.importer.CsvImporter;
+import com.amalitech.hospitalmanagementsystem.service.importer.ImportSpec;
+import com.amalitech.hospitalmanagementsystem.util.DbExecutor;
+import com.amalitech.hospitalmanagementsystem.util.FxAsync;
+import javafx.application.Platform;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.VBox;
+import javafx.stage.FileChooser;
+import javafx.stage.Window;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+
+/** Shared "Import CSV…" flow for the table screens: pick a file, stream it in, show progress. */
+final class CsvImportDialog {
+
+    private CsvImportDialog() {}
+
+    /** Runs an import of one file; called off the FX thread. */
+    @FunctionalInterface
+    interface Importer {
+        CsvImporter.Result importFile(Path source, CsvImporter.Progress progress) throws IOException;
+    }
+
+    static void show(Window owner, ImportSpec<?> spec, Runnable onImported) {
+        show(owner, spec.name(), (source, progress) -> CsvImporter.importFile(spec, source, progress), onImported);
+    }
+
+    /** @param name what is imported, plural ("patients", "patient notes") */
+    static void show(Window owner, String name, Importer importer, Runnable onImported) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Import " + name);
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV files", "*.csv"));
+        File file = chooser.showOpenDialog(owner);
+        if (file == null) return;
+
+        Label status = new Label("Reading " + file.getName() + "…");
+        status.setWrapText(true);
+        ProgressBar bar = new ProgressBar(ProgressBar.INDETERMINATE_PROGRESS);
+        bar.setMaxWidth(Double.MAX_VALUE);
+
+        Dialog<ButtonType> dlg = new Dialog<>();
+        dlg.initOwner(owner);
+        dlg.setTitle("Import " + name);
+        dlg.getDialogPane().setContent(new VBox(10, status, bar));
+        dlg.getDialogPane().setPrefWidth(420);
+        dlg.getDialogPane().getButtonTypes().add(ButtonType.CLOSE);
+        dlg.getDialogPane().lookupButton(ButtonType.CLOSE).setDisable(true);
+        dlg.show();
+
+        CompletableFuture<CsvImporter.Result> run = CompletableFuture.supplyAsync(() -> {
+            try {
+                return importer.importFile(file.toPath(), (read, imported, rejected) ->
+                        Platform.runLater(() -> status.setText(
+                                "Read " + read + " rows: " + imported + " imported, " + rejected + " rejected")));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, DbExecutor.get());
+
+        FxAsync.whenDone(run, result -> {
+            String msg = "Imported " + result.imported() + " of " + result.read() + " " + name + ".";
+            if (result.quarantine() != null)
+                msg += "\n" + result.rejected() + " rejected rows were written to " + result.quarantine();
+            finish(dlg, bar, status, msg);
+            if (result.imported() > 0) onImported.run();
+        }, ex -> finish(dlg, bar, status, "Import failed: "
+                + (ex instanceof UncheckedIOException io ? io.getCause().getMessage() : ex.getMessage())));
+    }
+
+    private static void finish(Dialog<ButtonType> dlg, ProgressBar bar, Label status, String msg) {
+        bar.setProgress(1);
+        status.setText(msg);
+        dlg.getDialogPane().lookupButton(ButtonType.CLOSE).setDisable(false);
+    }
+}
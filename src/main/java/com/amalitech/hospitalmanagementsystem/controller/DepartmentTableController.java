@@ -5,13 +5,17 @@ import com.amalitech.hospitalmanagementsystem.dao.DepartmentDao;
 import com.amalitech.hospitalmanagementsystem.dao.impl.DepartmentDaoImpl;
 import com.amalitech.hospitalmanagementsystem.model.Department;
 import com.amalitech.hospitalmanagementsystem.service.DepartmentService;
+import com.amalitech.hospitalmanagementsystem.service.ChangeNotifier;
+import com.amalitech.hospitalmanagementsystem.service.async.AsyncService;
 import com.amalitech.hospitalmanagementsystem.service.impl.DepartmentServiceImpl;
+import com.amalitech.hospitalmanagementsystem.util.Columns;
+import com.amalitech.hospitalmanagementsystem.util.FxAsync;
+import com.amalitech.hospitalmanagementsystem.util.LatestRequest;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 
 import java.io.IOException;
 import java.util.List;
@@ -27,26 +31,35 @@ public class DepartmentTableController {
     @FXML private TextField searchField;
 
     private final DepartmentService service;
+    private final AsyncService<DepartmentService> async;
     private final ObservableList<Department> data = FXCollections.observableArrayList();
+    private LiveRows<Department> live;
+    private boolean searching;   // a search result is shown; created rows are not added
+    private final LatestRequest<List<Department>> loads = new LatestRequest<>();
 
     public DepartmentTableController() {
         DepartmentDao dao = new DepartmentDaoImpl();
         this.service = new DepartmentServiceImpl(dao);
+        this.async = AsyncService.of(service);
     }
 
     @FXML
     public void initialize() {
-        colId.setCellValueFactory(new PropertyValueFactory<>("id"));
-        colName.setCellValueFactory(new PropertyValueFactory<>("name"));
-        colDesc.setCellValueFactory(new PropertyValueFactory<>("description"));
+        Columns.bind(colId, Department::getId);
+        Columns.bind(colName, Department::getName);
+        Columns.bind(colDesc, Department::getDescription);
 
         deptTable.setItems(data);
+        // rows follow writes made here and on other workstations
+        live = new LiveRows<>(deptTable, data, ChangeNotifier.Entity.DEPARTMENT, Department.class, Department::getId);
+        live.setOnBulk(this::onRefresh);
+        live.setAcceptCreated(row -> !searching);
         loadAll();
     }
 
     private void loadAll() {
-        List<Department> list = service.getAll();
-        data.setAll(list);
+        searching = false;
+        loads.submit(async.call(DepartmentService::getAll), data::setAll, this::showLoadError);
     }
 
     @FXML
@@ -55,21 +68,16 @@ public class DepartmentTableController {
     @FXML
     private void onSearch() {
         String term = searchField.getText();
-        List<Department> list = service.searchByName(term);
-        data.setAll(list);
+        searching = term != null && !term.isBlank();
+        loads.submit(async.call(s -> s.searchByName(term)), data::setAll, this::showLoadError);
     }
 
     @FXML
     private void onAdd() {
         Optional<Department> result = showFormDialog(null);
-        result.ifPresent(d -> {
-            try {
-                service.create(d);
-                loadAll();
-            } catch (RuntimeException ex) {
-                showAlert(Alert.AlertType.ERROR, "Create failed", ex.getMessage());
-            }
-        });
+        result.ifPresent(d -> FxAsync.whenDone(async.call(s -> s.create(d)),
+                id -> { },   // the new row arrives through LiveRows
+                ex -> showAlert(Alert.AlertType.ERROR, "Create failed", ex.getMessage())));
     }
 
     @FXML
@@ -82,9 +90,9 @@ public class DepartmentTableController {
         Optional<Department> result = showFormDialog(selected);
         result.ifPresent(d -> {
             d.setId(selected.getId());
-            boolean ok = service.update(d);
-            if (!ok) showAlert(Alert.AlertType.ERROR, "Update failed", "Could not update the department");
-            loadAll();
+            FxAsync.whenDone(async.call(s -> s.update(d)), ok -> {
+                if (!ok) showAlert(Alert.AlertType.ERROR, "Update failed", "Could not update the department");
+            }, ex -> showAlert(Alert.AlertType.ERROR, "Update failed", ex.getMessage()));
         });
     }
 
@@ -99,9 +107,9 @@ public class DepartmentTableController {
         confirm.setHeaderText(null);
         confirm.showAndWait().ifPresent(btn -> {
             if (btn == ButtonType.YES) {
-                boolean ok = service.delete(selected.getId());
-                if (!ok) showAlert(Alert.AlertType.ERROR, "Delete failed", "Could not delete the department (may be referenced by doctors)");
-                loadAll();
+                FxAsync.whenDone(async.call(s -> s.delete(selected.getId())), ok -> {
+                    if (!ok) showAlert(Alert.AlertType.ERROR, "Delete failed", "Could not delete the department (may be referenced by doctors)");
+                }, ex -> showAlert(Alert.AlertType.ERROR, "Delete failed", ex.getMessage()));
             }
         });
     }
@@ -133,6 +141,10 @@ public class DepartmentTableController {
         }
     }
 
+    private void showLoadError(Throwable ex) {
+        showAlert(Alert.AlertType.ERROR, "Load failed", ex.getMessage());
+    }
+
     private void showAlert(Alert.AlertType type, String title, String msg) {
         Alert a = new Alert(type);
         a.setTitle(title);
@@ -5,6 +5,8 @@ import com.amalitech.hospitalmanagementsystem.dao.DepartmentDao;
 import com.amalitech.hospitalmanagementsystem.dao.impl.DepartmentDaoImpl;
 import com.amalitech.hospitalmanagementsystem.model.Department;
 import com.amalitech.hospitalmanagementsystem.model.Doctor;
+import com.amalitech.hospitalmanagementsystem.service.async.AsyncService;
+import com.amalitech.hospitalmanagementsystem.util.FxAsync;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.control.ComboBox;
@@ -25,7 +27,10 @@ public class DoctorFormController {
     public void initialize() {
         // Load departments from DB into ComboBox
         DepartmentDao deptDao = new DepartmentDaoImpl();
-        deptBox.setItems(FXCollections.observableArrayList(deptDao.findAll()));
+        FxAsync.whenDone(AsyncService.of(deptDao).call(DepartmentDao::findAll), list -> {
+            deptBox.setItems(FXCollections.observableArrayList(list));
+            selectDepartment();
+        }, ex -> deptBox.setPromptText("Could not load departments"));
         // Department.toString() returns its name, so the ComboBox shows names automatically
     }
 
@@ -38,14 +43,17 @@ public class DoctorFormController {
             phoneField.setText(d.getPhone());
             emailField.setText(d.getEmail());
 
-            // Pre-select the current department if present
-            if (d.getDepartmentId() != null) {
-                for (Department dep : deptBox.getItems()) {
-                    if (d.getDepartmentId().equals(dep.getId())) {
-                        deptBox.getSelectionModel().select(dep);
-                        break;
-                    }
-                }
+            selectDepartment();
+        }
+    }
+
+    // Pre-select the current department if present (re-applied once departments have loaded)
+    private void selectDepartment() {
+        if (existing == null || existing.getDepartmentId() == null) return;
+        for (Department dep : deptBox.getItems()) {
+            if (existing.getDepartmentId().equals(dep.getId())) {
+                deptBox.getSelectionModel().select(dep);
+                break;
             }
         }
     }
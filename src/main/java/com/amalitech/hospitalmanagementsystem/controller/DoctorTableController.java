@@ -5,13 +5,18 @@ import com.amalitech.hospitalmanagementsystem.dao.DoctorDao;
 import com.amalitech.hospitalmanagementsystem.dao.impl.DoctorDaoImpl;
 import com.amalitech.hospitalmanagementsystem.model.Doctor;
 import com.amalitech.hospitalmanagementsystem.service.DoctorService;
+import com.amalitech.hospitalmanagementsystem.service.ChangeNotifier;
+import com.amalitech.hospitalmanagementsystem.service.async.AsyncService;
 import com.amalitech.hospitalmanagementsystem.service.impl.DoctorServiceImpl;
+import com.amalitech.hospitalmanagementsystem.service.importer.ImportSpecs;
+import com.amalitech.hospitalmanagementsystem.util.Columns;
+import com.amalitech.hospitalmanagementsystem.util.FxAsync;
+import com.amalitech.hospitalmanagementsystem.util.LatestRequest;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 
 import java.io.IOException;
 import java.util.List;
@@ -31,53 +36,62 @@ public class DoctorTableController {
     @FXML private TextField searchField;
 
     private final DoctorService service;
+    private final AsyncService<DoctorService> async;
     private final ObservableList<Doctor> data = FXCollections.observableArrayList();
+    private LiveRows<Doctor> live;
+    private boolean searching;   // a search result is shown; created rows are not added
+    private final LatestRequest<List<Doctor>> loads = new LatestRequest<>();
 
     public DoctorTableController() {
         DoctorDao dao = new DoctorDaoImpl();
         this.service = new DoctorServiceImpl(dao);
+        this.async = AsyncService.of(service);
     }
 
     @FXML
     public void initialize() {
-        colId.setCellValueFactory(new PropertyValueFactory<>("id"));
-        colFirstName.setCellValueFactory(new PropertyValueFactory<>("firstName"));
-        colLastName.setCellValueFactory(new PropertyValueFactory<>("lastName"));
-        colSpec.setCellValueFactory(new PropertyValueFactory<>("specialization"));
-        colDept.setCellValueFactory(new PropertyValueFactory<>("departmentId"));
-        colPhone.setCellValueFactory(new PropertyValueFactory<>("phone"));
-        colEmail.setCellValueFactory(new PropertyValueFactory<>("email"));
+        Columns.bind(colId, Doctor::getId);
+        Columns.bind(colFirstName, Doctor::getFirstName);
+        Columns.bind(colLastName, Doctor::getLastName);
+        Columns.bind(colSpec, Doctor::getSpecialization);
+        Columns.bind(colDept, Doctor::getDepartmentId);
+        Columns.bind(colPhone, Doctor::getPhone);
+        Columns.bind(colEmail, Doctor::getEmail);
 
         doctorTable.setItems(data);
+        // rows follow writes made here and on other workstations
+        live = new LiveRows<>(doctorTable, data, ChangeNotifier.Entity.DOCTOR, Doctor.class, Doctor::getId);
+        live.setOnBulk(this::onRefresh);
+        live.setAcceptCreated(row -> !searching);
         loadAll();
     }
 
     private void loadAll() {
-        List<Doctor> list = service.getAll();
-        data.setAll(list);
+        searching = false;
+        loads.submit(async.call(DoctorService::getAll), data::setAll, this::showLoadError);
     }
 
     @FXML
     private void onRefresh() { loadAll(); }
 
+    @FXML
+    private void onImport() {
+        CsvImportDialog.show(doctorTable.getScene().getWindow(), ImportSpecs.doctors(service), this::loadAll);
+    }
+
     @FXML
     private void onSearch() {
         String term = searchField.getText();
-        List<Doctor> list = service.search(term);
-        data.setAll(list);
+        searching = term != null && !term.isBlank();
+        loads.submit(async.call(s -> s.search(term)), data::setAll, this::showLoadError);
     }
 
     @FXML
     private void onAdd() {
         Optional<Doctor> result = showFormDialog(null);
-        result.ifPresent(d -> {
-            try {
-                service.register(d);
-                loadAll();
-            } catch (RuntimeException ex) {
-                showAlert(Alert.AlertType.ERROR, "Create failed", ex.getMessage());
-            }
-        });
+        result.ifPresent(d -> FxAsync.whenDone(async.run(s -> s.register(d)),
+                done -> { },   // the new row arrives through LiveRows
+                ex -> showAlert(Alert.AlertType.ERROR, "Create failed", ex.getMessage())));
     }
 
     @FXML
@@ -90,9 +104,9 @@ public class DoctorTableController {
         Optional<Doctor> result = showFormDialog(selected);
         result.ifPresent(d -> {
             d.setId(selected.getId());
-            boolean ok = service.update(d);
-            if (!ok) showAlert(Alert.AlertType.ERROR, "Update failed", "Could not update the doctor");
-            loadAll();
+            FxAsync.whenDone(async.call(s -> s.update(d)), ok -> {
+                if (!ok) showAlert(Alert.AlertType.ERROR, "Update failed", "Could not update the doctor");
+            }, ex -> showAlert(Alert.AlertType.ERROR, "Update failed", ex.getMessage()));
         });
     }
 
@@ -107,9 +121,9 @@ public class DoctorTableController {
         confirm.setHeaderText(null);
         confirm.showAndWait().ifPresent(btn -> {
             if (btn == ButtonType.YES) {
-                boolean ok = service.remove(selected.getId());
-                if (!ok) showAlert(Alert.AlertType.ERROR, "Delete failed", "Could not delete the doctor");
-                loadAll();
+                FxAsync.whenDone(async.call(s -> s.remove(selected.getId())), ok -> {
+                    if (!ok) showAlert(Alert.AlertType.ERROR, "Delete failed", "Could not delete the doctor");
+                }, ex -> showAlert(Alert.AlertType.ERROR, "Delete failed", ex.getMessage()));
             }
         });
     }
@@ -141,6 +155,10 @@ public class DoctorTableController {
         }
     }
 
+    private void showLoadError(Throwable ex) {
+        showAlert(Alert.AlertType.ERROR, "Load failed", ex.getMessage());
+    }
+
     private void showAlert(Alert.AlertType type, String title, String msg) {
         Alert a = new Alert(type);
         a.setTitle(title);
@@ -8,6 +8,8 @@ import com.amalitech.hospitalmanagementsystem.dao.impl.PatientDaoImpl;
 import com.amalitech.hospitalmanagementsystem.model.Doctor;
 import com.amalitech.hospitalmanagementsystem.model.Patient;
 import com.amalitech.hospitalmanagementsystem.model.PatientFeedback;
+import com.amalitech.hospitalmanagementsystem.service.async.AsyncService;
+import com.amalitech.hospitalmanagementsystem.util.FxAsync;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.control.ComboBox;
@@ -25,10 +27,14 @@ public class FeedbackFormController {
 
     @FXML
     public void initialize() {
-        PatientDao pDao = new PatientDaoImpl();
-        DoctorDao dDao = new DoctorDaoImpl();
-        patientBox.setItems(FXCollections.observableArrayList(pDao.findAll()));
-        doctorBox.setItems(FXCollections.observableArrayList(dDao.findAll()));
+        FxAsync.whenDone(AsyncService.<PatientDao>of(new PatientDaoImpl()).call(PatientDao::findAll), list -> {
+            patientBox.setItems(FXCollections.observableArrayList(list));
+            selectParties();
+        }, ex -> patientBox.setPromptText("Could not load patients"));
+        FxAsync.whenDone(AsyncService.<DoctorDao>of(new DoctorDaoImpl()).call(DoctorDao::findAll), list -> {
+            doctorBox.setItems(FXCollections.observableArrayList(list));
+            selectParties();
+        }, ex -> doctorBox.setPromptText("Could not load doctors"));
         patientBox.setConverter(new javafx.util.StringConverter<>() {
             @Override public String toString(Patient p) { return p==null?"":p.getFirstName()+" "+p.getLastName()+" (ID:"+p.getId()+")"; }
             @Override public Patient fromString(String s) { return null; }
@@ -43,19 +49,26 @@ public class FeedbackFormController {
     public void setExisting(PatientFeedback f) {
         this.existing = f;
         if (f != null) {
-            if (f.getPatientId() != null) {
-                patientBox.getItems().stream().filter(x -> x.getId().equals(f.getPatientId())).findFirst()
-                        .ifPresent(x -> patientBox.getSelectionModel().select(x));
-            }
-            if (f.getDoctorId() != null) {
-                doctorBox.getItems().stream().filter(x -> x.getId().equals(f.getDoctorId())).findFirst()
-                        .ifPresent(x -> doctorBox.getSelectionModel().select(x));
-            }
+            selectParties();
             if (f.getRating() != null) ratingSpinner.getValueFactory().setValue(f.getRating());
             commentsArea.setText(f.getComments());
         }
     }
 
+    // items may still be loading when setExisting runs, so this is re-applied after each load
+    private void selectParties() {
+        PatientFeedback f = existing;
+        if (f == null) return;
+        if (f.getPatientId() != null) {
+            patientBox.getItems().stream().filter(x -> x.getId().equals(f.getPatientId())).findFirst()
+                    .ifPresent(x -> patientBox.getSelectionModel().select(x));
+        }
+        if (f.getDoctorId() != null) {
+            doctorBox.getItems().stream().filter(x -> x.getId().equals(f.getDoctorId())).findFirst()
+                    .ifPresent(x -> doctorBox.getSelectionModel().select(x));
+        }
+    }
+
     public PatientFeedback collectResult() {
         Patient p = patientBox.getValue();
         if (p == null) throw new IllegalArgumentException("Patient is required");
@@ -1,21 +1,20 @@
 
 package com.amalitech.hospitalmanagementsystem.controller;
 
-import com.amalitech.hospitalmanagementsystem.dao.DoctorDao;
-import com.amalitech.hospitalmanagementsystem.dao.PatientDao;
-import com.amalitech.hospitalmanagementsystem.dao.impl.DoctorDaoImpl;
-import com.amalitech.hospitalmanagementsystem.dao.impl.PatientDaoImpl;
-import com.amalitech.hospitalmanagementsystem.model.Doctor;
-import com.amalitech.hospitalmanagementsystem.model.Patient;
 import com.amalitech.hospitalmanagementsystem.model.PatientFeedback;
+import com.amalitech.hospitalmanagementsystem.service.exporter.CsvExporter;
+import com.amalitech.hospitalmanagementsystem.service.NameDirectory;
 import com.amalitech.hospitalmanagementsystem.service.PatientFeedbackService;
+import com.amalitech.hospitalmanagementsystem.service.ChangeNotifier;
+import com.amalitech.hospitalmanagementsystem.service.async.AsyncService;
 import com.amalitech.hospitalmanagementsystem.service.impl.PatientFeedbackServiceImpl;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import com.amalitech.hospitalmanagementsystem.util.Columns;
+import com.amalitech.hospitalmanagementsystem.util.FxAsync;
+import com.amalitech.hospitalmanagementsystem.util.KeyedObservableList;
+import com.amalitech.hospitalmanagementsystem.util.LatestRequest;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 
 import java.io.IOException;
 import java.time.format.DateTimeFormatter;
@@ -30,24 +29,32 @@ public class FeedbackTableController {
     @FXML private TableColumn<PatientFeedback, String> colComments;
     @FXML private TableColumn<PatientFeedback, java.time.LocalDateTime> colCreated;
     @FXML private TextField searchField;
+    @FXML private Label searchInfo;
 
     private final PatientFeedbackService service = new PatientFeedbackServiceImpl();
-    private final ObservableList<PatientFeedback> data = FXCollections.observableArrayList();
+    private final AsyncService<PatientFeedbackService> async = AsyncService.of(service);
+    // refreshes are merged by id, so selection and scroll position survive them
+    private final KeyedObservableList<PatientFeedback> data = new KeyedObservableList<>(PatientFeedback::getFeedbackId, FeedbackTableController::sameRow);
+    private LiveRows<PatientFeedback> live;
+    private boolean searching;   // a search result is shown; created rows are not added
+    private final LatestRequest<Loaded> loads = new LatestRequest<>();
 
-    // name caches for display & search
-    private final Map<Long, String> patientNames = new HashMap<>();
-    private final Map<Long, String> doctorNames  = new HashMap<>();
+    private static final int SEARCH_LIMIT = 500;
+
+    // names for display & search, resolved through the shared NameDirectory
+    private Map<Long, String> patientNames = Map.of();
+    private Map<Long, String> doctorNames  = Map.of();
+
+    private record Loaded(List<PatientFeedback> rows, Map<Long, String> patientNames, Map<Long, String> doctorNames) {}
 
     @FXML
     public void initialize() {
-        preloadNames();
-
-        colId.setCellValueFactory(new PropertyValueFactory<>("feedbackId"));
-        colPatient.setCellValueFactory(new PropertyValueFactory<>("patientId"));
-        colDoctor.setCellValueFactory(new PropertyValueFactory<>("doctorId"));
-        colRating.setCellValueFactory(new PropertyValueFactory<>("rating"));
-        colComments.setCellValueFactory(new PropertyValueFactory<>("comments"));
-        colCreated.setCellValueFactory(new PropertyValueFactory<>("createdAt"));
+        Columns.bind(colId, PatientFeedback::getFeedbackId);
+        Columns.bind(colPatient, PatientFeedback::getPatientId);
+        Columns.bind(colDoctor, PatientFeedback::getDoctorId);
+        Columns.bind(colRating, PatientFeedback::getRating);
+        Columns.bind(colComments, PatientFeedback::getComments);
+        Columns.bind(colCreated, PatientFeedback::getCreatedAt);
 
         colPatient.setCellFactory(col -> new TableCell<>() {
             @Override protected void updateItem(Long id, boolean empty) {
@@ -71,54 +78,74 @@ public class FeedbackTableController {
         });
 
         table.setItems(data);
-        loadAll();
+        // rows follow writes made here and on other workstations
+        live = new LiveRows<>(table, data, ChangeNotifier.Entity.FEEDBACK, PatientFeedback.class, PatientFeedback::getFeedbackId);
+        live.setOnBulk(this::onRefresh);
+        live.setAcceptCreated(row -> !searching);
+        live.setNewestFirst(true);
+        live.setOnRowChanged(this::resolveNames);
+        onRefresh();
     }
 
-    private void preloadNames() {
-        PatientDao pDao = new PatientDaoImpl();
-        for (Patient p : pDao.findAll()) {
-            patientNames.put(p.getId(), p.getFirstName() + " " + p.getLastName());
-        }
-        DoctorDao dDao = new DoctorDaoImpl();
-        for (Doctor d : dDao.findAll()) {
-            doctorNames.put(d.getId(), d.getFirstName() + " " + d.getLastName());
-        }
+    // Runs on the DB executor: resolves only the names these rows reference
+    private static Loaded withNames(List<PatientFeedback> rows) {
+        long[] pIds = rows.stream().map(PatientFeedback::getPatientId).filter(Objects::nonNull).mapToLong(Long::longValue).toArray();
+        long[] dIds = rows.stream().map(PatientFeedback::getDoctorId).filter(Objects::nonNull).mapToLong(Long::longValue).toArray();
+        return new Loaded(rows, NameDirectory.patients().resolve(pIds), NameDirectory.doctors().resolve(dIds));
+    }
+
+    private void show(Loaded loaded) {
+        boolean renamed = !loaded.patientNames().equals(patientNames) || !loaded.doctorNames().equals(doctorNames);
+        patientNames = loaded.patientNames();
+        doctorNames = loaded.doctorNames();
+        data.merge(loaded.rows());
+        // a full page means there may be more matches than are shown
+        searchInfo.setText(searching && loaded.rows().size() == SEARCH_LIMIT
+                ? "Showing the first " + SEARCH_LIMIT + " matches; refine the search to see the rest" : "");
+        if (renamed) table.refresh();   // unchanged rows are not repainted by the merge
+    }
+
+    // a row added or changed in place may reference a patient or doctor not resolved yet
+    private void resolveNames(PatientFeedback row) {
+        boolean known = (row.getPatientId() == null || patientNames.containsKey(row.getPatientId()))
+                && (row.getDoctorId() == null || doctorNames.containsKey(row.getDoctorId()));
+        if (known) return;
+        FxAsync.whenDone(async.call(s -> withNames(List.of(row))), loaded -> {
+            Map<Long, String> p = new HashMap<>(patientNames);
+            p.putAll(loaded.patientNames());
+            Map<Long, String> d = new HashMap<>(doctorNames);
+            d.putAll(loaded.doctorNames());
+            patientNames = p;
+            doctorNames = d;
+            table.refresh();
+        }, ex -> { });   // the cells fall back to "ID:n"
+    }
+
+    private void loadAll() {
+        searching = false;
+        loads.submit(async.call(s -> withNames(s.getAll())), this::show, this::showLoadError);
     }
 
-    private void loadAll() { data.setAll(service.getAll()); }
+    @FXML private void onRefresh() { loadAll(); }
 
-    @FXML private void onRefresh() { preloadNames(); loadAll(); }
+    @FXML private void onExport() {
+        CsvExportDialog.show(table.getScene().getWindow(), CsvExporter.Source.FEEDBACK);
+    }
 
     @FXML private void onSearch() {
-        String t = searchField.getText();
-        if (t == null || t.isBlank()) { loadAll(); return; }
-        String q = t.toLowerCase();
-
-        List<PatientFeedback> all = service.getAll();
-        List<PatientFeedback> filtered = new ArrayList<>();
-        for (PatientFeedback f : all) {
-            String pn = patientNames.getOrDefault(f.getPatientId(), "");
-            String dn = f.getDoctorId() == null ? "" : doctorNames.getOrDefault(f.getDoctorId(), "");
-            boolean match = pn.toLowerCase().contains(q) ||
-                    dn.toLowerCase().contains(q) ||
-                    (f.getComments() != null && f.getComments().toLowerCase().contains(q));
-            if (!match) {
-                try {
-                    int r = Integer.parseInt(q);
-                    match = Objects.equals(f.getRating(), r);
-                } catch (NumberFormatException ignore) {}
-            }
-            if (match) filtered.add(f);
-        }
-        data.setAll(filtered);
+        String term = searchField.getText();
+        if (term == null || term.isBlank()) { loadAll(); return; }
+
+        // filtered and limited in SQL; only the first SEARCH_LIMIT matches are shown, as searchInfo says
+        searching = true;
+        loads.submit(async.call(s -> withNames(s.search(term, SEARCH_LIMIT, 0))), this::show, this::showLoadError);
     }
 
     @FXML private void onAdd() {
         Optional<PatientFeedback> res = showFormDialog(null);
-        res.ifPresent(f -> {
-            try { service.create(f); loadAll(); }
-            catch (RuntimeException ex) { showAlert(Alert.AlertType.ERROR, "Create failed", ex.getMessage()); }
-        });
+        res.ifPresent(f -> FxAsync.whenDone(async.call(s -> s.create(f)),
+                id -> { },   // the new row arrives through LiveRows
+                ex -> showAlert(Alert.AlertType.ERROR, "Create failed", ex.getMessage())));
     }
 
     @FXML private void onEdit() {
@@ -127,9 +154,9 @@ public class FeedbackTableController {
         Optional<PatientFeedback> res = showFormDialog(selected);
         res.ifPresent(f -> {
             f.setFeedbackId(selected.getFeedbackId());
-            boolean ok = service.update(f);
-            if (!ok) showAlert(Alert.AlertType.ERROR, "Update failed", "Could not update feedback");
-            loadAll();
+            FxAsync.whenDone(async.call(s -> s.update(f)), ok -> {
+                if (!ok) showAlert(Alert.AlertType.ERROR, "Update failed", "Could not update feedback");
+            }, ex -> showAlert(Alert.AlertType.ERROR, "Update failed", ex.getMessage()));
         });
     }
 
@@ -140,9 +167,9 @@ public class FeedbackTableController {
         confirm.setHeaderText(null);
         confirm.showAndWait().ifPresent(btn -> {
             if (btn == ButtonType.YES) {
-                boolean ok = service.remove(selected.getFeedbackId());
-                if (!ok) showAlert(Alert.AlertType.ERROR, "Delete failed", "Could not delete feedback");
-                loadAll();
+                FxAsync.whenDone(async.call(s -> s.remove(selected.getFeedbackId())), ok -> {
+                    if (!ok) showAlert(Alert.AlertType.ERROR, "Delete failed", "Could not delete feedback");
+                }, ex -> showAlert(Alert.AlertType.ERROR, "Delete failed", ex.getMessage()));
             }
         });
     }
@@ -168,6 +195,10 @@ public class FeedbackTableController {
         }
     }
 
+    private void showLoadError(Throwable ex) {
+        showAlert(Alert.AlertType.ERROR, "Load failed", ex.getMessage());
+    }
+
     private void showAlert(Alert.AlertType type, String title, String msg) {
         Alert a = new Alert(type);
         a.setTitle(title);
@@ -175,5 +206,15 @@ public class FeedbackTableController {
         a.setContentText(msg);
         a.show();
     }
+
+    // only rows whose shown values changed are replaced (and repainted) by a merge
+    private static boolean sameRow(PatientFeedback a, PatientFeedback b) {
+        return Objects.equals(a.getPatientId(), b.getPatientId())
+                && Objects.equals(a.getDoctorId(), b.getDoctorId())
+                && Objects.equals(a.getRating(), b.getRating())
+                && Objects.equals(a.getComments(), b.getComments())
+                && Objects.equals(a.getCreatedAt(), b.getCreatedAt());
+    }
+
 }
 
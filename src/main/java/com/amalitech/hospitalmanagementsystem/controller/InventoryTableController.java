@@ -3,16 +3,22 @@ package com.amalitech.hospitalmanagementsystem.controller;
 
 import com.amalitech.hospitalmanagementsystem.model.InventoryItem;
 import com.amalitech.hospitalmanagementsystem.service.InventoryService;
+import com.amalitech.hospitalmanagementsystem.service.ChangeNotifier;
+import com.amalitech.hospitalmanagementsystem.service.async.AsyncService;
 import com.amalitech.hospitalmanagementsystem.service.impl.InventoryServiceImpl;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import com.amalitech.hospitalmanagementsystem.service.importer.ImportSpecs;
+import com.amalitech.hospitalmanagementsystem.util.Columns;
+import com.amalitech.hospitalmanagementsystem.util.FxAsync;
+import com.amalitech.hospitalmanagementsystem.util.KeyedObservableList;
+import com.amalitech.hospitalmanagementsystem.util.LatestRequest;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 
 import java.io.IOException;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 public class InventoryTableController {
@@ -24,17 +30,22 @@ public class InventoryTableController {
     @FXML private TextField searchField, deltaField;
 
     private final InventoryService service = new InventoryServiceImpl();
-    private final ObservableList<InventoryItem> data = FXCollections.observableArrayList();
+    private final AsyncService<InventoryService> async = AsyncService.of(service);
+    // refreshes are merged by id, so selection and scroll position survive them
+    private final KeyedObservableList<InventoryItem> data = new KeyedObservableList<>(InventoryItem::getItemId, InventoryTableController::sameRow);
+    private LiveRows<InventoryItem> live;
+    private boolean searching;   // a search result is shown; created rows are not added
+    private final LatestRequest<List<InventoryItem>> loads = new LatestRequest<>();
 
     @FXML
     public void initialize() {
-        colId.setCellValueFactory(new PropertyValueFactory<>("itemId"));
-        colName.setCellValueFactory(new PropertyValueFactory<>("name"));
-        colCategory.setCellValueFactory(new PropertyValueFactory<>("category"));
-        colUnit.setCellValueFactory(new PropertyValueFactory<>("unit"));
-        colQty.setCellValueFactory(new PropertyValueFactory<>("quantity"));
-        colReorder.setCellValueFactory(new PropertyValueFactory<>("reorderLevel"));
-        colUpdated.setCellValueFactory(new PropertyValueFactory<>("updatedAt"));
+        Columns.bind(colId, InventoryItem::getItemId);
+        Columns.bind(colName, InventoryItem::getName);
+        Columns.bind(colCategory, InventoryItem::getCategory);
+        Columns.bind(colUnit, InventoryItem::getUnit);
+        Columns.bind(colQty, InventoryItem::getQuantity);
+        Columns.bind(colReorder, InventoryItem::getReorderLevel);
+        Columns.bind(colUpdated, InventoryItem::getUpdatedAt);
 
         colUpdated.setCellFactory(col -> new TableCell<>() {
             final DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
@@ -45,6 +56,10 @@ public class InventoryTableController {
         });
 
         table.setItems(data);
+        // rows follow writes made here and on other workstations
+        live = new LiveRows<>(table, data, ChangeNotifier.Entity.INVENTORY, InventoryItem.class, InventoryItem::getItemId);
+        live.setOnBulk(this::onRefresh);
+        live.setAcceptCreated(row -> !searching);
         loadAll();
 
         // Visual hint for low stock
@@ -64,21 +79,28 @@ public class InventoryTableController {
         });
     }
 
-    private void loadAll() { data.setAll(service.getAll()); }
+    private void loadAll() {
+        searching = false;
+        loads.submit(async.call(InventoryService::getAll), data::merge, this::showLoadError);
+    }
 
     @FXML private void onRefresh() { loadAll(); }
 
+    @FXML private void onImport() {
+        CsvImportDialog.show(table.getScene().getWindow(), ImportSpecs.inventory(), this::loadAll);
+    }
+
     @FXML private void onSearch() {
         String term = searchField.getText();
-        data.setAll(service.search(term));
+        searching = term != null && !term.isBlank();
+        loads.submit(async.call(s -> s.search(term)), data::merge, this::showLoadError);
     }
 
     @FXML private void onAdd() {
         Optional<InventoryItem> res = showFormDialog(null);
-        res.ifPresent(i -> {
-            try { service.create(i); loadAll(); }
-            catch (RuntimeException ex) { showAlert(Alert.AlertType.ERROR, "Create failed", ex.getMessage()); }
-        });
+        res.ifPresent(i -> FxAsync.whenDone(async.call(s -> s.create(i)),
+                id -> { },   // the new row arrives through LiveRows
+                ex -> showAlert(Alert.AlertType.ERROR, "Create failed", ex.getMessage())));
     }
 
     @FXML private void onEdit() {
@@ -87,9 +109,9 @@ public class InventoryTableController {
         Optional<InventoryItem> res = showFormDialog(selected);
         res.ifPresent(i -> {
             i.setItemId(selected.getItemId());
-            boolean ok = service.update(i);
-            if (!ok) showAlert(Alert.AlertType.ERROR, "Update failed", "Could not update item");
-            loadAll();
+            FxAsync.whenDone(async.call(s -> s.update(i)), ok -> {
+                if (!ok) showAlert(Alert.AlertType.ERROR, "Update failed", "Could not update item");
+            }, ex -> showAlert(Alert.AlertType.ERROR, "Update failed", ex.getMessage()));
         });
     }
 
@@ -100,9 +122,9 @@ public class InventoryTableController {
         confirm.setHeaderText(null);
         confirm.showAndWait().ifPresent(btn -> {
             if (btn == ButtonType.YES) {
-                boolean ok = service.remove(selected.getItemId());
-                if (!ok) showAlert(Alert.AlertType.ERROR, "Delete failed", "Could not delete");
-                loadAll();
+                FxAsync.whenDone(async.call(s -> s.remove(selected.getItemId())), ok -> {
+                    if (!ok) showAlert(Alert.AlertType.ERROR, "Delete failed", "Could not delete");
+                }, ex -> showAlert(Alert.AlertType.ERROR, "Delete failed", ex.getMessage()));
             }
         });
     }
@@ -116,9 +138,9 @@ public class InventoryTableController {
         try { delta = Integer.parseInt(deltaTxt.trim()); }
         catch (Exception ex) { showAlert(Alert.AlertType.ERROR, "Invalid number", "Use integers like +10 or -5"); return; }
 
-        boolean ok = service.adjustQuantity(selected.getItemId(), delta);
-        if (!ok) showAlert(Alert.AlertType.ERROR, "Adjust failed", "Could not adjust quantity");
-        loadAll();
+        FxAsync.whenDone(async.call(s -> s.adjustQuantity(selected.getItemId(), delta)), ok -> {
+            if (!ok) showAlert(Alert.AlertType.ERROR, "Adjust failed", "Could not adjust quantity");
+        }, ex -> showAlert(Alert.AlertType.ERROR, "Adjust failed", ex.getMessage()));
         deltaField.clear();
     }
 
@@ -143,6 +165,10 @@ public class InventoryTableController {
         }
     }
 
+    private void showLoadError(Throwable ex) {
+        showAlert(Alert.AlertType.ERROR, "Load failed", ex.getMessage());
+    }
+
     private void showAlert(Alert.AlertType type, String title, String msg) {
         Alert a = new Alert(type);
         a.setTitle(title);
@@ -150,5 +176,16 @@ public class InventoryTableController {
         a.setContentText(msg);
         a.show();
     }
+
+    // only rows whose shown values changed are replaced (and repainted) by a merge
+    private static boolean sameRow(InventoryItem a, InventoryItem b) {
+        return Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getCategory(), b.getCategory())
+                && Objects.equals(a.getUnit(), b.getUnit())
+                && Objects.equals(a.getQuantity(), b.getQuantity())
+                && Objects.equals(a.getReorderLevel(), b.getReorderLevel())
+                && Objects.equals(a.getUpdatedAt(), b.getUpdatedAt());
+    }
+
 }
 
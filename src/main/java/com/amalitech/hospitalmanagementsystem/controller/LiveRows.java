@@ -0,0 +1,110 @@
+package com.amalitech.hospitalmanagementsystem.controller;
+
+import com.amalitech.hospitalmanagementsystem.service.ChangeNotifier;
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+import javafx.scene.control.TableView;
+
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Keeps a table's rows in step with {@link ChangeNotifier} events for one entity, whether the
+ * write was made here or, through {@code ChangeFeed}, on another workstation: updated rows are
+ * replaced in place, deleted rows removed and created rows inserted, without reloading the table.
+ * A BULK change runs the reload action instead.
+ * <p>
+ * Subscribed only while the table is in a scene; all changes are applied on the FX thread.
+ */
+final class LiveRows<T> {
+
+    private final ObservableList<T> rows;
+    private final ChangeNotifier.Entity entity;
+    private final Class<T> type;
+    private final Function<T, Long> idOf;
+    private final ChangeNotifier.Listener listener = this::onChange;
+
+    private Runnable onBulk = () -> {};
+    private Predicate<T> acceptCreated = row -> true;
+    private Consumer<T> onRowChanged = row -> {};
+    private Consumer<T> onRowDeleted = row -> {};
+    private boolean newestFirst;
+
+    LiveRows(TableView<?> table, ObservableList<T> rows, ChangeNotifier.Entity entity, Class<T> type,
+             Function<T, Long> idOf) {
+        this.rows = rows;
+        this.entity = entity;
+        this.type = type;
+        this.idOf = idOf;
+        table.sceneProperty().addListener((obs, o, scene) -> {
+            if (scene != null) ChangeNotifier.subscribe(listener);
+            else ChangeNotifier.unsubscribe(listener);
+        });
+        if (table.getScene() != null) ChangeNotifier.subscribe(listener);
+    }
+
+    /** Runs when many rows changed at once; usually the table's reload. */
+    void setOnBulk(Runnable onBulk) {
+        this.onBulk = onBulk;
+    }
+
+    /** Whether a created row belongs in the current view (e.g. false while a search is shown). */
+    void setAcceptCreated(Predicate<T> acceptCreated) {
+        this.acceptCreated = acceptCreated;
+    }
+
+    /** Called after a row is inserted or replaced, e.g. to resolve names it references. */
+    void setOnRowChanged(Consumer<T> onRowChanged) {
+        this.onRowChanged = onRowChanged;
+    }
+
+    /** Called with a deleted row just before it is removed, e.g. to update a pager's offsets. */
+    void setOnRowDeleted(Consumer<T> onRowDeleted) {
+        this.onRowDeleted = onRowDeleted;
+    }
+
+    /** Inserts created rows at the top, for tables listed newest first. */
+    void setNewestFirst(boolean newestFirst) {
+        this.newestFirst = newestFirst;
+    }
+
+    private void onChange(ChangeNotifier.Change c) {
+        if (c.entity() == entity) Platform.runLater(() -> apply(c));
+    }
+
+    private void apply(ChangeNotifier.Change c) {
+        switch (c.kind()) {
+            case BULK -> onBulk.run();
+            case DELETED -> {
+                int i = indexOf(c.id());
+                if (i >= 0) {
+                    onRowDeleted.accept(rows.get(i));
+                    rows.remove(i);
+                }
+            }
+            case CREATED, UPDATED -> {
+                if (!type.isInstance(c.row())) return;
+                T row = type.cast(c.row());
+                int i = indexOf(c.id());
+                if (i >= 0) {
+                    rows.set(i, row);
+                } else if (c.kind() == ChangeNotifier.Kind.CREATED && acceptCreated.test(row)) {
+                    if (newestFirst) rows.add(0, row);
+                    else rows.add(row);
+                } else {
+                    return;     // not shown here
+                }
+                onRowChanged.accept(row);
+            }
+        }
+    }
+
+    private int indexOf(long id) {
+        for (int i = 0; i < rows.size(); i++) {
+            if (Objects.equals(idOf.apply(rows.get(i)), id)) return i;
+        }
+        return -1;
+    }
+}
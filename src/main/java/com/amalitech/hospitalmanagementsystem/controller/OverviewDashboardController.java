@@ -1,19 +1,16 @@
 
 package com.amalitech.hospitalmanagementsystem.controller;
 
-import com.amalitech.hospitalmanagementsystem.service.*;
-import com.amalitech.hospitalmanagementsystem.service.impl.*;
-import com.amalitech.hospitalmanagementsystem.dao.impl.*;
+import com.amalitech.hospitalmanagementsystem.service.DashboardStatsCache;
 
-import com.amalitech.hospitalmanagementsystem.model.*;
+import com.amalitech.hospitalmanagementsystem.util.DbExecutor;
+import com.amalitech.hospitalmanagementsystem.util.LatestRequest;
 
 import javafx.fxml.FXML;
-import javafx.application.Platform;
 import javafx.scene.control.Label;
 
-import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
 
-import static com.sun.media.sound.ModelByteBuffer.loadAll;
 
 public class OverviewDashboardController {
 
@@ -26,55 +23,32 @@ public class OverviewDashboardController {
     @FXML private Label lblTotalFeedback;
     @FXML private Label lblLowStockCount;
 
-    private final PatientService patientService =
-            new PatientServiceImpl(new PatientDaoImpl());
-    private final DoctorService doctorService =
-            new DoctorServiceImpl(new DoctorDaoImpl());
-    private final DepartmentDaoImpl departmentDao = new DepartmentDaoImpl();
-    private final AppointmentService appointmentService = new AppointmentServiceImpl();
-    private final PatientFeedbackService feedbackService = new PatientFeedbackServiceImpl();
-    private final InventoryService inventoryService = new InventoryServiceImpl();
+    private final LatestRequest<DashboardStatsCache.Stats> loads = new LatestRequest<>();
 
     @FXML
     public void initialize() {
-        Platform.runLater(this::loadStats);
+        loadAll();
     }
 
     @FXML
     private void onRefresh() {
+        DashboardStatsCache.invalidate(); // explicit refresh always goes to the database
         loadAll();
     }
 
     private void loadAll() {
+        // Counts come from the shared TTL cache; a stale snapshot is reloaded with COUNT/AVG queries
+        loads.submit(CompletableFuture.supplyAsync(DashboardStatsCache::get, DbExecutor.get()), this::applyStats,
+                ex -> lblLowStockCount.setText("n/a"));
     }
 
-
-    private void loadStats() {
-        lblTotalPatients.setText(String.valueOf(patientService.getAll().size()));
-        lblTotalDoctors.setText(String.valueOf(doctorService.getAll().size()));
-        lblTotalDepartments.setText(String.valueOf(departmentDao.findAll().size()));
-
-        // Today’s appointments
-        int todayCount = appointmentService.findByDate(LocalDate.now()).size();
-        lblTodayAppointments.setText(String.valueOf(todayCount));
-
-        // Feedback average
-        var allFeedback = feedbackService.getAll();
-        lblTotalFeedback.setText(allFeedback.size() + " feedback entries");
-
-        double avg = 0;
-        if (!allFeedback.isEmpty()) {
-            avg = allFeedback.stream()
-                    .filter(f -> f.getRating() != null)
-                    .mapToInt(PatientFeedback::getRating)
-                    .average().orElse(0);
-        }
-        lblAverageRating.setText(String.format("%.1f", avg));
-
-        // Low stock inventory
-        long lowStock = inventoryService.getAll().stream()
-                .filter(i -> i.getQuantity() <= i.getReorderLevel())
-                .count();
-        lblLowStockCount.setText(String.valueOf(lowStock));
+    private void applyStats(DashboardStatsCache.Stats s) {
+        lblTotalPatients.setText(String.valueOf(s.patients()));
+        lblTotalDoctors.setText(String.valueOf(s.doctors()));
+        lblTotalDepartments.setText(String.valueOf(s.departments()));
+        lblTodayAppointments.setText(String.valueOf(s.todayAppointments()));
+        lblTotalFeedback.setText(s.feedbackCount() + " feedback entries");
+        lblAverageRating.setText(String.format("%.1f", s.averageRating()));
+        lblLowStockCount.setText(String.valueOf(s.lowStock()));
     }
 }
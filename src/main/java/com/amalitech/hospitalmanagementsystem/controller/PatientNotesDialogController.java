@@ -1,42 +1,60 @@
 
 package com.amalitech.hospitalmanagementsystem.controller;
 
+import com.amalitech.hospitalmanagementsystem.nosql.AsyncPatientNoteService;
+import com.amalitech.hospitalmanagementsystem.nosql.NoteQuery;
+import com.amalitech.hospitalmanagementsystem.nosql.NoteSearchHit;
 import com.amalitech.hospitalmanagementsystem.nosql.PatientNote;
-import com.amalitech.hospitalmanagementsystem.nosql.PatientNoteService;
+import com.amalitech.hospitalmanagementsystem.util.FxAsync;
+import com.amalitech.hospitalmanagementsystem.util.KeyedObservableList;
+import com.amalitech.hospitalmanagementsystem.util.LatestRequest;
+import com.amalitech.hospitalmanagementsystem.util.PagedTableLoader;
 import javafx.beans.binding.Bindings;
 import javafx.beans.property.SimpleStringProperty;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextFlow;
 import org.bson.types.ObjectId;
 
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class PatientNotesDialogController {
 
     @FXML private TextField searchField, typeField, tagsField;
-    @FXML private TextArea contentArea;
+    @FXML private TextArea contentArea, bodyArea;
     @FXML private TableView<PatientNote> table;
     @FXML private TableColumn<PatientNote, String> colCreated, colType, colContent, colDoctor, colTags;
 
-    private PatientNoteService service;
+    // every call returns a future; with MONGO_DRIVER=reactive no thread blocks on MongoDB
+    private AsyncPatientNoteService service;
 
-    private final ObservableList<PatientNote> data = FXCollections.observableArrayList();
+    // notes are listed with a content preview and loaded a page at a time as the table scrolls
+    private final KeyedObservableList<PatientNote> data =
+            new KeyedObservableList<>(PatientNote::getId, PatientNotesDialogController::sameRow);
+    private final LatestRequest<String> bodyLoad = new LatestRequest<>();
+    // search results by note id; empty while the plain list is shown
+    private final Map<ObjectId, NoteSearchHit> hits = new ConcurrentHashMap<>();
+    private PagedTableLoader<PatientNote> pager;
     private Long patientId; // set by caller
 
+    private static final int PAGE_SIZE = 50;
+    private static final int MAX_PAGES = 6;
+
     private static final DateTimeFormatter TS_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
 
-    private PatientNoteService service() {
+    private AsyncPatientNoteService service() {
         if (service == null) {
             try {
-                service = new PatientNoteService();
+                service = new AsyncPatientNoteService();
             } catch (Exception ex) {
                 // If creation fails, keep service null and surface a friendly message when used
-                System.err.println("[NotesDialog] Failed to create PatientNoteService: " + ex.getMessage());
+                System.err.println("[NotesDialog] Failed to create AsyncPatientNoteService: " + ex.getMessage());
                 ex.printStackTrace();
                 showError("Notes service failed to initialize.\n" + ex.getMessage());
             }
@@ -56,14 +74,29 @@ public class PatientNotesDialogController {
                 )
         );
         colType.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().getNoteType()));
-        colContent.setCellValueFactory(c -> new SimpleStringProperty(c.getValue().getContent()));
+        colContent.setCellValueFactory(c -> new SimpleStringProperty(
+                c.getValue().isPreview() ? c.getValue().getContent() + "…" : c.getValue().getContent()
+        ));
+        // search results show their snippet instead, with the matched words in bold
+        colContent.setCellFactory(col -> new TableCell<>() {
+            @Override
+            protected void updateItem(String text, boolean empty) {
+                super.updateItem(text, empty);
+                PatientNote note = empty || getTableRow() == null ? null : getTableRow().getItem();
+                NoteSearchHit hit = note == null ? null : hits.get(note.getId());
+                setText(hit == null && !empty ? text : null);
+                setGraphic(hit == null ? null : highlighted(hit));
+            }
+        });
         colDoctor.setCellValueFactory(c -> new SimpleStringProperty(
                 c.getValue().getDoctorId() == null ? "" : String.valueOf(c.getValue().getDoctorId())
         ));
         colTags.setCellValueFactory(c -> new SimpleStringProperty(
                 c.getValue().getTags() == null ? "" : String.join(",", c.getValue().getTags())
         ));
-        table.setItems(data);
+        pager = new PagedTableLoader<>(table, data, PAGE_SIZE, MAX_PAGES);
+        pager.setOnError(ex -> handleDataError("Failed to load notes", ex));
+        table.getSelectionModel().selectedItemProperty().addListener((obs, o, note) -> showBody(note));
 
         System.out.println("[NotesDialog] initialize() done");
     }
@@ -76,7 +109,7 @@ public class PatientNotesDialogController {
 
     @FXML
     private void onRefresh() {
-        reload();
+        pager.reload();
     }
 
     @FXML
@@ -86,13 +119,50 @@ public class PatientNotesDialogController {
             reload();
             return;
         }
-        try {
-            var svc = service();
-            if (svc == null) return; // already alerted in service()
-            data.setAll(svc.search(q)); // Mongo text search
-        } catch (Exception ex) {
-            handleDataError("Search failed", ex);
+        var svc = service();
+        if (svc == null) return; // already alerted in service()
+        // Mongo text search within this patient's notes, best matches first; paged by offset
+        NoteQuery query = NoteQuery.of(q).forPatient(patientId);
+        hits.clear();
+        pager.setSource(PagedTableLoader.PageSource.ofOffsets(
+                (offset, limit) -> svc.search(query, offset, limit).thenApply(page -> {
+                    for (NoteSearchHit hit : page) hits.put(hit.note().getId(), hit);
+                    return page.stream().map(NoteSearchHit::note).toList();
+                }),
+                PatientNote::getId));
+    }
+
+    private static TextFlow highlighted(NoteSearchHit hit) {
+        TextFlow flow = new TextFlow();
+        String s = hit.snippet();
+        int at = 0;
+        for (NoteSearchHit.Span span : hit.highlights()) {
+            if (span.start() > at) flow.getChildren().add(new Text(s.substring(at, span.start())));
+            Text match = new Text(s.substring(span.start(), span.end()));
+            match.setStyle("-fx-font-weight: bold;");
+            flow.getChildren().add(match);
+            at = span.end();
         }
+        if (at < s.length()) flow.getChildren().add(new Text(s.substring(at)));
+        return flow;
+    }
+
+    // The list holds previews; the full text of the selected note is fetched on demand
+    private void showBody(PatientNote note) {
+        bodyLoad.cancel();
+        if (note == null) {
+            bodyArea.clear();
+            return;
+        }
+        bodyArea.setText(note.getContent());
+        var svc = service();
+        if (!note.isPreview() || svc == null) return;
+        bodyLoad.submit(svc.getFullContent(note), content -> {
+            note.setContent(content);
+            note.setPreview(false);
+            bodyArea.setText(content);
+            table.refresh();
+        }, ex -> handleDataError("Failed to load note", ex));
     }
 
     public PatientNote collectToCreate() {
@@ -121,9 +191,10 @@ public class PatientNotesDialogController {
                 PatientNote n = collectToCreate();
                 var svc = service();
                 if (svc == null) return Result.IGNORED;
-                svc.addNote(n);
-                reload();
-                clearForm();
+                FxAsync.whenDone(svc.addNote(n), id -> {
+                    pager.reload();
+                    clearForm();
+                }, ex -> handleDataError("Failed to save note", ex));
                 return Result.RELOADED;
 
             } else if (type.getButtonData() == ButtonBar.ButtonData.OTHER) { // Delete Selected
@@ -133,9 +204,11 @@ public class PatientNotesDialogController {
                 if (id != null) {
                     var svc = service();
                     if (svc == null) return Result.IGNORED;
-                    svc.delete(id);
+                    FxAsync.whenDone(svc.delete(id), deleted -> pager.reload(),
+                            ex -> handleDataError("Failed to delete note", ex));
+                } else {
+                    pager.reload();
                 }
-                reload();
                 return Result.RELOADED;
             }
             return Result.CLOSED;
@@ -147,16 +220,15 @@ public class PatientNotesDialogController {
     }
 
     private void reload() {
-        try {
-            System.out.println("[NotesDialog] reload() for patientId = " + patientId);
-            var svc = service();
-            if (svc == null) return; // already alerted
-            var list = svc.getNotesForPatient(patientId);
-            System.out.println("[NotesDialog] reload -> " + (list == null ? "null" : list.size()) + " notes");
-            data.setAll(list);
-        } catch (Exception ex) {
-            handleDataError("Failed to load notes", ex);
-        }
+        System.out.println("[NotesDialog] reload() for patientId = " + patientId);
+        var svc = service();
+        if (svc == null) return; // already alerted
+        Long id = patientId;
+        hits.clear();
+        // seek on (createdAt, _id), newest first
+        pager.setSource(PagedTableLoader.PageSource.of(
+                (last, limit) -> svc.getNotesPage(id, last, limit),
+                (first, limit) -> svc.getNotesPageBefore(id, first, limit)));
     }
 
     private void clearForm() {
@@ -172,11 +244,20 @@ public class PatientNotesDialogController {
         a.show();
     }
 
-    private void handleDataError(String title, Exception ex) {
+    private void handleDataError(String title, Throwable ex) {
         System.err.println("[NotesDialog] " + title + ": " + ex.getMessage());
         ex.printStackTrace();
         showError(title + ":\n" + ex.getClass().getSimpleName() + " — " + (ex.getMessage() == null ? "(no message)" : ex.getMessage()));
     }
 
+    private static boolean sameRow(PatientNote a, PatientNote b) {
+        return a.isPreview() == b.isPreview()
+                && Objects.equals(a.getCreatedAt(), b.getCreatedAt())
+                && Objects.equals(a.getNoteType(), b.getNoteType())
+                && Objects.equals(a.getContent(), b.getContent())
+                && Objects.equals(a.getDoctorId(), b.getDoctorId())
+                && Objects.equals(a.getTags(), b.getTags());
+    }
+
     public enum Result { RELOADED, CLOSED, IGNORED }
 }
@@ -4,19 +4,29 @@ package com.amalitech.hospitalmanagementsystem.controller;
 import com.amalitech.hospitalmanagementsystem.dao.PatientDao;
 import com.amalitech.hospitalmanagementsystem.dao.impl.PatientDaoImpl;
 import com.amalitech.hospitalmanagementsystem.model.Patient;
+import com.amalitech.hospitalmanagementsystem.nosql.NoteIngestOptions;
+import com.amalitech.hospitalmanagementsystem.nosql.PatientNoteService;
+import com.amalitech.hospitalmanagementsystem.service.exporter.CsvExporter;
+import com.amalitech.hospitalmanagementsystem.service.ChangeNotifier;
 import com.amalitech.hospitalmanagementsystem.service.PatientService;
+import com.amalitech.hospitalmanagementsystem.service.async.AsyncService;
 import com.amalitech.hospitalmanagementsystem.service.impl.PatientServiceImpl;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import com.amalitech.hospitalmanagementsystem.service.importer.ImportSpecs;
+import com.amalitech.hospitalmanagementsystem.service.importer.PatientNoteImporter;
+import com.amalitech.hospitalmanagementsystem.util.Columns;
+import com.amalitech.hospitalmanagementsystem.util.FxAsync;
+import com.amalitech.hospitalmanagementsystem.util.KeyedObservableList;
+import com.amalitech.hospitalmanagementsystem.util.PagedTableLoader;
+import javafx.animation.PauseTransition;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.util.Duration;
 
 import java.io.IOException;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 public class PatientTableController {
@@ -34,25 +44,36 @@ public class PatientTableController {
 
     @FXML private TextField searchField;
 
+    // Only PAGE_SIZE * MAX_PAGES rows are kept in memory; more are fetched on scroll
+    private static final int PAGE_SIZE = 200;
+    private static final int MAX_PAGES = 5;
+
     private final PatientService service;
-    private final ObservableList<Patient> data = FXCollections.observableArrayList();
+    private final AsyncService<PatientService> async;
+    // refreshes are merged by id, so selection and scroll position survive them
+    private final KeyedObservableList<Patient> data = new KeyedObservableList<>(Patient::getId, PatientTableController::sameRow);
+    private PagedTableLoader<Patient> pager;
+    private LiveRows<Patient> live;
+    private final PauseTransition searchDebounce = new PauseTransition(Duration.millis(300));
+    private String activeTerm = "";
 
     public PatientTableController() {
         PatientDao dao = new PatientDaoImpl();
         this.service = new PatientServiceImpl(dao);
+        this.async = AsyncService.of(service);
     }
 
     @FXML
     public void initialize() {
-        colId.setCellValueFactory(new PropertyValueFactory<>("id"));
-        colFirstName.setCellValueFactory(new PropertyValueFactory<>("firstName"));
-        colLastName.setCellValueFactory(new PropertyValueFactory<>("lastName"));
-        colGender.setCellValueFactory(new PropertyValueFactory<>("gender"));
-        colPhone.setCellValueFactory(new PropertyValueFactory<>("phone"));
-        colEmail.setCellValueFactory(new PropertyValueFactory<>("email"));
-        colAddress.setCellValueFactory(new PropertyValueFactory<>("address"));
-
-        colDob.setCellValueFactory(new PropertyValueFactory<>("dateOfBirth"));
+        Columns.bind(colId, Patient::getId);
+        Columns.bind(colFirstName, Patient::getFirstName);
+        Columns.bind(colLastName, Patient::getLastName);
+        Columns.bind(colGender, Patient::getGender);
+        Columns.bind(colPhone, Patient::getPhone);
+        Columns.bind(colEmail, Patient::getEmail);
+        Columns.bind(colAddress, Patient::getAddress);
+
+        Columns.bind(colDob, Patient::getDateOfBirth);
         colDob.setCellFactory(col -> new TableCell<>() {
             private final DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd");
             @Override
@@ -62,41 +83,80 @@ public class PatientTableController {
             }
         });
 
-        patientTable.setItems(data);
+        // search as you type, once typing pauses
+        searchDebounce.setOnFinished(e -> runSearch(false));
+        searchField.textProperty().addListener((obs, o, n) -> searchDebounce.playFromStart());
+
+        pager = new PagedTableLoader<>(patientTable, data, PAGE_SIZE, MAX_PAGES);
+        pager.setOnError(ex -> showAlert(Alert.AlertType.ERROR, "Load failed", ex.getMessage()));
+        // rows in the window follow writes made here and on other workstations; new rows appear
+        // on the next reload, since the window may not reach the end of the table
+        live = new LiveRows<>(patientTable, data, ChangeNotifier.Entity.PATIENT, Patient.class, Patient::getId);
+        live.setOnBulk(pager::reload);
+        live.setOnRowDeleted(pager::removed);
+        live.setAcceptCreated(row -> false);
         loadAll();
     }
 
     private void loadAll() {
-        List<Patient> list = service.getAll();
-        data.setAll(list);
+        // Seek on patient_id
+        pager.setSource(PagedTableLoader.PageSource.of(
+                (last, limit) -> async.call(s -> s.getPageAfter(last == null ? null : last.getId(), limit)),
+                (first, limit) -> async.call(s -> s.getPageBefore(first.getId(), limit))));
     }
 
     @FXML
     private void onRefresh() {
-        loadAll();
+        pager.reload();
+    }
+
+    @FXML
+    private void onImport() {
+        CsvImportDialog.show(patientTable.getScene().getWindow(), ImportSpecs.patients(service), pager::reload);
+    }
+
+    @FXML
+    private void onImportNotes() {
+        CsvImportDialog.show(patientTable.getScene().getWindow(), "patient notes",
+                (source, progress) -> PatientNoteImporter.importFile(new PatientNoteService(),
+                        NoteIngestOptions.defaults(), source, progress),
+                () -> {});
+    }
+
+    @FXML
+    private void onExport() {
+        CsvExportDialog.show(patientTable.getScene().getWindow(), CsvExporter.Source.PATIENTS);
     }
 
     @FXML
     private void onSearch() {
-        String term = searchField.getText();
-        List<Patient> list = service.search(term);
-        data.setAll(list);
+        searchDebounce.stop();
+        runSearch(true);
+    }
+
+    private void runSearch(boolean force) {
+        String term = searchField.getText() == null ? "" : searchField.getText().trim();
+        if (!force && term.equals(activeTerm)) return;
+        if (term.isEmpty()) {
+            activeTerm = term;
+            loadAll();
+            return;
+        }
+        if (term.length() < PatientService.MIN_SEARCH_LENGTH) return;   // keep the current rows
+        activeTerm = term;
+        // Ranked matches have no seek key, so page by offset
+        pager.setSource(PagedTableLoader.PageSource.ofOffsets(
+                (offset, limit) -> async.call(s -> s.search(term, limit, offset)),
+                Patient::getId));
     }
 
 
     @FXML
     private void onAdd() {
         Optional<Patient> result = showFormDialog(null);
-        result.ifPresent(p -> {
-            try {
-                service.register(p);
-                loadAll();
-            } catch (IllegalArgumentException ex) {
-                showAlert(Alert.AlertType.ERROR, "Validation Error", ex.getMessage());
-            } catch (Exception ex) {
-                showAlert(Alert.AlertType.ERROR, "Error", "Failed to add patient: " + ex.getMessage());
-            }
-        });
+        result.ifPresent(p -> FxAsync.whenDone(async.run(s -> s.register(p)),
+                done -> pager.reload(),
+                ex -> showWriteError("Failed to add patient: ", ex)));
     }
 
 
@@ -112,18 +172,12 @@ public class PatientTableController {
 
         Optional<Patient> result = showFormDialog(selected);
         result.ifPresent(p -> {
-            try {
-                p.setId(selected.getId());
-                boolean ok = service.update(p);
+            p.setId(selected.getId());
+            FxAsync.whenDone(async.call(s -> s.update(p)), ok -> {
                 if (!ok) {
                     showAlert(Alert.AlertType.ERROR, "Update failed", "Could not update the patient");
                 }
-                loadAll();
-            } catch (IllegalArgumentException ex) {
-                showAlert(Alert.AlertType.ERROR, "Validation Error", ex.getMessage());
-            } catch (Exception ex) {
-                showAlert(Alert.AlertType.ERROR, "Error", "Failed to update patient: " + ex.getMessage());
-            }
+            }, ex -> showWriteError("Failed to update patient: ", ex));
         });
     }
 
@@ -139,11 +193,11 @@ public class PatientTableController {
         confirm.setHeaderText(null);
         confirm.showAndWait().ifPresent(btn -> {
             if (btn == ButtonType.YES) {
-                boolean ok = service.remove(selected.getId());
-                if (!ok) {
-                    showAlert(Alert.AlertType.ERROR, "Delete failed", "Could not delete the patient");
-                }
-                loadAll();
+                FxAsync.whenDone(async.call(s -> s.remove(selected.getId())), ok -> {
+                    if (!ok) {
+                        showAlert(Alert.AlertType.ERROR, "Delete failed", "Could not delete the patient");
+                    }
+                }, ex -> showWriteError("Failed to delete patient: ", ex));
             }
         });
     }
@@ -182,6 +236,14 @@ public class PatientTableController {
 
 
 
+    private void showWriteError(String prefix, Throwable ex) {
+        if (ex instanceof IllegalArgumentException) {
+            showAlert(Alert.AlertType.ERROR, "Validation Error", ex.getMessage());
+        } else {
+            showAlert(Alert.AlertType.ERROR, "Error", prefix + ex.getMessage());
+        }
+    }
+
     private void showAlert(Alert.AlertType type, String title, String msg) {
         Alert a = new Alert(type);
         a.setTitle(title);
@@ -237,4 +299,16 @@ public class PatientTableController {
 
 
 
+
+    // only rows whose shown values changed are replaced (and repainted) by a merge
+    private static boolean sameRow(Patient a, Patient b) {
+        return Objects.equals(a.getFirstName(), b.getFirstName())
+                && Objects.equals(a.getLastName(), b.getLastName())
+                && Objects.equals(a.getGender(), b.getGender())
+                && Objects.equals(a.getDateOfBirth(), b.getDateOfBirth())
+                && Objects.equals(a.getPhone(), b.getPhone())
+                && Objects.equals(a.getEmail(), b.getEmail())
+                && Objects.equals(a.getAddress(), b.getAddress());
+    }
+
 }
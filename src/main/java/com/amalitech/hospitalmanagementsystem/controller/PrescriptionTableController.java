@@ -3,20 +3,26 @@ package com.amalitech.hospitalmanagementsystem.controller;
 
 import com.amalitech.hospitalmanagementsystem.model.Prescription;
 import com.amalitech.hospitalmanagementsystem.model.PrescriptionItem;
+import com.amalitech.hospitalmanagementsystem.service.exporter.CsvExporter;
 import com.amalitech.hospitalmanagementsystem.service.PrescriptionItemService;
 import com.amalitech.hospitalmanagementsystem.service.PrescriptionService;
+import com.amalitech.hospitalmanagementsystem.service.ChangeNotifier;
+import com.amalitech.hospitalmanagementsystem.service.async.AsyncService;
 import com.amalitech.hospitalmanagementsystem.service.impl.PrescriptionItemServiceImpl;
 import com.amalitech.hospitalmanagementsystem.service.impl.PrescriptionServiceImpl;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import com.amalitech.hospitalmanagementsystem.util.Columns;
+import com.amalitech.hospitalmanagementsystem.util.FxAsync;
+import com.amalitech.hospitalmanagementsystem.util.KeyedObservableList;
+import com.amalitech.hospitalmanagementsystem.util.LatestRequest;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 
 import java.io.IOException;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 public class PrescriptionTableController {
@@ -28,15 +34,21 @@ public class PrescriptionTableController {
 
     private final PrescriptionService service = new PrescriptionServiceImpl();
     private final PrescriptionItemService itemService = new PrescriptionItemServiceImpl();
-    private final ObservableList<Prescription> data = FXCollections.observableArrayList();
+    private final AsyncService<PrescriptionService> async = AsyncService.of(service);
+    private final AsyncService<PrescriptionItemService> asyncItems = AsyncService.of(itemService);
+    // refreshes are merged by id, so selection and scroll position survive them
+    private final KeyedObservableList<Prescription> data = new KeyedObservableList<>(Prescription::getPrescriptionId, PrescriptionTableController::sameRow);
+    private LiveRows<Prescription> live;
+    private boolean searching;   // a search result is shown; created rows are not added
+    private final LatestRequest<List<Prescription>> loads = new LatestRequest<>();
 
     @FXML
     public void initialize() {
-        colId.setCellValueFactory(new PropertyValueFactory<>("prescriptionId"));
-        colPatient.setCellValueFactory(new PropertyValueFactory<>("patientId"));
-        colDoctor.setCellValueFactory(new PropertyValueFactory<>("doctorId"));
-        colIssued.setCellValueFactory(new PropertyValueFactory<>("issuedAt"));
-        colNotes.setCellValueFactory(new PropertyValueFactory<>("notes"));
+        Columns.bind(colId, Prescription::getPrescriptionId);
+        Columns.bind(colPatient, Prescription::getPatientId);
+        Columns.bind(colDoctor, Prescription::getDoctorId);
+        Columns.bind(colIssued, Prescription::getIssuedAt);
+        Columns.bind(colNotes, Prescription::getNotes);
 
         colIssued.setCellFactory(col -> new TableCell<>() {
             final DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
@@ -47,21 +59,35 @@ public class PrescriptionTableController {
         });
 
         table.setItems(data);
+        // rows follow writes made here and on other workstations
+        live = new LiveRows<>(table, data, ChangeNotifier.Entity.PRESCRIPTION, Prescription.class, Prescription::getPrescriptionId);
+        live.setOnBulk(this::onRefresh);
+        live.setAcceptCreated(row -> !searching);
+        live.setNewestFirst(true);
         loadAll();
         addContextMenu();
     }
 
-    private void loadAll() { data.setAll(service.getAll()); }
+    private void loadAll() {
+        searching = false;
+        loads.submit(async.call(PrescriptionService::getAll), data::merge, this::showLoadError);
+    }
 
     @FXML private void onRefresh() { loadAll(); }
 
+    @FXML private void onExport() {
+        CsvExportDialog.show(table.getScene().getWindow(), CsvExporter.Source.PRESCRIPTIONS);
+    }
+
     @FXML private void onSearch() {
         String t = searchField.getText();
         if (t == null || t.isBlank()) { loadAll(); return; }
         // quick filter: allow numeric search for patient/doctor IDs
         try {
             long id = Long.parseLong(t.trim());
-            data.setAll(service.getById(id).map(List::of).orElseGet(List::of));
+            searching = true;
+            loads.submit(async.call(s -> s.getById(id).map(List::of).orElseGet(List::of)),
+                    data::merge, this::showLoadError);
         } catch (NumberFormatException e) {
             // could extend to search by date etc.; for now, show all
             loadAll();
@@ -71,14 +97,11 @@ public class PrescriptionTableController {
     @FXML private void onAdd() {
         Optional<Prescription> res = showFormDialog(null);
         res.ifPresent(p -> {
-            try {
-                Long id = service.create(p);
-                // optional: prompt to add items
-                askAddItems(id);
-                loadAll();
-            } catch (RuntimeException ex) {
-                showAlert(Alert.AlertType.ERROR, "Create failed", ex.getMessage());
-            }
+            // collect the items up front so header and items are saved in one transaction;
+            // the new row arrives through LiveRows
+            List<PrescriptionItem> items = askForItems();
+            FxAsync.whenDone(async.call(s -> s.saveWithItems(p, items)), id -> { },
+                    ex -> showAlert(Alert.AlertType.ERROR, "Create failed", ex.getMessage()));
         });
     }
 
@@ -88,9 +111,9 @@ public class PrescriptionTableController {
         Optional<Prescription> res = showFormDialog(selected);
         res.ifPresent(p -> {
             p.setPrescriptionId(selected.getPrescriptionId());
-            boolean ok = service.update(p);
-            if (!ok) showAlert(Alert.AlertType.ERROR, "Update failed", "Could not update");
-            loadAll();
+            FxAsync.whenDone(async.call(s -> s.update(p)), ok -> {
+                if (!ok) showAlert(Alert.AlertType.ERROR, "Update failed", "Could not update");
+            }, ex -> showAlert(Alert.AlertType.ERROR, "Update failed", ex.getMessage()));
         });
     }
 
@@ -101,11 +124,11 @@ public class PrescriptionTableController {
         confirm.setHeaderText(null);
         confirm.showAndWait().ifPresent(btn -> {
             if (btn == ButtonType.YES) {
-                // delete items first (FK has cascade, but belt & braces)
-                itemService.removeAllForPrescription(selected.getPrescriptionId());
-                boolean ok = service.remove(selected.getPrescriptionId());
-                if (!ok) showAlert(Alert.AlertType.ERROR, "Delete failed", "Could not delete");
-                loadAll();
+                // items and header go in one transaction (FK has cascade, but belt & braces)
+                Long prescId = selected.getPrescriptionId();
+                FxAsync.whenDone(async.call(s -> s.removeWithItems(prescId)), ok -> {
+                    if (!ok) showAlert(Alert.AlertType.ERROR, "Delete failed", "Could not delete");
+                }, ex -> showAlert(Alert.AlertType.ERROR, "Delete failed", ex.getMessage()));
             }
         });
     }
@@ -143,10 +166,9 @@ public class PrescriptionTableController {
     private void manageItemsDialog(Long prescriptionId) {
         // simplistic dialog: add one item at a time (you can make a richer table dialog later)
         Optional<PrescriptionItem> res = showItemDialog(prescriptionId, null);
-        res.ifPresent(item -> {
-            try { itemService.create(item); }
-            catch (RuntimeException ex) { showAlert(Alert.AlertType.ERROR, "Add item failed", ex.getMessage()); }
-        });
+        res.ifPresent(item -> FxAsync.whenDone(asyncItems.call(s -> s.create(item)),
+                id -> {},
+                ex -> showAlert(Alert.AlertType.ERROR, "Add item failed", ex.getMessage())));
     }
 
     private Optional<PrescriptionItem> showItemDialog(Long prescId, PrescriptionItem existing) {
@@ -170,12 +192,24 @@ public class PrescriptionTableController {
         }
     }
 
-    private void askAddItems(Long prescId) {
-        Alert a = new Alert(Alert.AlertType.CONFIRMATION, "Prescription created. Add items now?", ButtonType.YES, ButtonType.NO);
+    private List<PrescriptionItem> askForItems() {
+        List<PrescriptionItem> items = new ArrayList<>();
+        String prompt = "Add items to this prescription now?";
+        while (confirm(prompt)) {
+            showItemDialog(null, null).ifPresent(items::add);
+            prompt = items.size() + " item(s) added. Add another?";
+        }
+        return items;
+    }
+
+    private boolean confirm(String msg) {
+        Alert a = new Alert(Alert.AlertType.CONFIRMATION, msg, ButtonType.YES, ButtonType.NO);
         a.setHeaderText(null);
-        a.showAndWait().ifPresent(btn -> {
-            if (btn == ButtonType.YES) manageItemsDialog(prescId);
-        });
+        return a.showAndWait().filter(btn -> btn == ButtonType.YES).isPresent();
+    }
+
+    private void showLoadError(Throwable ex) {
+        showAlert(Alert.AlertType.ERROR, "Load failed", ex.getMessage());
     }
 
     private void showAlert(Alert.AlertType type, String title, String msg) {
@@ -185,4 +219,13 @@ public class PrescriptionTableController {
         a.setContentText(msg);
         a.show();
     }
+
+    // only rows whose shown values changed are replaced (and repainted) by a merge
+    private static boolean sameRow(Prescription a, Prescription b) {
+        return Objects.equals(a.getPatientId(), b.getPatientId())
+                && Objects.equals(a.getDoctorId(), b.getDoctorId())
+                && Objects.equals(a.getIssuedAt(), b.getIssuedAt())
+                && Objects.equals(a.getNotes(), b.getNotes());
+    }
+
 }
@@ -1,34 +1,27 @@
-
 package com.amalitech.hospitalmanagementsystem.controller;
 
-import com.amalitech.hospitalmanagementsystem.model.Patient;
-import com.amalitech.hospitalmanagementsystem.model.Doctor;
-import com.amalitech.hospitalmanagementsystem.model.Appointment;
-import com.amalitech.hospitalmanagementsystem.model.PatientFeedback;
 import com.amalitech.hospitalmanagementsystem.model.InventoryItem;
 
-import com.amalitech.hospitalmanagementsystem.service.PatientService;
-import com.amalitech.hospitalmanagementsystem.service.DoctorService;
-import com.amalitech.hospitalmanagementsystem.service.AppointmentService;
-import com.amalitech.hospitalmanagementsystem.service.PatientFeedbackService;
-import com.amalitech.hospitalmanagementsystem.service.InventoryService;
-
-import com.amalitech.hospitalmanagementsystem.service.impl.PatientServiceImpl;
-import com.amalitech.hospitalmanagementsystem.service.impl.DoctorServiceImpl;
-import com.amalitech.hospitalmanagementsystem.service.impl.AppointmentServiceImpl;
-import com.amalitech.hospitalmanagementsystem.service.impl.PatientFeedbackServiceImpl;
-import com.amalitech.hospitalmanagementsystem.service.impl.InventoryServiceImpl;
+import com.amalitech.hospitalmanagementsystem.dao.ReportingDao;
+import com.amalitech.hospitalmanagementsystem.dao.impl.ReportingDaoImpl;
+import com.amalitech.hospitalmanagementsystem.dao.ReportSummaryDao;
+import com.amalitech.hospitalmanagementsystem.dao.impl.ReportSummaryDaoImpl;
+import com.amalitech.hospitalmanagementsystem.service.AnalyticsEngine;
+import com.amalitech.hospitalmanagementsystem.service.ReportRefresher;
 
-import com.amalitech.hospitalmanagementsystem.dao.impl.PatientDaoImpl;
-import com.amalitech.hospitalmanagementsystem.dao.impl.DoctorDaoImpl;
+import com.amalitech.hospitalmanagementsystem.util.DbExecutor;
+import com.amalitech.hospitalmanagementsystem.util.LatestRequest;
 
 import javafx.fxml.FXML;
 import javafx.scene.chart.*;
-import javafx.application.Platform;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Label;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
 
 public class ReportsController {
 
@@ -43,14 +36,30 @@ public class ReportsController {
     @FXML private BarChart<String, Number> chartLowStockByCategory;
     @FXML private BarChart<String, Number> chartTopLowStockItems;
 
-    // Services
-    private final PatientService patientService = new PatientServiceImpl(new PatientDaoImpl());
-    private final DoctorService doctorService = new DoctorServiceImpl(new DoctorDaoImpl());
-    private final AppointmentService appointmentService = new AppointmentServiceImpl();
+    // charts fed only from the materialized reporting summaries
+    @FXML private BarChart<String, Number> chartTopMedications;
+    @FXML private BarChart<String, Number> chartActiveDoctors;
+    @FXML private BarChart<String, Number> chartUpcomingPerDoctor;
+    @FXML private BarChart<String, Number> chartLastVisit;
+    @FXML private Label summariesLabel;
+
+    private static final int TOP_N = 10; // show up to 10 items
+    private static final DateTimeFormatter DAY_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter TIME_FMT = DateTimeFormatter.ofPattern("HH:mm");
+
+    // Aggregates are computed by the database
+    private final ReportingDao reportingDao = new ReportingDaoImpl();
+    private final ReportSummaryDao summaryDao = new ReportSummaryDaoImpl();
+
+    private final LatestRequest<ReportData> loads = new LatestRequest<>();
 
-    // services
-    private final PatientFeedbackService feedbackService = new PatientFeedbackServiceImpl();
-    private final InventoryService inventoryService = new InventoryServiceImpl();
+    // aggregates fetched in the background, rendered on the FX thread
+    private record ReportData(Map<String, Integer> patientsBySex, Map<String, Integer> doctorsPerDept,
+                              Map<LocalDate, Integer> appointmentsPerDay, Map<Integer, Integer> feedbackByRating,
+                              Map<LocalDate, Integer> feedbackPerDay, Map<String, Integer> lowStockByCategory,
+                              List<InventoryItem> topLowStock, List<ReportSummaryDao.MedicationCount> topMedications,
+                              List<ReportSummaryDao.DoctorActivity> activeDoctors, Map<String, Integer> upcomingPerDoctor,
+                              Map<String, Integer> lastVisitRecency, LocalDateTime summariesAsOf) {}
 
     @FXML
     public void initialize() {
@@ -59,43 +68,58 @@ public class ReportsController {
 
     @FXML
     public void refreshReports() {
-        Platform.runLater(() -> {
-            loadPatientsByGender();
-            loadDoctorsPerDept();
-            loadAppointmentsTrend();
-
-            loadFeedbackRatings();
-            loadFeedbackTrend();
+        // bring summaries with pending changes up to date first; a failed refresh still shows the last one
+        CompletableFuture<ReportData> data = ReportRefresher.refreshPending()
+                .exceptionally(ex -> null)
+                .thenApplyAsync(v -> fetchData(), DbExecutor.get());
+        loads.submit(data, this::render,
+                ex -> new Alert(Alert.AlertType.ERROR, "Could not load reports: " + ex.getMessage()).show());
+    }
 
-            loadInventoryLowStockByCategory();
-            loadTopLowStockItems();
-        });
+    private ReportData fetchData() {
+        // histograms come from the in-memory counters; the rest still query the database
+        AnalyticsEngine.Snapshot counts = AnalyticsEngine.snapshot();
+        return new ReportData(
+                counts.patientsBySex(),
+                reportingDao.countDoctorsPerDepartment(),
+                counts.appointmentsPerDay(),
+                counts.feedbackByRating(),
+                chartFeedbackTrend == null ? Map.of() : reportingDao.countFeedbackPerDay(),
+                counts.lowStockByCategory(),
+                reportingDao.findTopLowStock(TOP_N),
+                summaryDao.topMedications(TOP_N),
+                summaryDao.mostActiveDoctors(TOP_N),
+                summaryDao.countUpcomingPerDoctor(),
+                summaryDao.countPatientsBySinceLastVisit(),
+                ReportRefresher.lastRefresh());
     }
 
+    private void render(ReportData data) {
+        loadPatientsByGender(data.patientsBySex());
+        loadDoctorsPerDept(data.doctorsPerDept());
+        loadAppointmentsTrend(data.appointmentsPerDay());
 
-    private void loadPatientsByGender() {
-        Map<String, Integer> genderCounts = new HashMap<>();
-        genderCounts.put("M", 0);
-        genderCounts.put("F", 0);
-        genderCounts.put("Other", 0);
+        loadFeedbackRatings(data.feedbackByRating());
+        loadFeedbackTrend(data.feedbackPerDay());
+
+        loadInventoryLowStockByCategory(data.lowStockByCategory());
+        loadTopLowStockItems(data.topLowStock());
+
+        loadTopMedications(data.topMedications());
+        loadActiveDoctors(data.activeDoctors());
+        loadCounts(chartUpcomingPerDoctor, "Upcoming", data.upcomingPerDoctor());
+        loadCounts(chartLastVisit, "Patients", data.lastVisitRecency());
+        summariesLabel.setText(data.summariesAsOf() == null ? "Summaries not refreshed yet"
+                : "Summaries as of " + data.summariesAsOf().format(TIME_FMT));
+    }
 
-        for (Patient p : patientService.getAll()) {
-            String g = p.getGender() == null ? "Other" : p.getGender().trim();
-            if (!genderCounts.containsKey(g)) g = "Other";
-            genderCounts.put(g, genderCounts.get(g) + 1);
-        }
 
+    private void loadPatientsByGender(Map<String, Integer> genderCounts) {
         chartPatientsByGender.getData().clear();
         genderCounts.forEach((k, v) -> { if (v > 0) chartPatientsByGender.getData().add(new PieChart.Data(k, v)); });
     }
 
-    private void loadDoctorsPerDept() {
-        Map<String, Integer> deptCounts = new TreeMap<>();
-        for (Doctor d : doctorService.getAll()) {
-            String deptName = (d.getDepartmentId() == null) ? "Unassigned" : "Dept " + d.getDepartmentId();
-            deptCounts.put(deptName, deptCounts.getOrDefault(deptName, 0) + 1);
-        }
-
+    private void loadDoctorsPerDept(Map<String, Integer> deptCounts) {
         chartDoctorsPerDept.getData().clear();
         XYChart.Series<String, Number> series = new XYChart.Series<>();
         series.setName("Doctors");
@@ -103,72 +127,37 @@ public class ReportsController {
         chartDoctorsPerDept.getData().add(series);
     }
 
-    private void loadAppointmentsTrend() {
-        Map<String, Integer> dateCounts = new TreeMap<>();
-        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-
-        for (Appointment a : appointmentService.getAll()) {
-            String date = a.getAppointmentDate().toLocalDate().format(fmt);
-            dateCounts.put(date, dateCounts.getOrDefault(date, 0) + 1);
-        }
-
+    private void loadAppointmentsTrend(Map<LocalDate, Integer> dateCounts) {
         chartAppointmentsTrend.getData().clear();
         XYChart.Series<String, Number> series = new XYChart.Series<>();
         series.setName("Appointments");
-        dateCounts.forEach((date, count) -> series.getData().add(new XYChart.Data<>(date, count)));
+        dateCounts.forEach((date, count) -> series.getData().add(new XYChart.Data<>(date.format(DAY_FMT), count)));
         chartAppointmentsTrend.getData().add(series);
     }
 
     //Feedback analytics
-    private void loadFeedbackRatings() {
+    private void loadFeedbackRatings(Map<Integer, Integer> ratingCounts) {
         // Ratings distribution (1..5)
-        Map<Integer, Integer> ratingCounts = new TreeMap<>();
-        for (int r = 1; r <= 5; r++) ratingCounts.put(r, 0);
-
-        for (PatientFeedback f : feedbackService.getAll()) {
-            Integer r = f.getRating();
-            if (r != null && r >= 1 && r <= 5) ratingCounts.put(r, ratingCounts.get(r) + 1);
-        }
-
         chartFeedbackRatings.getData().clear();
         ratingCounts.forEach((r, count) -> {
             if (count > 0) chartFeedbackRatings.getData().add(new PieChart.Data(String.valueOf(r), count));
         });
     }
 
-    @SuppressWarnings("unused")
-    private void loadFeedbackTrend() {
+    private void loadFeedbackTrend(Map<LocalDate, Integer> dateCounts) {
         // Optional: daily count trend (if you add chartFeedbackTrend to FXML)
-        Map<String, Integer> dateCounts = new TreeMap<>();
-        DateTimeFormatter fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-        for (PatientFeedback f : feedbackService.getAll()) {
-            if (f.getCreatedAt() == null) continue;
-            String d = f.getCreatedAt().toLocalDate().format(fmt);
-            dateCounts.put(d, dateCounts.getOrDefault(d, 0) + 1);
-        }
         if (chartFeedbackTrend == null) return; // guard if not in FXML
 
         chartFeedbackTrend.getData().clear();
         XYChart.Series<String, Number> series = new XYChart.Series<>();
         series.setName("Feedback");
-        dateCounts.forEach((date, count) -> series.getData().add(new XYChart.Data<>(date, count)));
+        dateCounts.forEach((date, count) -> series.getData().add(new XYChart.Data<>(date.format(DAY_FMT), count)));
         chartFeedbackTrend.getData().add(series);
     }
 
     //Inventory analytics
-    private void loadInventoryLowStockByCategory() {
-        List<InventoryItem> all = inventoryService.getAll();
-        // Filter: below or equal to reorder level
-        List<InventoryItem> low = all.stream()
-                .filter(i -> i.getQuantity() != null && i.getReorderLevel() != null && i.getQuantity() <= i.getReorderLevel())
-                .toList();
-
-        Map<String, Integer> perCategory = new TreeMap<>();
-        for (InventoryItem i : low) {
-            String cat = (i.getCategory() == null || i.getCategory().isBlank()) ? "Uncategorized" : i.getCategory().trim();
-            perCategory.put(cat, perCategory.getOrDefault(cat, 0) + 1);
-        }
-
+    private void loadInventoryLowStockByCategory(Map<String, Integer> perCategory) {
+        // Items at or below reorder level, per category
         chartLowStockByCategory.getData().clear();
         XYChart.Series<String, Number> series = new XYChart.Series<>();
         series.setName("Items <= Reorder");
@@ -176,21 +165,8 @@ public class ReportsController {
         chartLowStockByCategory.getData().add(series);
     }
 
-    private void loadTopLowStockItems() {
-        final int TOP_N = 10; // show up to 10 items
-        List<InventoryItem> low = inventoryService.getAll().stream()
-                .filter(i -> i.getQuantity() != null && i.getReorderLevel() != null && i.getQuantity() <= i.getReorderLevel())
-                .collect(Collectors.toList());
-
-        // Sorting
-        low.sort((a, b) -> {
-            int defA = Math.max(0, a.getReorderLevel() - a.getQuantity());
-            int defB = Math.max(0, b.getReorderLevel() - b.getQuantity());
-            return Integer.compare(defB, defA);
-        });
-
-        List<InventoryItem> top = low.stream().limit(TOP_N).toList();
-
+    private void loadTopLowStockItems(List<InventoryItem> top) {
+        // Already sorted by deficit and limited to TOP_N by the query
         chartTopLowStockItems.getData().clear();
         XYChart.Series<String, Number> series = new XYChart.Series<>();
         series.setName("Units Needed");
@@ -204,4 +180,39 @@ public class ReportsController {
         chartTopLowStockItems.getData().add(series);
         chartTopLowStockItems.getXAxis().setTickLabelRotation(45);
     }
+
+    //Reporting summaries
+    private void loadTopMedications(List<ReportSummaryDao.MedicationCount> top) {
+        chartTopMedications.getData().clear();
+        XYChart.Series<String, Number> series = new XYChart.Series<>();
+        series.setName("Times Prescribed");
+        for (ReportSummaryDao.MedicationCount m : top) {
+            series.getData().add(new XYChart.Data<>(shorten(m.medicationName()), m.timesPrescribed()));
+        }
+        chartTopMedications.getData().add(series);
+        chartTopMedications.getXAxis().setTickLabelRotation(45);
+    }
+
+    private void loadActiveDoctors(List<ReportSummaryDao.DoctorActivity> top) {
+        chartActiveDoctors.getData().clear();
+        XYChart.Series<String, Number> series = new XYChart.Series<>();
+        series.setName("Appointments");
+        for (ReportSummaryDao.DoctorActivity d : top) {
+            series.getData().add(new XYChart.Data<>(shorten(d.doctorName()), d.appointmentCount()));
+        }
+        chartActiveDoctors.getData().add(series);
+    }
+
+    private void loadCounts(BarChart<String, Number> chart, String name, Map<String, Integer> counts) {
+        chart.getData().clear();
+        XYChart.Series<String, Number> series = new XYChart.Series<>();
+        series.setName(name);
+        counts.forEach((k, v) -> series.getData().add(new XYChart.Data<>(shorten(k), v)));
+        chart.getData().add(series);
+    }
+
+    private static String shorten(String s) {
+        if (s == null) return "-";
+        return s.length() > 20 ? s.substring(0, 17) + "…" : s;
+    }
 }
@@ -3,26 +3,45 @@ package com.amalitech.hospitalmanagementsystem.dao;
 
 import com.amalitech.hospitalmanagementsystem.model.Appointment;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface AppointmentDao {
     Long create(Appointment a);
+    List<Long> createAll(List<Appointment> appointments);
+    int updateAll(List<Appointment> appointments);
     boolean update(Appointment a);
     boolean deleteById(Long appointmentId);
 
     Optional<Appointment> findById(Long appointmentId);
     List<Appointment> findAll();
+    // Rows in appointment_id order, fetched fetchSize at a time; close the stream to release the connection
+    Stream<Appointment> streamAll(int fetchSize);
 
     // Filters
     List<Appointment> findByDate(LocalDate date); // matches date only (any time on that date)
     List<Appointment> findByDoctor(Long doctorId, LocalDate fromDate, LocalDate toDate);
     List<Appointment> findByPatient(Long patientId, LocalDate fromDate, LocalDate toDate);
+    long countByDate(LocalDate date);
+    // Case-insensitive substring match on patient or doctor name, status or reason; newest first
+    List<Appointment> search(String term, int limit, int offset);
 
     boolean updateStatus(Long appointmentId, String status);
 
     // Optional: check for double-booking for same doctor at same minute
     boolean existsDoctorSlot(Long doctorId, LocalDateTime dateTime);
+
+    // An active appointment of the doctor starting less than 'slot' before or after 'start', if any
+    Optional<Long> findOverlapping(Long doctorId, LocalDateTime start, Duration slot, Long excludeAppointmentId);
+
+    // Serializes bookings for one doctor until the current transaction ends, across all clients;
+    // must be called inside TransactionManager.inTransaction
+    void lockDoctorSchedule(Long doctorId);
+
+    // Non-cancelled appointments of one doctor starting at or after 'from' (schedule index source)
+    List<Appointment> findActiveByDoctorFrom(Long doctorId, LocalDateTime from);
 }
@@ -14,4 +14,5 @@ public interface DepartmentDao {
     Optional<Department> findById(Long id);
     List<Department> findAll();
     List<Department> searchByName(String nameLike);
+    long countDepartments();
 }
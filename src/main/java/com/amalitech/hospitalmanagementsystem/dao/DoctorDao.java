@@ -4,13 +4,21 @@ package com.amalitech.hospitalmanagementsystem.dao;
 import com.amalitech.hospitalmanagementsystem.model.Doctor;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface DoctorDao {
     Long create(Doctor doctor);
+    List<Long> createAll(List<Doctor> doctors);
+    int updateAll(List<Doctor> doctors);
     boolean update(Doctor doctor);
     boolean deleteById(Long id);
     Optional<Doctor> findById(Long id);
     List<Doctor> findAll();
+    // Rows in doctor_id order, fetched fetchSize at a time; close the stream to release the connection
+    Stream<Doctor> streamAll(int fetchSize);
     List<Doctor> searchByNameOrSpecialization(String term);
+    long countDoctors();
+    Map<Long, String> findNamesByIds(long[] ids); // id -> "First Last", missing ids omitted
 }
@@ -4,13 +4,19 @@ package com.amalitech.hospitalmanagementsystem.dao;
 import com.amalitech.hospitalmanagementsystem.model.InventoryItem;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface InventoryDao {
     Long create(InventoryItem i);
+    List<Long> createAll(List<InventoryItem> items);
+    int updateAll(List<InventoryItem> items);
     boolean update(InventoryItem i);
     boolean deleteById(Long itemId);
     Optional<InventoryItem> findById(Long itemId);
     List<InventoryItem> findAll();
+    // Rows in item_id order, fetched fetchSize at a time; close the stream to release the connection
+    Stream<InventoryItem> streamAll(int fetchSize);
     List<InventoryItem> searchByNameOrCategory(String term);
     boolean adjustQuantity(Long itemId, int delta); // +/- stock movements
+    long countLowStock(); // quantity <= reorder_level
 }
@@ -3,13 +3,28 @@ package com.amalitech.hospitalmanagementsystem.dao;
 
 import com.amalitech.hospitalmanagementsystem.model.Patient;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PatientDao {
     Long create(Patient patient);
+    List<Long> createAll(List<Patient> patients);   // one batch, one transaction; ids in input order
+    int updateAll(List<Patient> patients);          // returns rows changed
     boolean update(Patient patient);
     boolean deleteById(Long id);
     Optional<Patient> findById(Long id);
     List<Patient> findAll();
+    // Rows in patient_id order, fetched fetchSize at a time; close the stream to release the connection
+    Stream<Patient> streamAll(int fetchSize);
     List<Patient> searchByName(String nameLike);
+    long countPatients();
+    Map<Long, String> findNamesByIds(long[] ids); // id -> "First Last", missing ids omitted
+
+    // Keyset pagination (pages are returned in display order)
+    List<Patient> findPageAfter(Long afterId, int limit);   // afterId null -> first page
+    List<Patient> findPageBefore(Long beforeId, int limit);
+
+    // Quick search over name, phone and email (pg_trgm index), best matches first
+    List<Patient> searchRanked(String term, int limit, int offset);
 }
@@ -4,13 +4,24 @@ package com.amalitech.hospitalmanagementsystem.dao;
 import com.amalitech.hospitalmanagementsystem.model.PatientFeedback;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PatientFeedbackDao {
     Long create(PatientFeedback f);
+    List<Long> createAll(List<PatientFeedback> feedback);
+    int updateAll(List<PatientFeedback> feedback);
     boolean update(PatientFeedback f);
     boolean deleteById(Long feedbackId);
     Optional<PatientFeedback> findById(Long feedbackId);
     List<PatientFeedback> findAll();
+    // Rows in feedback_id order, fetched fetchSize at a time; close the stream to release the connection
+    Stream<PatientFeedback> streamAll(int fetchSize);
     List<PatientFeedback> findByPatient(Long patientId);
     List<PatientFeedback> findByDoctor(Long doctorId);
+    // Case-insensitive substring match on patient or doctor name or comments, or an exact rating; newest first
+    List<PatientFeedback> search(String term, int limit, int offset);
+
+    // Aggregates
+    long countFeedback();
+    double averageRating(); // 0 when there is no rated feedback
 }
@@ -5,13 +5,16 @@ import com.amalitech.hospitalmanagementsystem.model.Prescription;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PrescriptionDao {
     Long create(Prescription p);
     boolean update(Prescription p);
-    boolean deleteById(Long id);
+    boolean deleteById(Long id);   // false if no such prescription; throws on SQL errors
     Optional<Prescription> findById(Long id);
     List<Prescription> findAll();
+    // Rows in prescription_id order, fetched fetchSize at a time; close the stream to release the connection
+    Stream<Prescription> streamAll(int fetchSize);
 
     // queries for convenience
     List<Prescription> findByPatient(Long patientId);
@@ -7,9 +7,11 @@ import java.util.Optional;
 
 public interface PrescriptionItemDao {
     Long create(PrescriptionItem item);
+    List<Long> createAll(List<PrescriptionItem> items);
+    int updateAll(List<PrescriptionItem> items);
     boolean update(PrescriptionItem item);
     boolean deleteById(Long itemId);
     Optional<PrescriptionItem> findById(Long itemId);
     List<PrescriptionItem> findByPrescription(Long prescriptionId);
-    boolean deleteByPrescription(Long prescriptionId);
+    boolean deleteByPrescription(Long prescriptionId);   // false if there were no items; throws on SQL errors
 }
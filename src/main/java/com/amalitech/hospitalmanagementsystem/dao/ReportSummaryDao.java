@@ -0,0 +1,44 @@
+package com.amalitech.hospitalmanagementsystem.dao;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the materialized reporting summaries defined in {@code db/reporting_views.sql}.
+ * Queries never touch the live tables; {@link #refresh(View)} brings a summary up to date.
+ */
+public interface ReportSummaryDao {
+
+    /** The summaries, by materialized view name. */
+    enum View {
+        TOP_MEDICATIONS("mv_top_medications"),
+        PATIENT_LAST_VISIT("mv_patient_last_visit"),
+        DOCTOR_ACTIVITY("mv_doctor_activity"),
+        UPCOMING_APPOINTMENTS("mv_upcoming_appointments");
+
+        private final String table;
+
+        View(String table) { this.table = table; }
+
+        public String table() { return table; }
+    }
+
+    record MedicationCount(String medicationName, long timesPrescribed) {}
+    record PatientLastVisit(long patientId, String firstName, String lastName, LocalDateTime lastVisit) {}
+    record DoctorActivity(long doctorId, String doctorName, long appointmentCount) {}
+    record UpcomingAppointment(long appointmentId, long doctorId, LocalDateTime appointmentDate, String status,
+                               String reason, String patientName, String doctorName) {}
+
+    // Creates the views and indexes unless all of them exist already (no DDL once installed)
+    void ensureViews();
+    // REFRESH MATERIALIZED VIEW CONCURRENTLY; blocks until done
+    void refresh(View view);
+
+    List<MedicationCount> topMedications(int limit);                  // last 60 days, most prescribed first
+    List<PatientLastVisit> lastVisits(int limit);                     // most recent first, never-visited last
+    Map<String, Integer> countPatientsBySinceLastVisit();             // recency bucket -> patients, in bucket order
+    List<DoctorActivity> mostActiveDoctors(int limit);                // last 30 days, busiest first
+    List<UpcomingAppointment> upcomingAppointments(Long doctorId);    // next 7 days; null doctorId -> all doctors
+    Map<String, Integer> countUpcomingPerDoctor();                    // doctor name -> appointments in the next 7 days
+}
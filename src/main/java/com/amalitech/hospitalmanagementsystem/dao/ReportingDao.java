@@ -0,0 +1,21 @@
+package com.amalitech.hospitalmanagementsystem.dao;
+
+import com.amalitech.hospitalmanagementsystem.model.InventoryItem;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregate queries for charts and dashboards.
+ * Grouping happens in the database, so results stay small regardless of table size.
+ */
+public interface ReportingDao {
+    Map<String, Integer> countPatientsBySex();            // "M", "F", "Other"
+    Map<String, Integer> countDoctorsPerDepartment();     // department name (or "Unassigned") -> doctors
+    Map<LocalDate, Integer> countAppointmentsPerDay(LocalDate from, LocalDate toExclusive); // null bound -> open
+    Map<Integer, Integer> countFeedbackByRating();        // rating 1..5 -> entries
+    Map<LocalDate, Integer> countFeedbackPerDay();
+    Map<String, Integer> countLowStockByCategory();       // quantity <= reorder_level
+    List<InventoryItem> findTopLowStock(int limit);       // largest deficit first
+}
@@ -4,17 +4,23 @@ package com.amalitech.hospitalmanagementsystem.dao.impl;
 import com.amalitech.hospitalmanagementsystem.dao.AppointmentDao;
 import com.amalitech.hospitalmanagementsystem.model.Appointment;
 import com.amalitech.hospitalmanagementsystem.util.DBConnectionUtil;
+import com.amalitech.hospitalmanagementsystem.util.JdbcStream;
+import com.amalitech.hospitalmanagementsystem.util.JdbcBatch;
+import com.amalitech.hospitalmanagementsystem.util.SqlLike;
+import com.amalitech.hospitalmanagementsystem.util.TransactionManager;
 
 import java.sql.*;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public class AppointmentDaoImpl implements AppointmentDao {
 
-    private Appointment map(ResultSet rs) throws SQLException {
+    Appointment map(ResultSet rs) throws SQLException {
         Appointment a = new Appointment();
         a.setAppointmentId(rs.getLong("appointment_id"));
         a.setPatientId(rs.getLong("patient_id"));
@@ -58,6 +64,28 @@ public class AppointmentDaoImpl implements AppointmentDao {
         return null;
     }
 
+    @Override
+    public List<Long> createAll(List<Appointment> appointments) {
+        for (Appointment a : appointments) a.validate();
+        final String sql = """
+            INSERT INTO appointments (patient_id, doctor_id, appointment_date, status, reason, created_at)
+            VALUES (?, ?, ?, ?, ?, NOW())
+            """;
+        try {
+            List<Long> ids = JdbcBatch.insertAll(sql, "appointment_id", appointments, (ps, a) -> {
+                ps.setLong(1, a.getPatientId());
+                ps.setLong(2, a.getDoctorId());
+                ps.setTimestamp(3, Timestamp.valueOf(a.getAppointmentDate()));
+                ps.setString(4, a.getStatus());
+                ps.setString(5, a.getReason());
+            });
+            for (int i = 0; i < ids.size(); i++) appointments.get(i).setAppointmentId(ids.get(i));
+            return ids;
+        } catch (SQLException ex) {
+            throw new RuntimeException("Failed to create appointments: " + ex.getMessage(), ex);
+        }
+    }
+
     @Override
     public boolean update(Appointment a) {
         a.validate();
@@ -83,6 +111,28 @@ public class AppointmentDaoImpl implements AppointmentDao {
         }
     }
 
+    @Override
+    public int updateAll(List<Appointment> appointments) {
+        for (Appointment a : appointments) a.validate();
+        final String sql = """
+            UPDATE appointments SET
+                patient_id = ?, doctor_id = ?, appointment_date = ?, status = ?, reason = ?
+            WHERE appointment_id = ?
+            """;
+        try {
+            return JdbcBatch.updateAll(sql, appointments, (ps, a) -> {
+                ps.setLong(1, a.getPatientId());
+                ps.setLong(2, a.getDoctorId());
+                ps.setTimestamp(3, Timestamp.valueOf(a.getAppointmentDate()));
+                ps.setString(4, a.getStatus());
+                ps.setString(5, a.getReason());
+                ps.setLong(6, a.getAppointmentId());
+            });
+        } catch (SQLException ex) {
+            throw new RuntimeException("Failed to update appointments: " + ex.getMessage(), ex);
+        }
+    }
+
     @Override
     public boolean deleteById(Long appointmentId) {
         final String sql = "DELETE FROM appointments WHERE appointment_id = ?";
@@ -106,11 +156,16 @@ public class AppointmentDaoImpl implements AppointmentDao {
                 if (rs.next()) return Optional.of(map(rs));
             }
         } catch (SQLException ex) {
-            ex.printStackTrace();
+            throw new RuntimeException("Find appointment failed: " + ex.getMessage(), ex);
         }
         return Optional.empty();
     }
 
+    @Override
+    public Stream<Appointment> streamAll(int fetchSize) {
+        return JdbcStream.query("SELECT * FROM appointments ORDER BY appointment_id", fetchSize, this::map);
+    }
+
     @Override
     public List<Appointment> findAll() {
         final String sql = "SELECT * FROM appointments ORDER BY appointment_date DESC";
@@ -125,6 +180,37 @@ public class AppointmentDaoImpl implements AppointmentDao {
         return out;
     }
 
+    @Override
+    public List<Appointment> search(String term, int limit, int offset) {
+        // The name subqueries run once each against the trigram indexes and are hashed; the outer
+        // scan walks appointment_date newest first and stops after LIMIT matches
+        final String sql = """
+            SELECT a.* FROM appointments a
+            WHERE a.patient_id IN (SELECT patient_id FROM patients
+                                   WHERE LOWER(first_name || ' ' || last_name) LIKE ? ESCAPE '\\')
+               OR a.doctor_id IN (SELECT doctor_id FROM public.doctors
+                                  WHERE LOWER(first_name || ' ' || last_name) LIKE ? ESCAPE '\\')
+               OR LOWER(a.status) LIKE ? ESCAPE '\\'
+               OR LOWER(a.reason) LIKE ? ESCAPE '\\'
+            ORDER BY a.appointment_date DESC, a.appointment_id DESC
+            LIMIT ? OFFSET ?
+            """;
+        String pattern = SqlLike.contains(term.trim().toLowerCase());
+        List<Appointment> out = new ArrayList<>();
+        try (Connection con = DBConnectionUtil.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+            for (int i = 1; i <= 4; i++) ps.setString(i, pattern);
+            ps.setInt(5, limit);
+            ps.setInt(6, offset);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) out.add(map(rs));
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException("Search appointments failed: " + ex.getMessage(), ex);
+        }
+        return out;
+    }
+
     @Override
     public List<Appointment> findByDate(LocalDate date) {
         final String sql = """
@@ -195,6 +281,25 @@ public class AppointmentDaoImpl implements AppointmentDao {
         return out;
     }
 
+    @Override
+    public long countByDate(LocalDate date) {
+        final String sql = """
+            SELECT COUNT(*) FROM appointments
+            WHERE appointment_date >= ?::date
+              AND appointment_date < (?::date + INTERVAL '1 day')
+            """;
+        try (Connection con = DBConnectionUtil.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setDate(1, Date.valueOf(date));
+            ps.setDate(2, Date.valueOf(date));
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        } catch (SQLException ex) {
+            throw new RuntimeException("Count appointments failed: " + ex.getMessage(), ex);
+        }
+    }
+
     @Override
     public boolean updateStatus(Long appointmentId, String status) {
         final String sql = "UPDATE appointments SET status = ? WHERE appointment_id = ?";
@@ -215,7 +320,7 @@ public class AppointmentDaoImpl implements AppointmentDao {
             SELECT 1 FROM appointments
             WHERE doctor_id = ?
               AND appointment_date = ?
-              AND status <> 'CANCELLED'
+              AND UPPER(status) <> 'CANCELLED'
             """;
         try (Connection con = DBConnectionUtil.getConnection();
              PreparedStatement ps = con.prepareStatement(sql)) {
@@ -229,4 +334,70 @@ public class AppointmentDaoImpl implements AppointmentDao {
             return false;
         }
     }
+
+    @Override
+    public Optional<Long> findOverlapping(Long doctorId, LocalDateTime start, Duration slot, Long excludeAppointmentId) {
+        final String sql = """
+            SELECT appointment_id FROM appointments
+            WHERE doctor_id = ?
+              AND appointment_date > ?
+              AND appointment_date < ?
+              AND UPPER(status) <> 'CANCELLED'
+              AND appointment_id <> ?
+            ORDER BY appointment_date
+            LIMIT 1
+            """;
+        try (Connection con = DBConnectionUtil.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setLong(1, doctorId);
+            ps.setTimestamp(2, Timestamp.valueOf(start.minus(slot)));
+            ps.setTimestamp(3, Timestamp.valueOf(start.plus(slot)));
+            ps.setLong(4, excludeAppointmentId == null ? -1L : excludeAppointmentId);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? Optional.of(rs.getLong(1)) : Optional.empty();
+            }
+        } catch (SQLException ex) {
+            // reporting "free" on an error would let a double booking through
+            throw new RuntimeException("Failed to check doctor availability: " + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public void lockDoctorSchedule(Long doctorId) {
+        if (!TransactionManager.isActive())
+            throw new IllegalStateException("lockDoctorSchedule must run inside a transaction");
+        // transaction-scoped advisory lock, released on commit or rollback; the first key namespaces it
+        final String sql = "SELECT pg_advisory_xact_lock(hashtext('appointments.doctor_id'), hashtext(?::text))";
+        try (Connection con = DBConnectionUtil.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setLong(1, doctorId);
+            ps.executeQuery().close();
+        } catch (SQLException ex) {
+            throw new RuntimeException("Failed to lock doctor schedule: " + ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public List<Appointment> findActiveByDoctorFrom(Long doctorId, LocalDateTime from) {
+        final String sql = """
+            SELECT * FROM appointments
+            WHERE doctor_id = ?
+              AND appointment_date >= ?
+              AND UPPER(status) <> 'CANCELLED'
+            ORDER BY appointment_date ASC
+            """;
+        List<Appointment> out = new ArrayList<>();
+        try (Connection con = DBConnectionUtil.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setLong(1, doctorId);
+            ps.setTimestamp(2, Timestamp.valueOf(from));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) out.add(map(rs));
+            }
+        } catch (SQLException ex) {
+            // an empty schedule would report every slot as free, so fail loudly
+            throw new RuntimeException("Failed to load doctor schedule: " + ex.getMessage(), ex);
+        }
+        return out;
+    }
 }
@@ -92,8 +92,7 @@ public class DepartmentDaoImpl implements DepartmentDao {
                 return Optional.empty();
             }
         } catch (SQLException e) {
-            log.error("Find department failed", e);
-            return Optional.empty();
+            throw new RuntimeException("Find department failed: " + e.getMessage(), e);
         }
     }
 
@@ -138,7 +137,20 @@ public class DepartmentDaoImpl implements DepartmentDao {
         return list;
     }
 
-    private Department mapRow(ResultSet rs) throws SQLException {
+    @Override
+    public long countDepartments() {
+        final String sql = "SELECT COUNT(*) FROM public.departments";
+        try (Connection con = DBConnectionUtil.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        } catch (SQLException e) {
+            log.error("Count departments failed", e);
+            throw new RuntimeException("Count departments failed: " + e.getMessage(), e);
+        }
+    }
+
+    Department mapRow(ResultSet rs) throws SQLException {
         Department d = new Department();
         d.setId(rs.getLong(COL_ID));
         d.setName(rs.getString(COL_NAME));
@@ -4,13 +4,18 @@ package com.amalitech.hospitalmanagementsystem.dao.impl;
 import com.amalitech.hospitalmanagementsystem.dao.DoctorDao;
 import com.amalitech.hospitalmanagementsystem.model.Doctor;
 import com.amalitech.hospitalmanagementsystem.util.DBConnectionUtil;
+import com.amalitech.hospitalmanagementsystem.util.JdbcBatch;
+import com.amalitech.hospitalmanagementsystem.util.JdbcStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public class DoctorDaoImpl implements DoctorDao {
     private static final Logger log = LoggerFactory.getLogger(DoctorDaoImpl.class);
@@ -55,6 +60,29 @@ public class DoctorDaoImpl implements DoctorDao {
         }
     }
 
+    @Override
+    public List<Long> createAll(List<Doctor> doctors) {
+        final String sql = """
+            INSERT INTO public.doctors (first_name, last_name, specialization, department_id, phone, email)
+            VALUES (?, ?, ?, ?, ?, ?)
+        """;
+        try {
+            List<Long> ids = JdbcBatch.insertAll(sql, COL_ID, doctors, (ps, d) -> {
+                ps.setString(1, d.getFirstName());
+                ps.setString(2, d.getLastName());
+                ps.setString(3, d.getSpecialization());
+                if (d.getDepartmentId() == null) ps.setNull(4, Types.BIGINT); else ps.setLong(4, d.getDepartmentId());
+                ps.setString(5, d.getPhone());
+                ps.setString(6, d.getEmail());
+            });
+            for (int i = 0; i < ids.size(); i++) doctors.get(i).setId(ids.get(i));
+            return ids;
+        } catch (SQLException e) {
+            log.error("Batch create doctors failed", e);
+            throw new RuntimeException("Batch create doctors failed: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public boolean update(Doctor d) {
         final String sql = """
@@ -80,6 +108,29 @@ public class DoctorDaoImpl implements DoctorDao {
         }
     }
 
+    @Override
+    public int updateAll(List<Doctor> doctors) {
+        final String sql = """
+            UPDATE public.doctors
+            SET first_name=?, last_name=?, specialization=?, department_id=?, phone=?, email=?
+            WHERE doctor_id=?
+        """;
+        try {
+            return JdbcBatch.updateAll(sql, doctors, (ps, d) -> {
+                ps.setString(1, d.getFirstName());
+                ps.setString(2, d.getLastName());
+                ps.setString(3, d.getSpecialization());
+                if (d.getDepartmentId() == null) ps.setNull(4, Types.BIGINT); else ps.setLong(4, d.getDepartmentId());
+                ps.setString(5, d.getPhone());
+                ps.setString(6, d.getEmail());
+                ps.setLong(7, d.getId());
+            });
+        } catch (SQLException e) {
+            log.error("Batch update doctors failed", e);
+            throw new RuntimeException("Batch update doctors failed: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public boolean deleteById(Long id) {
         final String sql = "DELETE FROM public.doctors WHERE doctor_id=?";
@@ -110,8 +161,7 @@ public class DoctorDaoImpl implements DoctorDao {
                 return Optional.empty();
             }
         } catch (SQLException e) {
-            log.error("Find doctor failed", e);
-            return Optional.empty();
+            throw new RuntimeException("Find doctor failed: " + e.getMessage(), e);
         }
     }
 
@@ -133,6 +183,16 @@ public class DoctorDaoImpl implements DoctorDao {
         return list;
     }
 
+    @Override
+    public Stream<Doctor> streamAll(int fetchSize) {
+        final String sql = """
+            SELECT doctor_id, first_name, last_name, specialization, department_id, phone, email
+            FROM public.doctors
+            ORDER BY doctor_id
+        """;
+        return JdbcStream.query(sql, fetchSize, this::mapRow);
+    }
+
     @Override
     public List<Doctor> searchByNameOrSpecialization(String term) {
         final String sql = """
@@ -161,7 +221,45 @@ public class DoctorDaoImpl implements DoctorDao {
         return list;
     }
 
-    private Doctor mapRow(ResultSet rs) throws SQLException {
+    @Override
+    public long countDoctors() {
+        final String sql = "SELECT COUNT(*) FROM public.doctors";
+        try (Connection con = DBConnectionUtil.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        } catch (SQLException e) {
+            log.error("Count doctors failed", e);
+            throw new RuntimeException("Count doctors failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Map<Long, String> findNamesByIds(long[] ids) {
+        Map<Long, String> out = new HashMap<>();
+        if (ids == null || ids.length == 0) return out;
+        final String sql = "SELECT doctor_id, first_name, last_name FROM public.doctors WHERE doctor_id = ANY(?)";
+        try (Connection con = DBConnectionUtil.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+            Long[] boxed = new Long[ids.length];
+            for (int i = 0; i < ids.length; i++) boxed[i] = ids[i];
+            Array arr = con.createArrayOf("bigint", boxed);
+            try {
+                ps.setArray(1, arr);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) out.put(rs.getLong(1), rs.getString(2) + " " + rs.getString(3));
+                }
+            } finally {
+                arr.free();
+            }
+        } catch (SQLException e) {
+            log.error("Find doctor names failed", e);
+            throw new RuntimeException("Find doctor names failed: " + e.getMessage(), e);
+        }
+        return out;
+    }
+
+    Doctor mapRow(ResultSet rs) throws SQLException {
         Doctor d = new Doctor();
         d.setId(rs.getLong(COL_ID));
         d.setFirstName(rs.getString(COL_FIRST_NAME));
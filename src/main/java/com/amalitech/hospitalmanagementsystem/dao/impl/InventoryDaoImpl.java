@@ -4,15 +4,18 @@ package com.amalitech.hospitalmanagementsystem.dao.impl;
 import com.amalitech.hospitalmanagementsystem.dao.InventoryDao;
 import com.amalitech.hospitalmanagementsystem.model.InventoryItem;
 import com.amalitech.hospitalmanagementsystem.util.DBConnectionUtil;
+import com.amalitech.hospitalmanagementsystem.util.JdbcStream;
+import com.amalitech.hospitalmanagementsystem.util.JdbcBatch;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public class InventoryDaoImpl implements InventoryDao {
 
-    private InventoryItem map(ResultSet rs) throws SQLException {
+    InventoryItem map(ResultSet rs) throws SQLException {
         InventoryItem i = new InventoryItem();
         i.setItemId(rs.getLong("item_id"));
         i.setName(rs.getString("name"));
@@ -49,6 +52,28 @@ public class InventoryDaoImpl implements InventoryDao {
         return null;
     }
 
+    @Override
+    public List<Long> createAll(List<InventoryItem> items) {
+        for (InventoryItem i : items) i.validate();
+        final String sql = """
+            INSERT INTO medical_inventory (name, category, quantity, unit, reorder_level, updated_at)
+            VALUES (?, ?, ?, ?, ?, NOW())
+        """;
+        try {
+            List<Long> ids = JdbcBatch.insertAll(sql, "item_id", items, (ps, i) -> {
+                ps.setString(1, i.getName());
+                ps.setString(2, i.getCategory());
+                ps.setInt(3, i.getQuantity());
+                ps.setString(4, i.getUnit());
+                ps.setInt(5, i.getReorderLevel());
+            });
+            for (int k = 0; k < ids.size(); k++) items.get(k).setItemId(ids.get(k));
+            return ids;
+        } catch (SQLException e) {
+            throw new RuntimeException("Create inventory items failed: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public boolean update(InventoryItem i) {
         if (i.getItemId() == null) throw new IllegalArgumentException("ID required");
@@ -72,6 +97,31 @@ public class InventoryDaoImpl implements InventoryDao {
         }
     }
 
+    @Override
+    public int updateAll(List<InventoryItem> items) {
+        for (InventoryItem i : items) {
+            if (i.getItemId() == null) throw new IllegalArgumentException("ID required");
+            i.validate();
+        }
+        final String sql = """
+            UPDATE medical_inventory
+               SET name=?, category=?, quantity=?, unit=?, reorder_level=?, updated_at=NOW()
+             WHERE item_id=?
+        """;
+        try {
+            return JdbcBatch.updateAll(sql, items, (ps, i) -> {
+                ps.setString(1, i.getName());
+                ps.setString(2, i.getCategory());
+                ps.setInt(3, i.getQuantity());
+                ps.setString(4, i.getUnit());
+                ps.setInt(5, i.getReorderLevel());
+                ps.setLong(6, i.getItemId());
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException("Update inventory items failed: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public boolean deleteById(Long itemId) {
         final String sql = "DELETE FROM medical_inventory WHERE item_id=?";
@@ -93,10 +143,17 @@ public class InventoryDaoImpl implements InventoryDao {
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) return Optional.of(map(rs));
             }
-        } catch (SQLException e) {}
+        } catch (SQLException e) {
+            throw new RuntimeException("Find inventory item failed: " + e.getMessage(), e);
+        }
         return Optional.empty();
     }
 
+    @Override
+    public Stream<InventoryItem> streamAll(int fetchSize) {
+        return JdbcStream.query("SELECT * FROM medical_inventory ORDER BY item_id", fetchSize, this::map);
+    }
+
     @Override
     public List<InventoryItem> findAll() {
         final String sql = "SELECT * FROM medical_inventory ORDER BY name";
@@ -146,5 +203,16 @@ public class InventoryDaoImpl implements InventoryDao {
             return false;
         }
     }
-}
 
+    @Override
+    public long countLowStock() {
+        final String sql = "SELECT COUNT(*) FROM medical_inventory WHERE quantity <= reorder_level";
+        try (Connection c = DBConnectionUtil.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        } catch (SQLException e) {
+            throw new RuntimeException("Count low stock failed: " + e.getMessage(), e);
+        }
+    }
+}
@@ -4,13 +4,19 @@ package com.amalitech.hospitalmanagementsystem.dao.impl;
 import com.amalitech.hospitalmanagementsystem.dao.PatientDao;
 import com.amalitech.hospitalmanagementsystem.model.Patient;
 import com.amalitech.hospitalmanagementsystem.util.DBConnectionUtil;
+import com.amalitech.hospitalmanagementsystem.util.JdbcBatch;
+import com.amalitech.hospitalmanagementsystem.util.JdbcStream;
+import com.amalitech.hospitalmanagementsystem.util.SqlLike;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public class PatientDaoImpl implements PatientDao {
     private static final Logger log = LoggerFactory.getLogger(PatientDaoImpl.class);
@@ -57,6 +63,30 @@ public class PatientDaoImpl implements PatientDao {
         }
     }
 
+    @Override
+    public List<Long> createAll(List<Patient> patients) {
+        final String sql = """
+            INSERT INTO patients (first_name, last_name, sex, date_of_birth, phone, email, address)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+        """;
+        try {
+            List<Long> ids = JdbcBatch.insertAll(sql, COL_ID, patients, (ps, p) -> {
+                ps.setString(1, p.getFirstName());
+                ps.setString(2, p.getLastName());
+                ps.setString(3, p.getGender());
+                ps.setObject(4, p.getDateOfBirth());
+                ps.setString(5, p.getPhone());
+                ps.setString(6, p.getEmail());
+                ps.setString(7, p.getAddress());
+            });
+            for (int i = 0; i < ids.size(); i++) patients.get(i).setId(ids.get(i));
+            return ids;
+        } catch (SQLException e) {
+            log.error("Batch create patients failed", e);
+            throw new RuntimeException("Batch create patients failed: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public boolean update(Patient p) {
         final String sql = """
@@ -83,6 +113,30 @@ public class PatientDaoImpl implements PatientDao {
         }
     }
 
+    @Override
+    public int updateAll(List<Patient> patients) {
+        final String sql = """
+            UPDATE patients
+            SET first_name=?, last_name=?, sex=?, date_of_birth=?, phone=?, email=?, address=?
+            WHERE patient_id=?
+        """;
+        try {
+            return JdbcBatch.updateAll(sql, patients, (ps, p) -> {
+                ps.setString(1, p.getFirstName());
+                ps.setString(2, p.getLastName());
+                ps.setString(3, p.getGender());
+                ps.setObject(4, p.getDateOfBirth());
+                ps.setString(5, p.getPhone());
+                ps.setString(6, p.getEmail());
+                ps.setString(7, p.getAddress());
+                ps.setLong(8, p.getId());
+            });
+        } catch (SQLException e) {
+            log.error("Batch update patients failed", e);
+            throw new RuntimeException("Batch update patients failed: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public boolean deleteById(Long id) {
         final String sql = "DELETE FROM patients WHERE patient_id=?";
@@ -113,8 +167,7 @@ public class PatientDaoImpl implements PatientDao {
                 return Optional.empty();
             }
         } catch (SQLException e) {
-            log.error("FindById failed", e);
-            return Optional.empty();
+            throw new RuntimeException("Find patient failed: " + e.getMessage(), e);
         }
     }
 
@@ -136,6 +189,16 @@ public class PatientDaoImpl implements PatientDao {
         return list;
     }
 
+    @Override
+    public Stream<Patient> streamAll(int fetchSize) {
+        final String sql = """
+            SELECT patient_id, first_name, last_name, sex, date_of_birth, phone, email, address
+            FROM patients
+            ORDER BY patient_id
+        """;
+        return JdbcStream.query(sql, fetchSize, this::mapRow);
+    }
+
     @Override
     public List<Patient> searchByName(String nameLike) {
         final String sql = """
@@ -162,7 +225,122 @@ public class PatientDaoImpl implements PatientDao {
         return list;
     }
 
-    private Patient mapRow(ResultSet rs) throws SQLException {
+    @Override
+    public long countPatients() {
+        final String sql = "SELECT COUNT(*) FROM patients";
+        try (Connection con = DBConnectionUtil.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        } catch (SQLException e) {
+            log.error("Count patients failed", e);
+            throw new RuntimeException("Count patients failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Map<Long, String> findNamesByIds(long[] ids) {
+        Map<Long, String> out = new HashMap<>();
+        if (ids == null || ids.length == 0) return out;
+        final String sql = "SELECT patient_id, first_name, last_name FROM patients WHERE patient_id = ANY(?)";
+        try (Connection con = DBConnectionUtil.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+            Long[] boxed = new Long[ids.length];
+            for (int i = 0; i < ids.length; i++) boxed[i] = ids[i];
+            Array arr = con.createArrayOf("bigint", boxed);
+            try {
+                ps.setArray(1, arr);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) out.put(rs.getLong(1), rs.getString(2) + " " + rs.getString(3));
+                }
+            } finally {
+                arr.free();
+            }
+        } catch (SQLException e) {
+            log.error("Find patient names failed", e);
+            throw new RuntimeException("Find patient names failed: " + e.getMessage(), e);
+        }
+        return out;
+    }
+
+    @Override
+    public List<Patient> findPageAfter(Long afterId, int limit) {
+        final String sql = """
+            SELECT patient_id, first_name, last_name, sex, date_of_birth, phone, email, address
+            FROM patients
+            WHERE patient_id > ?
+            ORDER BY patient_id
+            LIMIT ?
+        """;
+        return queryPage(sql, "findPageAfter", ps -> {
+            ps.setLong(1, afterId == null ? 0L : afterId);
+            ps.setInt(2, limit);
+        });
+    }
+
+    @Override
+    public List<Patient> findPageBefore(Long beforeId, int limit) {
+        if (beforeId == null) return new ArrayList<>();
+        // Seek backwards on the PK, then flip back to ascending display order
+        final String sql = """
+            SELECT * FROM (
+                SELECT patient_id, first_name, last_name, sex, date_of_birth, phone, email, address
+                FROM patients
+                WHERE patient_id < ?
+                ORDER BY patient_id DESC
+                LIMIT ?
+            ) page
+            ORDER BY patient_id
+        """;
+        return queryPage(sql, "findPageBefore", ps -> {
+            ps.setLong(1, beforeId);
+            ps.setInt(2, limit);
+        });
+    }
+
+    // Must match idx_patients_search_trgm exactly for the planner to use the index
+    private static final String SEARCH_DOC =
+            "LOWER(first_name || ' ' || last_name || ' ' || COALESCE(phone, '') || ' ' || COALESCE(email, ''))";
+
+    @Override
+    public List<Patient> searchRanked(String term, int limit, int offset) {
+        final String sql = """
+            SELECT patient_id, first_name, last_name, sex, date_of_birth, phone, email, address
+            FROM patients
+            WHERE %1$s LIKE ? ESCAPE '\\' OR ? <%% %1$s
+            ORDER BY word_similarity(?, %1$s) DESC, last_name, first_name, patient_id
+            LIMIT ? OFFSET ?
+        """.formatted(SEARCH_DOC);
+        String t = term.trim().toLowerCase();
+        return queryPage(sql, "searchRanked", ps -> {
+            ps.setString(1, SqlLike.contains(t));
+            ps.setString(2, t);
+            ps.setString(3, t);
+            ps.setInt(4, limit);
+            ps.setInt(5, offset);
+        });
+    }
+
+    @FunctionalInterface
+    private interface ParamBinder {
+        void bind(PreparedStatement ps) throws SQLException;
+    }
+
+    private List<Patient> queryPage(String sql, String op, ParamBinder binder) {
+        List<Patient> list = new ArrayList<>();
+        try (Connection con = DBConnectionUtil.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+            binder.bind(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) list.add(mapRow(rs));
+            }
+        } catch (SQLException e) {
+            log.error("{} failed", op, e);
+        }
+        return list;
+    }
+
+    Patient mapRow(ResultSet rs) throws SQLException {
         Patient p = new Patient();
         p.setId(rs.getLong(COL_ID));                  // patient_id -> id
         p.setFirstName(rs.getString(COL_FIRST_NAME));
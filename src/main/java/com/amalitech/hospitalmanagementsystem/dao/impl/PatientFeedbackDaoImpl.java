@@ -4,15 +4,19 @@ package com.amalitech.hospitalmanagementsystem.dao.impl;
 import com.amalitech.hospitalmanagementsystem.dao.PatientFeedbackDao;
 import com.amalitech.hospitalmanagementsystem.model.PatientFeedback;
 import com.amalitech.hospitalmanagementsystem.util.DBConnectionUtil;
+import com.amalitech.hospitalmanagementsystem.util.JdbcStream;
+import com.amalitech.hospitalmanagementsystem.util.JdbcBatch;
+import com.amalitech.hospitalmanagementsystem.util.SqlLike;
 
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public class PatientFeedbackDaoImpl implements PatientFeedbackDao {
 
-    private PatientFeedback map(ResultSet rs) throws SQLException {
+    PatientFeedback map(ResultSet rs) throws SQLException {
         PatientFeedback f = new PatientFeedback();
         f.setFeedbackId(rs.getLong("feedback_id"));
         f.setPatientId(rs.getLong("patient_id"));
@@ -48,6 +52,27 @@ public class PatientFeedbackDaoImpl implements PatientFeedbackDao {
         return null;
     }
 
+    @Override
+    public List<Long> createAll(List<PatientFeedback> feedback) {
+        for (PatientFeedback f : feedback) f.validate();
+        final String sql = """
+            INSERT INTO patient_feedback (patient_id, doctor_id, rating, comments, created_at)
+            VALUES (?, ?, ?, ?, NOW())
+        """;
+        try {
+            List<Long> ids = JdbcBatch.insertAll(sql, "feedback_id", feedback, (ps, f) -> {
+                ps.setLong(1, f.getPatientId());
+                if (f.getDoctorId() == null) ps.setNull(2, Types.BIGINT); else ps.setLong(2, f.getDoctorId());
+                ps.setInt(3, f.getRating());
+                ps.setString(4, f.getComments());
+            });
+            for (int i = 0; i < ids.size(); i++) feedback.get(i).setFeedbackId(ids.get(i));
+            return ids;
+        } catch (SQLException e) {
+            throw new RuntimeException("Create feedback failed: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public boolean update(PatientFeedback f) {
         if (f.getFeedbackId() == null) throw new IllegalArgumentException("ID required");
@@ -70,6 +95,30 @@ public class PatientFeedbackDaoImpl implements PatientFeedbackDao {
         }
     }
 
+    @Override
+    public int updateAll(List<PatientFeedback> feedback) {
+        for (PatientFeedback f : feedback) {
+            if (f.getFeedbackId() == null) throw new IllegalArgumentException("ID required");
+            f.validate();
+        }
+        final String sql = """
+            UPDATE patient_feedback
+               SET patient_id=?, doctor_id=?, rating=?, comments=?
+             WHERE feedback_id=?
+        """;
+        try {
+            return JdbcBatch.updateAll(sql, feedback, (ps, f) -> {
+                ps.setLong(1, f.getPatientId());
+                if (f.getDoctorId() == null) ps.setNull(2, Types.BIGINT); else ps.setLong(2, f.getDoctorId());
+                ps.setInt(3, f.getRating());
+                ps.setString(4, f.getComments());
+                ps.setLong(5, f.getFeedbackId());
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException("Update feedback failed: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public boolean deleteById(Long feedbackId) {
         final String sql = "DELETE FROM patient_feedback WHERE feedback_id=?";
@@ -91,10 +140,17 @@ public class PatientFeedbackDaoImpl implements PatientFeedbackDao {
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) return Optional.of(map(rs));
             }
-        } catch (SQLException e) {}
+        } catch (SQLException e) {
+            throw new RuntimeException("Find feedback failed: " + e.getMessage(), e);
+        }
         return Optional.empty();
     }
 
+    @Override
+    public Stream<PatientFeedback> streamAll(int fetchSize) {
+        return JdbcStream.query("SELECT * FROM patient_feedback ORDER BY feedback_id", fetchSize, this::map);
+    }
+
     @Override
     public List<PatientFeedback> findAll() {
         final String sql = "SELECT * FROM patient_feedback ORDER BY created_at DESC";
@@ -107,6 +163,40 @@ public class PatientFeedbackDaoImpl implements PatientFeedbackDao {
         return out;
     }
 
+    @Override
+    public List<PatientFeedback> search(String term, int limit, int offset) {
+        // Same shape as AppointmentDaoImpl.search: hashed name subqueries, newest-first scan
+        final String sql = """
+            SELECT f.* FROM patient_feedback f
+            WHERE f.patient_id IN (SELECT patient_id FROM patients
+                                   WHERE LOWER(first_name || ' ' || last_name) LIKE ? ESCAPE '\\')
+               OR f.doctor_id IN (SELECT doctor_id FROM public.doctors
+                                  WHERE LOWER(first_name || ' ' || last_name) LIKE ? ESCAPE '\\')
+               OR LOWER(f.comments) LIKE ? ESCAPE '\\'
+               OR f.rating = ?
+            ORDER BY f.created_at DESC, f.feedback_id DESC
+            LIMIT ? OFFSET ?
+        """;
+        String t = term.trim().toLowerCase();
+        String pattern = SqlLike.contains(t);
+        Integer rating = null;
+        try { rating = Integer.parseInt(t); } catch (NumberFormatException ignore) {}
+        List<PatientFeedback> out = new ArrayList<>();
+        try (Connection c = DBConnectionUtil.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            for (int i = 1; i <= 3; i++) ps.setString(i, pattern);
+            if (rating != null) ps.setInt(4, rating); else ps.setNull(4, Types.INTEGER);
+            ps.setInt(5, limit);
+            ps.setInt(6, offset);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) out.add(map(rs));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Search feedback failed: " + e.getMessage(), e);
+        }
+        return out;
+    }
+
     @Override
     public List<PatientFeedback> findByPatient(Long patientId) {
         final String sql = "SELECT * FROM patient_feedback WHERE patient_id=? ORDER BY created_at DESC";
@@ -134,4 +224,28 @@ public class PatientFeedbackDaoImpl implements PatientFeedbackDao {
         } catch (SQLException e) {}
         return out;
     }
+
+    @Override
+    public long countFeedback() {
+        final String sql = "SELECT COUNT(*) FROM patient_feedback";
+        try (Connection c = DBConnectionUtil.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0L;
+        } catch (SQLException e) {
+            throw new RuntimeException("Count feedback failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public double averageRating() {
+        final String sql = "SELECT COALESCE(AVG(rating), 0) FROM patient_feedback WHERE rating IS NOT NULL";
+        try (Connection c = DBConnectionUtil.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getDouble(1) : 0d;
+        } catch (SQLException e) {
+            throw new RuntimeException("Average rating failed: " + e.getMessage(), e);
+        }
+    }
 }
@@ -4,16 +4,18 @@ package com.amalitech.hospitalmanagementsystem.dao.impl;
 import com.amalitech.hospitalmanagementsystem.dao.PrescriptionDao;
 import com.amalitech.hospitalmanagementsystem.model.Prescription;
 import com.amalitech.hospitalmanagementsystem.util.DBConnectionUtil;
+import com.amalitech.hospitalmanagementsystem.util.JdbcStream;
 
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public class PrescriptionDaoImpl implements PrescriptionDao {
 
-    private Prescription map(ResultSet rs) throws SQLException {
+    Prescription map(ResultSet rs) throws SQLException {
         Prescription p = new Prescription();
         p.setPrescriptionId(rs.getLong("prescription_id"));
         p.setPatientId(rs.getLong("patient_id"));
@@ -76,9 +78,9 @@ public class PrescriptionDaoImpl implements PrescriptionDao {
         try (Connection c = DBConnectionUtil.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
             ps.setLong(1, id);
-            return ps.executeUpdate() > 0;
+            return ps.executeUpdate() > 0;     // false: already gone
         } catch (SQLException e) {
-            return false;
+            throw new RuntimeException("Delete prescription failed: " + e.getMessage(), e);
         }
     }
 
@@ -91,10 +93,17 @@ public class PrescriptionDaoImpl implements PrescriptionDao {
             try (ResultSet rs = ps.executeQuery()) {
                 if (rs.next()) return Optional.of(map(rs));
             }
-        } catch (SQLException e) { }
+        } catch (SQLException e) {
+            throw new RuntimeException("Find prescription failed: " + e.getMessage(), e);
+        }
         return Optional.empty();
     }
 
+    @Override
+    public Stream<Prescription> streamAll(int fetchSize) {
+        return JdbcStream.query("SELECT * FROM prescriptions ORDER BY prescription_id", fetchSize, this::map);
+    }
+
     @Override
     public List<Prescription> findAll() {
         final String sql = "SELECT * FROM prescriptions ORDER BY issued_at DESC";
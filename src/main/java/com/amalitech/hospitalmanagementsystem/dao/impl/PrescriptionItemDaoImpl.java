@@ -4,6 +4,7 @@ package com.amalitech.hospitalmanagementsystem.dao.impl;
 import com.amalitech.hospitalmanagementsystem.dao.PrescriptionItemDao;
 import com.amalitech.hospitalmanagementsystem.model.PrescriptionItem;
 import com.amalitech.hospitalmanagementsystem.util.DBConnectionUtil;
+import com.amalitech.hospitalmanagementsystem.util.JdbcBatch;
 
 import java.sql.*;
 import java.util.ArrayList;
@@ -12,7 +13,7 @@ import java.util.Optional;
 
 public class PrescriptionItemDaoImpl implements PrescriptionItemDao {
 
-    private PrescriptionItem map(ResultSet rs) throws SQLException {
+    PrescriptionItem map(ResultSet rs) throws SQLException {
         PrescriptionItem it = new PrescriptionItem();
         it.setItemId(rs.getLong("item_id"));
         it.setPrescriptionId(rs.getLong("prescription_id"));
@@ -50,6 +51,30 @@ public class PrescriptionItemDaoImpl implements PrescriptionItemDao {
         return null;
     }
 
+    @Override
+    public List<Long> createAll(List<PrescriptionItem> items) {
+        for (PrescriptionItem item : items) item.validate();
+        final String sql = """
+            INSERT INTO prescription_items
+            (prescription_id, medication_name, dosage, frequency, duration_days, instructions)
+            VALUES (?, ?, ?, ?, ?, ?)
+        """;
+        try {
+            List<Long> ids = JdbcBatch.insertAll(sql, "item_id", items, (ps, item) -> {
+                ps.setLong(1, item.getPrescriptionId());
+                ps.setString(2, item.getMedicationName());
+                ps.setString(3, item.getDosage());
+                ps.setString(4, item.getFrequency());
+                ps.setInt(5, item.getDurationDays());
+                ps.setString(6, item.getInstructions());
+            });
+            for (int i = 0; i < ids.size(); i++) items.get(i).setItemId(ids.get(i));
+            return ids;
+        } catch (SQLException e) {
+            throw new RuntimeException("Create prescription items failed: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public boolean update(PrescriptionItem item) {
         if (item.getItemId() == null) throw new IllegalArgumentException("Item ID required for update");
@@ -74,6 +99,32 @@ public class PrescriptionItemDaoImpl implements PrescriptionItemDao {
         }
     }
 
+    @Override
+    public int updateAll(List<PrescriptionItem> items) {
+        for (PrescriptionItem item : items) {
+            if (item.getItemId() == null) throw new IllegalArgumentException("Item ID required for update");
+            item.validate();
+        }
+        final String sql = """
+            UPDATE prescription_items
+            SET prescription_id=?, medication_name=?, dosage=?, frequency=?, duration_days=?, instructions=?
+            WHERE item_id=?
+        """;
+        try {
+            return JdbcBatch.updateAll(sql, items, (ps, item) -> {
+                ps.setLong(1, item.getPrescriptionId());
+                ps.setString(2, item.getMedicationName());
+                ps.setString(3, item.getDosage());
+                ps.setString(4, item.getFrequency());
+                ps.setInt(5, item.getDurationDays());
+                ps.setString(6, item.getInstructions());
+                ps.setLong(7, item.getItemId());
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException("Update prescription items failed: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public boolean deleteById(Long itemId) {
         final String sql = "DELETE FROM prescription_items WHERE item_id=?";
@@ -119,10 +170,9 @@ public class PrescriptionItemDaoImpl implements PrescriptionItemDao {
         try (Connection c = DBConnectionUtil.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
             ps.setLong(1, prescriptionId);
-            ps.executeUpdate();
-            return true;
+            return ps.executeUpdate() > 0;     // false: the prescription had no items
         } catch (SQLException e) {
-            return false;
+            throw new RuntimeException("Delete prescription items failed: " + e.getMessage(), e);
         }
     }
 }
@@ -0,0 +1,166 @@
+package com.amalitech.hospitalmanagementsystem.dao.impl;
+
+import com.amalitech.hospitalmanagementsystem.dao.ReportSummaryDao;
+import com.amalitech.hospitalmanagementsystem.util.DBConnectionUtil;
+import com.amalitech.hospitalmanagementsystem.util.SqlScript;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class ReportSummaryDaoImpl implements ReportSummaryDao {
+    private static final Logger log = LoggerFactory.getLogger(ReportSummaryDaoImpl.class);
+
+    private static final String VIEWS_SCRIPT = "/db/reporting_views.sql";
+    // every view and index the script creates; the script only runs when one of them is missing
+    private static final List<String> VIEW_OBJECTS = List.of(
+            "mv_top_medications", "uq_mv_top_medications",
+            "mv_patient_last_visit", "uq_mv_patient_last_visit",
+            "mv_doctor_activity", "uq_mv_doctor_activity",
+            "mv_upcoming_appointments", "uq_mv_upcoming_appointments", "idx_mv_upcoming_doctor");
+    private static final String[] RECENCY_BUCKETS =
+            {"Within 30 days", "31-90 days", "91-180 days", "181-365 days", "Over a year", "Never"};
+
+    @Override
+    public void ensureViews() {
+        try {
+            String probe = VIEW_OBJECTS.stream()
+                    .map(name -> "to_regclass('" + name + "') IS NOT NULL")
+                    .collect(Collectors.joining(" AND ", "SELECT ", ""));
+            if (SqlScript.runIfMissing(VIEWS_SCRIPT, probe)) log.info("Created the reporting views");
+        } catch (SQLException e) {
+            throw new RuntimeException("Create reporting views failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void refresh(View view) {
+        try (Connection con = DBConnectionUtil.getConnection();
+             Statement st = con.createStatement()) {
+            st.execute("REFRESH MATERIALIZED VIEW CONCURRENTLY " + view.table());
+        } catch (SQLException e) {
+            throw new RuntimeException("Refresh " + view.table() + " failed: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<MedicationCount> topMedications(int limit) {
+        final String sql = """
+            SELECT medication_name, times_prescribed
+            FROM mv_top_medications
+            ORDER BY times_prescribed DESC, medication_name
+            LIMIT ?
+        """;
+        return query(sql, "topMedications", ps -> ps.setInt(1, limit),
+                rs -> new MedicationCount(rs.getString(1), rs.getLong(2)));
+    }
+
+    @Override
+    public List<PatientLastVisit> lastVisits(int limit) {
+        final String sql = """
+            SELECT patient_id, first_name, last_name, last_visit
+            FROM mv_patient_last_visit
+            ORDER BY last_visit DESC NULLS LAST, patient_id
+            LIMIT ?
+        """;
+        return query(sql, "lastVisits", ps -> ps.setInt(1, limit), rs -> {
+            Timestamp ts = rs.getTimestamp(4);
+            return new PatientLastVisit(rs.getLong(1), rs.getString(2), rs.getString(3),
+                    ts != null ? ts.toLocalDateTime() : null);
+        });
+    }
+
+    @Override
+    public Map<String, Integer> countPatientsBySinceLastVisit() {
+        final String sql = """
+            SELECT CASE
+                       WHEN last_visit IS NULL THEN 5
+                       WHEN last_visit >= NOW() - INTERVAL '30 days'  THEN 0
+                       WHEN last_visit >= NOW() - INTERVAL '90 days'  THEN 1
+                       WHEN last_visit >= NOW() - INTERVAL '180 days' THEN 2
+                       WHEN last_visit >= NOW() - INTERVAL '365 days' THEN 3
+                       ELSE 4
+                   END AS bucket,
+                   COUNT(*) AS n
+            FROM mv_patient_last_visit
+            GROUP BY 1
+        """;
+        Map<String, Integer> out = new LinkedHashMap<>();
+        for (String b : RECENCY_BUCKETS) out.put(b, 0);
+        for (Map.Entry<Integer, Integer> row : query(sql, "countPatientsBySinceLastVisit", ps -> {},
+                rs -> Map.entry(rs.getInt(1), rs.getInt(2)))) {
+            out.put(RECENCY_BUCKETS[row.getKey()], row.getValue());
+        }
+        return out;
+    }
+
+    @Override
+    public List<DoctorActivity> mostActiveDoctors(int limit) {
+        final String sql = """
+            SELECT doctor_id, doctor_name, appointment_count
+            FROM mv_doctor_activity
+            ORDER BY appointment_count DESC, doctor_name
+            LIMIT ?
+        """;
+        return query(sql, "mostActiveDoctors", ps -> ps.setInt(1, limit),
+                rs -> new DoctorActivity(rs.getLong(1), rs.getString(2), rs.getLong(3)));
+    }
+
+    @Override
+    public List<UpcomingAppointment> upcomingAppointments(Long doctorId) {
+        final String sql = """
+            SELECT appointment_id, doctor_id, appointment_date, status, reason, patient_name, doctor_name
+            FROM mv_upcoming_appointments
+            WHERE doctor_id = COALESCE(?, doctor_id)
+            ORDER BY appointment_date, appointment_id
+        """;
+        return query(sql, "upcomingAppointments", ps -> ps.setObject(1, doctorId, Types.BIGINT), rs -> {
+            Timestamp ts = rs.getTimestamp(3);
+            return new UpcomingAppointment(rs.getLong(1), rs.getLong(2), ts != null ? ts.toLocalDateTime() : null,
+                    rs.getString(4), rs.getString(5), rs.getString(6), rs.getString(7));
+        });
+    }
+
+    @Override
+    public Map<String, Integer> countUpcomingPerDoctor() {
+        final String sql = """
+            SELECT doctor_name, COUNT(*) AS n
+            FROM mv_upcoming_appointments
+            WHERE status <> 'CANCELLED'
+            GROUP BY doctor_name
+            ORDER BY doctor_name
+        """;
+        Map<String, Integer> out = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> row : query(sql, "countUpcomingPerDoctor", ps -> {},
+                rs -> Map.entry(rs.getString(1), rs.getInt(2)))) {
+            out.merge(row.getKey(), row.getValue(), Integer::sum);   // namesakes share a bar
+        }
+        return out;
+    }
+
+    @FunctionalInterface
+    private interface ParamBinder {
+        void bind(PreparedStatement ps) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface RowReader<T> {
+        T read(ResultSet rs) throws SQLException;
+    }
+
+    private <T> List<T> query(String sql, String op, ParamBinder binder, RowReader<T> reader) {
+        List<T> out = new ArrayList<>();
+        try (Connection con = DBConnectionUtil.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+            binder.bind(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) out.add(reader.read(rs));
+            }
+        } catch (SQLException e) {
+            log.error("{} failed", op, e);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,152 @@
+package com.amalitech.hospitalmanagementsystem.dao.impl;
+
+import com.amalitech.hospitalmanagementsystem.dao.ReportingDao;
+import com.amalitech.hospitalmanagementsystem.model.InventoryItem;
+import com.amalitech.hospitalmanagementsystem.util.DBConnectionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.*;
+
+public class ReportingDaoImpl implements ReportingDao {
+    private static final Logger log = LoggerFactory.getLogger(ReportingDaoImpl.class);
+
+    @Override
+    public Map<String, Integer> countPatientsBySex() {
+        final String sql = """
+            SELECT CASE WHEN TRIM(sex) IN ('M', 'F') THEN TRIM(sex) ELSE 'Other' END AS sex,
+                   COUNT(*) AS n
+            FROM patients
+            GROUP BY 1
+        """;
+        Map<String, Integer> out = new LinkedHashMap<>();
+        out.put("M", 0);
+        out.put("F", 0);
+        out.put("Other", 0);
+        out.putAll(countBy(sql, "countPatientsBySex", ps -> {}, rs -> rs.getString(1), new HashMap<>()));
+        return out;
+    }
+
+    @Override
+    public Map<String, Integer> countDoctorsPerDepartment() {
+        final String sql = """
+            SELECT COALESCE(dep.name, 'Unassigned') AS dept, COUNT(*) AS n
+            FROM public.doctors d
+            LEFT JOIN public.departments dep ON dep.department_id = d.department_id
+            GROUP BY 1
+            ORDER BY 1
+        """;
+        return countBy(sql, "countDoctorsPerDepartment", ps -> {}, rs -> rs.getString(1), new TreeMap<>());
+    }
+
+    @Override
+    public Map<LocalDate, Integer> countAppointmentsPerDay(LocalDate from, LocalDate toExclusive) {
+        final String sql = """
+            SELECT date_trunc('day', appointment_date)::date AS day, COUNT(*) AS n
+            FROM appointments
+            WHERE appointment_date >= COALESCE(?::timestamp, '-infinity'::timestamp)
+              AND appointment_date <  COALESCE(?::timestamp, 'infinity'::timestamp)
+            GROUP BY 1
+            ORDER BY 1
+        """;
+        return countBy(sql, "countAppointmentsPerDay", ps -> {
+            ps.setObject(1, from == null ? null : from.atStartOfDay());
+            ps.setObject(2, toExclusive == null ? null : toExclusive.atStartOfDay());
+        }, rs -> rs.getObject(1, LocalDate.class), new TreeMap<>());
+    }
+
+    @Override
+    public Map<Integer, Integer> countFeedbackByRating() {
+        final String sql = """
+            SELECT rating, COUNT(*) AS n
+            FROM patient_feedback
+            WHERE rating BETWEEN 1 AND 5
+            GROUP BY rating
+            ORDER BY rating
+        """;
+        Map<Integer, Integer> out = new TreeMap<>();
+        for (int r = 1; r <= 5; r++) out.put(r, 0);
+        out.putAll(countBy(sql, "countFeedbackByRating", ps -> {}, rs -> rs.getInt(1), new HashMap<>()));
+        return out;
+    }
+
+    @Override
+    public Map<LocalDate, Integer> countFeedbackPerDay() {
+        final String sql = """
+            SELECT date_trunc('day', created_at)::date AS day, COUNT(*) AS n
+            FROM patient_feedback
+            WHERE created_at IS NOT NULL
+            GROUP BY 1
+            ORDER BY 1
+        """;
+        return countBy(sql, "countFeedbackPerDay", ps -> {}, rs -> rs.getObject(1, LocalDate.class), new TreeMap<>());
+    }
+
+    @Override
+    public Map<String, Integer> countLowStockByCategory() {
+        final String sql = """
+            SELECT COALESCE(NULLIF(TRIM(category), ''), 'Uncategorized') AS category, COUNT(*) AS n
+            FROM medical_inventory
+            WHERE quantity <= reorder_level
+            GROUP BY 1
+            ORDER BY 1
+        """;
+        return countBy(sql, "countLowStockByCategory", ps -> {}, rs -> rs.getString(1), new TreeMap<>());
+    }
+
+    @Override
+    public List<InventoryItem> findTopLowStock(int limit) {
+        final String sql = """
+            SELECT item_id, name, quantity, reorder_level
+            FROM medical_inventory
+            WHERE quantity <= reorder_level
+            ORDER BY reorder_level - quantity DESC, name
+            LIMIT ?
+        """;
+        List<InventoryItem> out = new ArrayList<>();
+        try (Connection con = DBConnectionUtil.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setInt(1, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    InventoryItem i = new InventoryItem();
+                    i.setItemId(rs.getLong("item_id"));
+                    i.setName(rs.getString("name"));
+                    i.setQuantity(rs.getInt("quantity"));
+                    i.setReorderLevel(rs.getInt("reorder_level"));
+                    out.add(i);
+                }
+            }
+        } catch (SQLException e) {
+            log.error("findTopLowStock failed", e);
+        }
+        return out;
+    }
+
+    @FunctionalInterface
+    private interface ParamBinder {
+        void bind(PreparedStatement ps) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface KeyReader<K> {
+        K read(ResultSet rs) throws SQLException;
+    }
+
+    /** Runs a two-column (key, count) query into {@code out}. */
+    private <K> Map<K, Integer> countBy(String sql, String op, ParamBinder binder,
+                                        KeyReader<K> key, Map<K, Integer> out) {
+        try (Connection con = DBConnectionUtil.getConnection();
+             PreparedStatement ps = con.prepareStatement(sql)) {
+            binder.bind(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) out.merge(key.read(rs), rs.getInt(2), Integer::sum);
+            }
+        } catch (SQLException e) {
+            log.error("{} failed", op, e);
+        }
+        return out;
+    }
+}
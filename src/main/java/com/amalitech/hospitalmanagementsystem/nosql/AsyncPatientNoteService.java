@@ -0,0 +1,67 @@
+package com.amalitech.hospitalmanagementsystem.nosql;
+
+import org.bson.types.ObjectId;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * The note operations of the notes dialog, with the rules of {@link PatientNoteService} but
+ * returning futures, over a {@link PatientNoteStore} chosen by {@code MONGO_DRIVER}. Invalid input
+ * fails the returned future with {@link IllegalArgumentException} rather than throwing.
+ */
+public class AsyncPatientNoteService {
+
+    private final PatientNoteStore store;
+
+    public AsyncPatientNoteService() {
+        this(PatientNoteStore.fromConfig());
+    }
+
+    public AsyncPatientNoteService(PatientNoteStore store) {
+        this.store = store;
+    }
+
+    public CompletableFuture<ObjectId> addNote(PatientNote note) {
+        return checked(() -> {
+            PatientNoteService.validate(note, true);
+            return store.create(note);
+        });
+    }
+
+    /** A page of the patient's notes, newest first, after {@code after} (null for the first page). */
+    public CompletableFuture<List<PatientNote>> getNotesPage(Long patientId, PatientNote after, int limit) {
+        return checked(() -> store.findPageByPatient(patientId, after, PatientNoteService.checkPageSize(limit)));
+    }
+
+    public CompletableFuture<List<PatientNote>> getNotesPageBefore(Long patientId, PatientNote before, int limit) {
+        return checked(() -> store.findPageByPatientBefore(patientId, before, PatientNoteService.checkPageSize(limit)));
+    }
+
+    /** Ranked search: best matches first, {@code limit} of them from {@code offset}. */
+    public CompletableFuture<List<NoteSearchHit>> search(NoteQuery query, int offset, int limit) {
+        return checked(() -> {
+            if (offset < 0) throw new IllegalArgumentException("offset must not be negative");
+            return store.search(query, offset, PatientNoteService.checkPageSize(limit));
+        });
+    }
+
+    /** The full content of a note; only a note listed as a preview needs a round trip. */
+    public CompletableFuture<String> getFullContent(PatientNote note) {
+        if (!note.isPreview()) return CompletableFuture.completedFuture(note.getContent());
+        return store.findContent(note.getId()).thenApply(c -> c.orElse(note.getContent()));
+    }
+
+    public CompletableFuture<Boolean> delete(ObjectId id) {
+        return store.delete(id);
+    }
+
+    private static <T> CompletableFuture<T> checked(Supplier<CompletableFuture<T>> op) {
+        try {
+            return op.get();
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+}
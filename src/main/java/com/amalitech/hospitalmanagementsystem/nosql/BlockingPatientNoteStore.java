@@ -0,0 +1,56 @@
+package com.amalitech.hospitalmanagementsystem.nosql;
+
+import com.amalitech.hospitalmanagementsystem.util.DbExecutor;
+import org.bson.types.ObjectId;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * {@link PatientNoteStore} over the sync driver: each call runs the {@link PatientNoteRepository}
+ * on a {@link DbExecutor} thread, which waits for MongoDB. The repository itself is also set up
+ * there, on first use.
+ */
+final class BlockingPatientNoteStore implements PatientNoteStore {
+
+    private final Executor executor = DbExecutor.get();
+    private final CompletableFuture<PatientNoteRepository> repo =
+            CompletableFuture.supplyAsync(PatientNoteRepository::new, executor);
+
+    @Override
+    public CompletableFuture<ObjectId> create(PatientNote note) {
+        return call(r -> r.create(note));
+    }
+
+    @Override
+    public CompletableFuture<List<PatientNote>> findPageByPatient(Long patientId, PatientNote after, int limit) {
+        return call(r -> r.findPageByPatient(patientId, after, limit));
+    }
+
+    @Override
+    public CompletableFuture<List<PatientNote>> findPageByPatientBefore(Long patientId, PatientNote before, int limit) {
+        return call(r -> r.findPageByPatientBefore(patientId, before, limit));
+    }
+
+    @Override
+    public CompletableFuture<List<NoteSearchHit>> search(NoteQuery query, int offset, int limit) {
+        return call(r -> r.search(query, offset, limit));
+    }
+
+    @Override
+    public CompletableFuture<Optional<String>> findContent(ObjectId id) {
+        return call(r -> r.findContent(id));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> delete(ObjectId id) {
+        return call(r -> r.delete(id));
+    }
+
+    private <R> CompletableFuture<R> call(Function<PatientNoteRepository, R> op) {
+        return repo.thenApplyAsync(op, executor);
+    }
+}
@@ -7,10 +7,18 @@ import com.mongodb.MongoException;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoDatabase;
+import org.bson.codecs.configuration.CodecRegistries;
+import org.bson.codecs.configuration.CodecRegistry;
 
 public final class MongoConnectionUtil {
 
+    /** The driver's default codecs plus the application's own, e.g. {@link PatientNoteCodec}. */
+    public static final CodecRegistry CODECS = CodecRegistries.fromRegistries(
+            CodecRegistries.fromCodecs(new PatientNoteCodec()),
+            MongoClientSettings.getDefaultCodecRegistry());
+
     private static volatile MongoClient client;
+    private static volatile com.mongodb.reactivestreams.client.MongoClient reactiveClient;
 
     // Environment-first (safer) → fallback to defaults for dev only
     private static final String URI =
@@ -23,6 +31,12 @@ public final class MongoConnectionUtil {
                     ? System.getenv("MONGO_DB")
                     : "hms"; // default name you used
 
+    // "sync" (default) or "reactive": which driver the patient notes dialog goes through
+    private static final String DRIVER =
+            System.getenv("MONGO_DRIVER") != null
+                    ? System.getenv("MONGO_DRIVER")
+                    : "sync";
+
     private MongoConnectionUtil() {}
 
     public static MongoDatabase db() {
@@ -30,16 +44,7 @@ public final class MongoConnectionUtil {
             synchronized (MongoConnectionUtil.class) {
                 if (client == null) {
                     try {
-                        MongoClientSettings settings = MongoClientSettings.builder()
-                                .applyConnectionString(new ConnectionString(URI))
-                                .applicationName("HMS-JavaFX")
-                                .applyToConnectionPoolSettings(pool -> {
-                                    pool.maxSize(20);
-                                    pool.minSize(5);
-                                })
-                                .build();
-
-                        client = MongoClients.create(settings);
+                        client = MongoClients.create(settings());
 
                     } catch (MongoException e) {
                         throw new RuntimeException("Failed to connect to MongoDB: " + e.getMessage(), e);
@@ -50,9 +55,59 @@ public final class MongoConnectionUtil {
         return client.getDatabase(DB);
     }
 
+    /** The same database through the reactive streams driver; its client is created on first use. */
+    public static com.mongodb.reactivestreams.client.MongoDatabase reactiveDb() {
+        if (reactiveClient == null) {
+            synchronized (MongoConnectionUtil.class) {
+                if (reactiveClient == null) {
+                    try {
+                        reactiveClient = com.mongodb.reactivestreams.client.MongoClients.create(settings());
+                    } catch (MongoException e) {
+                        throw new RuntimeException("Failed to connect to MongoDB: " + e.getMessage(), e);
+                    }
+                }
+            }
+        }
+        return reactiveClient.getDatabase(DB);
+    }
+
+    /**
+     * A separate one-connection sync client for one-off maintenance, such as the note migration,
+     * while the app otherwise runs on the reactive driver; the caller closes it.
+     */
+    static MongoClient openMaintenanceClient() {
+        return MongoClients.create(MongoClientSettings.builder(settings())
+                .applyToConnectionPoolSettings(pool -> pool.maxSize(1).minSize(0))
+                .build());
+    }
+
+    static String databaseName() {
+        return DB;
+    }
+
+    /** Whether {@code MONGO_DRIVER=reactive} selects the non-blocking note store. */
+    public static boolean reactiveDriver() {
+        return "reactive".equalsIgnoreCase(DRIVER.trim());
+    }
+
+    private static MongoClientSettings settings() {
+        return MongoClientSettings.builder()
+                .applyConnectionString(new ConnectionString(URI))
+                .applicationName("HMS-JavaFX")
+                .codecRegistry(CODECS)
+                .applyToConnectionPoolSettings(pool -> {
+                    pool.maxSize(20);
+                    pool.minSize(5);
+                })
+                .build();
+    }
+
     public static void shutdown() {
         if (client != null) {
             client.close();
         }
+        if (reactiveClient != null) {
+            reactiveClient.close();
+        }
     }
 }
@@ -0,0 +1,29 @@
+package com.amalitech.hospitalmanagementsystem.nosql;
+
+import com.mongodb.WriteConcern;
+
+/**
+ * Tuning of bulk note ingestion: notes per {@code insertMany} call and the write concern it uses.
+ * {@link #defaults()} reads {@code NOTES_INGEST_BATCH_SIZE} (default {@value #DEFAULT_BATCH_SIZE})
+ * and {@code NOTES_INGEST_WRITE_CONCERN} (a {@link WriteConcern#valueOf(String)} name such as
+ * {@code W1}, {@code MAJORITY} or {@code UNACKNOWLEDGED}; default {@code ACKNOWLEDGED}).
+ */
+public record NoteIngestOptions(int batchSize, WriteConcern writeConcern) {
+
+    public static final int DEFAULT_BATCH_SIZE = 1_000;
+    public static final int MAX_BATCH_SIZE = 10_000;
+
+    public NoteIngestOptions {
+        if (batchSize <= 0 || batchSize > MAX_BATCH_SIZE)
+            throw new IllegalArgumentException("Batch size must be between 1 and " + MAX_BATCH_SIZE);
+        if (writeConcern == null) throw new IllegalArgumentException("Write concern is required");
+    }
+
+    public static NoteIngestOptions defaults() {
+        String size = System.getenv("NOTES_INGEST_BATCH_SIZE");
+        String concern = System.getenv("NOTES_INGEST_WRITE_CONCERN");
+        WriteConcern wc = concern == null || concern.isBlank() ? WriteConcern.ACKNOWLEDGED : WriteConcern.valueOf(concern.trim());
+        if (wc == null) throw new IllegalArgumentException("Unknown write concern: " + concern);
+        return new NoteIngestOptions(size == null || size.isBlank() ? DEFAULT_BATCH_SIZE : Integer.parseInt(size.trim()), wc);
+    }
+}
@@ -0,0 +1,29 @@
+package com.amalitech.hospitalmanagementsystem.nosql;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk note ingestion. Failures name the position of the note in the submitted list
+ * and why it was not stored (validation or a write error such as a duplicate _id); every other
+ * note was stored. A failure with {@code outcomeUnknown} is a note that may have been stored: its
+ * write failed twice without a per-note report. With an unacknowledged write concern, write errors
+ * are not reported.
+ */
+public record NoteIngestResult(int submitted, int inserted, List<Failure> failures) {
+
+    public record Failure(int index, String error, boolean outcomeUnknown) {
+
+        public Failure(int index, String error) {
+            this(index, error, false);
+        }
+
+        static Failure unknown(int index, String error) {
+            return new Failure(index, error, true);
+        }
+    }
+
+    /** Notes that may or may not have been stored. */
+    public long unknown() {
+        return failures.stream().filter(Failure::outcomeUnknown).count();
+    }
+}
@@ -0,0 +1,21 @@
+package com.amalitech.hospitalmanagementsystem.nosql;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Criteria of a ranked note search. {@code text} uses MongoDB {@code $text} syntax (words,
+ * "quoted phrases", -excluded); every other field is optional (null = no restriction).
+ * {@code tags} matches notes carrying all of them; {@code from} is inclusive, {@code to} exclusive.
+ */
+public record NoteQuery(String text, Long patientId, String noteType, List<String> tags,
+                        LocalDateTime from, LocalDateTime to) {
+
+    public static NoteQuery of(String text) {
+        return new NoteQuery(text, null, null, null, null, null);
+    }
+
+    public NoteQuery forPatient(Long patientId) {
+        return new NoteQuery(text, patientId, noteType, tags, from, to);
+    }
+}
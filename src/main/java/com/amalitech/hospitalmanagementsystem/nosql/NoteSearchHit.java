@@ -0,0 +1,13 @@
+package com.amalitech.hospitalmanagementsystem.nosql;
+
+import java.util.List;
+
+/**
+ * One ranked search result: the note (content as a preview), its {@code textScore} and a snippet
+ * of the content around the first match, with the matched words' positions for highlighting.
+ */
+public record NoteSearchHit(PatientNote note, double score, String snippet, List<Span> highlights) {
+
+    /** Characters {@code [start, end)} of the snippet. */
+    public record Span(int start, int end) {}
+}
@@ -0,0 +1,107 @@
+package com.amalitech.hospitalmanagementsystem.nosql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cuts a search-result snippet out of (the start of) a note's content: about {@link #LENGTH}
+ * characters around the first word that matches a query term, with every matching word inside it
+ * marked. {@code $text} matches stemmed words, so a word matches when it starts with a term
+ * ("fever" marks "fevers" and "feverish"); a match found only through stemming the other way, or
+ * beyond the scanned text, leaves the snippet at the start of the note.
+ */
+final class NoteSnippets {
+
+    static final int LENGTH = 200;
+    private static final int LEAD = 60;       // context kept before the first match
+    private static final String ELLIPSIS = "…";
+
+    record Snippet(String text, List<NoteSearchHit.Span> highlights) {}
+
+    private NoteSnippets() {}
+
+    /**
+     * @param source  the content, possibly truncated
+     * @param more    whether the content continues past {@code source}
+     * @param query   the {@code $text} query
+     */
+    static Snippet of(String source, boolean more, String query) {
+        if (source == null) source = "";
+        List<int[]> matches = matches(source, terms(query));
+
+        int start = 0;
+        if (!matches.isEmpty()) {
+            int first = matches.get(0)[0];
+            start = Math.max(0, first - LEAD);
+            // start on a word boundary, without passing the match
+            if (start > 0) {
+                int space = source.indexOf(' ', start);
+                if (space >= 0 && space < first) start = space + 1;
+            }
+        }
+        int end = Math.min(source.length(), start + LENGTH);
+        if (end < source.length()) {
+            int space = source.lastIndexOf(' ', end);
+            if (space > start + LENGTH / 2) end = space;
+        }
+
+        StringBuilder text = new StringBuilder();
+        if (start > 0) text.append(ELLIPSIS);
+        int offset = text.length() - start;
+        text.append(source, start, end);
+        if (end < source.length() || more) text.append(ELLIPSIS);
+
+        List<NoteSearchHit.Span> highlights = new ArrayList<>();
+        for (int[] m : matches) {
+            if (m[0] >= start && m[1] <= end) highlights.add(new NoteSearchHit.Span(m[0] + offset, m[1] + offset));
+        }
+        return new Snippet(text.toString(), highlights);
+    }
+
+    // Words and "phrases" of a $text query, minus -excluded ones
+    static List<String> terms(String query) {
+        List<String> terms = new ArrayList<>();
+        if (query == null) return terms;
+        int i = 0;
+        while (i < query.length()) {
+            char c = query.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '"') {
+                int close = query.indexOf('"', i + 1);
+                if (close < 0) close = query.length();
+                addTerm(terms, query.substring(i + 1, close));
+                i = close + 1;
+            } else {
+                int stop = i;
+                while (stop < query.length() && !Character.isWhitespace(query.charAt(stop))) stop++;
+                if (c != '-') addTerm(terms, query.substring(i, stop));
+                i = stop;
+            }
+        }
+        return terms;
+    }
+
+    private static void addTerm(List<String> terms, String term) {
+        term = term.strip();
+        if (term.length() >= 2) terms.add(term);
+    }
+
+    // [start, end) of every word starting with a term, extended to the end of the word, in order
+    private static List<int[]> matches(String source, List<String> terms) {
+        List<int[]> out = new ArrayList<>();
+        for (int i = 0; i < source.length(); i++) {
+            if (i > 0 && Character.isLetterOrDigit(source.charAt(i - 1))) continue;
+            for (String term : terms) {
+                if (source.regionMatches(true, i, term, 0, term.length())) {
+                    int end = i + term.length();
+                    while (end < source.length() && Character.isLetterOrDigit(source.charAt(end))) end++;
+                    out.add(new int[]{i, end});
+                    i = end - 1;
+                    break;
+                }
+            }
+        }
+        return out;
+    }
+}
@@ -13,6 +13,8 @@ public class PatientNote {
     private String content;     // Unstructured text
     private List<String> tags;  // Optional labels
     private LocalDateTime createdAt;
+    private boolean preview;    // content holds only the first PREVIEW_LENGTH characters
+    private String legacyCreatedAt;   // createdAt as still stored in a note not migrated yet, else null
 
     public ObjectId getId() { return id; }
     public void setId(ObjectId id) { this.id = id; }
@@ -28,4 +30,8 @@ public class PatientNote {
     public void setTags(List<String> tags) { this.tags = tags; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public boolean isPreview() { return preview; }
+    public void setPreview(boolean preview) { this.preview = preview; }
+    String getLegacyCreatedAt() { return legacyCreatedAt; }
+    void setLegacyCreatedAt(String legacyCreatedAt) { this.legacyCreatedAt = legacyCreatedAt; }
 }
@@ -0,0 +1,175 @@
+package com.amalitech.hospitalmanagementsystem.nosql;
+
+import org.bson.BsonObjectId;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.BsonWriter;
+import org.bson.codecs.CollectibleCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.types.ObjectId;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Reads and writes {@link PatientNote}s straight from/to BSON, without an intermediate
+ * {@code org.bson.Document}. {@code createdAt} is stored as a BSON date (UTC milliseconds; the
+ * note's local time is converted in the system time zone). Documents written before the
+ * migration, with {@code createdAt} as an ISO string, are still read; the string is kept on the
+ * note for paging, and one that does not parse falls back to the {@code _id} timestamp.
+ * <p>
+ * Decoding tolerates missing fields, so list queries can project only some of them.
+ */
+final class PatientNoteCodec implements CollectibleCodec<PatientNote> {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    @Override
+    public Class<PatientNote> getEncoderClass() {
+        return PatientNote.class;
+    }
+
+    @Override
+    public void encode(BsonWriter w, PatientNote n, EncoderContext ctx) {
+        w.writeStartDocument();
+        w.writeObjectId("_id", n.getId() == null ? new ObjectId() : n.getId());
+        writeLong(w, "patientId", n.getPatientId());
+        writeLong(w, "doctorId", n.getDoctorId());
+        writeString(w, "noteType", n.getNoteType());
+        writeString(w, "content", n.getContent());
+        if (n.getTags() == null) {
+            w.writeNull("tags");
+        } else {
+            w.writeStartArray("tags");
+            for (String tag : n.getTags()) {
+                if (tag == null) w.writeNull();
+                else w.writeString(tag);
+            }
+            w.writeEndArray();
+        }
+        if (n.getCreatedAt() == null) w.writeNull("createdAt");
+        else w.writeDateTime("createdAt", toDate(n.getCreatedAt()).getTime());
+        w.writeEndDocument();
+    }
+
+    @Override
+    public PatientNote decode(BsonReader r, DecoderContext ctx) {
+        PatientNote n = new PatientNote();
+        r.readStartDocument();
+        while (r.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            String name = r.readName();
+            if (r.getCurrentBsonType() == BsonType.NULL) {
+                r.readNull();
+                continue;
+            }
+            switch (name) {
+                case "_id" -> {
+                    if (r.getCurrentBsonType() == BsonType.OBJECT_ID) n.setId(r.readObjectId());
+                    else r.skipValue();
+                }
+                case "patientId" -> n.setPatientId(readLong(r));
+                case "doctorId" -> n.setDoctorId(readLong(r));
+                case "noteType" -> n.setNoteType(r.readString());
+                case "content" -> n.setContent(r.readString());
+                case "tags" -> n.setTags(readStrings(r));
+                case "createdAt" -> readCreatedAt(r, n);
+                default -> r.skipValue();
+            }
+        }
+        r.readEndDocument();
+        if (n.getCreatedAt() == null && n.getLegacyCreatedAt() != null && n.getId() != null) {
+            n.setCreatedAt(fromMillis(n.getId().getDate().getTime()));
+        }
+        return n;
+    }
+
+    @Override
+    public PatientNote generateIdIfAbsentFromDocument(PatientNote n) {
+        if (n.getId() == null) n.setId(new ObjectId());
+        return n;
+    }
+
+    @Override
+    public boolean documentHasId(PatientNote n) {
+        return n.getId() != null;
+    }
+
+    @Override
+    public BsonValue getDocumentId(PatientNote n) {
+        if (n.getId() == null) throw new IllegalStateException("The note has no _id");
+        return new BsonObjectId(n.getId());
+    }
+
+    /** The stored form of a note timestamp; also used for range filters on {@code createdAt}. */
+    static Date toDate(LocalDateTime t) {
+        return Date.from(t.atZone(ZONE).toInstant());
+    }
+
+    static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZONE);
+    }
+
+    private static void readCreatedAt(BsonReader r, PatientNote n) {
+        switch (r.getCurrentBsonType()) {
+            case DATE_TIME -> n.setCreatedAt(fromMillis(r.readDateTime()));
+            case STRING -> {                                // not migrated yet
+                String iso = r.readString();
+                n.setLegacyCreatedAt(iso);
+                n.setCreatedAt(parseLegacy(iso));
+            }
+            default -> r.skipValue();
+        }
+    }
+
+    static LocalDateTime parseLegacy(String iso) {
+        try {
+            return LocalDateTime.parse(iso);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static Long readLong(BsonReader r) {
+        return switch (r.getCurrentBsonType()) {
+            case INT64 -> r.readInt64();
+            case INT32 -> (long) r.readInt32();
+            case DOUBLE -> (long) r.readDouble();
+            default -> {
+                r.skipValue();
+                yield null;
+            }
+        };
+    }
+
+    private static List<String> readStrings(BsonReader r) {
+        if (r.getCurrentBsonType() != BsonType.ARRAY) {
+            r.skipValue();
+            return null;
+        }
+        List<String> out = new ArrayList<>();
+        r.readStartArray();
+        while (r.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            if (r.getCurrentBsonType() == BsonType.STRING) out.add(r.readString());
+            else r.skipValue();
+        }
+        r.readEndArray();
+        return out;
+    }
+
+    private static void writeLong(BsonWriter w, String name, Long value) {
+        if (value == null) w.writeNull(name);
+        else w.writeInt64(name, value);
+    }
+
+    private static void writeString(BsonWriter w, String name, String value) {
+        if (value == null) w.writeNull(name);
+        else w.writeString(name, value);
+    }
+}
@@ -0,0 +1,105 @@
+package com.amalitech.hospitalmanagementsystem.nosql;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static com.mongodb.client.model.Filters.*;
+import static com.mongodb.client.model.Projections.include;
+import static com.mongodb.client.model.Sorts.ascending;
+import static com.mongodb.client.model.Updates.set;
+
+/**
+ * One-off online migration of {@code patient_notes.createdAt} from the ISO strings written by
+ * earlier versions to BSON dates. Started once by {@link PatientNoteSetup} and run on its
+ * background thread while the app is in use, in batches
+ * of {@link #BATCH} notes in {@code _id} order; each update only applies if the note still holds
+ * the string that was read, so concurrent writes are never overwritten. A string that does not
+ * parse is replaced by the note's {@code _id} timestamp. Until it finishes, {@link PatientNoteCodec}
+ * reads both forms, and {@link PatientNoteRepository}'s paging and date filters match both.
+ * <p>
+ * Completion is recorded in the {@code migrations} collection, so later starts cost one lookup.
+ * A failed run is retried on the next start.
+ */
+final class PatientNoteMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientNoteMigration.class);
+
+    static final String ID = "patient_notes.createdAt_date";
+    private static final int BATCH = 500;
+
+    private static volatile boolean complete;
+
+    private PatientNoteMigration() {}
+
+    /** Whether every note is known to hold a BSON date; false until this process has checked. */
+    static boolean isComplete() {
+        return complete;
+    }
+
+    static void run(MongoDatabase db) {
+        try {
+            MongoCollection<Document> migrations = db.getCollection("migrations");
+            if (migrations.find(eq("_id", ID)).first() != null) {
+                complete = true;
+                return;
+            }
+
+            MongoCollection<Document> notes = db.getCollection("patient_notes");
+            long converted = 0, unparseable = 0;
+            ObjectId last = null;
+            while (true) {
+                Bson filter = last == null
+                        ? type("createdAt", BsonType.STRING)
+                        : and(type("createdAt", BsonType.STRING), gt("_id", last));
+                List<Document> batch = notes.find(filter).projection(include("createdAt"))
+                        .sort(ascending("_id")).limit(BATCH).into(new ArrayList<>());
+                if (batch.isEmpty()) break;
+
+                List<WriteModel<Document>> updates = new ArrayList<>(batch.size());
+                for (Document d : batch) {
+                    last = d.getObjectId("_id");
+                    String iso = d.getString("createdAt");
+                    LocalDateTime createdAt = PatientNoteCodec.parseLegacy(iso);
+                    Date date;
+                    if (createdAt != null) {
+                        date = PatientNoteCodec.toDate(createdAt);
+                    } else {
+                        date = last.getDate();      // when the note was inserted, to the second
+                        unparseable++;
+                    }
+                    updates.add(new UpdateOneModel<>(and(eq("_id", last), eq("createdAt", iso)),
+                            set("createdAt", date)));
+                }
+                if (!updates.isEmpty()) {
+                    converted += notes.bulkWrite(updates, new BulkWriteOptions().ordered(false)).getModifiedCount();
+                }
+            }
+
+            migrations.replaceOne(eq("_id", ID), new Document("_id", ID)
+                    .append("completedAt", new Date())
+                    .append("converted", converted)
+                    .append("unparseable", unparseable), new ReplaceOptions().upsert(true));
+            complete = true;
+            log.info("Converted createdAt of {} patient notes to BSON dates ({} unparseable, set from their _id)",
+                    converted, unparseable);
+        } catch (MongoException | IllegalStateException e) {
+            log.warn("Patient note migration failed, will retry on next start: {}", e.getMessage());
+        }
+    }
+}
@@ -1,53 +1,101 @@
 
 package com.amalitech.hospitalmanagementsystem.nosql;
 
+import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.model.Indexes;
+import org.bson.BsonType;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.conversions.Bson;
 import org.bson.types.ObjectId;
 
+import com.mongodb.MongoBulkWriteException;
 import com.mongodb.MongoCommandException;
-import com.mongodb.client.MongoIterable;
+import com.mongodb.MongoException;
+import com.mongodb.WriteConcern;
+import com.mongodb.bulk.BulkWriteError;
 import com.mongodb.client.model.IndexOptions;
-import java.util.stream.StreamSupport;
+import com.mongodb.client.model.InsertManyOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
 import static com.mongodb.client.model.Filters.*;
+import static com.mongodb.client.model.Projections.computed;
+import static com.mongodb.client.model.Projections.fields;
+import static com.mongodb.client.model.Projections.include;
+import static com.mongodb.client.model.Sorts.ascending;
 import static com.mongodb.client.model.Sorts.descending;
+import static com.mongodb.client.model.Sorts.orderBy;
 
 public class PatientNoteRepository {
 
-    private final MongoCollection<Document> notes;
+    private static final Logger log = LoggerFactory.getLogger(PatientNoteRepository.class);
 
-    public PatientNoteRepository() {
-        MongoDatabase db = MongoConnectionUtil.db();
-        this.notes = db.getCollection("patient_notes");
-        ensureIndexes();
-    }
+    /** Characters of content kept in list views; the rest is loaded with {@link #findContent}. */
+    public static final int PREVIEW_LENGTH = 160;
+
+    private static final int SNIPPET_SCAN_LENGTH = 4_000;
+    private static final int DUPLICATE_KEY = 11000;
+
+    // Expression projections need MongoDB 4.4 or later
+    static final Bson PREVIEW_FIELDS = fields(
+            include("patientId", "doctorId", "noteType", "tags", "createdAt"),
+            computed("content", contentPrefix(PREVIEW_LENGTH + 1)));
+    static final Bson SEARCH_FIELDS = fields(
+            include("patientId", "doctorId", "noteType", "tags", "createdAt"),
+            computed("content", contentPrefix(SNIPPET_SCAN_LENGTH + 1)),
+            Projections.metaTextScore("score"));
 
+    static final Bson NEWEST_FIRST = descending("createdAt", "_id");
+    static final Bson OLDEST_FIRST = ascending("createdAt", "_id");
 
-    private void ensureIndexes() {
-        // --- 1) TEXT INDEX on "content" (for full‑text search) ---
-        MongoIterable<Document> existing = notes.listIndexes();
+    static final Bson BEST_MATCH_FIRST = orderBy(Sorts.metaTextScore("score"), descending("createdAt", "_id"));
 
-        boolean hasContentText = StreamSupport.stream(existing.spliterator(), false)
-                .anyMatch(doc -> {
-                    // For text indexes, the "key" is {_fts:"text", _ftsx:1}, and the "weights" doc lists fields.
-                    Document weights = doc.get("weights", Document.class);
-                    return weights != null && weights.containsKey("content");
-                });
+    // --- 1) TEXT INDEX on "content" (for full‑text search), with patientId and noteType as suffix
+    // keys so search filters on them are checked from the index entries. Not prefix keys: those
+    // would make both filters mandatory on every search. A collection has only one text index,
+    // so an older content-only one is replaced.
+    static final Bson TEXT_INDEX = Indexes.compoundIndex(Indexes.text("content"), Indexes.ascending("patientId"),
+            Indexes.ascending("noteType"));
+    static final IndexOptions TEXT_INDEX_OPTIONS = new IndexOptions().name("content_text_patientId_1_noteType_1");  // stable name
 
-        if (!hasContentText) {
+    //COMPOUND INDEX on (patientId ASC, createdAt DESC, _id DESC) for listing and seeking page by page;
+    //_id breaks ties between notes created at the same instant, so every page boundary is exact
+    static final Bson SEEK_INDEX = Indexes.compoundIndex(Indexes.ascending("patientId"), Indexes.descending("createdAt"),
+            Indexes.descending("_id"));
+    static final IndexOptions SEEK_INDEX_OPTIONS = new IndexOptions().name("patientId_1_createdAt_-1__id_-1");
+
+    private final MongoCollection<PatientNote> notes;
+
+    // Indexes and the createdAt migration are handled once per process by PatientNoteSetup, not
+    // here: the repository may be created on the FX thread
+    public PatientNoteRepository() {
+        MongoDatabase db = MongoConnectionUtil.db();
+        // decoded by PatientNoteCodec, registered in MongoConnectionUtil
+        this.notes = db.getCollection("patient_notes", PatientNote.class);
+    }
+
+    /** Brings the collection's indexes in line with {@link IndexPlan}; blocks on each command. */
+    static void ensureIndexes(MongoCollection<?> notes) {
+        IndexPlan plan = IndexPlan.of(notes.listIndexes());
+        if (plan.createText()) {
+            if (plan.outdatedText() != null) dropIfPresent(notes, plan.outdatedText());
             try {
-                notes.createIndex(
-                        Indexes.text("content"),
-                        new IndexOptions().name("content_text")   // stable name
-                );
+                notes.createIndex(TEXT_INDEX, TEXT_INDEX_OPTIONS);
             } catch (MongoCommandException e) {
                 if (e.getCode() == 85) {
                     // Same index already exists but with a different name — ignore.
@@ -57,25 +105,9 @@ public class PatientNoteRepository {
                 }
             }
         }
-
-        //COMPOUND INDEX on (patientId ASC, createdAt DESC) for fast listing
-
-        existing = notes.listIndexes();
-
-        boolean hasPatientCreatedAt = StreamSupport.stream(existing.spliterator(), false)
-                .anyMatch(doc -> {
-                    Document key = doc.get("key", Document.class);
-                    return key != null
-                            && Integer.valueOf(1).equals(key.get("patientId"))   // ASC
-                            && Integer.valueOf(-1).equals(key.get("createdAt")); // DESC
-                });
-
-        if (!hasPatientCreatedAt) {
+        if (plan.createSeek()) {
             try {
-                notes.createIndex(
-                        Indexes.compoundIndex(Indexes.ascending("patientId"), Indexes.descending("createdAt")),
-                        new IndexOptions().name("patientId_1_createdAt_-1")
-                );
+                notes.createIndex(SEEK_INDEX, SEEK_INDEX_OPTIONS);
             } catch (MongoCommandException e) {
                 if (e.getCode() == 85) {
                     System.err.println("[PatientNoteRepository] compound index already exists (different name). Skipping.");
@@ -84,61 +116,261 @@ public class PatientNoteRepository {
                 }
             }
         }
+        if (plan.prefixIndex() != null) dropIfPresent(notes, plan.prefixIndex());
     }
 
+    // Error 27 (IndexNotFound): another workstation dropped it first, which is the goal anyway
+    private static void dropIfPresent(MongoCollection<?> notes, String index) {
+        try {
+            notes.dropIndex(index);
+        } catch (MongoCommandException e) {
+            if (e.getCode() != 27) throw e;
+        }
+    }
 
-    private Document toDoc(PatientNote n) {
-        return new Document()
-                .append("_id", n.getId() == null ? new ObjectId() : n.getId())
-                .append("patientId", n.getPatientId())
-                .append("doctorId", n.getDoctorId())
-                .append("noteType", n.getNoteType())
-                .append("content", n.getContent())
-                .append("tags", n.getTags())
-                .append("createdAt", n.getCreatedAt() == null ? LocalDateTime.now().toString()
-                        : n.getCreatedAt().toString());
-    }
-
-    private PatientNote fromDoc(Document d) {
-        PatientNote n = new PatientNote();
-        n.setId(d.getObjectId("_id"));
-        n.setPatientId(d.getLong("patientId"));
-        n.setDoctorId(d.getLong("doctorId"));
-        n.setNoteType(d.getString("noteType"));
-        n.setContent(d.getString("content"));
-        n.setTags((List<String>) d.get("tags"));
-        String ts = d.getString("createdAt");
-        n.setCreatedAt(ts == null ? null : LocalDateTime.parse(ts));
-        return n;
+    /**
+     * What {@link #ensureIndexes} has to change, worked out from the collection's current indexes;
+     * shared with {@link ReactivePatientNoteRepository#indexesReady}.
+     *
+     * @param outdatedText a content-only text index to drop before creating ours, or null
+     * @param prefixIndex  the old (patientId, createdAt) index, a prefix of ours that only costs writes
+     */
+    record IndexPlan(boolean createText, String outdatedText, boolean createSeek, String prefixIndex) {
+
+        static IndexPlan of(Iterable<Document> existing) {
+            boolean hasContentText = false, hasPatientCreatedAtId = false;
+            String outdatedText = null, prefixIndex = null;
+            for (Document doc : existing) {
+                // For text indexes, the "key" is {_fts:"text", _ftsx:1, ...suffix keys}, and the "weights" doc lists fields.
+                Document key = doc.get("key", Document.class);
+                Document weights = doc.get("weights", Document.class);
+                if (weights != null && weights.containsKey("content")) {
+                    if (key != null && key.containsKey("patientId") && key.containsKey("noteType")) hasContentText = true;
+                    else outdatedText = doc.getString("name");
+                    continue;
+                }
+                if (key == null
+                        || !Integer.valueOf(1).equals(key.get("patientId"))      // ASC
+                        || !Integer.valueOf(-1).equals(key.get("createdAt"))) {  // DESC
+                    continue;
+                }
+                if (key.size() == 2) prefixIndex = doc.getString("name");
+                else if (key.size() == 3 && Integer.valueOf(-1).equals(key.get("_id"))) hasPatientCreatedAtId = true;
+            }
+            return new IndexPlan(!hasContentText, outdatedText, !hasPatientCreatedAtId, prefixIndex);
+        }
     }
 
+
     public ObjectId create(PatientNote note) {
-        if (note.getCreatedAt() == null) note.setCreatedAt(LocalDateTime.now());
-        Document d = toDoc(note);
-        notes.insertOne(d);
-        return d.getObjectId("_id");
+        stamp(note);
+        notes.insertOne(note);      // the codec assigns the _id
+        return note.getId();
     }
 
-    public List<PatientNote> findByPatient(Long patientId) {
-        List<PatientNote> out = new ArrayList<>();
-        for (Document d : notes.find(eq("patientId", patientId)).sort(descending("createdAt"))) {
-            out.add(fromDoc(d));
+    /**
+     * Inserts {@code batch} with one unordered {@code insertMany}: a note that fails (e.g. a duplicate
+     * _id) does not stop the others. Failure indexes refer to {@code batch}.
+     * <p>
+     * Ids are assigned before sending. If the write fails without a per-note report (e.g. the
+     * connection drops), some notes may be stored already, so the batch is sent once more with the
+     * same ids: a duplicate-key error for an id assigned here then means the note landed the first
+     * time. If the retry fails the same way, every note is reported with an unknown outcome.
+     */
+    public NoteIngestResult insertMany(List<PatientNote> batch, WriteConcern writeConcern) {
+        boolean[] assigned = new boolean[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            PatientNote n = batch.get(i);
+            stamp(n);
+            if (n.getId() == null) {
+                n.setId(new ObjectId());
+                assigned[i] = true;
+            }
+        }
+        MongoCollection<PatientNote> target = notes.withWriteConcern(writeConcern);
+        try {
+            return insertOnce(target, batch, null);
+        } catch (MongoException first) {
+            log.warn("Bulk insert failed, retrying: {}", first.getMessage());
+            try {
+                return insertOnce(target, batch, assigned);
+            } catch (MongoException e) {
+                List<NoteIngestResult.Failure> unknown = new ArrayList<>(batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    unknown.add(NoteIngestResult.Failure.unknown(i, "May have been stored as note "
+                            + batch.get(i).getId() + "; check before importing it again (" + e.getMessage() + ")"));
+                }
+                return new NoteIngestResult(batch.size(), 0, unknown);
+            }
         }
-        return out;
     }
 
-    /** Full‑text search (requires the text index on "content"). */
-    public List<PatientNote> searchByText(String query) {
-        List<PatientNote> out = new ArrayList<>();
-        if (query == null || query.isBlank()) return out;
+    // One insertMany; per-note errors are returned as failures. On a retry, landed[i] marks the
+    // notes whose _id was assigned here, so a duplicate key on them is a note stored by the first try.
+    private static NoteIngestResult insertOnce(MongoCollection<PatientNote> target, List<PatientNote> batch,
+                                               boolean[] landed) {
+        try {
+            target.insertMany(batch, new InsertManyOptions().ordered(false));
+            return new NoteIngestResult(batch.size(), batch.size(), List.of());
+        } catch (MongoBulkWriteException e) {
+            List<NoteIngestResult.Failure> failures = new ArrayList<>();
+            int inserted = e.getWriteResult().getInsertedCount();
+            for (BulkWriteError err : e.getWriteErrors()) {
+                if (landed != null && landed[err.getIndex()] && err.getCode() == DUPLICATE_KEY) inserted++;
+                else failures.add(new NoteIngestResult.Failure(err.getIndex(), err.getMessage()));
+            }
+            if (e.getWriteConcernError() != null) {
+                log.warn("Bulk insert written, but write concern not met: {}", e.getWriteConcernError().getMessage());
+            }
+            return new NoteIngestResult(batch.size(), inserted, failures);
+        }
+    }
 
+    // BSON dates keep milliseconds; trimming here keeps the caller's copy equal to the stored one
+    static void stamp(PatientNote note) {
+        if (note.getCreatedAt() == null) note.setCreatedAt(LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS));
+    }
+
+    /**
+     * One page of a patient's notes, newest first, starting after {@code after} (null for the first
+     * page). Seeks on (createdAt, _id) through the compound index instead of skipping, so every page
+     * costs the same. Notes hold only a preview of their content; see {@link #findContent}.
+     */
+    public List<PatientNote> findPageByPatient(Long patientId, PatientNote after, int limit) {
+        return previews(notes.find(pageAfter(patientId, after)).sort(NEWEST_FIRST).limit(limit));
+    }
+
+    /** The page of a patient's notes just newer than {@code before}, still newest first. */
+    public List<PatientNote> findPageByPatientBefore(Long patientId, PatientNote before, int limit) {
+        List<PatientNote> page = previews(notes.find(pageBefore(patientId, before)).sort(OLDEST_FIRST).limit(limit));
+        Collections.reverse(page);
+        return page;
+    }
+
+    // Newest first, dates sort before the legacy strings of notes not migrated yet (BSON orders
+    // types before values), and a range on one type never matches the other. So until the migration
+    // is complete, a seek from a date also takes every string, and one from a string every date.
+    static Bson pageAfter(Long patientId, PatientNote after) {
+        if (after == null) return eq("patientId", patientId);
+        Object at = storedCreatedAt(after);
+        List<Bson> seek = new ArrayList<>(List.of(
+                lt("createdAt", at),
+                and(eq("createdAt", at), lt("_id", after.getId()))));
+        if (at instanceof Date && !PatientNoteMigration.isComplete()) seek.add(type("createdAt", BsonType.STRING));
+        return and(eq("patientId", patientId), or(seek));
+    }
+
+    static Bson pageBefore(Long patientId, PatientNote before) {
+        Object at = storedCreatedAt(before);
+        List<Bson> seek = new ArrayList<>(List.of(
+                gt("createdAt", at),
+                and(eq("createdAt", at), gt("_id", before.getId()))));
+        if (at instanceof String && !PatientNoteMigration.isComplete()) seek.add(type("createdAt", BsonType.DATE_TIME));
+        return and(eq("patientId", patientId), or(seek));
+    }
+
+    /**
+     * Ranked full‑text search (requires the text index on "content"): the best matches first by
+     * {@code textScore}, at most {@code limit} from {@code offset}, narrowed by the query's optional
+     * filters. Only the first {@value #SNIPPET_SCAN_LENGTH} characters of each note are transferred,
+     * to cut the snippet from; the note itself holds a preview.
+     */
+    public List<NoteSearchHit> search(NoteQuery q, int offset, int limit) {
+        List<NoteSearchHit> out = new ArrayList<>();
+        if (q == null || q.text() == null || q.text().isBlank()) return out;
+
+        // raw documents, so the codec decodes the note straight from the bytes and the score is read beside it
+        Codec<PatientNote> codec = notes.getCodecRegistry().get(PatientNote.class);
+        for (RawBsonDocument d : notes.withDocumentClass(RawBsonDocument.class)
+                .find(searchFilter(q))
+                .projection(SEARCH_FIELDS)
+                .sort(BEST_MATCH_FIRST)
+                .skip(offset)
+                .limit(limit)) {
+            out.add(toHit(d, codec, q));
+        }
+        return out;
+    }
+
+    static Bson searchFilter(NoteQuery q) {
         // Use Filters.text helper per driver docs. [2](https://www.mongodb.com/docs/drivers/java/sync/current/crud/query-documents/text/)
-        for (Document d : notes.find(text(query)).sort(descending("createdAt"))) {
-            out.add(fromDoc(d));
+        List<Bson> filters = new ArrayList<>();
+        filters.add(text(q.text()));
+        if (q.patientId() != null) filters.add(eq("patientId", q.patientId()));
+        if (q.noteType() != null && !q.noteType().isBlank()) filters.add(eq("noteType", q.noteType()));
+        if (q.tags() != null && !q.tags().isEmpty()) filters.add(all("tags", q.tags()));
+        if (q.from() != null || q.to() != null) {
+            Bson dates = createdAtRange(createdAtValue(q.from()), createdAtValue(q.to()));
+            // legacy ISO strings compare in time order too
+            filters.add(PatientNoteMigration.isComplete() ? dates : or(dates, createdAtRange(
+                    q.from() == null ? null : q.from().toString(), q.to() == null ? null : q.to().toString())));
+        }
+        return and(filters);
+    }
+
+    // One search result: the note as a preview, its score and the snippet cut from the scanned content
+    static NoteSearchHit toHit(RawBsonDocument d, Codec<PatientNote> codec, NoteQuery q) {
+        PatientNote n = d.decode(codec);
+        String scanned = n.getContent() == null ? "" : n.getContent();
+        String source = cut(scanned, SNIPPET_SCAN_LENGTH);
+        NoteSnippets.Snippet snippet = NoteSnippets.of(source == null ? scanned : source, source != null, q.text());
+        toPreview(n);
+        return new NoteSearchHit(n, d.getDouble("score").getValue(), snippet.text(), snippet.highlights());
+    }
+
+    /** The complete content of one note, fetched when a previewed note is opened. */
+    public Optional<String> findContent(ObjectId id) {
+        Document d = notes.withDocumentClass(Document.class).find(eq("_id", id)).projection(include("content")).first();
+        return Optional.ofNullable(d == null ? null : d.getString("content"));
+    }
+
+    // The first n characters of content, cut on the server
+    private static Bson contentPrefix(int n) {
+        return new Document("$substrCP", List.of(new Document("$ifNull", List.of("$content", "")), 0, n));
+    }
+
+    // Runs a list query with the preview projection; the server truncates content, so long notes
+    // never cross the wire in full. One extra character tells whether anything was cut.
+    private static List<PatientNote> previews(FindIterable<PatientNote> find) {
+        List<PatientNote> out = new ArrayList<>();
+        for (PatientNote n : find.projection(PREVIEW_FIELDS)) {
+            out.add(toPreview(n));
         }
         return out;
     }
 
+    static PatientNote toPreview(PatientNote n) {
+        String preview = cut(n.getContent(), PREVIEW_LENGTH);
+        if (preview != null) {
+            n.setContent(preview);
+            n.setPreview(true);
+        }
+        return n;
+    }
+
+    // The first codePoints characters of s, or null if s is not longer than that
+    private static String cut(String s, int codePoints) {
+        if (s == null || s.length() <= codePoints || s.codePointCount(0, s.length()) <= codePoints) return null;
+        return s.substring(0, s.offsetByCodePoints(0, codePoints));
+    }
+
+    // The stored form of createdAt; seek bounds must compare against the same representation
+    private static Object createdAtValue(LocalDateTime t) {
+        return t == null ? null : PatientNoteCodec.toDate(t);
+    }
+
+    // createdAt as stored in this note, which is the legacy string until it is migrated
+    private static Object storedCreatedAt(PatientNote n) {
+        return n.getLegacyCreatedAt() != null ? n.getLegacyCreatedAt() : createdAtValue(n.getCreatedAt());
+    }
+
+    private static Bson createdAtRange(Object from, Object to) {
+        List<Bson> bounds = new ArrayList<>(2);
+        if (from != null) bounds.add(gte("createdAt", from));
+        if (to != null) bounds.add(lt("createdAt", to));
+        return and(bounds);
+    }
+
     public boolean delete(ObjectId id) {
         return notes.deleteOne(eq("_id", id)).getDeletedCount() > 0;
     }
@@ -3,10 +3,16 @@ package com.amalitech.hospitalmanagementsystem.nosql;
 
 import org.bson.types.ObjectId;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.IntStream;
 
 public class PatientNoteService {
 
+    public static final int MAX_PAGE_SIZE = 500;
+    private static final int DEFAULT_SEARCH_LIMIT = 50;
+
     private final PatientNoteRepository repo = new PatientNoteRepository();
 
     public void addNote(PatientNote note) {
@@ -14,19 +20,93 @@ public class PatientNoteService {
         repo.create(note);
     }
 
-    public List<PatientNote> getNotesForPatient(Long patientId) {
-        return repo.findByPatient(patientId);
+    /** Bulk ingestion with {@link NoteIngestOptions#defaults()}. */
+    public NoteIngestResult addNotes(List<PatientNote> notes) {
+        return addNotes(notes, NoteIngestOptions.defaults());
+    }
+
+    /**
+     * Validates {@code notes} in parallel, then inserts the valid ones in unordered batches of
+     * {@code options.batchSize()}. Invalid and rejected notes are reported by their index in
+     * {@code notes}; the rest are stored.
+     */
+    public NoteIngestResult addNotes(List<PatientNote> notes, NoteIngestOptions options) {
+        String[] invalid = new String[notes.size()];
+        IntStream.range(0, notes.size()).parallel().forEach(i -> {
+            try {
+                validate(notes.get(i), true);
+            } catch (IllegalArgumentException e) {
+                invalid[i] = e.getMessage();
+            }
+        });
+
+        List<NoteIngestResult.Failure> failures = new ArrayList<>();
+        List<PatientNote> batch = new ArrayList<>(Math.min(notes.size(), options.batchSize()));
+        int[] positions = new int[options.batchSize()];     // index in notes of each batch entry
+        int inserted = 0;
+        for (int i = 0; i < notes.size(); i++) {
+            if (invalid[i] != null) {
+                failures.add(new NoteIngestResult.Failure(i, invalid[i]));
+                continue;
+            }
+            positions[batch.size()] = i;
+            batch.add(notes.get(i));
+            if (batch.size() == options.batchSize()) {
+                inserted += insertBatch(batch, positions, options, failures);
+            }
+        }
+        if (!batch.isEmpty()) inserted += insertBatch(batch, positions, options, failures);
+        failures.sort(Comparator.comparingInt(NoteIngestResult.Failure::index));
+        return new NoteIngestResult(notes.size(), inserted, failures);
+    }
+
+    private int insertBatch(List<PatientNote> batch, int[] positions, NoteIngestOptions options,
+                            List<NoteIngestResult.Failure> failures) {
+        NoteIngestResult r = repo.insertMany(batch, options.writeConcern());
+        for (NoteIngestResult.Failure f : r.failures()) {
+            failures.add(new NoteIngestResult.Failure(positions[f.index()], f.error(), f.outcomeUnknown()));
+        }
+        batch.clear();
+        return r.inserted();
+    }
+
+    /** A page of the patient's notes, newest first, after {@code after} (null for the first page). */
+    public List<PatientNote> getNotesPage(Long patientId, PatientNote after, int limit) {
+        return repo.findPageByPatient(patientId, after, checkPageSize(limit));
     }
 
-    public List<PatientNote> search(String term) {
-        return repo.searchByText(term);
+    public List<PatientNote> getNotesPageBefore(Long patientId, PatientNote before, int limit) {
+        return repo.findPageByPatientBefore(patientId, before, checkPageSize(limit));
+    }
+
+    /** Ranked search: best matches first, {@code limit} of them from {@code offset}. */
+    public List<NoteSearchHit> search(NoteQuery query, int offset, int limit) {
+        if (offset < 0) throw new IllegalArgumentException("offset must not be negative");
+        return repo.search(query, offset, checkPageSize(limit));
+    }
+
+    /** The {@value #DEFAULT_SEARCH_LIMIT} best matches across all patients. */
+    public List<NoteSearchHit> search(String term) {
+        return search(NoteQuery.of(term), 0, DEFAULT_SEARCH_LIMIT);
+    }
+
+    /** The full content of a note; only a note listed as a preview needs a round trip. */
+    public String getFullContent(PatientNote note) {
+        if (!note.isPreview()) return note.getContent();
+        return repo.findContent(note.getId()).orElse(note.getContent());
     }
 
     public boolean delete(ObjectId id) {
         return repo.delete(id);
     }
 
-    private void validate(PatientNote n, boolean creating) {
+    static int checkPageSize(int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE)
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        return limit;
+    }
+
+    static void validate(PatientNote n, boolean creating) {
         if (n == null) throw new IllegalArgumentException("Note is required");
         if (n.getPatientId() == null || n.getPatientId() <= 0)
             throw new IllegalArgumentException("patientId is required");
@@ -0,0 +1,64 @@
+package com.amalitech.hospitalmanagementsystem.nosql;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoDatabase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Maintenance of {@code patient_notes}, done once per process from application startup rather than
+ * by the repositories, which UI code may create on the FX thread: the index check, then
+ * {@link PatientNoteMigration}. With the sync driver both run on one background thread. With
+ * {@code MONGO_DRIVER=reactive} the index check is issued without blocking (the reactive
+ * repository's operations wait for it), and the migration runs on a background thread through a
+ * one-connection sync client that is closed afterwards, so no second pool stays open.
+ * <p>
+ * A failed step is logged and tried again on the next start. Until the indexes exist, list
+ * queries are slower and text search fails.
+ */
+public final class PatientNoteSetup {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientNoteSetup.class);
+
+    private static final AtomicBoolean started = new AtomicBoolean();
+
+    private PatientNoteSetup() {}
+
+    public static void startOnce() {
+        if (!started.compareAndSet(false, true)) return;
+        Runnable work;
+        if (MongoConnectionUtil.reactiveDriver()) {
+            ReactivePatientNoteRepository.indexesReady();
+            work = PatientNoteSetup::migrateWithMaintenanceClient;
+        } else {
+            work = PatientNoteSetup::run;
+        }
+        Thread t = new Thread(work, "hms-note-setup");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    private static void run() {
+        try {
+            MongoDatabase db = MongoConnectionUtil.db();
+            try {
+                PatientNoteRepository.ensureIndexes(db.getCollection("patient_notes"));
+            } catch (RuntimeException e) {
+                log.warn("Patient note indexes not checked, will retry on next start: {}", e.getMessage());
+            }
+            PatientNoteMigration.run(db);
+        } catch (RuntimeException e) {
+            log.warn("Patient note setup not run, will retry on next start: {}", e.getMessage());
+        }
+    }
+
+    private static void migrateWithMaintenanceClient() {
+        try (MongoClient client = MongoConnectionUtil.openMaintenanceClient()) {
+            PatientNoteMigration.run(client.getDatabase(MongoConnectionUtil.databaseName()));
+        } catch (RuntimeException e) {
+            log.warn("Patient note migration not run, will retry on next start: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.amalitech.hospitalmanagementsystem.nosql;
+
+import org.bson.types.ObjectId;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Patient note access that never blocks the caller: every method returns at once with a future.
+ * {@link #fromConfig()} picks the implementation with {@code MONGO_DRIVER}: {@code reactive} uses
+ * the reactive streams driver, so no thread waits on MongoDB; anything else (the default) runs the
+ * blocking {@link PatientNoteRepository} on worker threads. Both return the same results.
+ */
+public interface PatientNoteStore {
+
+    /** Inserts the note; a missing {@code createdAt} is set to now. Completes with its _id. */
+    CompletableFuture<ObjectId> create(PatientNote note);
+
+    /** @see PatientNoteRepository#findPageByPatient */
+    CompletableFuture<List<PatientNote>> findPageByPatient(Long patientId, PatientNote after, int limit);
+
+    /** @see PatientNoteRepository#findPageByPatientBefore */
+    CompletableFuture<List<PatientNote>> findPageByPatientBefore(Long patientId, PatientNote before, int limit);
+
+    /** @see PatientNoteRepository#search */
+    CompletableFuture<List<NoteSearchHit>> search(NoteQuery query, int offset, int limit);
+
+    CompletableFuture<Optional<String>> findContent(ObjectId id);
+
+    CompletableFuture<Boolean> delete(ObjectId id);
+
+    static PatientNoteStore fromConfig() {
+        return MongoConnectionUtil.reactiveDriver() ? new ReactivePatientNoteRepository() : new BlockingPatientNoteStore();
+    }
+}
@@ -0,0 +1,75 @@
+package com.amalitech.hospitalmanagementsystem.nosql;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Bridges the reactive streams driver's {@link Publisher}s to the {@link CompletableFuture}s the
+ * UI already consumes (FxAsync, PagedTableLoader, LatestRequest). Everything wanted is requested
+ * up front: note queries are bounded by their page size, so back-pressure buys nothing here.
+ * Futures complete on a driver thread; cancelling one cancels the subscription.
+ */
+final class Publishers {
+
+    private Publishers() {}
+
+    /** All items, in order; an empty list for {@code Publisher<Void>} operations. */
+    static <T> CompletableFuture<List<T>> toList(Publisher<T> publisher) {
+        Collector<T> c = new Collector<>(Long.MAX_VALUE);
+        publisher.subscribe(c);
+        return c.result;
+    }
+
+    /** The first item, if any; the subscription is cancelled once it arrives. */
+    static <T> CompletableFuture<Optional<T>> first(Publisher<T> publisher) {
+        Collector<T> c = new Collector<>(1);
+        publisher.subscribe(c);
+        return c.result.thenApply(items -> items.stream().findFirst());
+    }
+
+    // Signals to one subscriber are serialized by the spec, so the list needs no locking
+    private static final class Collector<T> implements Subscriber<T> {
+        final CompletableFuture<List<T>> result = new CompletableFuture<>();
+        final List<T> items = new ArrayList<>();
+        final long max;
+        Subscription subscription;
+
+        Collector(long max) {
+            this.max = max;
+        }
+
+        @Override
+        public void onSubscribe(Subscription s) {
+            subscription = s;
+            result.whenComplete((v, ex) -> {
+                if (result.isCancelled()) s.cancel();
+            });
+            s.request(max);
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+            if (items.size() == max) {
+                subscription.cancel();
+                result.complete(items);
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            result.completeExceptionally(t);
+        }
+
+        @Override
+        public void onComplete() {
+            result.complete(items);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.amalitech.hospitalmanagementsystem.nosql;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import com.mongodb.reactivestreams.client.MongoDatabase;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import static com.amalitech.hospitalmanagementsystem.nosql.PatientNoteRepository.*;
+import static com.mongodb.client.model.Filters.eq;
+import static com.mongodb.client.model.Projections.include;
+
+/**
+ * {@link PatientNoteStore} on the reactive streams driver: the same queries as
+ * {@link PatientNoteRepository}, issued without blocking any thread. Results are decoded on the
+ * driver's threads by {@link PatientNoteCodec} and handed over through {@link Publishers}.
+ * <p>
+ * The indexes are checked once per process, started by {@link PatientNoteSetup}; every operation
+ * waits for that (without blocking) so a search never runs before the text index exists.
+ */
+final class ReactivePatientNoteRepository implements PatientNoteStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactivePatientNoteRepository.class);
+
+    private static final Object indexLock = new Object();
+    private static CompletableFuture<Void> indexes;     // guarded by indexLock
+
+    private final MongoCollection<PatientNote> notes;
+
+    ReactivePatientNoteRepository() {
+        MongoDatabase db = MongoConnectionUtil.reactiveDb();
+        // decoded by PatientNoteCodec, registered in MongoConnectionUtil
+        this.notes = db.getCollection("patient_notes", PatientNote.class);
+    }
+
+    /**
+     * The index check for this process, started on first call; a failed one is started again by
+     * the next call. Completes normally either way, since queries work without the indexes.
+     */
+    static CompletableFuture<Void> indexesReady() {
+        synchronized (indexLock) {
+            if (indexes == null || indexes.isCompletedExceptionally()) {
+                indexes = ensureIndexes(MongoConnectionUtil.reactiveDb().getCollection("patient_notes"));
+                indexes.whenComplete((v, ex) -> {
+                    if (ex != null) log.warn("Patient note indexes not checked: {}", ex.getMessage());
+                });
+            }
+            return indexes.exceptionally(ex -> null);
+        }
+    }
+
+    // Same plan as PatientNoteRepository.ensureIndexes, applied step by step as each command completes
+    private static CompletableFuture<Void> ensureIndexes(MongoCollection<?> notes) {
+        return Publishers.toList(notes.listIndexes()).thenCompose(existing -> {
+            IndexPlan plan = IndexPlan.of(existing);
+            CompletableFuture<?> steps = CompletableFuture.completedFuture(null);
+            if (plan.createText()) {
+                if (plan.outdatedText() != null) {
+                    steps = steps.thenCompose(v -> ignoring(27, Publishers.toList(notes.dropIndex(plan.outdatedText()))));
+                }
+                steps = steps.thenCompose(v -> ignoring(85,
+                        Publishers.toList(notes.createIndex(TEXT_INDEX, TEXT_INDEX_OPTIONS))));
+            }
+            if (plan.createSeek()) {
+                steps = steps.thenCompose(v -> ignoring(85,
+                        Publishers.toList(notes.createIndex(SEEK_INDEX, SEEK_INDEX_OPTIONS))));
+            }
+            if (plan.prefixIndex() != null) {
+                steps = steps.thenCompose(v -> ignoring(27, Publishers.toList(notes.dropIndex(plan.prefixIndex()))));
+            }
+            return steps.thenApply(v -> null);
+        });
+    }
+
+    // Error 85: the same index already exists under a different name; 27: the index to drop is
+    // already gone (e.g. dropped by another workstation). Both are fine.
+    private static CompletableFuture<Void> ignoring(int code, CompletableFuture<?> command) {
+        return command.handle((v, ex) -> {
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+            if (cause == null || cause instanceof MongoCommandException e && e.getCode() == code) return null;
+            throw new CompletionException(cause);
+        });
+    }
+
+    @Override
+    public CompletableFuture<ObjectId> create(PatientNote note) {
+        stamp(note);
+        if (note.getId() == null) note.setId(new ObjectId());
+        return after(() -> Publishers.first(notes.insertOne(note))).thenApply(r -> note.getId());
+    }
+
+    @Override
+    public CompletableFuture<List<PatientNote>> findPageByPatient(Long patientId, PatientNote after, int limit) {
+        return after(() -> Publishers.toList(notes.find(pageAfter(patientId, after))
+                .projection(PREVIEW_FIELDS).sort(NEWEST_FIRST).limit(limit)))
+                .thenApply(ReactivePatientNoteRepository::previews);
+    }
+
+    @Override
+    public CompletableFuture<List<PatientNote>> findPageByPatientBefore(Long patientId, PatientNote before, int limit) {
+        return after(() -> Publishers.toList(notes.find(pageBefore(patientId, before))
+                .projection(PREVIEW_FIELDS).sort(OLDEST_FIRST).limit(limit)))
+                .thenApply(page -> {
+                    Collections.reverse(page);
+                    return previews(page);
+                });
+    }
+
+    @Override
+    public CompletableFuture<List<NoteSearchHit>> search(NoteQuery q, int offset, int limit) {
+        if (q == null || q.text() == null || q.text().isBlank()) return CompletableFuture.completedFuture(List.of());
+        Codec<PatientNote> codec = notes.getCodecRegistry().get(PatientNote.class);
+        return after(() -> Publishers.toList(notes.withDocumentClass(RawBsonDocument.class)
+                .find(searchFilter(q))
+                .projection(SEARCH_FIELDS)
+                .sort(BEST_MATCH_FIRST)
+                .skip(offset)
+                .limit(limit)))
+                .thenApply(docs -> docs.stream().map(d -> toHit(d, codec, q)).toList());
+    }
+
+    @Override
+    public CompletableFuture<Optional<String>> findContent(ObjectId id) {
+        return after(() -> Publishers.first(notes.withDocumentClass(Document.class)
+                .find(eq("_id", id)).projection(include("content")).first()))
+                .thenApply(d -> d.map(doc -> doc.getString("content")));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> delete(ObjectId id) {
+        return after(() -> Publishers.first(notes.deleteOne(eq("_id", id))))
+                .thenApply(r -> r.map(DeleteResult::getDeletedCount).orElse(0L) > 0);
+    }
+
+    // Starts the operation once the indexes are in place
+    private <T> CompletableFuture<T> after(Supplier<CompletableFuture<T>> op) {
+        return indexesReady().thenCompose(v -> op.get());
+    }
+
+    private static List<PatientNote> previews(List<PatientNote> page) {
+        page.forEach(PatientNoteRepository::toPreview);
+        return page;
+    }
+}
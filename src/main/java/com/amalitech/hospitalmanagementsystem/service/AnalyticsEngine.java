@@ -0,0 +1,331 @@
+package com.amalitech.hospitalmanagementsystem.service;
+
+import com.amalitech.hospitalmanagementsystem.dao.impl.AppointmentDaoImpl;
+import com.amalitech.hospitalmanagementsystem.dao.impl.InventoryDaoImpl;
+import com.amalitech.hospitalmanagementsystem.dao.impl.PatientDaoImpl;
+import com.amalitech.hospitalmanagementsystem.dao.impl.PatientFeedbackDaoImpl;
+import com.amalitech.hospitalmanagementsystem.model.Appointment;
+import com.amalitech.hospitalmanagementsystem.model.InventoryItem;
+import com.amalitech.hospitalmanagementsystem.model.Patient;
+import com.amalitech.hospitalmanagementsystem.model.PatientFeedback;
+import com.amalitech.hospitalmanagementsystem.util.JdbcStream;
+import com.amalitech.hospitalmanagementsystem.util.LongIntMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * In-memory counters behind the Reports histograms: patients by sex, appointments per day,
+ * feedback by rating and low-stock items per category, with the same buckets as {@code ReportingDao}.
+ * <p>
+ * Each section is bootstrapped once by streaming its table, then kept current from
+ * {@link ChangeNotifier} events, so {@link #snapshot()} costs O(buckets) instead of a GROUP BY
+ * per chart. Every section remembers the bucket each row was counted in, which makes applying an
+ * event idempotent; events arriving during a bootstrap are buffered and replayed on top of it.
+ * A BULK event drops the section and the next snapshot reloads it.
+ * Writes from other workstations arrive through {@link ChangeFeed} as the same events.
+ */
+public final class AnalyticsEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsEngine.class);
+
+    public record Snapshot(Map<String, Integer> patientsBySex,              // "M", "F", "Other"
+                           Map<LocalDate, Integer> appointmentsPerDay,      // ascending
+                           Map<Integer, Integer> feedbackByRating,          // rating 1..5
+                           Map<String, Integer> lowStockByCategory) {}      // ascending, non-zero only
+
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    private static final Map<ChangeNotifier.Entity, Supplier<Section<?>>> FACTORIES = Map.of(
+            ChangeNotifier.Entity.PATIENT, PatientSection::new,
+            ChangeNotifier.Entity.APPOINTMENT, AppointmentSection::new,
+            ChangeNotifier.Entity.FEEDBACK, FeedbackSection::new,
+            ChangeNotifier.Entity.INVENTORY, InventorySection::new);
+
+    // ReentrantLock rather than synchronized: events and loads run on virtual threads
+    private static final ReentrantLock lock = new ReentrantLock();
+    // one bootstrap at a time; held while streaming, never while holding lock
+    private static final ReentrantLock loadLock = new ReentrantLock();
+    // guarded by lock
+    private static final Map<ChangeNotifier.Entity, Section<?>> sections = new EnumMap<>(ChangeNotifier.Entity.class);
+    private static final Map<ChangeNotifier.Entity, List<ChangeNotifier.Change>> pending =
+            new EnumMap<>(ChangeNotifier.Entity.class);
+
+    private static final ChangeNotifier.Listener listener = AnalyticsEngine::onChange;
+
+    static {
+        ChangeNotifier.subscribe(listener);
+    }
+
+    private AnalyticsEngine() {}
+
+    /** Current counts; the first call (and the first after a BULK change) blocks on JDBC. */
+    public static Snapshot snapshot() {
+        for (ChangeNotifier.Entity e : FACTORIES.keySet()) ensureLoaded(e);
+        lock.lock();
+        try {
+            return new Snapshot(
+                    section(ChangeNotifier.Entity.PATIENT, PatientSection.class).counts(),
+                    section(ChangeNotifier.Entity.APPOINTMENT, AppointmentSection.class).counts(),
+                    section(ChangeNotifier.Entity.FEEDBACK, FeedbackSection.class).counts(),
+                    section(ChangeNotifier.Entity.INVENTORY, InventorySection.class).counts());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Drops every section; the next snapshot reloads from the database. */
+    public static void invalidate() {
+        lock.lock();
+        try {
+            sections.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Counts the given rows into fresh sections, as a bootstrap does, without touching the database
+     * or the shared counters. Lets the benchmarks measure the aggregation offline.
+     */
+    static Snapshot aggregate(Collection<Patient> patients, Collection<Appointment> appointments,
+                              Collection<PatientFeedback> feedback, Collection<InventoryItem> inventory) {
+        PatientSection p = new PatientSection();
+        p.addAll(patients.stream());
+        AppointmentSection a = new AppointmentSection();
+        a.addAll(appointments.stream());
+        FeedbackSection f = new FeedbackSection();
+        f.addAll(feedback.stream());
+        InventorySection i = new InventorySection();
+        i.addAll(inventory.stream());
+        return new Snapshot(p.counts(), a.counts(), f.counts(), i.counts());
+    }
+
+    // Falls back to an empty section when the load failed, so a chart shows zeros rather than an error
+    private static <S extends Section<?>> S section(ChangeNotifier.Entity entity, Class<S> type) {
+        Section<?> s = sections.get(entity);
+        return type.cast(s != null ? s : FACTORIES.get(entity).get());
+    }
+
+    private static void onChange(ChangeNotifier.Change c) {
+        if (!FACTORIES.containsKey(c.entity())) return;
+        lock.lock();
+        try {
+            List<ChangeNotifier.Change> buffered = pending.get(c.entity());
+            if (buffered != null) {
+                buffered.add(c);
+                return;
+            }
+            Section<?> s = sections.get(c.entity());
+            if (s == null) return;                      // not loaded; the load will see this write
+            if (c.kind() == ChangeNotifier.Kind.BULK) sections.remove(c.entity());
+            else s.apply(c);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void ensureLoaded(ChangeNotifier.Entity entity) {
+        lock.lock();
+        try {
+            if (sections.containsKey(entity)) return;
+        } finally {
+            lock.unlock();
+        }
+        loadLock.lock();
+        try {
+            for (int attempt = 1; attempt <= MAX_LOAD_ATTEMPTS; attempt++) {
+                lock.lock();
+                try {
+                    if (sections.containsKey(entity)) return;
+                    pending.put(entity, new ArrayList<>());
+                } finally {
+                    lock.unlock();
+                }
+                Section<?> fresh = FACTORIES.get(entity).get();
+                try {
+                    long start = System.nanoTime();
+                    fresh.load();
+                    log.debug("Loaded {} analytics in {} ms", entity, (System.nanoTime() - start) / 1_000_000);
+                } catch (RuntimeException e) {
+                    log.warn("Loading {} analytics failed: {}", entity, e.getMessage());
+                    fresh = null;
+                }
+                lock.lock();
+                try {
+                    List<ChangeNotifier.Change> buffered = pending.remove(entity);
+                    if (fresh == null) return;
+                    boolean bulk = false;
+                    for (ChangeNotifier.Change c : buffered) {
+                        if (c.kind() == ChangeNotifier.Kind.BULK) { bulk = true; break; }
+                        fresh.apply(c);
+                    }
+                    if (!bulk) {
+                        sections.put(entity, fresh);
+                        return;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            log.warn("{} analytics kept changing in bulk while loading; will retry on next snapshot", entity);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /**
+     * Counters for one table. {@code codes} maps each counted row id to its bucket code, so an
+     * update moves the row from its old bucket to its new one and a repeated event is a no-op.
+     */
+    private abstract static class Section<T> {
+        private final Class<T> type;
+        private final LongIntMap codes = new LongIntMap(1_024);
+
+        Section(Class<T> type) { this.type = type; }
+
+        abstract Stream<T> stream(int fetchSize);
+        abstract Long idOf(T row);
+        // bucket code (>= 0), or -1 when the row is not counted
+        abstract int codeOf(T row);
+        abstract void count(int code, int delta);
+
+        final void load() {
+            try (Stream<T> rows = stream(JdbcStream.DEFAULT_FETCH_SIZE)) {
+                addAll(rows);
+            }
+        }
+
+        final void addAll(Stream<? extends T> rows) {
+            rows.forEach(row -> {
+                Long id = idOf(row);
+                if (id != null) put(id, codeOf(row));
+            });
+        }
+
+        final void apply(ChangeNotifier.Change c) {
+            switch (c.kind()) {
+                case CREATED, UPDATED -> {
+                    if (type.isInstance(c.row())) put(c.id(), codeOf(type.cast(c.row())));
+                }
+                case DELETED -> put(c.id(), -1);
+                case BULK -> { }
+            }
+        }
+
+        private void put(long id, int code) {
+            int old = codes.get(id);
+            if (old == code) return;
+            if (old >= 0) count(old, -1);
+            if (code >= 0) {
+                codes.put(id, code);
+                count(code, 1);
+            } else {
+                codes.remove(id);
+            }
+        }
+    }
+
+    private static final class PatientSection extends Section<Patient> {
+        private static final String[] SEXES = {"M", "F", "Other"};
+        private final int[] counts = new int[SEXES.length];
+
+        PatientSection() { super(Patient.class); }
+
+        @Override Stream<Patient> stream(int fetchSize) { return new PatientDaoImpl().streamAll(fetchSize); }
+        @Override Long idOf(Patient p) { return p.getId(); }
+        @Override int codeOf(Patient p) {
+            String sex = p.getGender() == null ? "" : p.getGender().trim();
+            return sex.equals("M") ? 0 : sex.equals("F") ? 1 : 2;
+        }
+        @Override void count(int code, int delta) { counts[code] += delta; }
+
+        Map<String, Integer> counts() {
+            Map<String, Integer> out = new LinkedHashMap<>();
+            for (int i = 0; i < SEXES.length; i++) out.put(SEXES[i], counts[i]);
+            return out;
+        }
+    }
+
+    private static final class AppointmentSection extends Section<Appointment> {
+        // codes must be non-negative, so days are stored relative to 0001-01-01
+        private static final long FIRST_DAY = LocalDate.of(1, 1, 1).toEpochDay();
+        private final LongIntMap perDay = new LongIntMap(1_024);
+
+        AppointmentSection() { super(Appointment.class); }
+
+        @Override Stream<Appointment> stream(int fetchSize) { return new AppointmentDaoImpl().streamAll(fetchSize); }
+        @Override Long idOf(Appointment a) { return a.getAppointmentId(); }
+        @Override int codeOf(Appointment a) {
+            if (a.getAppointmentDate() == null) return -1;
+            long day = a.getAppointmentDate().toLocalDate().toEpochDay() - FIRST_DAY;
+            return day < 0 || day > Integer.MAX_VALUE ? -1 : (int) day;
+        }
+        @Override void count(int code, int delta) {
+            int n = Math.max(0, perDay.get(code)) + delta;
+            if (n > 0) perDay.put(code, n);
+            else perDay.remove(code);
+        }
+
+        Map<LocalDate, Integer> counts() {
+            Map<LocalDate, Integer> out = new TreeMap<>();
+            perDay.forEach((code, n) -> out.put(LocalDate.ofEpochDay(code + FIRST_DAY), n));
+            return out;
+        }
+    }
+
+    private static final class FeedbackSection extends Section<PatientFeedback> {
+        private final int[] counts = new int[6];   // index = rating, 0 unused
+
+        FeedbackSection() { super(PatientFeedback.class); }
+
+        @Override Stream<PatientFeedback> stream(int fetchSize) { return new PatientFeedbackDaoImpl().streamAll(fetchSize); }
+        @Override Long idOf(PatientFeedback f) { return f.getFeedbackId(); }
+        @Override int codeOf(PatientFeedback f) {
+            Integer r = f.getRating();
+            return r == null || r < 1 || r > 5 ? -1 : r;
+        }
+        @Override void count(int code, int delta) { counts[code] += delta; }
+
+        Map<Integer, Integer> counts() {
+            Map<Integer, Integer> out = new TreeMap<>();
+            for (int r = 1; r <= 5; r++) out.put(r, counts[r]);
+            return out;
+        }
+    }
+
+    private static final class InventorySection extends Section<InventoryItem> {
+        // categories are interned once; the code of a low-stock item is its category's index
+        private final List<String> categories = new ArrayList<>();
+        private final Map<String, Integer> categoryIndex = new HashMap<>();
+        private int[] counts = new int[16];
+
+        InventorySection() { super(InventoryItem.class); }
+
+        @Override Stream<InventoryItem> stream(int fetchSize) { return new InventoryDaoImpl().streamAll(fetchSize); }
+        @Override Long idOf(InventoryItem i) { return i.getItemId(); }
+        @Override int codeOf(InventoryItem i) {
+            if (i.getQuantity() == null || i.getReorderLevel() == null || i.getQuantity() > i.getReorderLevel()) return -1;
+            String category = i.getCategory() == null || i.getCategory().isBlank() ? "Uncategorized" : i.getCategory().trim();
+            return categoryIndex.computeIfAbsent(category, c -> {
+                categories.add(c);
+                if (categories.size() > counts.length) counts = Arrays.copyOf(counts, counts.length * 2);
+                return categories.size() - 1;
+            });
+        }
+        @Override void count(int code, int delta) { counts[code] += delta; }
+
+        Map<String, Integer> counts() {
+            Map<String, Integer> out = new TreeMap<>();
+            for (int i = 0; i < categories.size(); i++) {
+                if (counts[i] > 0) out.put(categories.get(i), counts[i]);
+            }
+            return out;
+        }
+    }
+}
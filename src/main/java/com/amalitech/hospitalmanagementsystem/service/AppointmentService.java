@@ -14,11 +14,23 @@ public interface AppointmentService {
     boolean remove(Long appointmentId);
     Optional<Appointment> getById(Long appointmentId);
     List<Appointment> getAll();
+    // One page of matches on patient/doctor name, status or reason, filtered in SQL; empty for a blank term
+    List<Appointment> search(String term, int limit, int offset);
 
     List<Appointment> findByDate(LocalDate date);
     List<Appointment> findByDoctor(Long doctorId, LocalDate from, LocalDate to);
     List<Appointment> findByPatient(Long patientId, LocalDate from, LocalDate to);
 
     boolean updateStatus(Long appointmentId, String status);
+
+    // Batched writes: every row is validated first, then saved in JdbcBatch.CHUNK_SIZE-row transactions
+    List<Long> createAll(List<Appointment> appointments);
+    int updateAll(List<Appointment> appointments);
+
     boolean existsSlot(Long doctorId, LocalDateTime dateTime);
+
+    // Schedule index lookups (no database round-trip once the doctor's schedule is loaded); a live
+    // hint for the booking form only: create/update re-check the slot in the database under a lock
+    Optional<Long> findConflict(Long doctorId, LocalDateTime start, Long excludeAppointmentId);
+    LocalDateTime nextFreeSlot(Long doctorId, LocalDateTime from, Long excludeAppointmentId);
 }
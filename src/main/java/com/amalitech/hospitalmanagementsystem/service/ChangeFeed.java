@@ -0,0 +1,266 @@
+package com.amalitech.hospitalmanagementsystem.service;
+
+import com.amalitech.hospitalmanagementsystem.dao.impl.*;
+import com.amalitech.hospitalmanagementsystem.model.Appointment;
+import com.amalitech.hospitalmanagementsystem.util.DBConnectionUtil;
+import com.amalitech.hospitalmanagementsystem.util.SqlScript;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+
+/**
+ * Brings writes made by other workstations into this one. Triggers from {@code db/change_feed.sql}
+ * announce every committed row change with {@code NOTIFY}; a daemon thread LISTENs on its own
+ * connection (outside the Hikari pool, which it would otherwise pin), re-reads each changed row
+ * and republishes it through {@link ChangeNotifier}, so the table controllers and in-memory caches
+ * patch themselves exactly as they do for local writes.
+ * <p>
+ * Notifications are handled in batches: this instance's own writes (already published locally)
+ * are skipped, repeated changes to a row collapse into one, and a table with more than
+ * {@link #BULK_THRESHOLD} changed rows in a batch (e.g. an import) is published as one BULK change.
+ * After a lost connection every entity is published as BULK, since changes may have been missed.
+ * Disabled with {@code changes.feed.enabled=false} (env {@code CHANGE_FEED_ENABLED}).
+ */
+public final class ChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeFeed.class);
+
+    public static final String CHANNEL = "hms_changes";
+    public static final int BULK_THRESHOLD = 100;
+
+    private static final String TRIGGERS_SCRIPT = "/db/change_feed.sql";
+    private static final int POLL_MILLIS = 5_000;
+    private static final int MAX_BATCH = 10_000;
+    private static final long MAX_BACKOFF_SECONDS = 60;
+
+    private static final Map<String, ChangeNotifier.Entity> TABLES = Map.of(
+            "patients", ChangeNotifier.Entity.PATIENT,
+            "doctors", ChangeNotifier.Entity.DOCTOR,
+            "departments", ChangeNotifier.Entity.DEPARTMENT,
+            "appointments", ChangeNotifier.Entity.APPOINTMENT,
+            "prescriptions", ChangeNotifier.Entity.PRESCRIPTION,
+            "prescription_items", ChangeNotifier.Entity.PRESCRIPTION,   // id is the parent prescription
+            "patient_feedback", ChangeNotifier.Entity.FEEDBACK,
+            "medical_inventory", ChangeNotifier.Entity.INVENTORY);
+
+    private static final Map<ChangeNotifier.Entity, LongFunction<Optional<?>>> LOADERS;
+
+    static {
+        Map<ChangeNotifier.Entity, LongFunction<Optional<?>>> m = new EnumMap<>(ChangeNotifier.Entity.class);
+        m.put(ChangeNotifier.Entity.PATIENT, new PatientDaoImpl()::findById);
+        m.put(ChangeNotifier.Entity.DOCTOR, new DoctorDaoImpl()::findById);
+        m.put(ChangeNotifier.Entity.DEPARTMENT, new DepartmentDaoImpl()::findById);
+        m.put(ChangeNotifier.Entity.APPOINTMENT, new AppointmentDaoImpl()::findById);
+        m.put(ChangeNotifier.Entity.PRESCRIPTION, new PrescriptionDaoImpl()::findById);
+        m.put(ChangeNotifier.Entity.FEEDBACK, new PatientFeedbackDaoImpl()::findById);
+        m.put(ChangeNotifier.Entity.INVENTORY, new InventoryDaoImpl()::findById);
+        LOADERS = m;
+    }
+
+    // ReentrantLock rather than synchronized: start/stop may be called from virtual threads
+    private static final ReentrantLock lock = new ReentrantLock();
+    // guarded by lock
+    private static Thread worker;
+    private static Connection listening;
+
+    private static volatile boolean running;
+
+    private ChangeFeed() {}
+
+    /** Installs the triggers if missing and starts listening; a second call is a no-op. */
+    public static void start() {
+        if (!Boolean.parseBoolean(DBConnectionUtil.setting("CHANGE_FEED_ENABLED", "changes.feed.enabled", "true"))) return;
+        lock.lock();
+        try {
+            if (worker != null) return;
+            running = true;
+            worker = new Thread(ChangeFeed::run, "hms-change-feed");
+            worker.setDaemon(true);
+            worker.start();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static void stop() {
+        lock.lock();
+        try {
+            if (worker == null) return;
+            running = false;
+            worker.interrupt();
+            closeQuietly(listening);    // unblocks a pending poll
+            worker = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void run() {
+        try {
+            if (SqlScript.runIfMissing(TRIGGERS_SCRIPT, installedProbe())) log.info("Installed the change feed triggers");
+        } catch (SQLException | RuntimeException e) {
+            log.warn("Change feed unavailable, other workstations' changes need a manual refresh "
+                    + "(have an administrator run {}): {}", TRIGGERS_SCRIPT, e.getMessage());
+            return;
+        }
+        boolean connectedBefore = false;
+        long backoff = 1;
+        while (running) {
+            Connection con = null;
+            try {
+                con = DBConnectionUtil.openDedicatedConnection();
+                if (!register(con)) break;
+                try (Statement st = con.createStatement()) {
+                    st.execute("LISTEN " + CHANNEL);
+                }
+                if (connectedBefore) {
+                    log.info("Change feed reconnected; reloading cached tables");
+                    for (ChangeNotifier.Entity e : LOADERS.keySet()) publishRemote(e, ChangeNotifier.Kind.BULK, 0, null);
+                }
+                connectedBefore = true;
+                backoff = 1;
+                listen(con.unwrap(PGConnection.class));
+            } catch (SQLException | RuntimeException e) {
+                if (!running) break;
+                log.warn("Change feed connection lost, retrying in {}s: {}", backoff, e.getMessage());
+                try {
+                    TimeUnit.SECONDS.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    break;
+                }
+                backoff = Math.min(MAX_BACKOFF_SECONDS, backoff * 2);
+            } finally {
+                closeQuietly(con);
+            }
+        }
+    }
+
+    // True when the notify function and both triggers on every fed table exist
+    private static String installedProbe() {
+        StringJoiner tables = new StringJoiner(", ");
+        for (String table : TABLES.keySet()) tables.add("to_regclass('" + table + "')");
+        return "SELECT EXISTS (SELECT 1 FROM pg_proc WHERE proname = 'hms_notify_change')"
+                + " AND (SELECT count(*) FROM pg_trigger"
+                + " WHERE tgname IN ('hms_change_feed', 'hms_change_feed_truncate') AND tgrelid IN (" + tables + ")) = "
+                + 2 * TABLES.size();
+    }
+
+    // Makes con closable by stop(); false if the feed was stopped meanwhile
+    private static boolean register(Connection con) {
+        lock.lock();
+        try {
+            listening = con;
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void listen(PGConnection pg) throws SQLException {
+        while (running) {
+            PGNotification[] first = pg.getNotifications(POLL_MILLIS);
+            if (first == null || first.length == 0) continue;
+            // drain what has already arrived, so a burst is handled (and coalesced) as one batch
+            List<PGNotification> batch = new ArrayList<>(Arrays.asList(first));
+            PGNotification[] more;
+            while (batch.size() < MAX_BATCH && (more = pg.getNotifications()) != null && more.length > 0) {
+                batch.addAll(Arrays.asList(more));
+            }
+            dispatch(batch);
+        }
+    }
+
+    private static void dispatch(List<PGNotification> batch) {
+        String self = DBConnectionUtil.applicationName();
+        Map<ChangeNotifier.Entity, LinkedHashMap<Long, String>> changed = new EnumMap<>(ChangeNotifier.Entity.class);
+        Set<ChangeNotifier.Entity> bulk = EnumSet.noneOf(ChangeNotifier.Entity.class);
+        for (PGNotification n : batch) {
+            // table|op|id|origin
+            String[] parts = n.getParameter().split("\\|", 4);
+            if (parts.length < 4 || parts[3].equals(self)) continue;
+            ChangeNotifier.Entity entity = TABLES.get(parts[0]);
+            if (entity == null) continue;
+            if (parts[2].isEmpty()) {               // TRUNCATE
+                bulk.add(entity);
+                continue;
+            }
+            long id;
+            try {
+                id = Long.parseLong(parts[2]);
+            } catch (NumberFormatException e) {
+                continue;
+            }
+            // a child row change is an update of its parent
+            String op = parts[0].equals("prescription_items") ? "UPDATE" : parts[1];
+            LinkedHashMap<Long, String> ops = changed.computeIfAbsent(entity, e -> new LinkedHashMap<>());
+            String previous = ops.remove(id);
+            ops.put(id, "INSERT".equals(previous) && "UPDATE".equals(op) ? previous : op);
+        }
+        if (changed.isEmpty() && bulk.isEmpty()) return;
+
+        DashboardStatsCache.invalidate();
+        for (ChangeNotifier.Entity entity : bulk) publishRemote(entity, ChangeNotifier.Kind.BULK, 0, null);
+        changed.forEach((entity, ops) -> {
+            if (bulk.contains(entity)) return;
+            if (ops.size() > BULK_THRESHOLD) {
+                publishRemote(entity, ChangeNotifier.Kind.BULK, 0, null);
+                return;
+            }
+            for (Map.Entry<Long, String> e : ops.entrySet()) {
+                long id = e.getKey();
+                String op = e.getValue();
+                Object row;
+                try {
+                    row = op.equals("DELETE") ? null : LOADERS.get(entity).apply(id).orElse(null);
+                } catch (RuntimeException ex) {
+                    // a failed load says nothing about the row; reload rather than drop it from open tables
+                    log.warn("Could not load {} {} for a change notification; reloading", entity, id, ex);
+                    publishRemote(entity, ChangeNotifier.Kind.BULK, 0, null);
+                    return;
+                }
+                if (row == null) publishRemote(entity, ChangeNotifier.Kind.DELETED, id, null);
+                else publishRemote(entity, op.equals("INSERT") ? ChangeNotifier.Kind.CREATED : ChangeNotifier.Kind.UPDATED, id, row);
+            }
+        });
+        log.debug("Applied {} change notifications from other workstations", batch.size());
+    }
+
+    // Updates the caches the services keep current for local writes, then notifies the listeners
+    private static void publishRemote(ChangeNotifier.Entity entity, ChangeNotifier.Kind kind, long id, Object row) {
+        boolean all = kind == ChangeNotifier.Kind.BULK;
+        switch (entity) {
+            case PATIENT -> {
+                if (all) NameDirectory.patients().invalidateAll();
+                else NameDirectory.patients().invalidate(id);
+            }
+            case DOCTOR -> {
+                if (all) NameDirectory.doctors().invalidateAll();
+                else NameDirectory.doctors().invalidate(id);
+            }
+            case APPOINTMENT -> {
+                if (all) DoctorScheduleIndex.shared().invalidateAll();
+                else if (row instanceof Appointment a) DoctorScheduleIndex.shared().put(a);
+                else DoctorScheduleIndex.shared().remove(id);
+            }
+            default -> { }
+        }
+        ChangeNotifier.publish(new ChangeNotifier.Change(entity, kind, id, row));
+    }
+
+    private static void closeQuietly(Connection con) {
+        if (con == null) return;
+        try {
+            con.close();
+        } catch (SQLException ignored) {
+        }
+    }
+}
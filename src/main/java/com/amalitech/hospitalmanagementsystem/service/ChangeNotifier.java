@@ -0,0 +1,68 @@
+package com.amalitech.hospitalmanagementsystem.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In-process notifications of writes made through the services, so in-memory indexes can
+ * update themselves instead of every service knowing about every cache.
+ * Listeners run synchronously on the writing thread (usually a DbExecutor virtual thread)
+ * and must be quick and non-blocking; a failing listener is logged and skipped.
+ */
+public final class ChangeNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeNotifier.class);
+
+    public enum Entity { PATIENT, DOCTOR, DEPARTMENT, APPOINTMENT, PRESCRIPTION, FEEDBACK, INVENTORY }
+
+    /** BULK: many rows changed at once (batch or import); listeners should reload rather than patch. */
+    public enum Kind { CREATED, UPDATED, DELETED, BULK }
+
+    /** {@code row} is the saved model for CREATED/UPDATED, null for DELETED and BULK; {@code id} is 0 for BULK. */
+    public record Change(Entity entity, Kind kind, long id, Object row) {}
+
+    @FunctionalInterface
+    public interface Listener {
+        void onChange(Change change);
+    }
+
+    private static final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private ChangeNotifier() {}
+
+    public static void subscribe(Listener l) {
+        listeners.addIfAbsent(l);
+    }
+
+    public static void unsubscribe(Listener l) {
+        listeners.remove(l);
+    }
+
+    public static void created(Entity entity, long id, Object row) {
+        publish(new Change(entity, Kind.CREATED, id, row));
+    }
+
+    public static void updated(Entity entity, long id, Object row) {
+        publish(new Change(entity, Kind.UPDATED, id, row));
+    }
+
+    public static void deleted(Entity entity, long id) {
+        publish(new Change(entity, Kind.DELETED, id, null));
+    }
+
+    public static void bulk(Entity entity) {
+        publish(new Change(entity, Kind.BULK, 0, null));
+    }
+
+    public static void publish(Change change) {
+        for (Listener l : listeners) {
+            try {
+                l.onChange(change);
+            } catch (RuntimeException e) {
+                log.warn("Change listener failed for {}", change, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.amalitech.hospitalmanagementsystem.service;
+
+import com.amalitech.hospitalmanagementsystem.dao.*;
+import com.amalitech.hospitalmanagementsystem.dao.impl.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Process-wide cache of the headline counts shown on the Overview and Admin dashboards.
+ * A snapshot is reused for {@link #TTL_SECONDS} seconds, and service writes that change
+ * any of the counts call {@link #invalidate()} so the next read reloads.
+ */
+public final class DashboardStatsCache {
+
+    public record Stats(long patients, long doctors, long departments, long todayAppointments,
+                        long feedbackCount, double averageRating, long lowStock) {}
+
+    private record Entry(Stats stats, long loadedAtNanos, long generation) {}
+
+    public static final long TTL_SECONDS = 30;
+    private static final long TTL_NANOS = TimeUnit.SECONDS.toNanos(TTL_SECONDS);
+
+    private static final PatientDao patientDao = new PatientDaoImpl();
+    private static final DoctorDao doctorDao = new DoctorDaoImpl();
+    private static final DepartmentDao departmentDao = new DepartmentDaoImpl();
+    private static final AppointmentDao appointmentDao = new AppointmentDaoImpl();
+    private static final PatientFeedbackDao feedbackDao = new PatientFeedbackDaoImpl();
+    private static final InventoryDao inventoryDao = new InventoryDaoImpl();
+
+    private static final AtomicLong generation = new AtomicLong();
+    // ReentrantLock rather than synchronized: loads run on virtual threads and block on JDBC
+    private static final ReentrantLock loadLock = new ReentrantLock();
+    private static volatile Entry current;
+
+    private DashboardStatsCache() {}
+
+    /** Returns the cached snapshot, reloading it (once, for concurrent callers) when stale. */
+    public static Stats get() {
+        Entry e = current;
+        if (isFresh(e)) return e.stats();
+
+        loadLock.lock();
+        try {
+            e = current;
+            if (isFresh(e)) return e.stats();
+            long gen = generation.get();
+            Stats stats = load();
+            current = new Entry(stats, System.nanoTime(), gen);
+            return stats;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    /** Marks the current snapshot stale; safe to call from any thread. */
+    public static void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    private static boolean isFresh(Entry e) {
+        return e != null
+                && e.generation() == generation.get()
+                && System.nanoTime() - e.loadedAtNanos() < TTL_NANOS;
+    }
+
+    private static Stats load() {
+        return new Stats(
+                patientDao.countPatients(),
+                doctorDao.countDoctors(),
+                departmentDao.countDepartments(),
+                appointmentDao.countByDate(LocalDate.now()),
+                feedbackDao.countFeedback(),
+                feedbackDao.averageRating(),
+                inventoryDao.countLowStock());
+    }
+}
@@ -0,0 +1,206 @@
+package com.amalitech.hospitalmanagementsystem.service;
+
+import com.amalitech.hospitalmanagementsystem.dao.AppointmentDao;
+import com.amalitech.hospitalmanagementsystem.dao.impl.AppointmentDaoImpl;
+import com.amalitech.hospitalmanagementsystem.model.Appointment;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory index of each doctor's upcoming, non-cancelled appointments, sorted by start time.
+ * A doctor's schedule is loaded from {@code appointments} on first use (from the start of today)
+ * and then kept in sync by {@code AppointmentService} writes, so the booking form's availability
+ * hint and next-free-slot lookups are a binary search instead of a database round-trip.
+ * It is a per-process view that can lag other clients' writes, so it is never what decides
+ * whether a booking is accepted: {@code AppointmentService} checks the table for that, under a
+ * per-doctor lock held until the insert commits.
+ * <p>
+ * The schema has no duration column, so every appointment occupies {@link #SLOT} minutes;
+ * two appointments overlap when their starts are less than one slot apart.
+ */
+public final class DoctorScheduleIndex {
+
+    public static final Duration SLOT = Duration.ofMinutes(30);
+    private static final long SLOT_MIN = SLOT.toMinutes();
+
+    private static final DoctorScheduleIndex SHARED = new DoctorScheduleIndex(new AppointmentDaoImpl());
+
+    public static DoctorScheduleIndex shared() { return SHARED; }
+
+    private final AppointmentDao dao;
+    private final ConcurrentHashMap<Long, Schedule> byDoctor = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> doctorOfAppointment = new ConcurrentHashMap<>();
+
+    public DoctorScheduleIndex(AppointmentDao dao) {
+        this.dao = dao;
+    }
+
+    /** Returns the id of an active appointment overlapping a slot starting at {@code start}, if any. */
+    public Optional<Long> findConflict(long doctorId, LocalDateTime start, Long excludeAppointmentId) {
+        long exclude = excludeAppointmentId == null ? Long.MIN_VALUE : excludeAppointmentId;
+        Schedule s = loaded(doctorId);
+        s.lock.lock();
+        try {
+            long id = s.conflict(toMinutes(start), exclude);
+            return id == Long.MIN_VALUE ? Optional.empty() : Optional.of(id);
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    /** Earliest slot start at or after {@code from} that does not overlap an active appointment. */
+    public LocalDateTime nextFreeSlot(long doctorId, LocalDateTime from, Long excludeAppointmentId) {
+        long exclude = excludeAppointmentId == null ? Long.MIN_VALUE : excludeAppointmentId;
+        Schedule s = loaded(doctorId);
+        s.lock.lock();
+        try {
+            return fromMinutes(s.nextFree(toMinutes(from), exclude));
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    /** Records a created/updated appointment, moving it if its doctor or time changed. */
+    public void put(Appointment a) {
+        if (a.getAppointmentId() == null) return;
+        remove(a.getAppointmentId());
+        if ("CANCELLED".equalsIgnoreCase(a.getStatus()) || a.getDoctorId() == null || a.getAppointmentDate() == null) return;
+
+        Schedule s = byDoctor.get(a.getDoctorId());
+        if (s == null) return;               // not loaded yet; the first lookup will read it from the table
+        s.lock.lock();
+        try {
+            if (!s.loaded) return;
+            s.add(a.getAppointmentId(), toMinutes(a.getAppointmentDate()));
+            doctorOfAppointment.put(a.getAppointmentId(), a.getDoctorId());
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    public void remove(long appointmentId) {
+        Long doctorId = doctorOfAppointment.remove(appointmentId);
+        if (doctorId == null) return;
+        Schedule s = byDoctor.get(doctorId);
+        if (s == null) return;
+        s.lock.lock();
+        try {
+            s.removeId(appointmentId);
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    /** Drops a doctor's schedule so the next lookup reloads it (e.g. after changes made outside this process). */
+    public void invalidate(long doctorId) {
+        Schedule s = byDoctor.remove(doctorId);
+        if (s == null) return;
+        s.lock.lock();
+        try {
+            for (int i = 0; i < s.size; i++) doctorOfAppointment.remove(s.ids[i], doctorId);
+            s.size = 0;
+            s.loaded = false;
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        for (Long doctorId : byDoctor.keySet()) invalidate(doctorId);
+    }
+
+    private Schedule loaded(long doctorId) {
+        Schedule s = byDoctor.computeIfAbsent(doctorId, id -> new Schedule());
+        if (s.loaded) return s;
+        s.lock.lock();
+        try {
+            if (!s.loaded) {
+                LocalDateTime from = LocalDate.now().atStartOfDay();
+                for (Appointment a : dao.findActiveByDoctorFrom(doctorId, from)) {
+                    if (a.getAppointmentDate() == null) continue;
+                    s.add(a.getAppointmentId(), toMinutes(a.getAppointmentDate()));
+                    doctorOfAppointment.put(a.getAppointmentId(), doctorId);
+                }
+                s.loaded = true;
+            }
+        } finally {
+            s.lock.unlock();
+        }
+        return s;
+    }
+
+    private static long toMinutes(LocalDateTime t) {
+        return t.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    private static LocalDateTime fromMinutes(long m) {
+        return LocalDateTime.ofEpochSecond(m * 60, 0, ZoneOffset.UTC);
+    }
+
+    /** One doctor's slots: parallel primitive arrays sorted by start minute. */
+    private static final class Schedule {
+        final ReentrantLock lock = new ReentrantLock();
+        volatile boolean loaded;
+        long[] starts = new long[8];
+        long[] ids = new long[8];
+        int size;
+
+        // first index whose start is >= t
+        int lowerBound(long t) {
+            int lo = 0, hi = size;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (starts[mid] < t) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+
+        void add(long id, long start) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            int i = lowerBound(start);
+            System.arraycopy(starts, i, starts, i + 1, size - i);
+            System.arraycopy(ids, i, ids, i + 1, size - i);
+            starts[i] = start;
+            ids[i] = id;
+            size++;
+        }
+
+        void removeId(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    System.arraycopy(starts, i + 1, starts, i, size - i - 1);
+                    System.arraycopy(ids, i + 1, ids, i, size - i - 1);
+                    size--;
+                    return;
+                }
+            }
+        }
+
+        // [s, s+SLOT) overlaps [start, start+SLOT) iff start - SLOT < s < start + SLOT
+        long conflict(long start, long exclude) {
+            for (int i = lowerBound(start - SLOT_MIN + 1); i < size && starts[i] < start + SLOT_MIN; i++) {
+                if (ids[i] != exclude) return ids[i];
+            }
+            return Long.MIN_VALUE;
+        }
+
+        long nextFree(long from, long exclude) {
+            long candidate = from;
+            for (int i = lowerBound(from - SLOT_MIN + 1); i < size && starts[i] < candidate + SLOT_MIN; i++) {
+                if (ids[i] == exclude) continue;
+                if (starts[i] + SLOT_MIN > candidate) candidate = starts[i] + SLOT_MIN;
+            }
+            return candidate;
+        }
+    }
+}
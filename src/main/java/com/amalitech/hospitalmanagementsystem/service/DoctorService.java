@@ -13,4 +13,10 @@ public interface DoctorService {
     Optional<Doctor> getById(Long id);
     List<Doctor> getAll();
     List<Doctor> search(String term);
+    // Same rules register applies; used by the bulk import
+    void validate(Doctor doctor);
+
+    // Batched writes: every row is validated first, then saved in JdbcBatch.CHUNK_SIZE-row transactions
+    List<Long> registerAll(List<Doctor> doctors);
+    int updateAll(List<Doctor> doctors);
 }
@@ -13,4 +13,8 @@ public interface InventoryService {
     List<InventoryItem> getAll();
     List<InventoryItem> search(String term);
     boolean adjustQuantity(Long itemId, int delta);
+
+    // Batched writes: every row is validated first, then saved in JdbcBatch.CHUNK_SIZE-row transactions
+    List<Long> createAll(List<InventoryItem> items);
+    int updateAll(List<InventoryItem> items);
 }
@@ -0,0 +1,131 @@
+package com.amalitech.hospitalmanagementsystem.service;
+
+import com.amalitech.hospitalmanagementsystem.dao.impl.DoctorDaoImpl;
+import com.amalitech.hospitalmanagementsystem.dao.impl.PatientDaoImpl;
+import com.amalitech.hospitalmanagementsystem.util.LongLruCache;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * Process-wide, size-bounded cache of patient and doctor display names ("First Last").
+ * Misses are loaded in one {@code WHERE id = ANY(?)} query per call; entries are dropped
+ * by {@code PatientService}/{@code DoctorService} writes.
+ * {@link #resolve(long[])} may hit the database, so call it off the FX thread.
+ */
+public final class NameDirectory {
+
+    private static final int CAPACITY = 4096;
+
+    private static final NameDirectory PATIENTS = new NameDirectory(new PatientDaoImpl()::findNamesByIds);
+    private static final NameDirectory DOCTORS = new NameDirectory(new DoctorDaoImpl()::findNamesByIds);
+
+    public static NameDirectory patients() { return PATIENTS; }
+    public static NameDirectory doctors()  { return DOCTORS; }
+
+    private final LongLruCache<String> cache = new LongLruCache<>(CAPACITY);
+    // ReentrantLock rather than synchronized: callers are virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Function<long[], Map<Long, String>> loader;
+    private long generation;   // bumped by invalidation; guarded by lock
+
+    private NameDirectory(Function<long[], Map<Long, String>> loader) {
+        this.loader = loader;
+    }
+
+    /** Returns a cached name without touching the database, or null. */
+    public String cached(long id) {
+        lock.lock();
+        try {
+            return cache.get(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Single-id convenience for {@link #resolve(long[])}; null when the id does not exist. */
+    public String nameOf(long id) {
+        return resolve(new long[] { id }).get(id);
+    }
+
+    /**
+     * Resolves names for {@code ids} (duplicates allowed), loading all misses in one batch.
+     * Ids that do not exist are absent from the result.
+     */
+    public Map<Long, String> resolve(long[] ids) {
+        Map<Long, String> out = new HashMap<>();
+        long[] misses = new long[ids.length];
+        int missCount = 0;
+        long gen;
+
+        lock.lock();
+        try {
+            for (long id : ids) {
+                String name = cache.get(id);
+                if (name != null) out.put(id, name);
+                else misses[missCount++] = id;
+            }
+            gen = generation;
+        } finally {
+            lock.unlock();
+        }
+        if (missCount == 0) return out;
+
+        long[] toLoad = distinct(misses, missCount);
+        Map<Long, String> loaded = loader.apply(toLoad);
+        out.putAll(loaded);
+
+        lock.lock();
+        try {
+            // skip caching if a write invalidated names while we were loading
+            if (gen == generation) loaded.forEach(cache::put);
+        } finally {
+            lock.unlock();
+        }
+        return out;
+    }
+
+    /** Seeds the cache from rows that were already loaded for another purpose. */
+    public void remember(long id, String name) {
+        if (name == null) return;
+        lock.lock();
+        try {
+            cache.put(id, name);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(long id) {
+        lock.lock();
+        try {
+            cache.remove(id);
+            generation++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            cache.clear();
+            generation++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long[] distinct(long[] ids, int n) {
+        long[] sorted = Arrays.copyOf(ids, n);
+        Arrays.sort(sorted);
+        int w = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) sorted[w++] = sorted[i];
+        }
+        return Arrays.copyOf(sorted, w);
+    }
+}
@@ -11,6 +11,12 @@ public interface PatientFeedbackService {
     boolean remove(Long feedbackId);
     Optional<PatientFeedback> getById(Long feedbackId);
     List<PatientFeedback> getAll();
+    // One page of matches on patient/doctor name, comments or rating, filtered in SQL; empty for a blank term
+    List<PatientFeedback> search(String term, int limit, int offset);
     List<PatientFeedback> findByPatient(Long patientId);
     List<PatientFeedback> findByDoctor(Long doctorId);
+
+    // Batched writes: every row is validated first, then saved in JdbcBatch.CHUNK_SIZE-row transactions
+    List<Long> createAll(List<PatientFeedback> feedback);
+    int updateAll(List<PatientFeedback> feedback);
 }
@@ -6,10 +6,24 @@ import java.util.List;
 import java.util.Optional;
 
 public interface PatientService {
+    /** Shorter search terms match too much to be useful and cannot use the trigram index. */
+    int MIN_SEARCH_LENGTH = 3;
+
     void register(Patient patient);
     boolean update(Patient patient);
     boolean remove(Long id);
     Optional<Patient> getById(Long id);
     List<Patient> getAll();
     List<Patient> search(String nameLike);
+    // Ranked quick search over name, phone and email; empty for terms under MIN_SEARCH_LENGTH
+    List<Patient> search(String term, int limit, int offset);
+    // Same rules register/update apply; used by the bulk import
+    void validate(Patient patient);
+
+    // Batched writes: every row is validated first, then saved in JdbcBatch.CHUNK_SIZE-row transactions
+    List<Long> registerAll(List<Patient> patients);
+    int updateAll(List<Patient> patients);
+
+    List<Patient> getPageAfter(Long afterId, int limit);
+    List<Patient> getPageBefore(Long beforeId, int limit);
 }
@@ -12,4 +12,8 @@ public interface PrescriptionItemService {
     Optional<PrescriptionItem> getById(Long itemId);
     List<PrescriptionItem> findByPrescription(Long prescriptionId);
     void removeAllForPrescription(Long prescriptionId);
+
+    // Batched writes: every row is validated first, then saved in JdbcBatch.CHUNK_SIZE-row transactions
+    List<Long> createAll(List<PrescriptionItem> items);
+    int updateAll(List<PrescriptionItem> items);
 }
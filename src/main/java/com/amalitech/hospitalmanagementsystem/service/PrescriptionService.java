@@ -2,6 +2,7 @@
 package com.amalitech.hospitalmanagementsystem.service;
 
 import com.amalitech.hospitalmanagementsystem.model.Prescription;
+import com.amalitech.hospitalmanagementsystem.model.PrescriptionItem;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -15,4 +16,8 @@ public interface PrescriptionService {
     List<Prescription> findByPatient(Long patientId);
     List<Prescription> findByDoctor(Long doctorId);
     List<Prescription> findByDate(LocalDate day);
+
+    // Header and items are written (or deleted) together in one transaction
+    Long saveWithItems(Prescription p, List<PrescriptionItem> items);
+    boolean removeWithItems(Long id);
 }
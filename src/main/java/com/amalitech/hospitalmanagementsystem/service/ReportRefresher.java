@@ -0,0 +1,171 @@
+package com.amalitech.hospitalmanagementsystem.service;
+
+import com.amalitech.hospitalmanagementsystem.dao.ReportSummaryDao;
+import com.amalitech.hospitalmanagementsystem.dao.ReportSummaryDao.View;
+import com.amalitech.hospitalmanagementsystem.dao.impl.ReportSummaryDaoImpl;
+import com.amalitech.hospitalmanagementsystem.util.DBConnectionUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Keeps the reporting summaries ({@link ReportSummaryDao}) up to date in the background.
+ * <p>
+ * Every {@code reports.refresh.minutes} (env {@code REPORTS_REFRESH_MINUTES}, default 5) it refreshes,
+ * {@code CONCURRENTLY}, only the views whose source tables changed since their last refresh, as reported
+ * by {@link ChangeNotifier}, plus any view older than {@code reports.refresh.maxAgeMinutes}
+ * (env {@code REPORTS_MAX_AGE_MINUTES}, default 60). The age limit covers writes from other clients
+ * and the "last N days" windows sliding forward. All refreshes run on one thread, so a view is never
+ * refreshed twice at once.
+ */
+public final class ReportRefresher {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportRefresher.class);
+
+    // source tables of each view, by the entity whose writes change them
+    private static final Map<ChangeNotifier.Entity, Set<View>> AFFECTS = Map.of(
+            ChangeNotifier.Entity.PATIENT, EnumSet.of(View.PATIENT_LAST_VISIT, View.UPCOMING_APPOINTMENTS),
+            ChangeNotifier.Entity.DOCTOR, EnumSet.of(View.DOCTOR_ACTIVITY, View.UPCOMING_APPOINTMENTS),
+            ChangeNotifier.Entity.APPOINTMENT,
+            EnumSet.of(View.PATIENT_LAST_VISIT, View.DOCTOR_ACTIVITY, View.UPCOMING_APPOINTMENTS),
+            ChangeNotifier.Entity.PRESCRIPTION, EnumSet.of(View.TOP_MEDICATIONS));
+
+    private static final ReportSummaryDao dao = new ReportSummaryDaoImpl();
+
+    private static final ChangeNotifier.Listener listener = ReportRefresher::onChange;
+
+    // ReentrantLock rather than synchronized: change events arrive on virtual threads
+    private static final ReentrantLock lock = new ReentrantLock();
+    // guarded by lock
+    private static final Set<View> dirty = EnumSet.allOf(View.class);
+    private static final Map<View, Long> refreshedAtNanos = new EnumMap<>(View.class);
+    private static ScheduledExecutorService scheduler;
+
+    private static volatile LocalDateTime lastRefresh;
+    private static volatile long maxAgeNanos = TimeUnit.MINUTES.toNanos(60);
+
+    private ReportRefresher() {}
+
+    /** Creates missing views and starts the periodic refresh; a second call is a no-op. */
+    public static void start() {
+        lock.lock();
+        try {
+            if (scheduler != null) return;
+            ScheduledThreadPoolExecutor exec = new ScheduledThreadPoolExecutor(1, r -> {
+                Thread t = new Thread(r, "hms-report-refresh");
+                t.setDaemon(true);
+                return t;
+            });
+            exec.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+            scheduler = exec;
+            ChangeNotifier.subscribe(listener);
+            scheduler.execute(ReportRefresher::bootstrap);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static void stop() {
+        lock.lock();
+        try {
+            if (scheduler == null) return;
+            ChangeNotifier.unsubscribe(listener);
+            scheduler.shutdownNow();
+            scheduler = null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Refreshes the views with pending changes now; completes when they are current. */
+    public static CompletableFuture<Void> refreshPending() {
+        lock.lock();
+        try {
+            if (scheduler == null) return CompletableFuture.completedFuture(null);
+            return CompletableFuture.runAsync(() -> refresh(false), scheduler);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Time the last refresh pass finished, or null before the first one. */
+    public static LocalDateTime lastRefresh() {
+        return lastRefresh;
+    }
+
+    private static void bootstrap() {
+        long every;
+        try {
+            every = Long.parseLong(DBConnectionUtil.setting("REPORTS_REFRESH_MINUTES", "reports.refresh.minutes", "5"));
+            maxAgeNanos = TimeUnit.MINUTES.toNanos(
+                    Long.parseLong(DBConnectionUtil.setting("REPORTS_MAX_AGE_MINUTES", "reports.refresh.maxAgeMinutes", "60")));
+            dao.ensureViews();
+        } catch (RuntimeException | LinkageError e) {
+            log.warn("Reporting summaries unavailable: {}", e.getMessage());
+            return;
+        }
+        lock.lock();
+        try {
+            if (scheduler != null) {
+                scheduler.scheduleWithFixedDelay(() -> refresh(true), 0, Math.max(1, every), TimeUnit.MINUTES);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static void onChange(ChangeNotifier.Change c) {
+        Set<View> views = AFFECTS.get(c.entity());
+        if (views == null) return;
+        lock.lock();
+        try {
+            dirty.addAll(views);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Runs on the scheduler thread only
+    private static void refresh(boolean includeExpired) {
+        long now = System.nanoTime();
+        Set<View> due = EnumSet.noneOf(View.class);
+        lock.lock();
+        try {
+            for (View v : View.values()) {
+                Long at = refreshedAtNanos.get(v);
+                if (dirty.contains(v) || (includeExpired && (at == null || now - at >= maxAgeNanos))) due.add(v);
+            }
+            dirty.removeAll(due);   // writes landing during the refresh mark the view again
+        } finally {
+            lock.unlock();
+        }
+        for (View v : due) {
+            boolean ok = false;
+            try {
+                dao.refresh(v);
+                ok = true;
+            } catch (RuntimeException e) {
+                log.warn("{}", e.getMessage());
+            }
+            lock.lock();
+            try {
+                if (ok) refreshedAtNanos.put(v, System.nanoTime());
+                else dirty.add(v);
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (!due.isEmpty()) log.debug("Refreshed reporting views {}", due);
+        lastRefresh = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,165 @@
+package com.amalitech.hospitalmanagementsystem.service;
+
+import com.amalitech.hospitalmanagementsystem.dao.impl.DoctorDaoImpl;
+import com.amalitech.hospitalmanagementsystem.dao.impl.PatientDaoImpl;
+import com.amalitech.hospitalmanagementsystem.model.Doctor;
+import com.amalitech.hospitalmanagementsystem.model.Patient;
+import com.amalitech.hospitalmanagementsystem.util.JdbcStream;
+import com.amalitech.hospitalmanagementsystem.util.NgramIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Process-wide typeahead over patients and doctors (name, phone and ID; doctors also by
+ * specialization), backed by an {@link NgramIndex}. The index is filled once with
+ * {@link #ensureLoaded()} and then kept current from {@link ChangeNotifier} events, so
+ * {@link #query(String, int)} never touches the database and is cheap enough for the FX thread.
+ */
+public final class Typeahead {
+
+    public record Match(long id, String label) {}
+
+    // rows are streamed through a cursor, so only the index entries are held, never every row at once
+    private static final Typeahead PATIENTS = new Typeahead(ChangeNotifier.Entity.PATIENT, sink -> {
+        try (Stream<Patient> rows = new PatientDaoImpl().streamAll(JdbcStream.DEFAULT_FETCH_SIZE)) {
+            rows.forEach(p -> sink.accept(entryOf(p)));
+        }
+    });
+    private static final Typeahead DOCTORS = new Typeahead(ChangeNotifier.Entity.DOCTOR, sink -> {
+        try (Stream<Doctor> rows = new DoctorDaoImpl().streamAll(JdbcStream.DEFAULT_FETCH_SIZE)) {
+            rows.forEach(d -> sink.accept(entryOf(d)));
+        }
+    });
+
+    public static Typeahead patients() { return PATIENTS; }
+    public static Typeahead doctors()  { return DOCTORS; }
+
+    private record Entry(long id, String name, String label, String searchText) {}
+
+    private final NgramIndex index = new NgramIndex();
+    // ReentrantLock rather than synchronized: loads and change events run on virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Consumer<Consumer<Entry>> loader;
+    private final ChangeNotifier.Entity entity;
+    private volatile boolean loaded;
+    private long generation;   // bumped by changes that a running load may have missed; guarded by lock
+
+    private Typeahead(ChangeNotifier.Entity entity, Consumer<Consumer<Entry>> loader) {
+        this.entity = entity;
+        this.loader = loader;
+        ChangeNotifier.subscribe(this::onChange);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /** Loads every row on first use; blocks on JDBC, so call it off the FX thread. */
+    public void ensureLoaded() {
+        // a write landing mid-load makes the snapshot stale; retry a few times
+        for (int attempt = 0; attempt < 3 && !loaded; attempt++) loadOnce();
+    }
+
+    private void loadOnce() {
+        long gen;
+        lock.lock();
+        try {
+            gen = generation;
+        } finally {
+            lock.unlock();
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        loader.accept(entries::add);
+
+        lock.lock();
+        try {
+            if (loaded || gen != generation) return;   // a newer load won, or a write made this stale
+            index.clear();
+            for (Entry e : entries) index.put(e.id(), e.label(), e.searchText());
+            loaded = true;
+        } finally {
+            lock.unlock();
+        }
+        NameDirectory names = entity == ChangeNotifier.Entity.PATIENT ? NameDirectory.patients() : NameDirectory.doctors();
+        entries.forEach(e -> names.remember(e.id(), e.name()));
+    }
+
+    /** Top {@code k} matches for {@code q}, best first; empty until loaded. */
+    public List<Match> query(String q, int k) {
+        lock.lock();
+        try {
+            long[] ids = index.query(q, k);
+            List<Match> out = new ArrayList<>(ids.length);
+            for (long id : ids) out.add(new Match(id, index.labelOf(id)));
+            return out;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Display label for an indexed id, or null. */
+    public String labelOf(long id) {
+        lock.lock();
+        try {
+            return index.labelOf(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onChange(ChangeNotifier.Change c) {
+        if (c.entity() != entity) return;
+        lock.lock();
+        try {
+            if (!loaded) {
+                generation++;   // invalidates a load that may already have read past this row
+                return;
+            }
+            switch (c.kind()) {
+                case CREATED, UPDATED -> {
+                    Entry e = c.row() instanceof Patient p ? entryOf(p)
+                            : c.row() instanceof Doctor d ? entryOf(d) : null;
+                    if (e != null) index.put(e.id(), e.label(), e.searchText());
+                }
+                case DELETED -> index.remove(c.id());
+                case BULK -> {
+                    generation++;
+                    loaded = false;   // reloaded by the next ensureLoaded()
+                    index.clear();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Entry entryOf(Patient p) {
+        String name = p.getFirstName() + " " + p.getLastName();
+        String phone = p.getPhone() == null ? "" : p.getPhone();
+        String label = name + (phone.isBlank() ? "" : " · " + phone) + " (ID:" + p.getId() + ")";
+        return new Entry(p.getId(), name, label, name + " " + digits(phone) + " " + p.getId());
+    }
+
+    private static Entry entryOf(Doctor d) {
+        String name = d.getFirstName() + " " + d.getLastName();
+        String phone = d.getPhone() == null ? "" : d.getPhone();
+        String spec = d.getSpecialization() == null ? "" : d.getSpecialization();
+        String label = name + (spec.isBlank() ? "" : " - " + spec) + " (ID:" + d.getId() + ")";
+        return new Entry(d.getId(), name, label, name + " " + spec + " " + digits(phone) + " " + d.getId());
+    }
+
+    // "+233 (24) 123-4567" is indexed as one word so partial numbers match
+    private static String digits(String phone) {
+        StringBuilder b = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (Character.isDigit(c)) b.append(c);
+        }
+        return b.toString();
+    }
+}
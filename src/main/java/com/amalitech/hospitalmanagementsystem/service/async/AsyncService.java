@@ -0,0 +1,42 @@
+package com.amalitech.hospitalmanagementsystem.service.async;
+
+import com.amalitech.hospitalmanagementsystem.util.DbExecutor;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * CompletableFuture-returning facade over any of the blocking {@code *Service} interfaces.
+ * <pre>
+ *   AsyncService&lt;PatientService&gt; patients = AsyncService.of(patientService);
+ *   patients.call(PatientService::getAll).thenAccept(...);
+ * </pre>
+ */
+public final class AsyncService<S> {
+
+    private final S delegate;
+    private final Executor executor;
+
+    private AsyncService(S delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    public static <S> AsyncService<S> of(S service) {
+        return new AsyncService<>(service, DbExecutor.get());
+    }
+
+    public static <S> AsyncService<S> of(S service, Executor executor) {
+        return new AsyncService<>(service, executor);
+    }
+
+    public <R> CompletableFuture<R> call(Function<? super S, ? extends R> op) {
+        return CompletableFuture.supplyAsync(() -> op.apply(delegate), executor);
+    }
+
+    public CompletableFuture<Void> run(Consumer<? super S> op) {
+        return CompletableFuture.runAsync(() -> op.accept(delegate), executor);
+    }
+}
@@ -0,0 +1,167 @@
+package com.amalitech.hospitalmanagementsystem.service.exporter;
+
+import com.amalitech.hospitalmanagementsystem.util.DBConnectionUtil;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Streams a whole table to a CSV file with {@code COPY (query) TO STDOUT}. The server sends rows
+ * as it reads them and they go straight to disk, so memory use does not depend on table size.
+ * <p>
+ * Output is written to a temporary file next to the target and moved into place only when the
+ * export finishes; a cancelled or failed export leaves the target untouched.
+ * Blocks on I/O and JDBC; run it off the FX thread.
+ */
+public final class CsvExporter {
+
+    private static final Logger log = LoggerFactory.getLogger(CsvExporter.class);
+
+    /** The exportable data sets and the query each one streams. */
+    public enum Source {
+        PATIENTS("patients", """
+            SELECT patient_id, first_name, last_name, sex, date_of_birth, phone, email, address
+            FROM patients
+            ORDER BY patient_id
+            """),
+        APPOINTMENTS("appointments", """
+            SELECT a.appointment_id, a.patient_id,
+                   p.first_name || ' ' || p.last_name AS patient_name,
+                   a.doctor_id,
+                   d.first_name || ' ' || d.last_name AS doctor_name,
+                   a.appointment_date, a.status, a.reason, a.created_at
+            FROM appointments a
+            LEFT JOIN patients p ON p.patient_id = a.patient_id
+            LEFT JOIN public.doctors d ON d.doctor_id = a.doctor_id
+            ORDER BY a.appointment_id
+            """),
+        // one row per item; prescriptions without items appear once with empty item columns
+        PRESCRIPTIONS("prescriptions", """
+            SELECT pr.prescription_id, pr.patient_id, pr.doctor_id, pr.issued_at, pr.notes,
+                   i.item_id, i.medication_name, i.dosage, i.frequency, i.duration_days, i.instructions
+            FROM prescriptions pr
+            LEFT JOIN prescription_items i ON i.prescription_id = pr.prescription_id
+            ORDER BY pr.prescription_id, i.item_id
+            """),
+        FEEDBACK("feedback", """
+            SELECT f.feedback_id, f.patient_id,
+                   p.first_name || ' ' || p.last_name AS patient_name,
+                   f.doctor_id,
+                   d.first_name || ' ' || d.last_name AS doctor_name,
+                   f.rating, f.comments, f.created_at
+            FROM patient_feedback f
+            LEFT JOIN patients p ON p.patient_id = f.patient_id
+            LEFT JOIN public.doctors d ON d.doctor_id = f.doctor_id
+            ORDER BY f.feedback_id
+            """);
+
+        private final String label;
+        private final String query;
+
+        Source(String label, String query) {
+            this.label = label;
+            this.query = query;
+        }
+
+        public String label() { return label; }
+    }
+
+    /** {@code total} is the row count taken just before the export started. */
+    @FunctionalInterface
+    public interface Progress {
+        void update(long written, long total);
+    }
+
+    private static final long PROGRESS_EVERY = 5_000;
+
+    private CsvExporter() {}
+
+    /**
+     * Writes {@code source} to {@code target} and returns the number of data rows written.
+     * Throws CancellationException if {@code cancelled} turns true while streaming.
+     */
+    public static long export(Source source, Path target, Progress progress, BooleanSupplier cancelled)
+            throws IOException {
+        Path tmp = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".part");
+        boolean done = false;
+        try (Connection con = DBConnectionUtil.getConnection();
+             BufferedWriter file = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            long total = count(con, source);
+            RowCountingWriter out = new RowCountingWriter(file, total, progress, cancelled);
+            CopyManager copy = con.unwrap(PGConnection.class).getCopyAPI();
+            long rows = copy.copyOut("COPY (" + source.query + ") TO STDOUT (FORMAT csv, HEADER)", out);
+            file.flush();
+            if (progress != null) progress.update(rows, total);
+            done = true;
+            log.info("Exported {} {} rows to {}", rows, source.label, target);
+            return rows;
+        } catch (InterruptedIOException e) {
+            throw new CancellationException("Export cancelled");
+        } catch (SQLException e) {
+            throw new IOException("Export of " + source.label + " failed: " + e.getMessage(), e);
+        } finally {
+            if (done) Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            else Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static long count(Connection con, Source source) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement("SELECT COUNT(*) FROM (" + source.query + ") q");
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    /**
+     * Passes COPY output through, counting line breaks for progress and checking for cancellation.
+     * Throwing from write() makes PgJDBC cancel the COPY on the server.
+     * The count is approximate when quoted values contain line breaks.
+     */
+    private static final class RowCountingWriter extends Writer {
+        private final Writer out;
+        private final long total;
+        private final Progress progress;
+        private final BooleanSupplier cancelled;
+        private long lines;
+        private long nextReport = PROGRESS_EVERY;
+
+        RowCountingWriter(Writer out, long total, Progress progress, BooleanSupplier cancelled) {
+            this.out = out;
+            this.total = total;
+            this.progress = progress;
+            this.cancelled = cancelled;
+        }
+
+        @Override
+        public void write(char[] buf, int off, int len) throws IOException {
+            if (cancelled != null && cancelled.getAsBoolean()) throw new InterruptedIOException("cancelled");
+            out.write(buf, off, len);
+            for (int i = off; i < off + len; i++) {
+                if (buf[i] == '\n') lines++;
+            }
+            if (progress != null && lines >= nextReport) {
+                nextReport = lines + PROGRESS_EVERY;
+                progress.update(Math.max(0, lines - 1), total);   // minus the header line
+            }
+        }
+
+        @Override public void flush() throws IOException { out.flush(); }
+        @Override public void close() throws IOException { out.flush(); }
+    }
+}
@@ -4,45 +4,87 @@ package com.amalitech.hospitalmanagementsystem.service.impl;
 import com.amalitech.hospitalmanagementsystem.dao.AppointmentDao;
 import com.amalitech.hospitalmanagementsystem.dao.impl.AppointmentDaoImpl;
 import com.amalitech.hospitalmanagementsystem.model.Appointment;
+import com.amalitech.hospitalmanagementsystem.service.ChangeNotifier;
+import com.amalitech.hospitalmanagementsystem.service.DashboardStatsCache;
+import com.amalitech.hospitalmanagementsystem.service.DoctorScheduleIndex;
 import com.amalitech.hospitalmanagementsystem.service.AppointmentService;
+import com.amalitech.hospitalmanagementsystem.util.JdbcBatch;
+import com.amalitech.hospitalmanagementsystem.util.TransactionManager;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public class AppointmentServiceImpl implements AppointmentService {
 
+    private static final DateTimeFormatter SLOT_FMT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final AppointmentDao dao;
+    private final DoctorScheduleIndex schedule;
 
     public AppointmentServiceImpl() {
-        this.dao = new AppointmentDaoImpl();
+        this(new AppointmentDaoImpl(), DoctorScheduleIndex.shared());
     }
     public AppointmentServiceImpl(AppointmentDao dao) {
+        this(dao, DoctorScheduleIndex.shared());
+    }
+    public AppointmentServiceImpl(AppointmentDao dao, DoctorScheduleIndex schedule) {
         this.dao = dao;
+        this.schedule = schedule;
     }
 
     @Override
     public Long create(Appointment a) {
         a.validate();
-        // Optional: prevent exact-minute double-booking for a doctor
-        if (existsSlot(a.getDoctorId(), a.getAppointmentDate())) {
-            throw new IllegalArgumentException("Doctor already has an appointment at this time.");
+        // prevent overlapping bookings for a doctor: check and insert under the doctor's lock
+        Long id = TransactionManager.inTransaction(() -> {
+            lockDoctors(List.of(a));
+            checkSlotFree(a, null);
+            return dao.create(a);
+        });
+        if (id != null) {
+            a.setAppointmentId(id);
+            schedule.put(a);
+            ChangeNotifier.created(ChangeNotifier.Entity.APPOINTMENT, id, a);
         }
-        return dao.create(a);
+        DashboardStatsCache.invalidate();
+        return id;
     }
 
     @Override
     public boolean update(Appointment a) {
         if (a.getAppointmentId() == null) throw new IllegalArgumentException("ID required for update");
         a.validate();
-        return dao.update(a);
+        boolean updated = TransactionManager.inTransaction(() -> {
+            lockDoctors(List.of(a));
+            checkSlotFree(a, a.getAppointmentId());
+            return dao.update(a);
+        });
+        if (updated) {
+            schedule.put(a);
+            DashboardStatsCache.invalidate(); // date may have moved in or out of today
+            ChangeNotifier.updated(ChangeNotifier.Entity.APPOINTMENT, a.getAppointmentId(), a);
+        }
+        return updated;
     }
 
     @Override
     public boolean remove(Long appointmentId) {
         if (appointmentId == null || appointmentId <= 0) throw new IllegalArgumentException("Valid ID required");
-        return dao.deleteById(appointmentId);
+        boolean removed = dao.deleteById(appointmentId);
+        if (removed) {
+            schedule.remove(appointmentId);
+            DashboardStatsCache.invalidate();
+            ChangeNotifier.deleted(ChangeNotifier.Entity.APPOINTMENT, appointmentId);
+        }
+        return removed;
     }
 
     @Override
@@ -56,6 +98,15 @@ public class AppointmentServiceImpl implements AppointmentService {
         return dao.findAll();
     }
 
+    @Override
+    public List<Appointment> search(String term, int limit, int offset) {
+        if (offset < 0) throw new IllegalArgumentException("Offset must be >= 0");
+        if (limit <= 0 || limit > MAX_PAGE_SIZE)
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        if (term == null || term.isBlank()) return List.of();
+        return dao.search(term, limit, offset);
+    }
+
     @Override
     public List<Appointment> findByDate(LocalDate date) {
         return dao.findByDate(date);
@@ -75,11 +126,154 @@ public class AppointmentServiceImpl implements AppointmentService {
     public boolean updateStatus(Long appointmentId, String status) {
         if (appointmentId == null || appointmentId <= 0) throw new IllegalArgumentException("Valid ID required");
         if (status == null || status.isBlank()) throw new IllegalArgumentException("Status required");
-        return dao.updateStatus(appointmentId, status);
+        boolean updated = TransactionManager.inTransaction(() -> {
+            // reactivating a cancelled appointment takes its slot back: check it like create/update
+            if (!"CANCELLED".equalsIgnoreCase(status)) {
+                Appointment current = dao.findById(appointmentId).orElse(null);
+                if (current != null && "CANCELLED".equalsIgnoreCase(current.getStatus())) {
+                    current.setStatus(status);
+                    lockDoctors(List.of(current));
+                    checkSlotFree(current, appointmentId);
+                }
+            }
+            return dao.updateStatus(appointmentId, status);
+        });
+        if (updated) {
+            Appointment row = dao.findById(appointmentId).orElse(null);
+            if ("CANCELLED".equalsIgnoreCase(status)) schedule.remove(appointmentId);
+            else if (row != null) schedule.put(row);
+            ChangeNotifier.updated(ChangeNotifier.Entity.APPOINTMENT, appointmentId, row);
+        }
+        return updated;
+    }
+
+    @Override
+    public List<Long> createAll(List<Appointment> appointments) {
+        for (int i = 0; i < appointments.size(); i++) {
+            Appointment a = appointments.get(i);
+            try {
+                a.validate();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Row " + (i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        checkBatchOverlaps(appointments);
+
+        // each chunk commits on its own; publish whatever committed, even if a later chunk fails
+        int[] first = {0};
+        return JdbcBatch.insertInChunks(appointments, chunk -> {
+            List<Long> ids = TransactionManager.inTransaction(() -> {
+                lockDoctors(chunk);
+                checkSlotsFree(chunk, first[0], false);
+                return dao.createAll(chunk);
+            });
+            for (Appointment a : chunk) schedule.put(a);
+            first[0] += chunk.size();
+            return ids;
+        }, () -> {
+            DashboardStatsCache.invalidate();
+            ChangeNotifier.bulk(ChangeNotifier.Entity.APPOINTMENT);
+        });
+    }
+
+    @Override
+    public int updateAll(List<Appointment> appointments) {
+        for (int i = 0; i < appointments.size(); i++) {
+            Appointment a = appointments.get(i);
+            try {
+                if (a.getAppointmentId() == null) throw new IllegalArgumentException("ID required for update");
+                a.validate();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Row " + (i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        checkBatchOverlaps(appointments);
+
+        int[] first = {0};
+        return JdbcBatch.updateInChunks(appointments, chunk -> {
+            int updated = TransactionManager.inTransaction(() -> {
+                lockDoctors(chunk);
+                checkSlotsFree(chunk, first[0], true);
+                return dao.updateAll(chunk);
+            });
+            for (Appointment a : chunk) schedule.put(a);
+            first[0] += chunk.size();
+            return updated;
+        }, () -> {
+            DashboardStatsCache.invalidate();
+            ChangeNotifier.bulk(ChangeNotifier.Entity.APPOINTMENT);
+        });
     }
 
     @Override
     public boolean existsSlot(Long doctorId, LocalDateTime dateTime) {
-        return dao.existsDoctorSlot(doctorId, dateTime);
+        return findConflict(doctorId, dateTime, null).isPresent();
+    }
+
+    @Override
+    public Optional<Long> findConflict(Long doctorId, LocalDateTime start, Long excludeAppointmentId) {
+        if (doctorId == null || doctorId <= 0) throw new IllegalArgumentException("Valid doctor ID required");
+        if (start == null) throw new IllegalArgumentException("Start time required");
+        return schedule.findConflict(doctorId, start, excludeAppointmentId);
+    }
+
+    @Override
+    public LocalDateTime nextFreeSlot(Long doctorId, LocalDateTime from, Long excludeAppointmentId) {
+        if (doctorId == null || doctorId <= 0) throw new IllegalArgumentException("Valid doctor ID required");
+        if (from == null) throw new IllegalArgumentException("Start time required");
+        return schedule.nextFreeSlot(doctorId, from, excludeAppointmentId);
+    }
+
+    // The table only holds saved rows, so also reject two rows of the same batch sharing a slot
+    private void checkBatchOverlaps(List<Appointment> appointments) {
+        Map<Long, List<Integer>> rowsByDoctor = new HashMap<>();
+        for (int i = 0; i < appointments.size(); i++) {
+            Appointment a = appointments.get(i);
+            if ("CANCELLED".equalsIgnoreCase(a.getStatus())) continue;
+            rowsByDoctor.computeIfAbsent(a.getDoctorId(), d -> new ArrayList<>()).add(i);
+        }
+        for (List<Integer> rows : rowsByDoctor.values()) {
+            rows.sort(Comparator.comparing(i -> appointments.get(i).getAppointmentDate()));
+            for (int k = 1; k < rows.size(); k++) {
+                LocalDateTime prev = appointments.get(rows.get(k - 1)).getAppointmentDate();
+                LocalDateTime cur = appointments.get(rows.get(k)).getAppointmentDate();
+                if (prev.plus(DoctorScheduleIndex.SLOT).isAfter(cur))
+                    throw new IllegalArgumentException("Row " + (rows.get(k) + 1) + ": overlaps row "
+                            + (rows.get(k - 1) + 1) + " for the same doctor");
+            }
+        }
+    }
+
+    // Takes each booked doctor's lock in id order, so two writers locking several doctors cannot deadlock
+    private void lockDoctors(List<Appointment> rows) {
+        rows.stream()
+                .filter(a -> !"CANCELLED".equalsIgnoreCase(a.getStatus()))
+                .map(Appointment::getDoctorId)
+                .distinct()
+                .sorted()
+                .forEach(dao::lockDoctorSchedule);
+    }
+
+    private void checkSlotsFree(List<Appointment> chunk, int offset, boolean updating) {
+        for (int i = 0; i < chunk.size(); i++) {
+            Appointment a = chunk.get(i);
+            try {
+                checkSlotFree(a, updating ? a.getAppointmentId() : null);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Row " + (offset + i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    // The authoritative check: a query against the table, run under lockDoctors in the same
+    // transaction as the write. The schedule index only suggests the next free slot.
+    private void checkSlotFree(Appointment a, Long excludeAppointmentId) {
+        if ("CANCELLED".equalsIgnoreCase(a.getStatus())) return;
+        if (dao.findOverlapping(a.getDoctorId(), a.getAppointmentDate(), DoctorScheduleIndex.SLOT,
+                excludeAppointmentId).isPresent()) {
+            LocalDateTime next = nextFreeSlot(a.getDoctorId(), a.getAppointmentDate(), excludeAppointmentId);
+            throw new IllegalArgumentException("Doctor already has an appointment at this time. Next free slot: "
+                    + next.format(SLOT_FMT));
+        }
     }
 }
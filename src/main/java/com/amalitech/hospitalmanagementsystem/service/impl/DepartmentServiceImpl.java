@@ -3,6 +3,8 @@ package com.amalitech.hospitalmanagementsystem.service.impl;
 
 import com.amalitech.hospitalmanagementsystem.dao.DepartmentDao;
 import com.amalitech.hospitalmanagementsystem.model.Department;
+import com.amalitech.hospitalmanagementsystem.service.ChangeNotifier;
+import com.amalitech.hospitalmanagementsystem.service.DashboardStatsCache;
 import com.amalitech.hospitalmanagementsystem.service.DepartmentService;
 
 import java.util.List;
@@ -18,20 +20,33 @@ public class DepartmentServiceImpl implements DepartmentService {
     @Override
     public Long create(Department department) {
         validate(department, true);
-        return dao.create(department);
+        Long id = dao.create(department);
+        if (id != null) {
+            department.setId(id);
+            ChangeNotifier.created(ChangeNotifier.Entity.DEPARTMENT, id, department);
+        }
+        DashboardStatsCache.invalidate();
+        return id;
     }
 
     @Override
     public boolean update(Department department) {
         if (department.getId() == null) throw new IllegalArgumentException("ID required for update");
         validate(department, false);
-        return dao.update(department);
+        boolean updated = dao.update(department);
+        if (updated) ChangeNotifier.updated(ChangeNotifier.Entity.DEPARTMENT, department.getId(), department);
+        return updated;
     }
 
     @Override
     public boolean delete(Long id) {
         if (id == null || id <= 0) throw new IllegalArgumentException("Valid ID required");
-        return dao.deleteById(id);
+        boolean removed = dao.deleteById(id);
+        if (removed) {
+            DashboardStatsCache.invalidate();
+            ChangeNotifier.deleted(ChangeNotifier.Entity.DEPARTMENT, id);
+        }
+        return removed;
     }
 
     @Override
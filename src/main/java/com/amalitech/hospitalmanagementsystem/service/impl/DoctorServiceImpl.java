@@ -3,7 +3,11 @@ package com.amalitech.hospitalmanagementsystem.service.impl;
 
 import com.amalitech.hospitalmanagementsystem.dao.DoctorDao;
 import com.amalitech.hospitalmanagementsystem.model.Doctor;
+import com.amalitech.hospitalmanagementsystem.service.ChangeNotifier;
+import com.amalitech.hospitalmanagementsystem.service.DashboardStatsCache;
+import com.amalitech.hospitalmanagementsystem.service.NameDirectory;
 import com.amalitech.hospitalmanagementsystem.service.DoctorService;
+import com.amalitech.hospitalmanagementsystem.util.JdbcBatch;
 
 import java.util.List;
 import java.util.Optional;
@@ -25,19 +29,32 @@ public class DoctorServiceImpl implements DoctorService {
     public void register(Doctor doctor) {
         validate(doctor, true);
         doctorDao.create(doctor);
+        DashboardStatsCache.invalidate();
+        if (doctor.getId() != null) ChangeNotifier.created(ChangeNotifier.Entity.DOCTOR, doctor.getId(), doctor);
     }
 
     @Override
     public boolean update(Doctor doctor) {
         if (doctor.getId() == null) throw new IllegalArgumentException("ID required for update");
         validate(doctor, false);
-        return doctorDao.update(doctor);
+        boolean updated = doctorDao.update(doctor);
+        if (updated) {
+            NameDirectory.doctors().invalidate(doctor.getId());
+            ChangeNotifier.updated(ChangeNotifier.Entity.DOCTOR, doctor.getId(), doctor);
+        }
+        return updated;
     }
 
     @Override
     public boolean remove(Long id) {
         if (id == null || id <= 0) throw new IllegalArgumentException("Valid ID required");
-        return doctorDao.deleteById(id);
+        boolean removed = doctorDao.deleteById(id);
+        if (removed) {
+            DashboardStatsCache.invalidate();
+            NameDirectory.doctors().invalidate(id);
+            ChangeNotifier.deleted(ChangeNotifier.Entity.DOCTOR, id);
+        }
+        return removed;
     }
 
     @Override
@@ -56,6 +73,47 @@ public class DoctorServiceImpl implements DoctorService {
         return doctorDao.searchByNameOrSpecialization(term);
     }
 
+    @Override
+    public List<Long> registerAll(List<Doctor> doctors) {
+        for (int i = 0; i < doctors.size(); i++) {
+            try {
+                validate(doctors.get(i), true);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Row " + (i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        // each chunk commits on its own; publish whatever committed, even if a later chunk fails
+        return JdbcBatch.insertInChunks(doctors, doctorDao::createAll, () -> {
+            DashboardStatsCache.invalidate();
+            ChangeNotifier.bulk(ChangeNotifier.Entity.DOCTOR);
+        });
+    }
+
+    @Override
+    public int updateAll(List<Doctor> doctors) {
+        for (int i = 0; i < doctors.size(); i++) {
+            try {
+                if (doctors.get(i).getId() == null) throw new IllegalArgumentException("ID required for update");
+                validate(doctors.get(i), false);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Row " + (i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        return JdbcBatch.updateInChunks(doctors, chunk -> {
+            int updated = doctorDao.updateAll(chunk);
+            for (Doctor d : chunk) NameDirectory.doctors().invalidate(d.getId());
+            return updated;
+        }, () -> {
+            DashboardStatsCache.invalidate(); // department counts may have moved
+            ChangeNotifier.bulk(ChangeNotifier.Entity.DOCTOR);
+        });
+    }
+
+    @Override
+    public void validate(Doctor doctor) {
+        validate(doctor, true);
+    }
+
     private void validate(Doctor d, boolean isCreate) {
         if (d == null) throw new IllegalArgumentException("Doctor cannot be null");
         if (d.getFirstName() == null || d.getFirstName().isBlank())
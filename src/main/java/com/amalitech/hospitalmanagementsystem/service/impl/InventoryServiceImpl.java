@@ -4,7 +4,10 @@ package com.amalitech.hospitalmanagementsystem.service.impl;
 import com.amalitech.hospitalmanagementsystem.dao.InventoryDao;
 import com.amalitech.hospitalmanagementsystem.dao.impl.InventoryDaoImpl;
 import com.amalitech.hospitalmanagementsystem.model.InventoryItem;
+import com.amalitech.hospitalmanagementsystem.service.ChangeNotifier;
+import com.amalitech.hospitalmanagementsystem.service.DashboardStatsCache;
 import com.amalitech.hospitalmanagementsystem.service.InventoryService;
+import com.amalitech.hospitalmanagementsystem.util.JdbcBatch;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,15 +16,34 @@ public class InventoryServiceImpl implements InventoryService {
     private final InventoryDao dao;
     public InventoryServiceImpl() { this.dao = new InventoryDaoImpl(); }
 
-    @Override public Long create(InventoryItem i) { i.validate(); return dao.create(i); }
+    @Override public Long create(InventoryItem i) {
+        i.validate();
+        Long id = dao.create(i);
+        if (id != null) {
+            i.setItemId(id);
+            ChangeNotifier.created(ChangeNotifier.Entity.INVENTORY, id, i);
+        }
+        DashboardStatsCache.invalidate();
+        return id;
+    }
     @Override public boolean update(InventoryItem i) {
         if (i.getItemId() == null) throw new IllegalArgumentException("ID required");
         i.validate();
-        return dao.update(i);
+        boolean updated = dao.update(i);
+        if (updated) {
+            DashboardStatsCache.invalidate(); // quantity/reorder level may cross
+            ChangeNotifier.updated(ChangeNotifier.Entity.INVENTORY, i.getItemId(), i);
+        }
+        return updated;
     }
     @Override public boolean remove(Long itemId) {
         if (itemId == null || itemId <= 0) throw new IllegalArgumentException("Valid ID required");
-        return dao.deleteById(itemId);
+        boolean removed = dao.deleteById(itemId);
+        if (removed) {
+            DashboardStatsCache.invalidate();
+            ChangeNotifier.deleted(ChangeNotifier.Entity.INVENTORY, itemId);
+        }
+        return removed;
     }
     @Override public Optional<InventoryItem> getById(Long itemId) {
         if (itemId == null || itemId <= 0) throw new IllegalArgumentException("Valid ID required");
@@ -29,5 +51,41 @@ public class InventoryServiceImpl implements InventoryService {
     }
     @Override public List<InventoryItem> getAll() { return dao.findAll(); }
     @Override public List<InventoryItem> search(String term) { return dao.searchByNameOrCategory(term); }
-    @Override public boolean adjustQuantity(Long itemId, int delta) { return dao.adjustQuantity(itemId, delta); }
+    @Override public boolean adjustQuantity(Long itemId, int delta) {
+        boolean adjusted = dao.adjustQuantity(itemId, delta);
+        if (adjusted) {
+            DashboardStatsCache.invalidate();
+            // the delta is applied in SQL; publish the row as stored
+            dao.findById(itemId).ifPresent(row -> ChangeNotifier.updated(ChangeNotifier.Entity.INVENTORY, itemId, row));
+        }
+        return adjusted;
+    }
+
+    @Override public List<Long> createAll(List<InventoryItem> items) {
+        for (int k = 0; k < items.size(); k++) {
+            try {
+                items.get(k).validate();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Row " + (k + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        return JdbcBatch.insertInChunks(items, dao::createAll, () -> {
+            DashboardStatsCache.invalidate();
+            ChangeNotifier.bulk(ChangeNotifier.Entity.INVENTORY);
+        });
+    }
+    @Override public int updateAll(List<InventoryItem> items) {
+        for (int k = 0; k < items.size(); k++) {
+            try {
+                if (items.get(k).getItemId() == null) throw new IllegalArgumentException("ID required");
+                items.get(k).validate();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Row " + (k + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        return JdbcBatch.updateInChunks(items, dao::updateAll, () -> {
+            DashboardStatsCache.invalidate();
+            ChangeNotifier.bulk(ChangeNotifier.Entity.INVENTORY);
+        });
+    }
 }
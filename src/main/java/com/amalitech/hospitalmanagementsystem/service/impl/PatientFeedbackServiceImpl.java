@@ -4,30 +4,88 @@ package com.amalitech.hospitalmanagementsystem.service.impl;
 import com.amalitech.hospitalmanagementsystem.dao.PatientFeedbackDao;
 import com.amalitech.hospitalmanagementsystem.dao.impl.PatientFeedbackDaoImpl;
 import com.amalitech.hospitalmanagementsystem.model.PatientFeedback;
+import com.amalitech.hospitalmanagementsystem.service.ChangeNotifier;
+import com.amalitech.hospitalmanagementsystem.service.DashboardStatsCache;
 import com.amalitech.hospitalmanagementsystem.service.PatientFeedbackService;
+import com.amalitech.hospitalmanagementsystem.util.JdbcBatch;
 
 import java.util.List;
 import java.util.Optional;
 
 public class PatientFeedbackServiceImpl implements PatientFeedbackService {
+    private static final int MAX_PAGE_SIZE = 1000;
     private final PatientFeedbackDao dao;
     public PatientFeedbackServiceImpl() { this.dao = new PatientFeedbackDaoImpl(); }
 
-    @Override public Long create(PatientFeedback f) { f.validate(); return dao.create(f); }
+    @Override public Long create(PatientFeedback f) {
+        f.validate();
+        Long id = dao.create(f);
+        if (id != null) {
+            f.setFeedbackId(id);
+            ChangeNotifier.created(ChangeNotifier.Entity.FEEDBACK, id, f);
+        }
+        DashboardStatsCache.invalidate();
+        return id;
+    }
     @Override public boolean update(PatientFeedback f) {
         if (f.getFeedbackId() == null) throw new IllegalArgumentException("ID required");
         f.validate();
-        return dao.update(f);
+        boolean updated = dao.update(f);
+        if (updated) {
+            DashboardStatsCache.invalidate(); // rating may have changed
+            ChangeNotifier.updated(ChangeNotifier.Entity.FEEDBACK, f.getFeedbackId(), f);
+        }
+        return updated;
     }
     @Override public boolean remove(Long feedbackId) {
         if (feedbackId == null || feedbackId <= 0) throw new IllegalArgumentException("Valid ID required");
-        return dao.deleteById(feedbackId);
+        boolean removed = dao.deleteById(feedbackId);
+        if (removed) {
+            DashboardStatsCache.invalidate();
+            ChangeNotifier.deleted(ChangeNotifier.Entity.FEEDBACK, feedbackId);
+        }
+        return removed;
     }
     @Override public Optional<PatientFeedback> getById(Long feedbackId) {
         if (feedbackId == null || feedbackId <= 0) throw new IllegalArgumentException("Valid ID required");
         return dao.findById(feedbackId);
     }
     @Override public List<PatientFeedback> getAll() { return dao.findAll(); }
+    @Override public List<PatientFeedback> search(String term, int limit, int offset) {
+        if (offset < 0) throw new IllegalArgumentException("Offset must be >= 0");
+        if (limit <= 0 || limit > MAX_PAGE_SIZE)
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        if (term == null || term.isBlank()) return List.of();
+        return dao.search(term, limit, offset);
+    }
     @Override public List<PatientFeedback> findByPatient(Long patientId) { return dao.findByPatient(patientId); }
     @Override public List<PatientFeedback> findByDoctor(Long doctorId) { return dao.findByDoctor(doctorId); }
+
+    @Override public List<Long> createAll(List<PatientFeedback> feedback) {
+        for (int i = 0; i < feedback.size(); i++) {
+            try {
+                feedback.get(i).validate();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Row " + (i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        return JdbcBatch.insertInChunks(feedback, dao::createAll, () -> {
+            DashboardStatsCache.invalidate();
+            ChangeNotifier.bulk(ChangeNotifier.Entity.FEEDBACK);
+        });
+    }
+    @Override public int updateAll(List<PatientFeedback> feedback) {
+        for (int i = 0; i < feedback.size(); i++) {
+            try {
+                if (feedback.get(i).getFeedbackId() == null) throw new IllegalArgumentException("ID required");
+                feedback.get(i).validate();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Row " + (i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        return JdbcBatch.updateInChunks(feedback, dao::updateAll, () -> {
+            DashboardStatsCache.invalidate();
+            ChangeNotifier.bulk(ChangeNotifier.Entity.FEEDBACK);
+        });
+    }
 }
@@ -3,7 +3,11 @@ package com.amalitech.hospitalmanagementsystem.service.impl;
 
 import com.amalitech.hospitalmanagementsystem.dao.PatientDao;
 import com.amalitech.hospitalmanagementsystem.model.Patient;
+import com.amalitech.hospitalmanagementsystem.service.ChangeNotifier;
+import com.amalitech.hospitalmanagementsystem.service.DashboardStatsCache;
+import com.amalitech.hospitalmanagementsystem.service.NameDirectory;
 import com.amalitech.hospitalmanagementsystem.service.PatientService;
+import com.amalitech.hospitalmanagementsystem.util.JdbcBatch;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -17,6 +21,8 @@ public class PatientServiceImpl implements PatientService {
             Pattern.compile("^[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Za-z]{2,}$");
     private static final Pattern PHONE_PATTERN =
             Pattern.compile("^[0-9+\\-()\\s]{6,20}$");
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int DEFAULT_SEARCH_LIMIT = 50;
 
     public PatientServiceImpl(PatientDao patientDao) {
         this.patientDao = patientDao;
@@ -26,19 +32,32 @@ public class PatientServiceImpl implements PatientService {
     public void register(Patient patient) {
         validate(patient);
         patientDao.create(patient);
+        DashboardStatsCache.invalidate();
+        if (patient.getId() != null) ChangeNotifier.created(ChangeNotifier.Entity.PATIENT, patient.getId(), patient);
     }
 
     @Override
     public boolean update(Patient patient) {
         if (patient.getId() == null) throw new IllegalArgumentException("ID required for update");
         validate(patient);
-        return patientDao.update(patient);
+        boolean updated = patientDao.update(patient);
+        if (updated) {
+            NameDirectory.patients().invalidate(patient.getId());
+            ChangeNotifier.updated(ChangeNotifier.Entity.PATIENT, patient.getId(), patient);
+        }
+        return updated;
     }
 
     @Override
     public boolean remove(Long id) {
         if (id == null || id <= 0) throw new IllegalArgumentException("Valid ID required");
-        return patientDao.deleteById(id);
+        boolean removed = patientDao.deleteById(id);
+        if (removed) {
+            DashboardStatsCache.invalidate();
+            NameDirectory.patients().invalidate(id);
+            ChangeNotifier.deleted(ChangeNotifier.Entity.PATIENT, id);
+        }
+        return removed;
     }
 
     @Override
@@ -54,10 +73,68 @@ public class PatientServiceImpl implements PatientService {
 
     @Override
     public List<Patient> search(String nameLike) {
-        return patientDao.searchByName(nameLike);
+        return search(nameLike, DEFAULT_SEARCH_LIMIT, 0);
     }
 
-    private void validate(Patient p) {
+    @Override
+    public List<Patient> search(String term, int limit, int offset) {
+        if (offset < 0) throw new IllegalArgumentException("Offset must be >= 0");
+        checkPageSize(limit);
+        if (term == null || term.trim().length() < MIN_SEARCH_LENGTH) return List.of();
+        return patientDao.searchRanked(term, limit, offset);
+    }
+
+    @Override
+    public List<Long> registerAll(List<Patient> patients) {
+        for (int i = 0; i < patients.size(); i++) {
+            try {
+                validate(patients.get(i));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Row " + (i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        // each chunk commits on its own; publish whatever committed, even if a later chunk fails
+        return JdbcBatch.insertInChunks(patients, patientDao::createAll, () -> {
+            DashboardStatsCache.invalidate();
+            ChangeNotifier.bulk(ChangeNotifier.Entity.PATIENT);
+        });
+    }
+
+    @Override
+    public int updateAll(List<Patient> patients) {
+        for (int i = 0; i < patients.size(); i++) {
+            try {
+                if (patients.get(i).getId() == null) throw new IllegalArgumentException("ID required for update");
+                validate(patients.get(i));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Row " + (i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        return JdbcBatch.updateInChunks(patients, chunk -> {
+            int updated = patientDao.updateAll(chunk);
+            for (Patient p : chunk) NameDirectory.patients().invalidate(p.getId());
+            return updated;
+        }, () -> ChangeNotifier.bulk(ChangeNotifier.Entity.PATIENT));
+    }
+
+    @Override
+    public List<Patient> getPageAfter(Long afterId, int limit) {
+        return patientDao.findPageAfter(afterId, checkPageSize(limit));
+    }
+
+    @Override
+    public List<Patient> getPageBefore(Long beforeId, int limit) {
+        return patientDao.findPageBefore(beforeId, checkPageSize(limit));
+    }
+
+    private int checkPageSize(int limit) {
+        if (limit <= 0 || limit > MAX_PAGE_SIZE)
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        return limit;
+    }
+
+    @Override
+    public void validate(Patient p) {
         if (p == null) throw new IllegalArgumentException("Patient cannot be null");
         if (p.getFirstName() == null || p.getFirstName().isBlank())
             throw new IllegalArgumentException("First name is required");
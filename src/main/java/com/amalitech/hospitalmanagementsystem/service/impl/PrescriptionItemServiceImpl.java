@@ -4,7 +4,9 @@ package com.amalitech.hospitalmanagementsystem.service.impl;
 import com.amalitech.hospitalmanagementsystem.dao.PrescriptionItemDao;
 import com.amalitech.hospitalmanagementsystem.dao.impl.PrescriptionItemDaoImpl;
 import com.amalitech.hospitalmanagementsystem.model.PrescriptionItem;
+import com.amalitech.hospitalmanagementsystem.service.ChangeNotifier;
 import com.amalitech.hospitalmanagementsystem.service.PrescriptionItemService;
+import com.amalitech.hospitalmanagementsystem.util.JdbcBatch;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,15 +15,27 @@ public class PrescriptionItemServiceImpl implements PrescriptionItemService {
     private final PrescriptionItemDao dao;
     public PrescriptionItemServiceImpl() { this.dao = new PrescriptionItemDaoImpl(); }
 
-    @Override public Long create(PrescriptionItem item) { item.validate(); return dao.create(item); }
+    // Item writes are published as an update of the parent prescription (as ChangeFeed does for
+    // prescription_items) so ReportRefresher marks the top-medications view dirty
+    @Override public Long create(PrescriptionItem item) {
+        item.validate();
+        Long id = dao.create(item);
+        if (id != null) ChangeNotifier.updated(ChangeNotifier.Entity.PRESCRIPTION, item.getPrescriptionId(), item);
+        return id;
+    }
     @Override public boolean update(PrescriptionItem item) {
         if (item.getItemId() == null) throw new IllegalArgumentException("Item ID required");
         item.validate();
-        return dao.update(item);
+        boolean updated = dao.update(item);
+        if (updated) ChangeNotifier.updated(ChangeNotifier.Entity.PRESCRIPTION, item.getPrescriptionId(), item);
+        return updated;
     }
     @Override public boolean remove(Long itemId) {
         if (itemId == null || itemId <= 0) throw new IllegalArgumentException("Valid ID required");
-        return dao.deleteById(itemId);
+        Long prescriptionId = dao.findById(itemId).map(PrescriptionItem::getPrescriptionId).orElse(null);
+        boolean removed = dao.deleteById(itemId);
+        if (removed && prescriptionId != null) ChangeNotifier.updated(ChangeNotifier.Entity.PRESCRIPTION, prescriptionId, null);
+        return removed;
     }
     @Override public Optional<PrescriptionItem> getById(Long itemId) {
         if (itemId == null || itemId <= 0) throw new IllegalArgumentException("Valid ID required");
@@ -31,6 +45,29 @@ public class PrescriptionItemServiceImpl implements PrescriptionItemService {
         return dao.findByPrescription(prescriptionId);
     }
     @Override public void removeAllForPrescription(Long prescriptionId) {
-        dao.deleteByPrescription(prescriptionId);
+        if (dao.deleteByPrescription(prescriptionId)) {
+            ChangeNotifier.updated(ChangeNotifier.Entity.PRESCRIPTION, prescriptionId, null);
+        }
+    }
+    @Override public List<Long> createAll(List<PrescriptionItem> items) {
+        for (int i = 0; i < items.size(); i++) {
+            try {
+                items.get(i).validate();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Row " + (i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        return JdbcBatch.insertInChunks(items, dao::createAll, () -> ChangeNotifier.bulk(ChangeNotifier.Entity.PRESCRIPTION));
+    }
+    @Override public int updateAll(List<PrescriptionItem> items) {
+        for (int i = 0; i < items.size(); i++) {
+            try {
+                if (items.get(i).getItemId() == null) throw new IllegalArgumentException("Item ID required");
+                items.get(i).validate();
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Row " + (i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        return JdbcBatch.updateInChunks(items, dao::updateAll, () -> ChangeNotifier.bulk(ChangeNotifier.Entity.PRESCRIPTION));
     }
 }
@@ -2,9 +2,14 @@
 package com.amalitech.hospitalmanagementsystem.service.impl;
 
 import com.amalitech.hospitalmanagementsystem.dao.PrescriptionDao;
+import com.amalitech.hospitalmanagementsystem.dao.PrescriptionItemDao;
 import com.amalitech.hospitalmanagementsystem.dao.impl.PrescriptionDaoImpl;
+import com.amalitech.hospitalmanagementsystem.dao.impl.PrescriptionItemDaoImpl;
 import com.amalitech.hospitalmanagementsystem.model.Prescription;
+import com.amalitech.hospitalmanagementsystem.model.PrescriptionItem;
+import com.amalitech.hospitalmanagementsystem.service.ChangeNotifier;
 import com.amalitech.hospitalmanagementsystem.service.PrescriptionService;
+import com.amalitech.hospitalmanagementsystem.util.TransactionManager;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -12,17 +17,31 @@ import java.util.Optional;
 
 public class PrescriptionServiceImpl implements PrescriptionService {
     private final PrescriptionDao dao;
-    public PrescriptionServiceImpl() { this.dao = new PrescriptionDaoImpl(); }
+    private final PrescriptionItemDao itemDao;
+    public PrescriptionServiceImpl() { this(new PrescriptionDaoImpl(), new PrescriptionItemDaoImpl()); }
+    public PrescriptionServiceImpl(PrescriptionDao dao, PrescriptionItemDao itemDao) {
+        this.dao = dao;
+        this.itemDao = itemDao;
+    }
 
-    @Override public Long create(Prescription p) { p.validate(); return dao.create(p); }
+    @Override public Long create(Prescription p) {
+        p.validate();
+        Long id = dao.create(p);
+        if (id != null) ChangeNotifier.created(ChangeNotifier.Entity.PRESCRIPTION, id, p);
+        return id;
+    }
     @Override public boolean update(Prescription p) {
         if (p.getPrescriptionId() == null) throw new IllegalArgumentException("ID required");
         p.validate();
-        return dao.update(p);
+        boolean updated = dao.update(p);
+        if (updated) ChangeNotifier.updated(ChangeNotifier.Entity.PRESCRIPTION, p.getPrescriptionId(), p);
+        return updated;
     }
     @Override public boolean remove(Long id) {
         if (id == null || id <= 0) throw new IllegalArgumentException("Valid ID required");
-        return dao.deleteById(id);
+        boolean removed = dao.deleteById(id);
+        if (removed) ChangeNotifier.deleted(ChangeNotifier.Entity.PRESCRIPTION, id);
+        return removed;
     }
     @Override public Optional<Prescription> getById(Long id) {
         if (id == null || id <= 0) throw new IllegalArgumentException("Valid ID required");
@@ -32,4 +51,30 @@ public class PrescriptionServiceImpl implements PrescriptionService {
     @Override public List<Prescription> findByPatient(Long patientId) { return dao.findByPatient(patientId); }
     @Override public List<Prescription> findByDoctor(Long doctorId) { return dao.findByDoctor(doctorId); }
     @Override public List<Prescription> findByDate(LocalDate day) { return dao.findByDate(day); }
+
+    @Override public Long saveWithItems(Prescription p, List<PrescriptionItem> items) {
+        p.validate();
+        Long saved = TransactionManager.inTransaction(() -> {
+            Long id = dao.create(p);
+            if (id == null) throw new IllegalStateException("Create prescription returned no id");
+            p.setPrescriptionId(id);
+            for (PrescriptionItem item : items) item.setPrescriptionId(id);
+            itemDao.createAll(items);   // one batch on the same connection
+            return id;
+        });
+        // announced after commit, so listeners never see a rolled-back prescription
+        ChangeNotifier.created(ChangeNotifier.Entity.PRESCRIPTION, saved, p);
+        return saved;
+    }
+    @Override public boolean removeWithItems(Long id) {
+        if (id == null || id <= 0) throw new IllegalArgumentException("Valid ID required");
+        boolean removed = TransactionManager.inTransaction(() -> {
+            // SQL errors throw, rolling back the item deletes; a prescription without items or
+            // one already deleted elsewhere is not an error
+            itemDao.deleteByPrescription(id);
+            return dao.deleteById(id);
+        });
+        if (removed) ChangeNotifier.deleted(ChangeNotifier.Entity.PRESCRIPTION, id);
+        return removed;
+    }
 }
@@ -0,0 +1,168 @@
+package com.amalitech.hospitalmanagementsystem.service.importer;
+
+import com.amalitech.hospitalmanagementsystem.service.ChangeNotifier;
+import com.amalitech.hospitalmanagementsystem.service.DashboardStatsCache;
+import com.amalitech.hospitalmanagementsystem.util.CsvReader;
+import com.amalitech.hospitalmanagementsystem.util.CsvWriter;
+import com.amalitech.hospitalmanagementsystem.util.DBConnectionUtil;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming bulk import: reads a CSV file one record at a time, validates each row with the
+ * spec's rules and loads valid rows with {@code COPY ... FROM STDIN} in chunks of
+ * {@link #CHUNK_SIZE} rows. Each chunk is one COPY statement, so it commits or fails as a whole.
+ * When the database rejects a chunk for its data (e.g. a duplicate email), the chunk is split in
+ * halves and retried until the offending rows are isolated; the other rows are still loaded.
+ * <p>
+ * Rows that cannot be parsed, fail validation or are rejected by the database are written to
+ * {@code <file>.rejected.csv} next to the source with their line number and the error, so they
+ * can be fixed and re-imported. If COPY fails for another reason (e.g. the connection drops),
+ * the rows it covered are quarantined as a whole.
+ * Blocks on I/O and JDBC; run it off the FX thread.
+ */
+public final class CsvImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(CsvImporter.class);
+
+    public static final int CHUNK_SIZE = 5_000;
+
+    /** Called after every chunk and once at the end. */
+    @FunctionalInterface
+    public interface Progress {
+        void update(long read, long imported, long rejected);
+    }
+
+    /** {@code quarantine} is null when no row was rejected. */
+    public record Result(long read, long imported, long rejected, Path quarantine) {}
+
+    private CsvImporter() {}
+
+    public static <T> Result importFile(ImportSpec<T> spec, Path source, Progress progress) throws IOException {
+        Run<T> run = new Run<>(spec, source, progress);
+        try (CsvReader reader = new CsvReader(Files.newBufferedReader(source, StandardCharsets.UTF_8))) {
+            run.execute(reader);
+        } finally {
+            // rows COPY already committed are published even when a later chunk threw
+            if (run.imported > 0) {
+                DashboardStatsCache.invalidate();
+                ChangeNotifier.bulk(spec.entity());
+            }
+            if (run.quarantine != null) run.quarantine.close();
+        }
+        log.info("Imported {} {} from {} ({} rejected)", run.imported, spec.name(), source, run.rejected);
+        return new Result(run.read, run.imported, run.rejected, run.quarantine.path());
+    }
+
+    private static final class Run<T> {
+        final ImportSpec<T> spec;
+        final Path source;
+        final Progress progress;
+
+        Quarantine quarantine;
+        long read, imported, rejected;
+
+        // current chunk: COPY payload with the end offset of each row in it, plus the source rows,
+        // kept to quarantine them if COPY fails
+        final StringBuilder copyBuffer = new StringBuilder();
+        final List<Integer> rowEnds = new ArrayList<>();
+        final List<List<String>> chunkRows = new ArrayList<>();
+        final List<Long> chunkLines = new ArrayList<>();
+
+        Run(ImportSpec<T> spec, Path source, Progress progress) {
+            this.spec = spec;
+            this.source = source;
+            this.progress = progress;
+        }
+
+        void execute(CsvReader reader) throws IOException {
+            List<String> header = reader.next();
+            if (header == null) throw new IOException("The file is empty");
+            quarantine = new Quarantine(source, header);
+            CsvRecord record = new CsvRecord(header);
+            for (String h : spec.requiredHeaders()) {
+                if (!record.hasColumn(h)) throw new IOException("Missing required column: " + h);
+            }
+
+            List<String> fields;
+            while ((fields = reader.next()) != null) {
+                read++;
+                record.set(fields);
+                try {
+                    T value = spec.parse(record);
+                    spec.validate(value);
+                    CsvWriter.writeRow(copyBuffer, spec.copyValues(value));
+                    rowEnds.add(copyBuffer.length());
+                    chunkRows.add(fields);
+                    chunkLines.add(reader.recordLine());
+                } catch (IllegalArgumentException e) {
+                    reject(fields, reader.recordLine(), e.getMessage());
+                }
+                if (chunkRows.size() == CHUNK_SIZE) flush();
+            }
+            flush();
+        }
+
+        void flush() throws IOException {
+            if (!chunkRows.isEmpty()) {
+                try (Connection con = DBConnectionUtil.getConnection()) {
+                    copy(con.unwrap(PGConnection.class).getCopyAPI(), 0, chunkRows.size());
+                } catch (SQLException e) {
+                    rejectRange(0, chunkRows.size(), e);
+                }
+                copyBuffer.setLength(0);
+                rowEnds.clear();
+                chunkRows.clear();
+                chunkLines.clear();
+            }
+            if (progress != null) progress.update(read, imported, rejected);
+        }
+
+        /**
+         * COPYs rows {@code [from, to)} of the current chunk. A data or constraint error (SQLState
+         * class 22 or 23) is narrowed down by splitting the range, so only the rows that cause it
+         * are rejected. Each COPY commits on its own, so a failed one leaves nothing behind.
+         */
+        void copy(CopyManager copy, int from, int to) throws IOException {
+            int start = from == 0 ? 0 : rowEnds.get(from - 1);
+            try {
+                imported += copy.copyIn(spec.copySql(), new StringReader(copyBuffer.substring(start, rowEnds.get(to - 1))));
+            } catch (SQLException e) {
+                String state = e.getSQLState();
+                boolean rowError = state != null && (state.startsWith("22") || state.startsWith("23"));
+                if (!rowError) {
+                    rejectRange(from, to, e);
+                } else if (to - from == 1) {
+                    reject(chunkRows.get(from), chunkLines.get(from), "Rejected by database: " + e.getMessage());
+                } else {
+                    int mid = (from + to) >>> 1;
+                    copy(copy, from, mid);
+                    copy(copy, mid, to);
+                }
+            }
+        }
+
+        void rejectRange(int from, int to, SQLException e) throws IOException {
+            log.warn("COPY of {} rows into {} failed: {}", to - from, spec.name(), e.getMessage());
+            String error = "Chunk rejected by database: " + e.getMessage();
+            for (int i = from; i < to; i++) reject(chunkRows.get(i), chunkLines.get(i), error);
+        }
+
+        void reject(List<String> fields, long line, String error) throws IOException {
+            rejected++;
+            quarantine.reject(fields, line, error);
+        }
+    }
+}
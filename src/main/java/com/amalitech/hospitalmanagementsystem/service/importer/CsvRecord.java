@@ -0,0 +1,75 @@
+package com.amalitech.hospitalmanagementsystem.service.importer;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One CSV data row, read by header name. The header is resolved to column indexes once per
+ * file; {@link #set(List)} swaps in each new row without further lookups.
+ * Getters trim values and return null for blank or missing cells.
+ */
+public final class CsvRecord {
+
+    private final Map<String, Integer> index = new HashMap<>();
+    private List<String> fields = List.of();
+
+    CsvRecord(List<String> header) {
+        for (int i = 0; i < header.size(); i++) {
+            index.putIfAbsent(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+    }
+
+    void set(List<String> fields) {
+        this.fields = fields;
+    }
+
+    boolean hasColumn(String name) {
+        return index.containsKey(name);
+    }
+
+    List<String> raw() {
+        return fields;
+    }
+
+    public String get(String column) {
+        Integer i = index.get(column);
+        if (i == null || i >= fields.size()) return null;
+        String v = fields.get(i).trim();
+        return v.isEmpty() ? null : v;
+    }
+
+    public Integer getInt(String column) {
+        String v = get(column);
+        if (v == null) return null;
+        try {
+            return Integer.valueOf(v);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " must be a whole number");
+        }
+    }
+
+    public Long getLong(String column) {
+        String v = get(column);
+        if (v == null) return null;
+        try {
+            return Long.valueOf(v);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " must be a whole number");
+        }
+    }
+
+    /** ISO dates (yyyy-MM-dd), matching what the forms store. */
+    public LocalDate getDate(String column) {
+        String v = get(column);
+        if (v == null) return null;
+        try {
+            return LocalDate.parse(v);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(column + " must be a date (yyyy-MM-dd)");
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.amalitech.hospitalmanagementsystem.service.importer;
+
+import com.amalitech.hospitalmanagementsystem.service.ChangeNotifier;
+
+import java.util.List;
+
+/**
+ * Describes how one CSV file maps onto one table for {@link CsvImporter}.
+ * See {@link ImportSpecs} for the patient, doctor and inventory specs.
+ */
+public interface ImportSpec<T> {
+
+    /** Display name used in progress and error messages, e.g. "patients". */
+    String name();
+
+    /** Entity announced to {@code ChangeNotifier} after rows were imported. */
+    ChangeNotifier.Entity entity();
+
+    /** CSV headers (lower case) that must be present; others are ignored. */
+    List<String> requiredHeaders();
+
+    /** {@code COPY table (cols...) FROM STDIN (FORMAT csv)} statement the rows are streamed into. */
+    String copySql();
+
+    /** Builds a model from a row; throws IllegalArgumentException for malformed values. */
+    T parse(CsvRecord row);
+
+    /** Applies the same rules as the single-row create path; throws IllegalArgumentException. */
+    void validate(T value);
+
+    /** Column values in {@link #copySql()} order; null is written as SQL NULL. */
+    List<String> copyValues(T value);
+}
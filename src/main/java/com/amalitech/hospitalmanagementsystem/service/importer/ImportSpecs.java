@@ -0,0 +1,111 @@
+package com.amalitech.hospitalmanagementsystem.service.importer;
+
+import com.amalitech.hospitalmanagementsystem.model.Doctor;
+import com.amalitech.hospitalmanagementsystem.model.InventoryItem;
+import com.amalitech.hospitalmanagementsystem.model.Patient;
+import com.amalitech.hospitalmanagementsystem.service.ChangeNotifier;
+import com.amalitech.hospitalmanagementsystem.service.DoctorService;
+import com.amalitech.hospitalmanagementsystem.service.PatientService;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * CSV layouts accepted by the bulk import. Headers use the table's column names, e.g.
+ * {@code first_name,last_name,sex,date_of_birth,phone,email,address} for patients.
+ */
+public final class ImportSpecs {
+
+    private ImportSpecs() {}
+
+    public static ImportSpec<Patient> patients(PatientService service) {
+        return new ImportSpec<>() {
+            @Override public String name() { return "patients"; }
+            @Override public ChangeNotifier.Entity entity() { return ChangeNotifier.Entity.PATIENT; }
+            @Override public List<String> requiredHeaders() {
+                return List.of("first_name", "last_name", "sex", "date_of_birth");
+            }
+            @Override public String copySql() {
+                return "COPY patients (first_name, last_name, sex, date_of_birth, phone, email, address) "
+                        + "FROM STDIN (FORMAT csv)";
+            }
+            @Override public Patient parse(CsvRecord r) {
+                Patient p = new Patient();
+                p.setFirstName(r.get("first_name"));
+                p.setLastName(r.get("last_name"));
+                p.setGender(r.get("sex"));
+                p.setDateOfBirth(r.getDate("date_of_birth"));
+                p.setPhone(r.get("phone"));
+                p.setEmail(r.get("email"));
+                p.setAddress(r.get("address"));
+                return p;
+            }
+            @Override public void validate(Patient p) { service.validate(p); }
+            @Override public List<String> copyValues(Patient p) {
+                return Arrays.asList(p.getFirstName(), p.getLastName(), p.getGender().trim(),
+                        p.getDateOfBirth().toString(), p.getPhone(), p.getEmail(), p.getAddress());
+            }
+        };
+    }
+
+    public static ImportSpec<Doctor> doctors(DoctorService service) {
+        return new ImportSpec<>() {
+            @Override public String name() { return "doctors"; }
+            @Override public ChangeNotifier.Entity entity() { return ChangeNotifier.Entity.DOCTOR; }
+            @Override public List<String> requiredHeaders() {
+                return List.of("first_name", "last_name", "specialization");
+            }
+            @Override public String copySql() {
+                return "COPY public.doctors (first_name, last_name, specialization, department_id, phone, email) "
+                        + "FROM STDIN (FORMAT csv)";
+            }
+            @Override public Doctor parse(CsvRecord r) {
+                Doctor d = new Doctor();
+                d.setFirstName(r.get("first_name"));
+                d.setLastName(r.get("last_name"));
+                d.setSpecialization(r.get("specialization"));
+                d.setDepartmentId(r.getLong("department_id"));
+                d.setPhone(r.get("phone"));
+                d.setEmail(r.get("email"));
+                return d;
+            }
+            @Override public void validate(Doctor d) { service.validate(d); }
+            @Override public List<String> copyValues(Doctor d) {
+                return Arrays.asList(d.getFirstName(), d.getLastName(), d.getSpecialization(),
+                        d.getDepartmentId() == null ? null : d.getDepartmentId().toString(),
+                        d.getPhone(), d.getEmail());
+            }
+        };
+    }
+
+    public static ImportSpec<InventoryItem> inventory() {
+        // one timestamp per import, like the NOW() the single-row insert uses
+        String now = LocalDateTime.now().toString();
+        return new ImportSpec<>() {
+            @Override public String name() { return "inventory items"; }
+            @Override public ChangeNotifier.Entity entity() { return ChangeNotifier.Entity.INVENTORY; }
+            @Override public List<String> requiredHeaders() {
+                return List.of("name", "quantity", "unit", "reorder_level");
+            }
+            @Override public String copySql() {
+                return "COPY medical_inventory (name, category, quantity, unit, reorder_level, updated_at) "
+                        + "FROM STDIN (FORMAT csv)";
+            }
+            @Override public InventoryItem parse(CsvRecord r) {
+                InventoryItem i = new InventoryItem();
+                i.setName(r.get("name"));
+                i.setCategory(r.get("category"));
+                i.setQuantity(r.getInt("quantity"));
+                i.setUnit(r.get("unit"));
+                i.setReorderLevel(r.getInt("reorder_level"));
+                return i;
+            }
+            @Override public void validate(InventoryItem i) { i.validate(); }
+            @Override public List<String> copyValues(InventoryItem i) {
+                return Arrays.asList(i.getName(), i.getCategory(), i.getQuantity().toString(), i.getUnit(),
+                        i.getReorderLevel().toString(), now);
+            }
+        };
+    }
+}
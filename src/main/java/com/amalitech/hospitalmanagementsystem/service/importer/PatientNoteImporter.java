@@ -0,0 +1,120 @@
+package com.amalitech.hospitalmanagementsystem.service.importer;
+
+import com.amalitech.hospitalmanagementsystem.nosql.NoteIngestOptions;
+import com.amalitech.hospitalmanagementsystem.nosql.NoteIngestResult;
+import com.amalitech.hospitalmanagementsystem.nosql.PatientNote;
+import com.amalitech.hospitalmanagementsystem.nosql.PatientNoteService;
+import com.amalitech.hospitalmanagementsystem.util.CsvReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bulk import of patient notes from CSV into MongoDB. Columns: {@code patient_id} and
+ * {@code content} (required), {@code note_type}, {@code doctor_id}, {@code tags} (comma-separated
+ * in one cell) and {@code created_at} (ISO date-time; defaults to the import time).
+ * <p>
+ * Rows are handed to {@link PatientNoteService#addNotes(List, NoteIngestOptions)} in chunks of
+ * {@link NoteIngestOptions#batchSize()}, which validates them in parallel and inserts them with
+ * unordered writes. Rows that cannot be parsed, fail validation or are rejected by the server are
+ * written to {@code <file>.rejected.csv} like {@link CsvImporter} does; the rest are stored.
+ * Rows whose write outcome is unknown are quarantined too, with the note id to check for, since
+ * importing them again blindly could store them twice.
+ * Blocks on I/O and MongoDB; run it off the FX thread.
+ */
+public final class PatientNoteImporter {
+
+    private static final Logger log = LoggerFactory.getLogger(PatientNoteImporter.class);
+
+    private static final List<String> REQUIRED = List.of("patient_id", "content");
+
+    private PatientNoteImporter() {}
+
+    public static CsvImporter.Result importFile(PatientNoteService service, NoteIngestOptions options,
+                                                Path source, CsvImporter.Progress progress) throws IOException {
+        long read = 0, imported = 0;
+        Quarantine quarantine = null;
+        try (CsvReader reader = new CsvReader(Files.newBufferedReader(source, StandardCharsets.UTF_8))) {
+            List<String> header = reader.next();
+            if (header == null) throw new IOException("The file is empty");
+            quarantine = new Quarantine(source, header);
+            CsvRecord record = new CsvRecord(header);
+            for (String h : REQUIRED) {
+                if (!record.hasColumn(h)) throw new IOException("Missing required column: " + h);
+            }
+
+            // current chunk, with the source rows kept to quarantine the ones that fail
+            List<PatientNote> chunk = new ArrayList<>(options.batchSize());
+            List<List<String>> chunkRows = new ArrayList<>(options.batchSize());
+            List<Long> chunkLines = new ArrayList<>(options.batchSize());
+            List<String> fields;
+            while ((fields = reader.next()) != null) {
+                read++;
+                record.set(fields);
+                try {
+                    chunk.add(parse(record));
+                    chunkRows.add(fields);
+                    chunkLines.add(reader.recordLine());
+                } catch (IllegalArgumentException e) {
+                    quarantine.reject(fields, reader.recordLine(), e.getMessage());
+                }
+                if (chunk.size() == options.batchSize()) {
+                    imported += flush(service, options, chunk, chunkRows, chunkLines, quarantine);
+                    if (progress != null) progress.update(read, imported, quarantine.count());
+                }
+            }
+            imported += flush(service, options, chunk, chunkRows, chunkLines, quarantine);
+            if (progress != null) progress.update(read, imported, quarantine.count());
+        } finally {
+            if (quarantine != null) quarantine.close();
+        }
+        log.info("Imported {} patient notes from {} ({} rejected)", imported, source, quarantine.count());
+        return new CsvImporter.Result(read, imported, quarantine.count(), quarantine.path());
+    }
+
+    private static int flush(PatientNoteService service, NoteIngestOptions options, List<PatientNote> chunk,
+                             List<List<String>> rows, List<Long> lines, Quarantine quarantine) throws IOException {
+        if (chunk.isEmpty()) return 0;
+        NoteIngestResult result = service.addNotes(chunk, options);
+        if (result.unknown() > 0) {
+            log.warn("{} patient notes may or may not have been stored; see the rejected file", result.unknown());
+        }
+        for (NoteIngestResult.Failure f : result.failures()) {
+            quarantine.reject(rows.get(f.index()), lines.get(f.index()), f.error());
+        }
+        chunk.clear();
+        rows.clear();
+        lines.clear();
+        return result.inserted();
+    }
+
+    private static PatientNote parse(CsvRecord r) {
+        PatientNote n = new PatientNote();
+        n.setPatientId(r.getLong("patient_id"));
+        n.setDoctorId(r.getLong("doctor_id"));
+        n.setNoteType(r.get("note_type"));
+        n.setContent(r.get("content"));
+        String tags = r.get("tags");
+        if (tags != null) {
+            n.setTags(Arrays.stream(tags.split(",")).map(String::strip).filter(t -> !t.isEmpty()).toList());
+        }
+        String createdAt = r.get("created_at");
+        if (createdAt != null) {
+            try {
+                n.setCreatedAt(LocalDateTime.parse(createdAt));
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("created_at must be a date-time (yyyy-MM-ddTHH:mm:ss)");
+            }
+        }
+        return n;
+    }
+}
@@ -0,0 +1,60 @@
+package com.amalitech.hospitalmanagementsystem.service.importer;
+
+import com.amalitech.hospitalmanagementsystem.util.CsvWriter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code <file>.rejected.csv} next to an imported file: the source header plus {@code line} and
+ * {@code error} columns. Created on the first rejected row, so a clean import leaves no file.
+ */
+final class Quarantine implements Closeable {
+
+    private final Path path;
+    private final List<String> header;
+    private BufferedWriter out;
+    private long count;
+
+    Quarantine(Path source, List<String> header) {
+        String file = source.getFileName().toString();
+        String stem = file.toLowerCase().endsWith(".csv") ? file.substring(0, file.length() - 4) : file;
+        this.path = source.resolveSibling(stem + ".rejected.csv");
+        this.header = header;
+    }
+
+    void reject(List<String> fields, long line, String error) throws IOException {
+        count++;
+        if (out == null) {
+            out = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+            List<String> h = new ArrayList<>(header);
+            h.add("line");
+            h.add("error");
+            CsvWriter.writeRow(out, h);
+        }
+        List<String> row = new ArrayList<>(fields);
+        row.add(Long.toString(line));
+        row.add(error);
+        CsvWriter.writeRow(out, row);
+    }
+
+    long count() {
+        return count;
+    }
+
+    /** The file, or null when nothing was rejected. */
+    Path path() {
+        return count > 0 ? path : null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (out != null) out.close();
+    }
+}
@@ -0,0 +1,66 @@
+package com.amalitech.hospitalmanagementsystem.util;
+
+import javafx.beans.InvalidationListener;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.beans.value.ObservableValueBase;
+import javafx.scene.control.TableColumn;
+import javafx.util.Callback;
+
+import java.util.function.Function;
+
+/**
+ * Typed cell value factories for TableView columns over the plain model classes.
+ * <p>
+ * {@code PropertyValueFactory} looks the getter up by name and calls it reflectively for every
+ * cell update, and needs the model package opened to {@code javafx.base}. Here the getter is a
+ * method reference checked by the compiler and called directly:
+ * <pre>
+ *   Columns.bind(colFirstName, Patient::getFirstName);
+ * </pre>
+ * The models have no JavaFX properties, so each call returns a constant {@link ObservableValue}
+ * (lighter than a {@code ReadOnlyObjectWrapper}); rows changed in place are shown by replacing them
+ * in the list or calling {@code TableView.refresh()}, exactly as before.
+ */
+public final class Columns {
+
+    private Columns() {}
+
+    public static <S, T> void bind(TableColumn<S, T> column, Function<? super S, ? extends T> getter) {
+        column.setCellValueFactory(valueOf(getter));
+    }
+
+    public static <S, T> Callback<TableColumn.CellDataFeatures<S, T>, ObservableValue<T>> valueOf(
+            Function<? super S, ? extends T> getter) {
+        return features -> {
+            S row = features.getValue();
+            return constant(row == null ? null : getter.apply(row));
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> ObservableValue<T> constant(T value) {
+        return value == null ? (ObservableValue<T>) Constant.NULL : new Constant<>(value);
+    }
+
+    // Never changes, so listeners would never fire: they are dropped rather than kept by the shared NULL
+    private static final class Constant<T> extends ObservableValueBase<T> {
+        static final Constant<Object> NULL = new Constant<>(null);
+
+        private final T value;
+
+        Constant(T value) {
+            this.value = value;
+        }
+
+        @Override
+        public T getValue() {
+            return value;
+        }
+
+        @Override public void addListener(InvalidationListener listener) {}
+        @Override public void removeListener(InvalidationListener listener) {}
+        @Override public void addListener(ChangeListener<? super T> listener) {}
+        @Override public void removeListener(ChangeListener<? super T> listener) {}
+    }
+}
@@ -0,0 +1,97 @@
+package com.amalitech.hospitalmanagementsystem.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 CSV reader: one record is parsed at a time, so files of any size are read
+ * in constant memory. Quoted fields may contain commas, doubled quotes and line breaks.
+ * A leading byte order mark is dropped, so it does not end up in the first header name.
+ */
+public final class CsvReader implements Closeable {
+
+    private final Reader in;
+    private final char[] buf = new char[8192];
+    private int pos, len;
+    private long line = 1;          // physical line the next record starts on
+    private long recordLine;
+    private boolean atStart = true;
+
+    public CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    /** Next record, or null at end of input. Blank lines are skipped. */
+    public List<String> next() throws IOException {
+        int c = read();
+        if (atStart) {
+            atStart = false;
+            if (c == '\uFEFF') c = read();   // UTF-8 byte order mark written by Excel
+        }
+        // skip empty lines between records
+        while (c == '\r' || c == '\n') {
+            if (c == '\n') line++;
+            c = read();
+        }
+        if (c < 0) return null;
+        recordLine = line;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c < 0) throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                if (c == '"') {
+                    int n = read();
+                    if (n == '"') field.append('"');
+                    else { quoted = false; c = n; continue; }
+                } else {
+                    if (c == '\n') line++;
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r' || c < 0) {
+                if (c == '\r' && peek() == '\n') read();
+                if (c >= 0) line++;
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    /** Line number the most recently returned record started on (1-based). */
+    public long recordLine() {
+        return recordLine;
+    }
+
+    private int read() throws IOException {
+        if (pos == len) {
+            len = in.read(buf, 0, buf.length);
+            pos = 0;
+            if (len <= 0) { len = 0; return -1; }
+        }
+        return buf[pos++];
+    }
+
+    private int peek() throws IOException {
+        int c = read();
+        if (c >= 0) pos--;
+        return c;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
@@ -0,0 +1,51 @@
+package com.amalitech.hospitalmanagementsystem.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes CSV records in the dialect PostgreSQL's {@code COPY ... (FORMAT csv)} reads:
+ * a null field is written empty and unquoted (COPY reads it as NULL), while an empty
+ * string is written as {@code ""}.
+ */
+public final class CsvWriter {
+
+    private CsvWriter() {}
+
+    public static void writeRow(Appendable out, List<String> fields) throws IOException {
+        for (int i = 0; i < fields.size(); i++) {
+            if (i > 0) out.append(',');
+            writeField(out, fields.get(i));
+        }
+        out.append('\n');
+    }
+
+    public static void writeRow(Appendable out, String... fields) throws IOException {
+        writeRow(out, Arrays.asList(fields));
+    }
+
+    private static void writeField(Appendable out, String v) throws IOException {
+        if (v == null) return;
+        if (!v.isEmpty() && !needsQuotes(v)) {
+            out.append(v);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            if (c == '"') out.append('"');
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    private static boolean needsQuotes(String v) {
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') return true;
+        }
+        // a bare \. line would end COPY input early
+        return v.equals("\\.");
+    }
+}
@@ -8,16 +8,21 @@ import org.slf4j.LoggerFactory;
 
 import java.io.InputStream;
 import java.sql.Connection;
+import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.UUID;
 
 public final class DBConnectionUtil {
     private static final Logger log = LoggerFactory.getLogger(DBConnectionUtil.class);
     private static final HikariDataSource dataSource;
+    private static final Properties props = new Properties();
+    // application_name of this process's sessions; lets ChangeFeed recognise its own writes
+    private static final String APPLICATION_NAME = "hms-" + UUID.randomUUID().toString().substring(0, 8);
+    private static String url, user, password;
 
     static {
-        Properties props = new Properties();
         try (InputStream in = DBConnectionUtil.class.getResourceAsStream("/db/db.properties"))  {
             if (in != null) {
                 props.load(in);
@@ -26,9 +31,9 @@ public final class DBConnectionUtil {
             }
 
             //Read from ENV first; fall back to properties if ENV is missing
-            String url = envOrProp("DB_URL", props.getProperty("db.url"));
-            String user = envOrProp("DB_USER", props.getProperty("db.user"));
-            String password = envOrProp("DB_PASSWORD", props.getProperty("db.password"));
+            url = envOrProp("DB_URL", props.getProperty("db.url"));
+            user = envOrProp("DB_USER", props.getProperty("db.user"));
+            password = envOrProp("DB_PASSWORD", props.getProperty("db.password"));
             int poolSize = Integer.parseInt(Objects.requireNonNull(envOrProp("DB_POOL_SIZE", props.getProperty("db.pool.size", "10"))));
 
             if (url == null || user == null || password == null) {
@@ -44,11 +49,14 @@ public final class DBConnectionUtil {
             cfg.setMaximumPoolSize(poolSize);
             cfg.setDriverClassName("org.postgresql.Driver");
             cfg.setPoolName("HMS-HikariPool");
+            cfg.addDataSourceProperty("ApplicationName", APPLICATION_NAME);
 
             // PreparedStatement caching (OK for PostgreSQL with Hikari)
             cfg.addDataSourceProperty("cachePrepStmts", "true");
             cfg.addDataSourceProperty("prepStmtCacheSize", "250");
             cfg.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
+            // lets PgJDBC fold JdbcBatch INSERT batches into multi-row statements
+            cfg.addDataSourceProperty("reWriteBatchedInserts", "true");
 
             dataSource = new HikariDataSource(cfg);
             log.info("DB pool initialised");
@@ -65,10 +73,49 @@ public final class DBConnectionUtil {
 
     private DBConnectionUtil() {}
 
+    /**
+     * Reads an application setting the same way as the credentials: the environment variable
+     * {@code envName} first, then {@code propName} in db/db.properties, then {@code fallback}.
+     */
+    public static String setting(String envName, String propName, String fallback) {
+        String v = envOrProp(envName, props.getProperty(propName));
+        return v != null ? v : fallback;
+    }
+
+    /**
+     * Returns a pooled connection, or the connection of the caller's running
+     * {@link TransactionManager} unit of work. Callers close it as usual either way.
+     */
     public static Connection getConnection() throws SQLException {
+        Connection bound = TransactionManager.current();
+        return bound != null ? bound : dataSource.getConnection();
+    }
+
+    // Always a fresh pooled connection; used by TransactionManager to open a unit of work
+    static Connection openConnection() throws SQLException {
         return dataSource.getConnection();
     }
 
+    /**
+     * Opens a connection outside the pool, for a session that lives as long as the app
+     * (e.g. LISTEN) and would otherwise pin a pooled connection. The caller closes it.
+     */
+    public static Connection openDedicatedConnection() throws SQLException {
+        Properties p = new Properties();
+        p.setProperty("user", user);
+        p.setProperty("password", password);
+        p.setProperty("ApplicationName", APPLICATION_NAME);
+        return DriverManager.getConnection(url, p);
+    }
+
+    public static String applicationName() {
+        return APPLICATION_NAME;
+    }
+
+    public static int getMaxPoolSize() {
+        return dataSource.getMaximumPoolSize();
+    }
+
     public static void shutdown() {
         if (dataSource != null) {
             log.info("Shutting down datasource");
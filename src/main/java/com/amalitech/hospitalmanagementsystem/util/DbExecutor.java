@@ -0,0 +1,43 @@
+package com.amalitech.hospitalmanagementsystem.util;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs blocking JDBC work on virtual threads.
+ * Concurrency is capped at the Hikari pool size so queued work waits here
+ * instead of timing out inside {@code getConnection()}.
+ */
+public final class DbExecutor implements Executor {
+
+    private static volatile DbExecutor instance;
+
+    private final Semaphore permits;
+    private final ThreadFactory threads = Thread.ofVirtual().name("hms-db-", 0).factory();
+
+    private DbExecutor(int maxConcurrent) {
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    public static Executor get() {
+        if (instance == null) {
+            synchronized (DbExecutor.class) {
+                if (instance == null) instance = new DbExecutor(DBConnectionUtil.getMaxPoolSize());
+            }
+        }
+        return instance;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        threads.newThread(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                task.run();
+            } finally {
+                permits.release();
+            }
+        }).start();
+    }
+}
@@ -0,0 +1,37 @@
+package com.amalitech.hospitalmanagementsystem.util;
+
+import javafx.application.Platform;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/** Hands results of background work back to the JavaFX Application Thread. */
+public final class FxAsync {
+
+    private FxAsync() {}
+
+    /**
+     * Runs {@code onSuccess} or {@code onError} on the FX thread once {@code stage} completes.
+     * Cancelled stages are dropped silently.
+     */
+    public static <T> void whenDone(CompletionStage<T> stage, Consumer<? super T> onSuccess, Consumer<Throwable> onError) {
+        stage.whenComplete((value, ex) -> Platform.runLater(() -> {
+            if (ex == null) {
+                onSuccess.accept(value);
+                return;
+            }
+            Throwable cause = unwrap(ex);
+            if (!(cause instanceof CancellationException)) onError.accept(cause);
+        }));
+    }
+
+    public static Throwable unwrap(Throwable ex) {
+        while ((ex instanceof CompletionException || ex instanceof ExecutionException) && ex.getCause() != null) {
+            ex = ex.getCause();
+        }
+        return ex;
+    }
+}
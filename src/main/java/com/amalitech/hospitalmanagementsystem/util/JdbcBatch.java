@@ -0,0 +1,148 @@
+package com.amalitech.hospitalmanagementsystem.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * JDBC batching helpers for the DAOs' createAll/updateAll methods.
+ * Each call runs one batch on one connection inside a single transaction; with
+ * {@code reWriteBatchedInserts} enabled on the pool, PgJDBC folds the INSERT batch
+ * into multi-row statements.
+ */
+public final class JdbcBatch {
+
+    /** Rows per transaction used by the services when they split large imports. */
+    public static final int CHUNK_SIZE = 500;
+
+    @FunctionalInterface
+    public interface RowBinder<T> {
+        void bind(PreparedStatement ps, T row) throws SQLException;
+    }
+
+    private JdbcBatch() {}
+
+    /**
+     * Inserts all rows and returns their generated keys in row order.
+     * {@code sql} must not contain RETURNING; the driver adds it for {@code keyColumn}.
+     */
+    public static <T> List<Long> insertAll(String sql, String keyColumn, List<T> rows, RowBinder<T> binder)
+            throws SQLException {
+        List<Long> keys = new ArrayList<>(rows.size());
+        if (rows.isEmpty()) return keys;
+        try (Connection con = DBConnectionUtil.getConnection()) {
+            boolean autoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            try (PreparedStatement ps = con.prepareStatement(sql, new String[] { keyColumn })) {
+                for (T row : rows) {
+                    binder.bind(ps, row);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+                try (ResultSet rs = ps.getGeneratedKeys()) {
+                    while (rs.next()) keys.add(rs.getLong(1));
+                }
+                con.commit();
+            } catch (SQLException | RuntimeException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(autoCommit);
+            }
+        }
+        if (keys.size() != rows.size())
+            throw new SQLException("Expected " + rows.size() + " generated keys but got " + keys.size());
+        return keys;
+    }
+
+    /** Runs one UPDATE per row in a single batch; returns the number of rows changed. */
+    public static <T> int updateAll(String sql, List<T> rows, RowBinder<T> binder) throws SQLException {
+        if (rows.isEmpty()) return 0;
+        try (Connection con = DBConnectionUtil.getConnection()) {
+            boolean autoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                for (T row : rows) {
+                    binder.bind(ps, row);
+                    ps.addBatch();
+                }
+                int changed = 0;
+                for (int n : ps.executeBatch()) {
+                    if (n > 0) changed += n;
+                }
+                con.commit();
+                return changed;
+            } catch (SQLException | RuntimeException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    /**
+     * Inserts {@code rows} {@link #CHUNK_SIZE} at a time, each chunk committed on its own by
+     * {@code insert}, and returns all generated keys in row order. {@code afterCommit} (cache
+     * invalidation, change notifications) runs once whenever at least one chunk committed, including
+     * when a later chunk fails; that failure is then rethrown as a {@link PartialBatchException}
+     * carrying the committed ids. A failure in the first chunk, or any failure inside an outer
+     * {@link TransactionManager#inTransaction} (which then rolls back every chunk), is rethrown
+     * unchanged.
+     */
+    public static <T> List<Long> insertInChunks(List<T> rows, Function<List<T>, List<Long>> insert, Runnable afterCommit) {
+        List<Long> ids = new ArrayList<>(rows.size());
+        int committed = 0;
+        try {
+            for (List<T> chunk : chunks(rows)) {
+                ids.addAll(insert.apply(chunk));
+                committed += chunk.size();
+            }
+            return ids;
+        } catch (RuntimeException e) {
+            // inside an outer transaction nothing has committed yet: the whole unit rolls back
+            if (committed == 0 || TransactionManager.isActive()) {
+                committed = 0;
+                throw e;
+            }
+            throw new PartialBatchException(committed, ids, e);
+        } finally {
+            if (committed > 0) afterCommit.run();
+        }
+    }
+
+    /** {@link #insertInChunks} for updates; returns the number of rows changed. */
+    public static <T> int updateInChunks(List<T> rows, ToIntFunction<List<T>> update, Runnable afterCommit) {
+        int changed = 0, committed = 0;
+        try {
+            for (List<T> chunk : chunks(rows)) {
+                changed += update.applyAsInt(chunk);
+                committed += chunk.size();
+            }
+            return changed;
+        } catch (RuntimeException e) {
+            // inside an outer transaction nothing has committed yet: the whole unit rolls back
+            if (committed == 0 || TransactionManager.isActive()) {
+                committed = 0;
+                throw e;
+            }
+            throw new PartialBatchException(committed, List.of(), e);
+        } finally {
+            if (committed > 0) afterCommit.run();
+        }
+    }
+
+    /** Splits {@code rows} into consecutive views of at most {@link #CHUNK_SIZE} elements. */
+    public static <T> List<List<T>> chunks(List<T> rows) {
+        List<List<T>> out = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i += CHUNK_SIZE) {
+            out.add(rows.subList(i, Math.min(rows.size(), i + CHUNK_SIZE)));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,93 @@
+package com.amalitech.hospitalmanagementsystem.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazily mapped query results for the DAOs' streamAll methods.
+ * PgJDBC only honours the fetch size with autocommit off, so the query runs in a read-only
+ * transaction and the driver pulls {@code fetchSize} rows per round-trip through a server-side
+ * cursor instead of buffering the whole result set.
+ * <p>
+ * The stream owns a pooled connection until it is closed: always use try-with-resources.
+ * <pre>
+ *   try (Stream&lt;Appointment&gt; s = appointmentDao.streamAll(JdbcStream.DEFAULT_FETCH_SIZE)) { ... }
+ * </pre>
+ */
+public final class JdbcStream {
+
+    public static final int DEFAULT_FETCH_SIZE = 1_000;
+
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    private JdbcStream() {}
+
+    public static <T> Stream<T> query(String sql, int fetchSize, RowMapper<T> mapper) {
+        if (fetchSize <= 0) throw new IllegalArgumentException("Fetch size must be > 0");
+        // inside a TransactionManager unit of work the transaction is already open; leave it alone
+        boolean ownTransaction = !TransactionManager.isActive();
+        Connection con = null;
+        PreparedStatement ps = null;
+        ResultSet rs = null;
+        try {
+            con = DBConnectionUtil.getConnection();
+            if (ownTransaction) {
+                con.setAutoCommit(false);
+                con.setReadOnly(true);
+            }
+            ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            rs = ps.executeQuery();
+        } catch (SQLException e) {
+            release(con, ps, rs, ownTransaction);
+            throw new RuntimeException("Stream query failed: " + e.getMessage(), e);
+        }
+
+        final Connection c = con;
+        final PreparedStatement s = ps;
+        final ResultSet r = rs;
+        Spliterator<T> rows = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> action) {
+                try {
+                    if (!r.next()) return false;
+                    action.accept(mapper.map(r));
+                    return true;
+                } catch (SQLException e) {
+                    throw new RuntimeException("Stream read failed: " + e.getMessage(), e);
+                }
+            }
+        };
+        return StreamSupport.stream(rows, false).onClose(() -> release(c, s, r, ownTransaction));
+    }
+
+    private static void release(Connection con, PreparedStatement ps, ResultSet rs, boolean ownTransaction) {
+        try {
+            if (rs != null) rs.close();
+            if (ps != null) ps.close();
+        } catch (SQLException ignored) {
+        }
+        if (con == null) return;
+        try {
+            if (ownTransaction) {
+                con.commit();    // nothing was written; just ends the read-only transaction
+                con.setReadOnly(false);
+                con.setAutoCommit(true);
+            }
+        } catch (SQLException ignored) {
+        } finally {
+            try { con.close(); } catch (SQLException ignored) { }
+        }
+    }
+}
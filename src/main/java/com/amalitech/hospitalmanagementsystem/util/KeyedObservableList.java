@@ -0,0 +1,123 @@
+package com.amalitech.hospitalmanagementsystem.util;
+
+import javafx.collections.ModifiableObservableListBase;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Observable list of rows identified by a key (usually the database id) that can take a freshly
+ * loaded result with {@link #merge(List)} instead of {@code setAll}.
+ * <p>
+ * A merge matches rows by key in O(n) with hash maps and fires one change event holding only the
+ * removed, inserted and changed rows; rows whose content is unchanged keep their instance, so a
+ * TableView keeps its selection and scroll position and repaints only the rows that differ.
+ * Not thread-safe; like any list behind a control, use it on the FX thread.
+ */
+public class KeyedObservableList<T> extends ModifiableObservableListBase<T> {
+
+    private final Function<? super T, ?> keyOf;
+    private final BiPredicate<? super T, ? super T> sameContent;
+    private ArrayList<T> rows = new ArrayList<>();
+
+    /** Every row present in both lists counts as changed (e.g. models that are re-read each time). */
+    public KeyedObservableList(Function<? super T, ?> keyOf) {
+        this(keyOf, (a, b) -> a == b);
+    }
+
+    /** {@code sameContent} decides whether a row with the same key needs to be replaced and repainted. */
+    public KeyedObservableList(Function<? super T, ?> keyOf, BiPredicate<? super T, ? super T> sameContent) {
+        this.keyOf = Objects.requireNonNull(keyOf);
+        this.sameContent = Objects.requireNonNull(sameContent);
+    }
+
+    /** Makes this list equal to {@code source}, in the order of {@code source}, with minimal changes. */
+    public void merge(List<? extends T> source) {
+        Map<Object, T> incoming = new HashMap<>(Math.max(16, source.size() * 2));
+        for (T row : source) incoming.put(keyOf.apply(row), row);
+        if (incoming.size() != source.size()) {      // duplicate keys: no row identity to preserve
+            setAll(source);
+            return;
+        }
+
+        beginChange();
+        try {
+            // 1. drop rows that are gone, keeping the survivors in their current order
+            ArrayList<T> kept = new ArrayList<>(Math.min(rows.size(), source.size()));
+            Map<Object, T> keptByKey = new HashMap<>(Math.max(16, source.size() * 2));
+            for (T old : rows) {
+                Object key = keyOf.apply(old);
+                if (incoming.containsKey(key) && !keptByKey.containsKey(key)) {
+                    kept.add(old);
+                    keptByKey.put(key, old);
+                } else {
+                    nextRemove(kept.size(), old);
+                }
+            }
+            rows = kept;
+
+            // 2. survivors moved relative to each other (e.g. a re-sort): replace the lot
+            int k = 0;
+            for (T row : source) {
+                Object key = keyOf.apply(row);
+                if (!keptByKey.containsKey(key)) continue;
+                if (!Objects.equals(key, keyOf.apply(kept.get(k++)))) {
+                    rows = new ArrayList<>(source);
+                    modCount++;
+                    nextReplace(0, rows.size(), kept);
+                    return;
+                }
+            }
+
+            // 3. walk the new order: insert new rows, replace changed ones, keep the rest
+            ArrayList<T> result = new ArrayList<>(source.size());
+            for (int i = 0; i < source.size(); i++) {
+                T row = source.get(i);
+                T old = keptByKey.get(keyOf.apply(row));
+                if (old == null) {
+                    result.add(row);
+                    nextAdd(i, i + 1);
+                } else if (sameContent.test(old, row)) {
+                    result.add(old);
+                } else {
+                    result.add(row);
+                    nextSet(i, old);
+                }
+            }
+            rows = result;
+            modCount++;
+        } finally {
+            endChange();
+        }
+    }
+
+    @Override
+    public T get(int index) {
+        return rows.get(index);
+    }
+
+    @Override
+    public int size() {
+        return rows.size();
+    }
+
+    @Override
+    protected void doAdd(int index, T element) {
+        rows.add(index, element);
+    }
+
+    @Override
+    protected T doSet(int index, T element) {
+        return rows.set(index, element);
+    }
+
+    @Override
+    protected T doRemove(int index) {
+        return rows.remove(index);
+    }
+}
@@ -0,0 +1,39 @@
+package com.amalitech.hospitalmanagementsystem.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * Tracks the most recent background request for one view (a table load, a search, ...).
+ * Submitting a new request cancels the previous one, and results of superseded
+ * requests are never applied. Must only be used from the FX thread.
+ * <p>
+ * Cancelling only drops the result: a request still queued on {@link DbExecutor} is skipped
+ * ({@code supplyAsync} does not run a task whose future is already complete), but one already
+ * running is neither interrupted nor stopped at the database, so its query finishes and holds its
+ * pool connection until then. Keep superseded work cheap rather than relying on cancellation.
+ */
+public class LatestRequest<T> {
+
+    private CompletableFuture<? extends T> current;
+
+    public void submit(CompletableFuture<? extends T> future, Consumer<? super T> onSuccess, Consumer<Throwable> onError) {
+        cancel();
+        current = future;
+        FxAsync.whenDone(future,
+                value -> { if (current == future) { current = null; onSuccess.accept(value); } },
+                ex -> { if (current == future) { current = null; onError.accept(ex); } });
+    }
+
+    public boolean isActive() {
+        return current != null;
+    }
+
+    /** Stops the current result from being applied; see the class comment for what still runs. */
+    public void cancel() {
+        if (current != null) {
+            current.cancel(true);
+            current = null;
+        }
+    }
+}
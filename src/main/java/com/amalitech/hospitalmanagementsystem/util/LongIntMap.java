@@ -0,0 +1,115 @@
+package com.amalitech.hospitalmanagementsystem.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing {@code long -> int} map over parallel primitive arrays (no boxing, no entry
+ * objects). Absent keys read as {@code -1}, so values must be non-negative.
+ * <p>
+ * Not thread-safe; callers guard it with their own lock.
+ */
+public final class LongIntMap {
+
+    @FunctionalInterface
+    public interface Visitor {
+        void visit(long key, int value);
+    }
+
+    private long[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int mask;
+    private int size;
+
+    public LongIntMap(int expected) {
+        int cap = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        allocate(cap);
+    }
+
+    public int get(long key) {
+        for (int i = hash(key) & mask; used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i];
+        }
+        return -1;
+    }
+
+    public void put(long key, int value) {
+        if (value < 0) throw new IllegalArgumentException("value must be >= 0");
+        int i = hash(key) & mask;
+        for (; used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) { values[i] = value; return; }
+        }
+        used[i] = true;
+        keys[i] = key;
+        values[i] = value;
+        if (++size * 2 > keys.length) rehash(keys.length << 1);
+    }
+
+    public boolean remove(long key) {
+        for (int i = hash(key) & mask; used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                deleteSlot(i);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Visits every entry in no particular order; the map must not be modified meanwhile. */
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) visitor.visit(keys[i], values[i]);
+        }
+    }
+
+    // Backward-shift deletion keeps probe chains intact without tombstones
+    private void deleteSlot(int hole) {
+        used[hole] = false;
+        int j = hole;
+        while (true) {
+            j = (j + 1) & mask;
+            if (!used[j]) return;
+            int home = hash(keys[j]) & mask;
+            boolean stays = hole <= j ? (hole < home && home <= j) : (hole < home || home <= j);
+            if (stays) continue;
+            keys[hole] = keys[j];
+            values[hole] = values[j];
+            used[hole] = true;
+            used[j] = false;
+            hole = j;
+        }
+    }
+
+    private void rehash(int cap) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(cap);
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) put(oldKeys[i], oldValues[i]);
+        }
+    }
+
+    private void allocate(int cap) {
+        keys = new long[cap];
+        values = new int[cap];
+        used = new boolean[cap];
+        mask = cap - 1;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
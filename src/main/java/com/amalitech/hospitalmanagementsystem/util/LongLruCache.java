@@ -0,0 +1,160 @@
+package com.amalitech.hospitalmanagementsystem.util;
+
+/**
+ * Fixed-capacity LRU map keyed by primitive {@code long}.
+ * Keys live in a linear-probing table over parallel arrays, so lookups do not box and
+ * the cache never allocates after construction. The least recently used entry is
+ * evicted when a new key arrives at capacity.
+ * <p>
+ * Not thread-safe; callers guard it with their own lock.
+ */
+public final class LongLruCache<V> {
+
+    private final int capacity;
+    private final long[] keys;
+    private final Object[] values;
+    private final int[] prev;
+    private final int[] next;
+    private final int[] slots;   // 0 = empty, otherwise entry index + 1
+    private final int mask;
+
+    private int head = -1;       // most recently used
+    private int tail = -1;       // least recently used
+    private int freeHead = -1;   // entries released by remove(), chained through next[]
+    private int used;            // entries handed out so far
+    private int size;
+
+    public LongLruCache(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be > 0");
+        this.capacity = capacity;
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.prev = new int[capacity];
+        this.next = new int[capacity];
+        // keep the probe table at most half full
+        int tableSize = Integer.highestOneBit(Math.max(2, capacity * 2 - 1)) << 1;
+        this.slots = new int[tableSize];
+        this.mask = tableSize - 1;
+    }
+
+    /** Returns the value for {@code key} and marks it most recently used, or null. */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int s = slotOf(key);
+        if (s < 0) return null;
+        int e = slots[s] - 1;
+        moveToFront(e);
+        return (V) values[e];
+    }
+
+    public boolean containsKey(long key) {
+        return slotOf(key) >= 0;
+    }
+
+    public void put(long key, V value) {
+        int s = slotOf(key);
+        if (s >= 0) {
+            int e = slots[s] - 1;
+            values[e] = value;
+            moveToFront(e);
+            return;
+        }
+        if (size == capacity) remove(keys[tail]);
+
+        int e = allocate();
+        keys[e] = key;
+        values[e] = value;
+        int i = hash(key) & mask;
+        while (slots[i] != 0) i = (i + 1) & mask;
+        slots[i] = e + 1;
+        linkFront(e);
+        size++;
+    }
+
+    public boolean remove(long key) {
+        int s = slotOf(key);
+        if (s < 0) return false;
+        int e = slots[s] - 1;
+        deleteSlot(s);
+        unlink(e);
+        values[e] = null;
+        next[e] = freeHead;
+        freeHead = e;
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        java.util.Arrays.fill(slots, 0);
+        java.util.Arrays.fill(values, null);
+        head = tail = freeHead = -1;
+        used = size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private int slotOf(long key) {
+        for (int i = hash(key) & mask; ; i = (i + 1) & mask) {
+            int v = slots[i];
+            if (v == 0) return -1;
+            if (keys[v - 1] == key) return i;
+        }
+    }
+
+    // Backward-shift deletion keeps probe chains intact without tombstones
+    private void deleteSlot(int hole) {
+        slots[hole] = 0;
+        int j = hole;
+        while (true) {
+            j = (j + 1) & mask;
+            int v = slots[j];
+            if (v == 0) return;
+            int home = hash(keys[v - 1]) & mask;
+            boolean stays = hole <= j ? (hole < home && home <= j) : (hole < home || home <= j);
+            if (stays) continue;
+            slots[hole] = v;
+            slots[j] = 0;
+            hole = j;
+        }
+    }
+
+    private int allocate() {
+        if (freeHead >= 0) {
+            int e = freeHead;
+            freeHead = next[e];
+            return e;
+        }
+        return used++;
+    }
+
+    private void moveToFront(int e) {
+        if (e == head) return;
+        unlink(e);
+        linkFront(e);
+    }
+
+    private void linkFront(int e) {
+        prev[e] = -1;
+        next[e] = head;
+        if (head >= 0) prev[head] = e;
+        head = e;
+        if (tail < 0) tail = e;
+    }
+
+    private void unlink(int e) {
+        int p = prev[e], n = next[e];
+        if (p >= 0) next[p] = n; else head = n;
+        if (n >= 0) prev[n] = p; else tail = p;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
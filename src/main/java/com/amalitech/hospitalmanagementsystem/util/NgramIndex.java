@@ -0,0 +1,272 @@
+package com.amalitech.hospitalmanagementsystem.util;
+
+import java.util.Arrays;
+
+/**
+ * In-memory typeahead index: maps each entry's searchable text to posting lists of entry slots,
+ * keyed by n-grams. Every word contributes its 1- and 2-character prefixes plus all of its
+ * trigrams, so short queries match word prefixes and longer ones match anywhere in a word.
+ * <p>
+ * Entries and postings live in parallel primitive arrays; the only per-entry objects are the
+ * display label and normalized text. A query reads the shortest posting list among its grams and
+ * verifies each candidate against the text, so cost scales with that list, not the entry count.
+ * Removed entries leave stale postings behind (filtered at query time) until enough pile up to
+ * rebuild the lists.
+ * <p>
+ * Not thread-safe; callers guard it with their own lock.
+ */
+public final class NgramIndex {
+
+    private static final char BOUNDARY = '\u0001';
+
+    // entry slots
+    private long[] ids = new long[64];
+    private String[] labels = new String[64];
+    private String[] texts = new String[64];     // normalized: lower-case words separated by one space
+    private boolean[] live = new boolean[64];
+    private int[] seen = new int[64];            // query epoch, to skip duplicate/stale postings
+    private int slotCount;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private final LongIntMap slotOfId = new LongIntMap(64);
+
+    // postings: gram -> list index -> int[] of slots
+    private final LongIntMap listOfGram = new LongIntMap(1024);
+    private int[][] lists = new int[256][];
+    private int[] listSizes = new int[256];
+    private int listCount;
+    private long livePostings;
+    private long stalePostings;
+
+    private int epoch;
+
+    /** Adds or replaces the entry for {@code id}. */
+    public void put(long id, String label, String searchText) {
+        remove(id);
+        int slot = freeCount > 0 ? freeSlots[--freeCount] : newSlot();
+        ids[slot] = id;
+        labels[slot] = label;
+        texts[slot] = normalize(searchText);
+        live[slot] = true;
+        slotOfId.put(id, slot);
+        for (long gram : gramsOf(texts[slot])) {
+            addPosting(gram, slot);
+            livePostings++;
+        }
+    }
+
+    public void remove(long id) {
+        int slot = slotOfId.get(id);
+        if (slot < 0) return;
+        slotOfId.remove(id);
+        live[slot] = false;
+        long n = gramsOf(texts[slot]).length;
+        livePostings -= n;
+        stalePostings += n;
+        labels[slot] = null;
+        texts[slot] = null;
+        if (freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        freeSlots[freeCount++] = slot;
+        if (stalePostings > 1024 && stalePostings > livePostings) rebuildPostings();
+    }
+
+    public void clear() {
+        Arrays.fill(labels, 0, slotCount, null);
+        Arrays.fill(texts, 0, slotCount, null);
+        Arrays.fill(live, 0, slotCount, false);
+        slotCount = freeCount = 0;
+        slotOfId.clear();
+        clearPostings();
+    }
+
+    public int size() {
+        return slotOfId.size();
+    }
+
+    public String labelOf(long id) {
+        int slot = slotOfId.get(id);
+        return slot < 0 ? null : labels[slot];
+    }
+
+    /**
+     * Returns up to {@code k} matching ids, best first. Every query word must occur in the entry:
+     * words under three characters as a word prefix, longer ones anywhere. Word-prefix matches
+     * outrank infix ones; ties go to the shorter text, then the lower id.
+     */
+    public long[] query(String q, int k) {
+        String[] words = normalize(q).split(" ");
+        if (k <= 0 || words.length == 0 || words[0].isEmpty()) return new long[0];
+
+        // drive the scan from the rarest gram across all query words
+        int best = -1;
+        for (String w : words) {
+            for (long gram : queryGramsOf(w)) {
+                int list = listOfGram.get(gram);
+                if (list < 0) return new long[0];        // some word cannot match anything
+                if (best < 0 || listSizes[list] < listSizes[best]) best = list;
+            }
+        }
+
+        int[] topSlots = new int[k];
+        int[] topScores = new int[k];
+        int found = 0;
+        int e = ++epoch;
+        int[] postings = lists[best];
+        for (int i = 0, n = listSizes[best]; i < n; i++) {
+            int slot = postings[i];
+            if (!live[slot] || seen[slot] == e) continue;
+            seen[slot] = e;
+            int score = score(texts[slot], words);
+            if (score < 0) continue;
+            // insertion into the small sorted top-k arrays
+            int pos = found;
+            while (pos > 0 && better(score, slot, topScores[pos - 1], topSlots[pos - 1])) pos--;
+            if (pos >= k) continue;
+            int move = Math.min(found, k - 1) - pos;
+            System.arraycopy(topSlots, pos, topSlots, pos + 1, move);
+            System.arraycopy(topScores, pos, topScores, pos + 1, move);
+            topSlots[pos] = slot;
+            topScores[pos] = score;
+            if (found < k) found++;
+        }
+
+        long[] out = new long[found];
+        for (int i = 0; i < found; i++) out[i] = ids[topSlots[i]];
+        return out;
+    }
+
+    /** Lower-cases and turns every run of non-alphanumerics into one space. */
+    public static String normalize(String s) {
+        if (s == null) return "";
+        StringBuilder b = new StringBuilder(s.length());
+        boolean space = true;
+        for (int i = 0; i < s.length(); i++) {
+            char c = Character.toLowerCase(s.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                b.append(c);
+                space = false;
+            } else if (!space) {
+                b.append(' ');
+                space = true;
+            }
+        }
+        int len = b.length();
+        if (len > 0 && b.charAt(len - 1) == ' ') b.setLength(len - 1);
+        return b.toString();
+    }
+
+    // -1 when some word does not match; higher is better
+    private static int score(String text, String[] words) {
+        int score = 0;
+        for (String w : words) {
+            int at = text.indexOf(w);
+            if (at < 0) return -1;
+            boolean wordStart = at == 0 || text.charAt(at - 1) == ' ';
+            if (!wordStart) {
+                if (w.length() < 3) {
+                    // short words only count at a word start; look for one further along
+                    int next = text.indexOf(" " + w);
+                    if (next < 0) return -1;
+                    wordStart = true;
+                }
+            }
+            score += wordStart ? 2 : 1;
+        }
+        if (text.startsWith(words[0])) score++;
+        return score;
+    }
+
+    private boolean better(int score, int slot, int otherScore, int otherSlot) {
+        if (score != otherScore) return score > otherScore;
+        int len = texts[slot].length(), otherLen = texts[otherSlot].length();
+        if (len != otherLen) return len < otherLen;
+        return ids[slot] < ids[otherSlot];
+    }
+
+    private static long[] gramsOf(String text) {
+        long[] grams = new long[text.length() * 3 + 2];
+        int n = 0;
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf(' ', start);
+            if (end < 0) end = text.length();
+            String w = text.substring(start, end);
+            n = addWordGrams(w, grams, n);
+            start = end + 1;
+        }
+        // a word may repeat grams; keep each slot once per list
+        Arrays.sort(grams, 0, n);
+        int u = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || grams[i] != grams[i - 1]) grams[u++] = grams[i];
+        }
+        return Arrays.copyOf(grams, u);
+    }
+
+    private static int addWordGrams(String w, long[] grams, int n) {
+        grams[n++] = gram(BOUNDARY, w.charAt(0), '\0');
+        if (w.length() >= 2) grams[n++] = gram(BOUNDARY, w.charAt(0), w.charAt(1));
+        for (int i = 0; i + 3 <= w.length(); i++) grams[n++] = gram(w.charAt(i), w.charAt(i + 1), w.charAt(i + 2));
+        return n;
+    }
+
+    private static long[] queryGramsOf(String w) {
+        if (w.length() == 1) return new long[] { gram(BOUNDARY, w.charAt(0), '\0') };
+        if (w.length() == 2) return new long[] { gram(BOUNDARY, w.charAt(0), w.charAt(1)) };
+        long[] grams = new long[w.length() - 2];
+        for (int i = 0; i < grams.length; i++) grams[i] = gram(w.charAt(i), w.charAt(i + 1), w.charAt(i + 2));
+        return grams;
+    }
+
+    private static long gram(char a, char b, char c) {
+        return ((long) a << 32) | ((long) b << 16) | c;
+    }
+
+    private int newSlot() {
+        if (slotCount == ids.length) {
+            int cap = slotCount * 2;
+            ids = Arrays.copyOf(ids, cap);
+            labels = Arrays.copyOf(labels, cap);
+            texts = Arrays.copyOf(texts, cap);
+            live = Arrays.copyOf(live, cap);
+            seen = Arrays.copyOf(seen, cap);
+        }
+        return slotCount++;
+    }
+
+    private void addPosting(long gram, int slot) {
+        int list = listOfGram.get(gram);
+        if (list < 0) {
+            if (listCount == lists.length) {
+                lists = Arrays.copyOf(lists, listCount * 2);
+                listSizes = Arrays.copyOf(listSizes, listCount * 2);
+            }
+            list = listCount++;
+            lists[list] = new int[4];
+            listSizes[list] = 0;
+            listOfGram.put(gram, list);
+        }
+        int size = listSizes[list];
+        if (size == lists[list].length) lists[list] = Arrays.copyOf(lists[list], size * 2);
+        lists[list][size] = slot;
+        listSizes[list] = size + 1;
+    }
+
+    private void clearPostings() {
+        listOfGram.clear();
+        Arrays.fill(lists, 0, listCount, null);
+        listCount = 0;
+        livePostings = stalePostings = 0;
+    }
+
+    private void rebuildPostings() {
+        clearPostings();
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (!live[slot]) continue;
+            for (long gram : gramsOf(texts[slot])) {
+                addPosting(gram, slot);
+                livePostings++;
+            }
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.amalitech.hospitalmanagementsystem.util;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+import javafx.scene.control.IndexedCell;
+import javafx.scene.control.TableView;
+import javafx.scene.control.skin.VirtualFlow;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Keeps a sliding window of keyset pages behind a TableView.
+ * Pages are fetched in the background when the user scrolls near either edge of the
+ * window, and rows beyond {@code maxPages * pageSize} are evicted from the opposite edge.
+ */
+public class PagedTableLoader<T> {
+
+    /** Keyset page source; pages must be returned in display order. */
+    public interface PageSource<T> {
+        CompletableFuture<List<T>> after(T anchor, int limit);   // anchor null -> first page
+        CompletableFuture<List<T>> before(T anchor, int limit);
+
+        /** Whether {@code anchor} can be paged from; false makes the loader start over from the first page. */
+        default boolean knows(T anchor) {
+            return true;
+        }
+
+        /** Told about a row deleted from the data, for sources that track positions. */
+        default void removed(T row) {}
+
+        static <T> PageSource<T> of(BiFunction<T, Integer, CompletableFuture<List<T>>> after,
+                                    BiFunction<T, Integer, CompletableFuture<List<T>>> before) {
+            return new PageSource<>() {
+                @Override public CompletableFuture<List<T>> after(T anchor, int limit) { return after.apply(anchor, limit); }
+                @Override public CompletableFuture<List<T>> before(T anchor, int limit) { return before.apply(anchor, limit); }
+            };
+        }
+
+        /**
+         * Adapts an offset/limit query (e.g. a ranked search with no usable seek key) by remembering
+         * the offset of every row it has returned, keyed by {@code keyOf}. Rows it did not return
+         * (e.g. inserted by a live update) are unknown anchors; a removed row shifts the offsets of
+         * the rows after it down by one.
+         */
+        static <T> PageSource<T> ofOffsets(BiFunction<Integer, Integer, CompletableFuture<List<T>>> fetch,
+                                           Function<T, ?> keyOf) {
+            return new OffsetPageSource<>(fetch, keyOf);
+        }
+    }
+
+    private static final class OffsetPageSource<T> implements PageSource<T> {
+        private final BiFunction<Integer, Integer, CompletableFuture<List<T>>> fetch;
+        private final Function<T, ?> keyOf;
+        private final Map<Object, Integer> offsets = new ConcurrentHashMap<>();
+
+        OffsetPageSource(BiFunction<Integer, Integer, CompletableFuture<List<T>>> fetch, Function<T, ?> keyOf) {
+            this.fetch = fetch;
+            this.keyOf = keyOf;
+        }
+
+        @Override
+        public CompletableFuture<List<T>> after(T anchor, int limit) {
+            if (anchor == null) {
+                offsets.clear();
+                return load(0, limit);
+            }
+            Integer last = offsets.get(keyOf.apply(anchor));
+            return last == null ? unknown() : load(last + 1, limit);
+        }
+
+        @Override
+        public CompletableFuture<List<T>> before(T anchor, int limit) {
+            Integer end = offsets.get(keyOf.apply(anchor));
+            if (end == null) return unknown();
+            if (end == 0) return CompletableFuture.completedFuture(List.of());
+            int start = Math.max(0, end - limit);
+            return load(start, end - start);
+        }
+
+        @Override
+        public boolean knows(T anchor) {
+            return offsets.containsKey(keyOf.apply(anchor));
+        }
+
+        @Override
+        public void removed(T row) {
+            Integer gone = offsets.remove(keyOf.apply(row));
+            if (gone != null) offsets.replaceAll((key, offset) -> offset > gone ? offset - 1 : offset);
+        }
+
+        private CompletableFuture<List<T>> load(int offset, int limit) {
+            return fetch.apply(offset, limit).thenApply(page -> {
+                for (int i = 0; i < page.size(); i++) offsets.put(keyOf.apply(page.get(i)), offset + i);
+                return page;
+            });
+        }
+
+        private static <T> CompletableFuture<List<T>> unknown() {
+            return CompletableFuture.failedFuture(new IllegalStateException("Row was not loaded through this page source"));
+        }
+    }
+
+    private final TableView<T> table;
+    private final ObservableList<T> items;
+    private final int pageSize;
+    private final int maxRows;
+    private final LatestRequest<List<T>> pending = new LatestRequest<>();
+
+    private PageSource<T> source;
+    private VirtualFlow<?> flow;
+    private boolean moreAfter;
+    private boolean moreBefore;
+    private Consumer<Throwable> onError = ex -> {};
+
+    public PagedTableLoader(TableView<T> table, ObservableList<T> items, int pageSize, int maxPages) {
+        if (pageSize <= 0 || maxPages < 2) throw new IllegalArgumentException("pageSize > 0 and maxPages >= 2 required");
+        this.table = table;
+        this.items = items;
+        this.pageSize = pageSize;
+        this.maxRows = pageSize * maxPages;
+
+        table.setItems(items);
+        table.skinProperty().addListener((obs, oldSkin, skin) -> { if (skin != null) attachFlow(); });
+        if (table.getSkin() != null) attachFlow();
+    }
+
+    public void setOnError(Consumer<Throwable> onError) {
+        this.onError = onError;
+    }
+
+    /** Switches to a new source and loads its first page, superseding any in-flight fetch. */
+    public void setSource(PageSource<T> source) {
+        this.source = source;
+        reload();
+    }
+
+    /** Tells the source a row was deleted, e.g. before a live update removes it from the window. */
+    public void removed(T row) {
+        if (source != null) source.removed(row);
+    }
+
+    /** Drops the current window and loads the first page again. */
+    public void reload() {
+        if (source == null) return;
+        pending.submit(source.after(null, pageSize), page -> {
+            moreAfter = page.size() == pageSize;
+            moreBefore = false;
+            // a keyed list keeps the selection on rows that are still in the first page
+            if (items instanceof KeyedObservableList<T> keyed) keyed.merge(page);
+            else items.setAll(page);
+            if (!items.isEmpty()) table.scrollTo(0);
+        }, onError);
+    }
+
+    private void attachFlow() {
+        // The VirtualFlow is created by the skin; look it up once it is in place
+        Platform.runLater(() -> {
+            if (table.lookup(".virtual-flow") instanceof VirtualFlow<?> vf && vf != flow) {
+                flow = vf;
+                flow.positionProperty().addListener((obs, o, n) -> onScroll());
+            }
+        });
+    }
+
+    private void onScroll() {
+        if (pending.isActive() || flow == null || source == null || items.isEmpty()) return;
+        IndexedCell<?> first = flow.getFirstVisibleCell();
+        IndexedCell<?> last = flow.getLastVisibleCell();
+        if (first == null || last == null) return;
+
+        int prefetch = pageSize / 2;
+        if (moreAfter && last.getIndex() >= items.size() - prefetch) {
+            T anchor = items.get(items.size() - 1);
+            if (!source.knows(anchor)) reload();
+            else pending.submit(source.after(anchor, pageSize), this::appendPage, onError);
+        } else if (moreBefore && first.getIndex() <= prefetch) {
+            T anchor = items.get(0);
+            if (!source.knows(anchor)) reload();
+            else pending.submit(source.before(anchor, pageSize), this::prependPage, onError);
+        }
+    }
+
+    private void appendPage(List<T> page) {
+        moreAfter = page.size() == pageSize;
+        if (page.isEmpty()) return;
+
+        int firstVisible = firstVisibleIndex();
+        items.addAll(page);
+        int overflow = items.size() - maxRows;
+        if (overflow > 0) {
+            items.remove(0, overflow);
+            moreBefore = true;
+            table.scrollTo(Math.max(0, firstVisible - overflow));
+        }
+    }
+
+    private void prependPage(List<T> page) {
+        moreBefore = page.size() == pageSize;
+        if (page.isEmpty()) return;
+
+        int firstVisible = firstVisibleIndex();
+        items.addAll(0, page);
+        int overflow = items.size() - maxRows;
+        if (overflow > 0) {
+            items.remove(items.size() - overflow, items.size());
+            moreAfter = true;
+        }
+        table.scrollTo(firstVisible + page.size());
+    }
+
+    private int firstVisibleIndex() {
+        IndexedCell<?> first = flow == null ? null : flow.getFirstVisibleCell();
+        return first == null ? 0 : first.getIndex();
+    }
+}
@@ -0,0 +1,30 @@
+package com.amalitech.hospitalmanagementsystem.util;
+
+import java.util.List;
+
+/**
+ * A chunked bulk write failed after some of its chunks had committed. {@link #committedRows()}
+ * rows, the first ones of the batch in order, are in the database (their ids, for inserts, are in
+ * {@link #committedIds()}); the rest were not written. The cause is the failure of the next chunk.
+ */
+public class PartialBatchException extends RuntimeException {
+
+    private final int committedRows;
+    private final List<Long> committedIds;
+
+    public PartialBatchException(int committedRows, List<Long> committedIds, RuntimeException cause) {
+        super("Rows 1-" + committedRows + " were saved; row " + (committedRows + 1) + " onward failed: "
+                + cause.getMessage(), cause);
+        this.committedRows = committedRows;
+        this.committedIds = List.copyOf(committedIds);
+    }
+
+    public int committedRows() {
+        return committedRows;
+    }
+
+    /** Generated keys of the committed rows, in row order; empty for updates. */
+    public List<Long> committedIds() {
+        return committedIds;
+    }
+}
@@ -0,0 +1,20 @@
+package com.amalitech.hospitalmanagementsystem.util;
+
+/**
+ * LIKE patterns built from user input. Wildcards typed by the user are matched literally, so the
+ * SQL must declare the escape character: {@code column LIKE ? ESCAPE '\'}.
+ */
+public final class SqlLike {
+
+    private SqlLike() {}
+
+    /** Escapes {@code \}, {@code %} and {@code _} in {@code s}. */
+    public static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    /** Pattern matching values that contain {@code s} anywhere. */
+    public static String contains(String s) {
+        return "%" + escape(s) + "%";
+    }
+}
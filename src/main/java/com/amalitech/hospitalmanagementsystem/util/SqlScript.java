@@ -0,0 +1,75 @@
+package com.amalitech.hospitalmanagementsystem.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the SQL scripts bundled under {@code src/main/resources/db}.
+ * Statements end with a semicolon at the end of a line; lines starting with {@code --} are
+ * comments. Semicolons inside a {@code $$ ... $$} body (functions, DO blocks) do not end a statement.
+ */
+public final class SqlScript {
+
+    private SqlScript() {}
+
+    /** Executes every statement of the classpath resource {@code path}, in order, on one connection. */
+    public static void run(String path) throws SQLException {
+        try (Connection con = DBConnectionUtil.getConnection();
+             Statement st = con.createStatement()) {
+            for (String sql : statements(read(path))) st.execute(sql);
+        }
+    }
+
+    /**
+     * Runs {@code path} only if {@code probeSql}, a query returning one boolean, says its objects
+     * are not all there yet. Once installed, starting the application needs no DDL rights and does
+     * not race other workstations re-creating the same objects. Returns whether the script ran.
+     */
+    public static boolean runIfMissing(String path, String probeSql) throws SQLException {
+        try (Connection con = DBConnectionUtil.getConnection();
+             Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery(probeSql)) {
+            if (rs.next() && rs.getBoolean(1)) return false;
+        }
+        run(path);
+        return true;
+    }
+
+    public static String read(String path) {
+        try (InputStream in = SqlScript.class.getResourceAsStream(path)) {
+            if (in == null) throw new IllegalStateException(path + " not found");
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static List<String> statements(String script) {
+        List<String> out = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean inBody = false;
+        for (String line : script.split("\n")) {
+            String trimmed = line.strip();
+            if (!inBody && (trimmed.isEmpty() || trimmed.startsWith("--"))) continue;
+            // an odd number of $$ on a line opens or closes a body
+            if ((trimmed.split("\\$\\$", -1).length - 1) % 2 == 1) inBody = !inBody;
+            if (!inBody && trimmed.endsWith(";")) {
+                current.append(trimmed, 0, trimmed.length() - 1);
+                out.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(trimmed).append('\n');
+            }
+        }
+        if (!current.toString().isBlank()) out.add(current.toString());
+        return out;
+    }
+}
@@ -0,0 +1,113 @@
+package com.amalitech.hospitalmanagementsystem.util;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Unit of work over {@link DBConnectionUtil}: inside {@link #inTransaction(Work)} every
+ * {@code DBConnectionUtil.getConnection()} on the same thread returns the one pooled connection
+ * bound to that unit of work, so existing DAO methods join the transaction unchanged.
+ * <p>
+ * The connection handed to DAOs ignores {@code close()}, {@code commit()}, {@code rollback()} and
+ * {@code setAutoCommit()}; only the outermost {@code inTransaction} call commits or rolls back.
+ * Nested calls simply join the running unit of work. The binding is a {@link ThreadLocal}, which
+ * matches the one-virtual-thread-per-task model of {@link DbExecutor}.
+ */
+public final class TransactionManager {
+
+    @FunctionalInterface
+    public interface Work<T> {
+        T execute() throws SQLException;
+    }
+
+    private static final ThreadLocal<Connection> CURRENT = new ThreadLocal<>();
+
+    private TransactionManager() {}
+
+    /**
+     * Runs {@code work} in one transaction and returns its result. Any exception rolls the
+     * transaction back; SQLExceptions are rethrown wrapped in a RuntimeException.
+     */
+    public static <T> T inTransaction(Work<T> work) {
+        if (CURRENT.get() != null) {
+            try {
+                return work.execute();
+            } catch (SQLException e) {
+                throw new RuntimeException("Transaction failed: " + e.getMessage(), e);
+            }
+        }
+
+        try (Connection con = DBConnectionUtil.openConnection()) {
+            con.setAutoCommit(false);
+            CURRENT.set(joined(con));
+            Throwable failure = null;
+            try {
+                T result = work.execute();
+                con.commit();
+                return result;
+            } catch (SQLException | RuntimeException | Error e) {
+                failure = e;
+                try {
+                    con.rollback();
+                } catch (SQLException rollback) {
+                    e.addSuppressed(rollback);
+                }
+                throw e;
+            } finally {
+                CURRENT.remove();
+                try {
+                    con.setAutoCommit(true);
+                } catch (SQLException reset) {
+                    // never let the reset mask the work's own failure; after a commit the pool
+                    // restores auto-commit itself when the connection is returned
+                    if (failure != null) failure.addSuppressed(reset);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Transaction failed: " + e.getMessage(), e);
+        }
+    }
+
+    /** True when the calling thread is inside {@link #inTransaction(Work)}. */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /** The connection bound to the calling thread's unit of work, or null. */
+    static Connection current() {
+        return CURRENT.get();
+    }
+
+    // Wraps the real connection so DAO try-with-resources and JdbcBatch commits leave it to the owner
+    private static Connection joined(Connection real) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] { Connection.class },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "close", "commit", "setAutoCommit" -> null;
+                    // rollback(Savepoint), setSavepoint and releaseSavepoint reach the real connection
+                    case "rollback" -> {
+                        if (args == null || args.length == 0) yield null;
+                        try {
+                            yield method.invoke(real, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                    case "getAutoCommit" -> false;
+                    case "isClosed" -> real.isClosed();
+                    case "unwrap" -> real.unwrap((Class<?>) args[0]);
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> {
+                        try {
+                            yield method.invoke(real, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                });
+    }
+}
@@ -23,8 +23,11 @@ module com.amalitech.hospitalmanagementsystem {
     requires java.sql;
     requires org.slf4j;
     requires com.zaxxer.hikari;
+    requires org.postgresql.jdbc;
     requires org.mongodb.driver.core;
     requires org.mongodb.driver.sync.client;
+    requires org.mongodb.driver.reactivestreams;
+    requires org.reactivestreams;
     requires org.mongodb.bson;
     requires java.desktop;
 
@@ -33,9 +36,6 @@ module com.amalitech.hospitalmanagementsystem {
     // Allow FXMLLoader to access controller classes
     opens com.amalitech.hospitalmanagementsystem.controller to javafx.fxml;
 
-    // TableView PropertyValueFactory
-    opens com.amalitech.hospitalmanagementsystem.model to javafx.base;
-
     // If you still use FXML in the root package (e.g., HelloController), keep this:
     opens com.amalitech.hospitalmanagementsystem to javafx.fxml;
 
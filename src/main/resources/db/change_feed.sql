@@ -0,0 +1,52 @@
+-- Change feed read by ChangeFeed: every committed row change on the application tables is
+-- announced on channel hms_changes as "table|op|id|origin", where origin is the writer's
+-- application_name (each app instance uses its own, so it can skip its own echoes).
+-- TRUNCATE is announced once per statement with an empty id.
+-- Statements are separated by a semicolon at the end of a line.
+-- The application runs this script only while one of its objects is missing; on an installed
+-- database, apply changes to it by hand.
+
+CREATE OR REPLACE FUNCTION hms_notify_change() RETURNS trigger AS $$
+DECLARE
+    row_id text := '';
+BEGIN
+    IF TG_LEVEL = 'ROW' THEN
+        IF TG_OP = 'DELETE' THEN
+            row_id := to_jsonb(OLD) ->> TG_ARGV[0];
+        ELSE
+            row_id := to_jsonb(NEW) ->> TG_ARGV[0];
+        END IF;
+    END IF;
+    PERFORM pg_notify('hms_changes',
+            TG_TABLE_NAME || '|' || TG_OP || '|' || COALESCE(row_id, '') || '|' || current_setting('application_name'));
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Table and id column of every table in the feed. prescription_items reports its prescription_id.
+DO $$
+DECLARE
+    t text[];
+BEGIN
+    FOREACH t SLICE 1 IN ARRAY ARRAY[
+            ['patients', 'patient_id'],
+            ['doctors', 'doctor_id'],
+            ['departments', 'department_id'],
+            ['appointments', 'appointment_id'],
+            ['prescriptions', 'prescription_id'],
+            ['prescription_items', 'prescription_id'],
+            ['patient_feedback', 'feedback_id'],
+            ['medical_inventory', 'item_id']] LOOP
+        IF NOT EXISTS (SELECT 1 FROM pg_trigger
+                       WHERE tgname = 'hms_change_feed' AND tgrelid = t[1]::regclass) THEN
+            EXECUTE format('CREATE TRIGGER hms_change_feed AFTER INSERT OR UPDATE OR DELETE ON %I '
+                           'FOR EACH ROW EXECUTE FUNCTION hms_notify_change(%L)', t[1], t[2]);
+        END IF;
+        IF NOT EXISTS (SELECT 1 FROM pg_trigger
+                       WHERE tgname = 'hms_change_feed_truncate' AND tgrelid = t[1]::regclass) THEN
+            EXECUTE format('CREATE TRIGGER hms_change_feed_truncate AFTER TRUNCATE ON %I '
+                           'FOR EACH STATEMENT EXECUTE FUNCTION hms_notify_change(%L)', t[1], t[2]);
+        END IF;
+    END LOOP;
+END;
+$$;
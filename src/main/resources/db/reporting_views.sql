@@ -0,0 +1,46 @@
+-- Reporting summaries read by ReportsController through ReportSummaryDao.
+-- Each view has a unique index so it can be refreshed CONCURRENTLY (readers are never blocked).
+-- Windows relative to NOW() are evaluated at refresh time; ReportRefresher refreshes them
+-- when their tables change and at least every reports.refresh.maxAgeMinutes.
+-- Statements are separated by a semicolon at the end of a line.
+-- The application runs this script only while one of its objects is missing; on an installed
+-- database, apply changes to it by hand.
+
+-- Most frequently prescribed medications, last 60 days
+CREATE MATERIALIZED VIEW IF NOT EXISTS mv_top_medications AS
+SELECT i.medication_name, COUNT(*) AS times_prescribed
+FROM prescription_items i
+JOIN prescriptions pr ON pr.prescription_id = i.prescription_id
+WHERE pr.issued_at >= NOW() - INTERVAL '60 days'
+GROUP BY i.medication_name;
+CREATE UNIQUE INDEX IF NOT EXISTS uq_mv_top_medications ON mv_top_medications (medication_name);
+
+-- Last visit per patient (null when the patient has no appointment)
+CREATE MATERIALIZED VIEW IF NOT EXISTS mv_patient_last_visit AS
+SELECT p.patient_id, p.first_name, p.last_name, MAX(a.appointment_date) AS last_visit
+FROM patients p
+LEFT JOIN appointments a ON a.patient_id = p.patient_id
+GROUP BY p.patient_id, p.first_name, p.last_name;
+CREATE UNIQUE INDEX IF NOT EXISTS uq_mv_patient_last_visit ON mv_patient_last_visit (patient_id);
+
+-- Appointments per doctor, last 30 days
+CREATE MATERIALIZED VIEW IF NOT EXISTS mv_doctor_activity AS
+SELECT d.doctor_id, d.first_name || ' ' || d.last_name AS doctor_name, COUNT(a.appointment_id) AS appointment_count
+FROM public.doctors d
+JOIN appointments a ON a.doctor_id = d.doctor_id
+WHERE a.appointment_date >= CURRENT_DATE - INTERVAL '30 days'
+GROUP BY d.doctor_id, doctor_name;
+CREATE UNIQUE INDEX IF NOT EXISTS uq_mv_doctor_activity ON mv_doctor_activity (doctor_id);
+
+-- Upcoming appointments, next 7 days
+CREATE MATERIALIZED VIEW IF NOT EXISTS mv_upcoming_appointments AS
+SELECT a.appointment_id, a.doctor_id, a.appointment_date, a.status, a.reason,
+       p.first_name || ' ' || p.last_name AS patient_name,
+       d.first_name || ' ' || d.last_name AS doctor_name
+FROM appointments a
+JOIN patients p ON p.patient_id = a.patient_id
+JOIN public.doctors d ON d.doctor_id = a.doctor_id
+WHERE a.appointment_date >= NOW()
+  AND a.appointment_date < NOW() + INTERVAL '7 days';
+CREATE UNIQUE INDEX IF NOT EXISTS uq_mv_upcoming_appointments ON mv_upcoming_appointments (appointment_id);
+CREATE INDEX IF NOT EXISTS idx_mv_upcoming_doctor ON mv_upcoming_appointments (doctor_id, appointment_date);